@@ -0,0 +1,614 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.stanbol.commons.indexedgraph;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.apache.clerezza.commons.rdf.BlankNodeOrIRI;
+import org.apache.clerezza.commons.rdf.Graph;
+import org.apache.clerezza.commons.rdf.IRI;
+import org.apache.clerezza.commons.rdf.ImmutableGraph;
+import org.apache.clerezza.commons.rdf.RDFTerm;
+import org.apache.clerezza.commons.rdf.Triple;
+import org.apache.clerezza.commons.rdf.impl.utils.AbstractGraph;
+import org.apache.clerezza.commons.rdf.impl.utils.TripleImpl;
+
+/**
+ * Memory efficient {@link Graph} implementation that can be used as an
+ * alternative to the {@link IndexedGraph}.<p>
+ * {@link RDFTerm}s are dictionary encoded to <code>int</code> ids. Triples
+ * are stored as three sorted <code>int[]</code> arrays with the ids in the
+ * order <ul>
+ * <li> subject, predicate, object [SPO]
+ * <li> predicate, object, subject [POS]
+ * <li> object, subject, predicate [OSP]
+ * </ul>
+ * The {@link #filter(BlankNodeOrIRI, IRI, RDFTerm)} implementation uses a
+ * binary search on the matching index to find the range of matching triples.
+ * {@link Triple} instances are only created while iterating over results.<p>
+ * Added triples are collected in a small - sorted - append buffer that is
+ * merged with the indexes as soon as it is full. Filter requests iterate over
+ * the matching range of the index and the matching triples of the buffer.
+ * Removals directly shift the according entries of the index arrays.<p>
+ * Notes:<ul>
+ * <li> Terms are compared by using {@link Object#equals(Object)} and
+ * {@link Object#hashCode()}.
+ * <li> Terms are not removed from the dictionary if all triples referencing
+ * them are removed.
+ * <li> Iterators fail fast (throw a {@link ConcurrentModificationException})
+ * if the graph is modified other than by {@link Iterator#remove()}.
+ * </ul>
+ */
+public class CompactGraph extends AbstractGraph implements Graph {
+
+    /**
+     * The minimum size of the append buffer (number of triples)
+     */
+    private static final int MIN_BUFFER_SIZE = 256;
+    /**
+     * The maximum size of the append buffer (number of triples)
+     */
+    private static final int MAX_BUFFER_SIZE = 8192;
+
+    private static final int S = 0;
+    private static final int P = 1;
+    private static final int O = 2;
+
+    private static final int SPO = 0;
+    private static final int POS = 1;
+    private static final int OSP = 2;
+    /**
+     * The order of the subject, predicate and object ids within the records
+     * of the {@link #SPO}, {@link #POS} and {@link #OSP} indexes
+     */
+    private static final int[][] ORDER = new int[][]{{S,P,O},{P,O,S},{O,S,P}};
+
+    private static final int[] EMPTY = new int[0];
+
+    private final Map<RDFTerm,Integer> termIds = new HashMap<RDFTerm,Integer>();
+    private RDFTerm[] terms = new RDFTerm[16];
+    private int termCount = 0;
+    /**
+     * The {@link #SPO}, {@link #POS} and {@link #OSP} indexes. Each triple
+     * uses three consecutive <code>int</code>s.
+     */
+    private final int[][] index = new int[][]{EMPTY, EMPTY, EMPTY};
+    /**
+     * The number of triples in the {@link #index}
+     */
+    private int indexSize = 0;
+    /**
+     * Added triples not yet merged with the {@link #index}. Sorted by
+     * subject, predicate, object.
+     */
+    private int[] buffer = new int[MIN_BUFFER_SIZE * 3];
+    /**
+     * The number of triples in the {@link #buffer}
+     */
+    private int bufferSize = 0;
+    /**
+     * Used by iterators to detect concurrent modifications
+     */
+    private int modCount = 0;
+
+    /**
+     * Creates an empty {@link CompactGraph}
+     */
+    public CompactGraph() {
+        super();
+    }
+
+    /**
+     * Creates a {@link CompactGraph} using the passed iterator, the iterator is
+     * consumed before the constructor returns
+     *
+     * @param iterator
+     */
+    public CompactGraph(Iterator<Triple> iterator) {
+        super();
+        load(iterator);
+    }
+
+    /**
+     * Creates a {@link CompactGraph} for the specified collection of triples,
+     * subsequent modification of baseSet do not affect the created instance.
+     *
+     * @param baseCollection the triples
+     */
+    public CompactGraph(Collection<Triple> baseCollection) {
+        super();
+        load(baseCollection.iterator());
+    }
+
+    @Override
+    public ImmutableGraph getImmutableGraph() {
+        return new CompactImmutableGraph(this);
+    }
+
+    /**
+     * Bulk loads the triples of the parsed iterator into the empty indexes
+     * @param iterator the triples
+     */
+    private void load(Iterator<Triple> iterator){
+        int[] records = new int[MIN_BUFFER_SIZE * 3];
+        int n = 0;
+        while(iterator.hasNext()){
+            Triple triple = iterator.next();
+            if(n * 3 == records.length){
+                int[] grown = new int[records.length * 2];
+                System.arraycopy(records, 0, grown, 0, records.length);
+                records = grown;
+            }
+            int offset = n * 3;
+            records[offset + S] = encode(triple.getSubject());
+            records[offset + P] = encode(triple.getPredicate());
+            records[offset + O] = encode(triple.getObject());
+            n++;
+        }
+        sort(records, 0, n);
+        //remove duplicates
+        int unique = 0;
+        for(int i = 0; i < n; i++){
+            if(unique == 0 || compare(records, unique - 1, records, i) != 0){
+                if(unique != i){
+                    System.arraycopy(records, i * 3, records, unique * 3, 3);
+                }
+                unique++;
+            }
+        }
+        index[SPO] = new int[unique * 3];
+        System.arraycopy(records, 0, index[SPO], 0, unique * 3);
+        index[POS] = permute(records, unique, POS);
+        sort(index[POS], 0, unique);
+        index[OSP] = permute(records, unique, OSP);
+        sort(index[OSP], 0, unique);
+        indexSize = unique;
+        adaptBufferSize();
+        modCount++;
+    }
+
+    @Override
+    protected Iterator<Triple> performFilter(BlankNodeOrIRI subject, IRI predicate, RDFTerm object) {
+        int[] pattern = new int[3];
+        pattern[S] = subject == null ? -1 : getId(subject);
+        pattern[P] = predicate == null ? -1 : getId(predicate);
+        pattern[O] = object == null ? -1 : getId(object);
+        if((subject != null && pattern[S] < 0) || (predicate != null && pattern[P] < 0) ||
+                (object != null && pattern[O] < 0)){
+            //one of the parsed terms is not used by this graph
+            return Collections.<Triple>emptyList().iterator();
+        }
+        final int perm;
+        if (subject != null && (object == null || predicate != null)) {
+            perm = SPO; // [S,n,n], [S,P,n], [S,P,O]
+        } else if (predicate != null) {
+            perm = POS; // [n,P,n], [n,P,O]
+        } else if (object != null) {
+            perm = OSP; // [n,n,O], [S,n,O]
+        } else {
+            perm = SPO; // [n,n,n]
+        }
+        //bound components are a prefix in the selected permutation
+        int[] order = ORDER[perm];
+        int[] high = new int[3];
+        int[] low = new int[3];
+        for(int j = 0; j < 3; j++){
+            int id = pattern[order[j]];
+            low[j] = id;
+            high[j] = id < 0 ? Integer.MAX_VALUE : id;
+        }
+        int from = lowerBound(index[perm], indexSize, low[0], low[1], low[2]);
+        int to = upperBound(index[perm], indexSize, high[0], high[1], high[2]);
+        return new TripleIterator(perm, pattern, from, to);
+    }
+
+    @Override
+    protected boolean performAdd(Triple triple) {
+        int s = encode(triple.getSubject());
+        int p = encode(triple.getPredicate());
+        int o = encode(triple.getObject());
+        if(find(index[SPO], indexSize, s, p, o) >= 0){
+            return false;
+        }
+        int pos = lowerBound(buffer, bufferSize, s, p, o);
+        if(pos < bufferSize && compare(buffer, pos, s, p, o) == 0){
+            return false;
+        }
+        int offset = pos * 3;
+        System.arraycopy(buffer, offset, buffer, offset + 3, (bufferSize - pos) * 3);
+        buffer[offset + S] = s;
+        buffer[offset + P] = p;
+        buffer[offset + O] = o;
+        bufferSize++;
+        modCount++;
+        if(bufferSize * 3 == buffer.length){
+            merge();
+        }
+        return true;
+    }
+
+    @Override
+    protected boolean performRemove(Object t) {
+        if (t instanceof Triple) {
+            Triple triple = (Triple) t;
+            int s = getId(triple.getSubject());
+            int p = getId(triple.getPredicate());
+            int o = getId(triple.getObject());
+            if(s < 0 || p < 0 || o < 0){
+                return false;
+            }
+            if(removeFromIndex(s, p, o) || removeFromBuffer(s, p, o)){
+                modCount++;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public int performSize() {
+        return indexSize + bufferSize;
+    }
+
+    /**
+     * The id of the parsed term
+     * @param term the term
+     * @return the id or <code>-1</code> if the term is not known
+     */
+    private int getId(RDFTerm term){
+        Integer id = termIds.get(term);
+        return id == null ? -1 : id.intValue();
+    }
+
+    /**
+     * Getter for the id of the parsed term. Adds the term to the dictionary
+     * if not yet present.
+     * @param term the term
+     * @return the id
+     */
+    private int encode(RDFTerm term){
+        Integer id = termIds.get(term);
+        if(id == null){
+            if(termCount == terms.length){
+                RDFTerm[] grown = new RDFTerm[terms.length * 2];
+                System.arraycopy(terms, 0, grown, 0, terms.length);
+                terms = grown;
+            }
+            id = Integer.valueOf(termCount);
+            terms[termCount] = term;
+            termCount++;
+            termIds.put(term, id);
+        }
+        return id.intValue();
+    }
+
+    /**
+     * Merges the {@link #buffer} with the {@link #index}
+     */
+    private void merge(){
+        if(bufferSize == 0){
+            return;
+        }
+        index[SPO] = merge(index[SPO], indexSize, buffer, bufferSize);
+        for(int perm = POS; perm <= OSP; perm++){
+            int[] records = permute(buffer, bufferSize, perm);
+            sort(records, 0, bufferSize);
+            index[perm] = merge(index[perm], indexSize, records, bufferSize);
+        }
+        indexSize = indexSize + bufferSize;
+        bufferSize = 0;
+        adaptBufferSize();
+        modCount++;
+    }
+
+    /**
+     * Adapts the size of the (empty) buffer to the size of the index
+     */
+    private void adaptBufferSize() {
+        int size = Math.max(MIN_BUFFER_SIZE, Math.min(MAX_BUFFER_SIZE, indexSize >> 4));
+        if(size * 3 != buffer.length){
+            buffer = new int[size * 3];
+        }
+    }
+
+    /**
+     * Removes the parsed triple from all indexes
+     * @return <code>true</code> if the triple was present in the index
+     */
+    private boolean removeFromIndex(int s, int p, int o){
+        int pos = find(index[SPO], indexSize, s, p, o);
+        if(pos < 0){
+            return false;
+        }
+        remove(index[SPO], indexSize, pos);
+        int[] spo = new int[]{s, p, o};
+        for(int perm = POS; perm <= OSP; perm++){
+            int[] order = ORDER[perm];
+            pos = find(index[perm], indexSize, spo[order[0]], spo[order[1]], spo[order[2]]);
+            remove(index[perm], indexSize, pos);
+        }
+        indexSize--;
+        return true;
+    }
+
+    /**
+     * Removes the parsed triple from the buffer
+     * @return <code>true</code> if the triple was present in the buffer
+     */
+    private boolean removeFromBuffer(int s, int p, int o){
+        int pos = find(buffer, bufferSize, s, p, o);
+        if(pos < 0){
+            return false;
+        }
+        remove(buffer, bufferSize, pos);
+        bufferSize--;
+        return true;
+    }
+
+    /**
+     * Removes the record at the parsed position by shifting all following
+     * records
+     */
+    private static void remove(int[] records, int n, int pos){
+        System.arraycopy(records, (pos + 1) * 3, records, pos * 3, (n - pos - 1) * 3);
+    }
+
+    /**
+     * Creates a copy of the parsed records (in SPO order) with the order of
+     * the parsed permutation. The returned array is NOT sorted.
+     */
+    private static int[] permute(int[] records, int n, int perm){
+        int[] order = ORDER[perm];
+        int[] permuted = new int[n * 3];
+        for(int i = 0; i < n; i++){
+            int offset = i * 3;
+            permuted[offset] = records[offset + order[0]];
+            permuted[offset + 1] = records[offset + order[1]];
+            permuted[offset + 2] = records[offset + order[2]];
+        }
+        return permuted;
+    }
+
+    /**
+     * Merges two sorted record arrays into a new one
+     */
+    private static int[] merge(int[] a, int n, int[] b, int m){
+        int[] merged = new int[(n + m) * 3];
+        int i = 0, j = 0, k = 0;
+        while(i < n && j < m){
+            if(compare(a, i, b, j) < 0){
+                System.arraycopy(a, i * 3, merged, k * 3, 3);
+                i++;
+            } else {
+                System.arraycopy(b, j * 3, merged, k * 3, 3);
+                j++;
+            }
+            k++;
+        }
+        if(i < n){
+            System.arraycopy(a, i * 3, merged, k * 3, (n - i) * 3);
+        } else if(j < m){
+            System.arraycopy(b, j * 3, merged, k * 3, (m - j) * 3);
+        }
+        return merged;
+    }
+
+    /**
+     * Sorts the records in the range <code>[from,to)</code>
+     */
+    private static void sort(int[] records, int from, int to){
+        while(to - from > 16){
+            int mid = ((from + to) >>> 1) * 3;
+            int k0 = records[mid], k1 = records[mid + 1], k2 = records[mid + 2];
+            int i = from, j = to - 1;
+            while(i <= j){
+                while(compare(records, i, k0, k1, k2) < 0){
+                    i++;
+                }
+                while(compare(records, j, k0, k1, k2) > 0){
+                    j--;
+                }
+                if(i <= j){
+                    swap(records, i, j);
+                    i++;
+                    j--;
+                }
+            }
+            //recursion for the smaller part, loop for the larger one
+            if(j - from < to - i){
+                sort(records, from, j + 1);
+                from = i;
+            } else {
+                sort(records, i, to);
+                to = j + 1;
+            }
+        }
+        for(int i = from + 1; i < to; i++){
+            for(int j = i; j > from && compare(records, j - 1, records, j) > 0; j--){
+                swap(records, j - 1, j);
+            }
+        }
+    }
+
+    private static void swap(int[] records, int i, int j){
+        int oi = i * 3, oj = j * 3;
+        for(int c = 0; c < 3; c++){
+            int tmp = records[oi + c];
+            records[oi + c] = records[oj + c];
+            records[oj + c] = tmp;
+        }
+    }
+
+    private static int compare(int[] a, int i, int[] b, int j){
+        int oj = j * 3;
+        return compare(a, i, b[oj], b[oj + 1], b[oj + 2]);
+    }
+
+    private static int compare(int[] records, int i, int k0, int k1, int k2){
+        int offset = i * 3;
+        int c = records[offset];
+        if(c != k0){
+            return c < k0 ? -1 : 1;
+        }
+        c = records[offset + 1];
+        if(c != k1){
+            return c < k1 ? -1 : 1;
+        }
+        c = records[offset + 2];
+        return c == k2 ? 0 : c < k2 ? -1 : 1;
+    }
+
+    /**
+     * The index of the first record <code>&gt;=</code> the parsed key
+     */
+    private static int lowerBound(int[] records, int n, int k0, int k1, int k2){
+        int low = 0, high = n;
+        while(low < high){
+            int mid = (low + high) >>> 1;
+            if(compare(records, mid, k0, k1, k2) < 0){
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * The index of the first record <code>&gt;</code> the parsed key
+     */
+    private static int upperBound(int[] records, int n, int k0, int k1, int k2){
+        int low = 0, high = n;
+        while(low < high){
+            int mid = (low + high) >>> 1;
+            if(compare(records, mid, k0, k1, k2) <= 0){
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * The index of the record equals to the parsed key or <code>-1</code>
+     * if not present
+     */
+    private static int find(int[] records, int n, int k0, int k1, int k2){
+        int pos = lowerBound(records, n, k0, k1, k2);
+        return pos < n && compare(records, pos, k0, k1, k2) == 0 ? pos : -1;
+    }
+
+    /**
+     * Iterates over the matching range of an index and the matching triples of
+     * the {@link CompactGraph#buffer}. Supports {@link #remove()}.
+     */
+    private class TripleIterator implements Iterator<Triple> {
+
+        private final int perm;
+        private final int[] pattern;
+        private int next;
+        private int end;
+        private int bufferNext = 0;
+        private int expectedModCount = modCount;
+        private final int[] current = new int[3];
+        private boolean hasCurrent = false;
+        private boolean currentInBuffer;
+
+        TripleIterator(int perm, int[] pattern, int from, int to){
+            this.perm = perm;
+            this.pattern = pattern;
+            this.next = from;
+            this.end = to;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < end || findInBuffer();
+        }
+
+        /**
+         * Moves {@link #bufferNext} to the next matching triple in the buffer
+         * @return if there is a matching triple
+         */
+        private boolean findInBuffer(){
+            while(bufferNext < bufferSize){
+                int offset = bufferNext * 3;
+                if((pattern[S] < 0 || pattern[S] == buffer[offset + S]) &&
+                        (pattern[P] < 0 || pattern[P] == buffer[offset + P]) &&
+                        (pattern[O] < 0 || pattern[O] == buffer[offset + O])){
+                    return true;
+                }
+                bufferNext++;
+            }
+            return false;
+        }
+
+        @Override
+        public Triple next() {
+            if(modCount != expectedModCount){
+                throw new ConcurrentModificationException();
+            }
+            if(next < end){
+                int[] records = index[perm];
+                int[] order = ORDER[perm];
+                int offset = next * 3;
+                for(int j = 0; j < 3; j++){
+                    current[order[j]] = records[offset + j];
+                }
+                next++;
+                currentInBuffer = false;
+            } else if(findInBuffer()){
+                System.arraycopy(buffer, bufferNext * 3, current, 0, 3);
+                bufferNext++;
+                currentInBuffer = true;
+            } else {
+                throw new NoSuchElementException();
+            }
+            hasCurrent = true;
+            return new TripleImpl((BlankNodeOrIRI)terms[current[S]],
+                (IRI)terms[current[P]], terms[current[O]]);
+        }
+
+        @Override
+        public void remove() {
+            if(!hasCurrent){
+                throw new IllegalStateException();
+            }
+            if(modCount != expectedModCount){
+                throw new ConcurrentModificationException();
+            }
+            if(currentInBuffer){
+                removeFromBuffer(current[S], current[P], current[O]);
+                bufferNext--;
+            } else {
+                removeFromIndex(current[S], current[P], current[O]);
+                next--;
+                end--;
+            }
+            hasCurrent = false;
+            modCount++;
+            expectedModCount = modCount;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.stanbol.commons.indexedgraph;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+import org.apache.clerezza.commons.rdf.Graph;
+import org.apache.clerezza.commons.rdf.IRI;
+import org.apache.clerezza.commons.rdf.Triple;
+import org.apache.clerezza.commons.rdf.impl.utils.TripleImpl;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Runs the tests of the {@link IndexedGraphTest} against the
+ * {@link CompactGraph} and adds tests for merging the append buffer with the
+ * indexes.
+ */
+public class CompactGraphTest extends IndexedGraphTest {
+
+    @Override
+    protected Graph getEmptyGraph() {
+        return new CompactGraph();
+    }
+
+    @Override
+    protected Graph createGraph(Collection<Triple> triples) {
+        return new CompactGraph(triples);
+    }
+
+    @Test
+    public void bufferMerge() {
+        Graph graph = getEmptyGraph();
+        Set<Triple> expected = new HashSet<Triple>();
+        IRI predicate = new IRI("http://example.org/predicate");
+        //add enough triples to merge the append buffer several times
+        for(int i = 0; i < 5000; i++){
+            Triple triple = new TripleImpl(new IRI("http://example.org/s" + (i % 100)),
+                predicate, new IRI("http://example.org/o" + i));
+            expected.add(triple);
+            Assert.assertTrue(graph.add(triple));
+            Assert.assertFalse(graph.add(triple));
+        }
+        Assert.assertEquals(expected.size(), graph.size());
+        int count = 0;
+        for(Iterator<Triple> it = graph.filter(null, predicate, null); it.hasNext();){
+            Assert.assertTrue(expected.contains(it.next()));
+            count++;
+        }
+        Assert.assertEquals(expected.size(), count);
+        count = 0;
+        for(Iterator<Triple> it = graph.filter(new IRI("http://example.org/s42"), null, null); it.hasNext();){
+            Triple triple = it.next();
+            Assert.assertEquals(new IRI("http://example.org/s42"), triple.getSubject());
+            it.remove();
+            count++;
+        }
+        Assert.assertEquals(50, count);
+        Assert.assertEquals(expected.size() - 50, graph.size());
+        Assert.assertFalse(graph.filter(new IRI("http://example.org/s42"), null, null).hasNext());
+        Assert.assertFalse(graph.filter(null, null, new IRI("http://example.org/o42")).hasNext());
+        Assert.assertTrue(graph.filter(null, null, new IRI("http://example.org/o43")).hasNext());
+    }
+
+    @Test
+    public void unknownTerms() {
+        Graph graph = getEmptyGraph();
+        IRI known = new IRI("http://example.org/known");
+        IRI unknown = new IRI("http://example.org/unknown");
+        graph.add(new TripleImpl(known, known, known));
+        Assert.assertFalse(graph.filter(unknown, null, null).hasNext());
+        Assert.assertFalse(graph.filter(null, unknown, known).hasNext());
+        Assert.assertFalse(graph.remove(new TripleImpl(known, known, unknown)));
+        Assert.assertEquals(1, graph.size());
+    }
+}
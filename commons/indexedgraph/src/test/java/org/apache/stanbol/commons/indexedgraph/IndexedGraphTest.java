@@ -66,6 +66,13 @@ public class IndexedGraphTest  extends GraphTest {
     protected Graph getEmptyGraph() {
         return new IndexedGraph();
     }
+    /**
+     * Creates the tested {@link Graph} implementation containing the parsed
+     * triples
+     */
+    protected Graph createGraph(Collection<Triple> triples) {
+        return new IndexedGraph(triples);
+    }
     @Test
     public void bNodeConsitency() {
         Graph mGraph = getEmptyGraph();
@@ -109,7 +116,7 @@ public class IndexedGraphTest  extends GraphTest {
     }
     @Test
     public void iteratorRemove() {
-        Graph itc = new IndexedGraph();
+        Graph itc = getEmptyGraph();
         itc.add(triple1);
         itc.add(triple2);
         itc.add(triple3);
@@ -125,13 +132,13 @@ public class IndexedGraphTest  extends GraphTest {
 
     @Test
     public void removeAll() {
-        Graph itc = new IndexedGraph();
+        Graph itc = getEmptyGraph();
         itc.add(triple1);
         itc.add(triple2);
         itc.add(triple3);
         itc.add(triple4);
         itc.add(triple5);
-        Graph itc2 = new IndexedGraph();
+        Graph itc2 = getEmptyGraph();
         itc2.add(triple1);
         itc2.add(triple3);
         itc2.add(triple5);
@@ -141,7 +148,7 @@ public class IndexedGraphTest  extends GraphTest {
     
     @Test
     public void filterIteratorRemove() {
-        Graph itc = new IndexedGraph();
+        Graph itc = getEmptyGraph();
         itc.add(triple1);
         itc.add(triple2);
         itc.add(triple3);
@@ -157,7 +164,7 @@ public class IndexedGraphTest  extends GraphTest {
 
     @Test(expected=ConcurrentModificationException.class)
     public void remove() {
-        Graph itc = new IndexedGraph();
+        Graph itc = getEmptyGraph();
         itc.add(triple1);
         itc.add(triple2);
         itc.add(triple3);
@@ -227,7 +234,7 @@ public class IndexedGraphTest  extends GraphTest {
         Graph sg = new SimpleGraph(graph);
         log.info("  ... {}: {}",sg.getClass().getSimpleName(), System.currentTimeMillis()-start);
         start = System.currentTimeMillis();
-        Graph ig = new IndexedGraph(graph);
+        Graph ig = createGraph(graph);
         log.info("  ... {}: {}",ig.getClass().getSimpleName(), System.currentTimeMillis()-start);
         //Simple ImmutableGraph reference test
         TestCase testCase = new TestCase(sg, 20, 5, 20); //reduced form 100,5,100
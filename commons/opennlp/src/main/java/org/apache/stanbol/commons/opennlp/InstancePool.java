@@ -0,0 +1,226 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.stanbol.commons.opennlp;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import opennlp.tools.postag.POSTaggerME;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Pool of OpenNLP components (e.g. {@link POSTaggerME}) that use the same
+ * model. While OpenNLP models are thread safe the components using them are
+ * not. Creating a new component for every call re-allocates the beam search
+ * and context generator state, so this pool keeps up to
+ * {@link #getMaxSize()} instances that are {@link #borrow() borrowed} by
+ * callers and MUST BE {@link #release(Object) released} after use:
+ * <pre><code>
+ *    POSTaggerME tagger = pool.borrow();
+ *    try {
+ *        String[] tags = tagger.tag(tokens);
+ *    } finally {
+ *        pool.release(tagger);
+ *    }
+ * </code></pre>
+ * If all instances are borrowed callers wait until one is released. The
+ * number of waits and the time spent waiting are reported by
+ * {@link #getStatistics()}.<p>
+ * This class is thread safe.
+ *
+ * @param <T> the type of the pooled instances
+ */
+public class InstancePool<T> {
+
+    /**
+     * Waits longer than this number of milliseconds are logged on DEBUG level
+     */
+    private static final long LOG_WAIT_THRESHOLD = 100;
+
+    private final Logger log = LoggerFactory.getLogger(InstancePool.class);
+
+    private final String name;
+    private final InstanceFactory<T> factory;
+    private final int maxSize;
+    /**
+     * the idle instances. Used as stack so that recently used instances are
+     * reused first
+     */
+    private final List<T> idle;
+    private int size;
+
+    private long borrowed;
+    private long waits;
+    private long waitTime;
+    private long maxWaitTime;
+
+    /**
+     * Creates a new pool
+     * @param name the name of the pool (used for logging and statistics)
+     * @param factory the factory used to create instances
+     * @param maxSize the maximum number of instances
+     * @throws IllegalArgumentException if the parsed factory is <code>null</code>
+     * or <code>maxSize &lt; 1</code>
+     */
+    public InstancePool(String name, InstanceFactory<T> factory, int maxSize) {
+        if(factory == null){
+            throw new IllegalArgumentException("The parsed InstanceFactory MUST NOT be NULL!");
+        }
+        if(maxSize < 1){
+            throw new IllegalArgumentException("The maximum size of the pool MUST BE >= 1!");
+        }
+        this.name = name;
+        this.factory = factory;
+        this.maxSize = maxSize;
+        this.idle = new ArrayList<T>(maxSize);
+    }
+    /**
+     * The name of this pool
+     * @return the name
+     */
+    public String getName() {
+        return name;
+    }
+    /**
+     * The maximum number of instances managed by this pool
+     * @return the maximum number of instances
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+    /**
+     * Borrows an instance from the pool. If no idle instance is available and
+     * the maximum size is not yet reached a new instance is created. Otherwise
+     * this waits until an other thread releases an instance.
+     * @return the instance. MUST BE {@link #release(Object) released} after use
+     * @throws IllegalStateException if the calling thread is interrupted
+     * while waiting for an instance
+     */
+    public T borrow() {
+        synchronized (idle) {
+            borrowed++;
+            long start = -1;
+            while(idle.isEmpty() && size >= maxSize){
+                if(start < 0){
+                    start = System.nanoTime();
+                    waits++;
+                }
+                try {
+                    idle.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for an "
+                        + "instance of pool " + name, e);
+                }
+            }
+            if(start >= 0){
+                long waited = System.nanoTime() - start;
+                waitTime = waitTime + waited;
+                if(waited > maxWaitTime){
+                    maxWaitTime = waited;
+                }
+                if(TimeUnit.NANOSECONDS.toMillis(waited) > LOG_WAIT_THRESHOLD){
+                    log.debug("waited {}ms for an instance of pool {} (size: {})",
+                        new Object[]{TimeUnit.NANOSECONDS.toMillis(waited), name, maxSize});
+                }
+            }
+            if(!idle.isEmpty()){
+                return idle.remove(idle.size() - 1);
+            }
+            size++;
+        }
+        //create the new instance outside of the lock
+        boolean created = false;
+        try {
+            T instance = factory.create();
+            created = true;
+            return instance;
+        } finally {
+            if(!created){
+                synchronized (idle) {
+                    size--;
+                    idle.notify();
+                }
+            }
+        }
+    }
+    /**
+     * Returns a {@link #borrow() borrowed} instance to the pool
+     * @param instance the instance. <code>null</code> is ignored
+     */
+    public void release(T instance) {
+        if(instance == null){
+            return;
+        }
+        factory.reset(instance);
+        synchronized (idle) {
+            idle.add(instance);
+            idle.notify();
+        }
+    }
+    /**
+     * The statistics of this pool with the keys <code>size</code>,
+     * <code>idle</code>, <code>maxSize</code>, <code>borrowed</code>,
+     * <code>waits</code>, <code>waitTime</code> and <code>maxWaitTime</code>.
+     * Times are in milliseconds.
+     * @return the statistics (read only)
+     */
+    public Map<String,Long> getStatistics() {
+        Map<String,Long> stats = new LinkedHashMap<String,Long>();
+        synchronized (idle) {
+            stats.put("size", Long.valueOf(size));
+            stats.put("idle", Long.valueOf(idle.size()));
+            stats.put("maxSize", Long.valueOf(maxSize));
+            stats.put("borrowed", Long.valueOf(borrowed));
+            stats.put("waits", Long.valueOf(waits));
+            stats.put("waitTime", Long.valueOf(TimeUnit.NANOSECONDS.toMillis(waitTime)));
+            stats.put("maxWaitTime", Long.valueOf(TimeUnit.NANOSECONDS.toMillis(maxWaitTime)));
+        }
+        return Collections.unmodifiableMap(stats);
+    }
+
+    @Override
+    public String toString() {
+        return "InstancePool " + name + " " + getStatistics();
+    }
+    /**
+     * Creates the instances managed by an {@link InstancePool}
+     *
+     * @param <T> the type of the created instances
+     */
+    public static abstract class InstanceFactory<T> {
+        /**
+         * Creates a new instance
+         * @return the instance
+         */
+        public abstract T create();
+        /**
+         * Called before a released instance is added to the pool. Allows
+         * to reset state (e.g. adaptive data of name finders) that MUST NOT
+         * be shared between different callers. The default does nothing.
+         * @param instance the released instance
+         */
+        public void reset(T instance) {
+        }
+    }
+}
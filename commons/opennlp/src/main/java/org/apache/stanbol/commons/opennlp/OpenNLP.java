@@ -24,9 +24,18 @@ import java.nio.charset.Charset;
 import java.security.AccessController;
 import java.security.PrivilegedActionException;
 import java.security.PrivilegedExceptionAction;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Dictionary;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
@@ -50,10 +59,16 @@ import opennlp.tools.tokenize.TokenizerModel;
 import opennlp.tools.util.InvalidFormatException;
 
 import org.apache.commons.io.IOUtils;
+import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
+import org.apache.felix.scr.annotations.Deactivate;
+import org.apache.felix.scr.annotations.Property;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.Service;
+import org.apache.stanbol.commons.opennlp.InstancePool.InstanceFactory;
 import org.apache.stanbol.commons.stanboltools.datafileprovider.DataFileProvider;
+import org.osgi.service.cm.ConfigurationException;
+import org.osgi.service.component.ComponentContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -63,9 +78,13 @@ import org.slf4j.LoggerFactory;
  * to the 'datafiles' directory or developer to provide models via via OSGI
  * bundles.<p>
  * This service also provides methods that directly return the OpenNLP component
- * wrapping the model.
+ * wrapping the model.<p>
+ * As OpenNLP components (e.g. {@link POSTaggerME}) are not thread safe
+ * components that process a lot of texts should use the {@link InstancePool}s
+ * returned by the <code>get*Pool(..)</code> methods instead of creating a new
+ * component for every call.
  */
-@Component(immediate=true)
+@Component(immediate=true, metatype=true)
 @Service(value=OpenNLP.class)
 public class OpenNLP {
     /**
@@ -73,6 +92,32 @@ public class OpenNLP {
      * Will show up in the DataFilePorivder tab in the Apache Felix Web Console
      */
     private static final String DOWNLOAD_ROOT = "http://opennlp.sourceforge.net/models-1.5/";
+    /**
+     * The maximum number of instances of OpenNLP components kept by the
+     * {@link InstancePool} of a model. Values &lt;= 0 use the
+     * {@link #DEFAULT_POOL_SIZE}.
+     */
+    @Property(intValue=0)
+    public static final String POOL_SIZE = "opennlp.pool.size";
+    /**
+     * The default pool size (the number of available processors)
+     */
+    public static final int DEFAULT_POOL_SIZE = Runtime.getRuntime().availableProcessors();
+    /**
+     * The languages for those models are loaded and warmed up on activation
+     */
+    @Property(cardinality=Integer.MAX_VALUE, value={})
+    public static final String PRELOAD_LANGUAGES = "opennlp.preload.languages";
+    /**
+     * The types of the named entity models preloaded by {@link #preload(String)}
+     */
+    private static final String[] PRELOAD_NER_TYPES = new String[]{"person","organization","location"};
+    /**
+     * The text used to warm up preloaded models
+     */
+    private static final String WARM_UP_TEXT = "Apache Stanbol provides a set of reusable "
+            + "components for semantic content management. It was founded in Salzburg, "
+            + "Austria by John Smith and is developed by the Apache Software Foundation.";
 
     /**
      * The logger
@@ -97,6 +142,19 @@ public class OpenNLP {
      * from the map. 
      */
     protected Map<String,int[]> modelCreationLock = new HashMap<String,int[]>();
+    /**
+     * The {@link InstancePool}s for the models. Models are compared by
+     * identity. Also used to sync access to the pools.
+     */
+    private final Map<Object,InstancePool<?>> pools = new IdentityHashMap<Object,InstancePool<?>>();
+    /**
+     * The maximum size of newly created {@link InstancePool}s
+     */
+    private int poolSize = DEFAULT_POOL_SIZE;
+    /**
+     * Thread used to preload models on activation
+     */
+    private Thread preloadThread;
     /**
      * Default constructor
      */
@@ -322,6 +380,306 @@ public class OpenNLP {
         }
     }
     
+    /**
+     * Getter for the {@link InstancePool} of {@link SentenceDetectorME}s for
+     * the parsed model.
+     * @param model the model
+     * @return the pool or <code>null</code> if the parsed model is <code>null</code>
+     */
+    public InstancePool<SentenceDetectorME> getSentenceDetectorPool(final SentenceModel model) {
+        return getPool(model, new InstanceFactory<SentenceDetectorME>() {
+            @Override
+            public SentenceDetectorME create() {
+                return new SentenceDetectorME(model);
+            }
+        });
+    }
+    /**
+     * Getter for the {@link InstancePool} of {@link TokenizerME}s for
+     * the parsed model.
+     * @param model the model
+     * @return the pool or <code>null</code> if the parsed model is <code>null</code>
+     */
+    public InstancePool<TokenizerME> getTokenizerPool(final TokenizerModel model) {
+        return getPool(model, new InstanceFactory<TokenizerME>() {
+            @Override
+            public TokenizerME create() {
+                return new TokenizerME(model);
+            }
+        });
+    }
+    /**
+     * Getter for the {@link InstancePool} of {@link POSTaggerME}s for
+     * the parsed model.
+     * @param model the model
+     * @return the pool or <code>null</code> if the parsed model is <code>null</code>
+     */
+    public InstancePool<POSTaggerME> getPartOfSpeechTaggerPool(final POSModel model) {
+        return getPool(model, new InstanceFactory<POSTaggerME>() {
+            @Override
+            public POSTaggerME create() {
+                return new POSTaggerME(model);
+            }
+        });
+    }
+    /**
+     * Getter for the {@link InstancePool} of {@link ChunkerME}s for
+     * the parsed model.
+     * @param model the model
+     * @return the pool or <code>null</code> if the parsed model is <code>null</code>
+     */
+    public InstancePool<ChunkerME> getChunkerPool(final ChunkerModel model) {
+        return getPool(model, new InstanceFactory<ChunkerME>() {
+            @Override
+            public ChunkerME create() {
+                return new ChunkerME(model);
+            }
+        });
+    }
+    /**
+     * Getter for the {@link InstancePool} of {@link NameFinderME}s for
+     * the parsed model. The adaptive data of name finders are cleared when
+     * they are released to the pool.
+     * @param model the model
+     * @return the pool or <code>null</code> if the parsed model is <code>null</code>
+     */
+    public InstancePool<NameFinderME> getNameFinderPool(final TokenNameFinderModel model) {
+        return getPool(model, new InstanceFactory<NameFinderME>() {
+            @Override
+            public NameFinderME create() {
+                return new NameFinderME(model);
+            }
+            @Override
+            public void reset(NameFinderME instance) {
+                instance.clearAdaptiveData();
+            }
+        });
+    }
+    /**
+     * Removes the model with the parsed name from the cache and drops the
+     * {@link InstancePool} of the model. Intended to be called by components
+     * that load custom models (e.g. via {@link #getModel(Class, String, Map)})
+     * if the model is no longer available or no longer used. The next request
+     * for the model will load it again.
+     * @param name the name of the model
+     * @return <code>true</code> if a model with the parsed name was cached
+     */
+    public boolean removeModel(String name) {
+        Object model;
+        modelLock.writeLock().lock();
+        try {
+            model = models.remove(name);
+        } finally {
+            modelLock.writeLock().unlock();
+        }
+        if(model != null){
+            InstancePool<?> pool;
+            synchronized (pools) {
+                pool = pools.remove(model);
+            }
+            if(pool != null){
+                log.info(" > pool {}: {}", pool.getName(), pool.getStatistics());
+            }
+            return true;
+        } else {
+            return false;
+        }
+    }
+    /**
+     * The statistics of all {@link InstancePool}s by the names of the pools
+     * @return the statistics as returned by {@link InstancePool#getStatistics()}
+     */
+    public Map<String,Map<String,Long>> getPoolStatistics() {
+        List<InstancePool<?>> current;
+        synchronized (pools) {
+            current = new ArrayList<InstancePool<?>>(pools.values());
+        }
+        Map<String,Map<String,Long>> stats = new LinkedHashMap<String,Map<String,Long>>();
+        for(InstancePool<?> pool : current){
+            stats.put(pool.getName(), pool.getStatistics());
+        }
+        return Collections.unmodifiableMap(stats);
+    }
+    /**
+     * Loads all default models for the parsed language and warms them up by
+     * processing a short text with an instance borrowed from the
+     * {@link InstancePool} of each model. This avoids
+     * loading models and JIT compiling the OpenNLP components while
+     * processing the first requests.
+     * @param language the language
+     * @return the number of loaded models
+     */
+    public int preload(String language) {
+        int count = 0;
+        String[] sentences = null;
+        SentenceModel sentModel = preloadModel(SentenceModel.class, language, null);
+        if(sentModel != null){
+            count++;
+            InstancePool<SentenceDetectorME> pool = getSentenceDetectorPool(sentModel);
+            SentenceDetectorME detector = pool.borrow();
+            try {
+                sentences = detector.sentDetect(WARM_UP_TEXT);
+            } finally {
+                pool.release(detector);
+            }
+        }
+        if(sentences == null || sentences.length < 1){
+            sentences = new String[]{WARM_UP_TEXT};
+        }
+        List<String[]> tokens = new ArrayList<String[]>(sentences.length);
+        TokenizerModel tokenModel = preloadModel(TokenizerModel.class, language, null);
+        if(tokenModel != null){
+            count++;
+            InstancePool<TokenizerME> pool = getTokenizerPool(tokenModel);
+            TokenizerME tokenizer = pool.borrow();
+            try {
+                for(String sentence : sentences){
+                    tokens.add(tokenizer.tokenize(sentence));
+                }
+            } finally {
+                pool.release(tokenizer);
+            }
+        } else {
+            for(String sentence : sentences){
+                tokens.add(SimpleTokenizer.INSTANCE.tokenize(sentence));
+            }
+        }
+        POSModel posModel = preloadModel(POSModel.class, language, null);
+        List<String[]> tags = null;
+        if(posModel != null){
+            count++;
+            tags = new ArrayList<String[]>(tokens.size());
+            InstancePool<POSTaggerME> pool = getPartOfSpeechTaggerPool(posModel);
+            POSTaggerME tagger = pool.borrow();
+            try {
+                for(String[] sentence : tokens){
+                    tags.add(tagger.tag(sentence));
+                }
+            } finally {
+                pool.release(tagger);
+            }
+        }
+        ChunkerModel chunkerModel = preloadModel(ChunkerModel.class, language, null);
+        if(chunkerModel != null){
+            count++;
+            if(tags != null){ //chunking requires POS tags
+                InstancePool<ChunkerME> pool = getChunkerPool(chunkerModel);
+                ChunkerME chunker = pool.borrow();
+                try {
+                    for(int i = 0; i < tokens.size(); i++){
+                        chunker.chunk(tokens.get(i), tags.get(i));
+                    }
+                } finally {
+                    pool.release(chunker);
+                }
+            }
+        }
+        for(String type : PRELOAD_NER_TYPES){
+            TokenNameFinderModel nameModel = preloadModel(TokenNameFinderModel.class, language, type);
+            if(nameModel != null){
+                count++;
+                InstancePool<NameFinderME> pool = getNameFinderPool(nameModel);
+                NameFinderME finder = pool.borrow();
+                try {
+                    for(String[] sentence : tokens){
+                        finder.find(sentence);
+                    }
+                } finally {
+                    pool.release(finder);
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Reads the pool size and starts preloading the configured languages
+     * @param context the context
+     * @throws ConfigurationException if the configured pool size is not an
+     * integer
+     */
+    @Activate
+    protected void activate(ComponentContext context) throws ConfigurationException {
+        @SuppressWarnings("unchecked")
+        Dictionary<String,Object> properties = context.getProperties();
+        Object value = properties.get(POOL_SIZE);
+        int size;
+        if(value instanceof Number){
+            size = ((Number)value).intValue();
+        } else if(value != null && !value.toString().trim().isEmpty()){
+            try {
+                size = Integer.parseInt(value.toString().trim());
+            } catch (NumberFormatException e) {
+                throw new ConfigurationException(POOL_SIZE, "The configured pool size '"
+                    + value + "' is not a valid integer!", e);
+            }
+        } else {
+            size = -1;
+        }
+        poolSize = size > 0 ? size : DEFAULT_POOL_SIZE;
+        log.info("activate OpenNLP service (pool size: {})", poolSize);
+        value = properties.get(PRELOAD_LANGUAGES);
+        Collection<?> languageValues;
+        if(value instanceof Collection<?>){
+            languageValues = (Collection<?>)value;
+        } else if(value instanceof Object[]){
+            languageValues = Arrays.asList((Object[])value);
+        } else if(value != null){
+            languageValues = Arrays.asList(value.toString().split(","));
+        } else {
+            languageValues = Collections.emptyList();
+        }
+        final List<String> languages = new ArrayList<String>(languageValues.size());
+        for(Object language : languageValues){
+            if(language != null && !language.toString().trim().isEmpty()){
+                languages.add(language.toString().trim());
+            }
+        }
+        if(!languages.isEmpty()){
+            //preload in a background thread to not block the activation
+            preloadThread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for(String language : languages){
+                        if(Thread.currentThread().isInterrupted()){
+                            return;
+                        }
+                        long start = System.currentTimeMillis();
+                        try {
+                            int count = preload(language);
+                            log.info("preloaded {} OpenNLP models for language '{}' in {}ms",
+                                new Object[]{count, language, System.currentTimeMillis() - start});
+                        } catch (RuntimeException e) {
+                            log.warn("Unable to preload OpenNLP models for language '"
+                                + language + "'!", e);
+                        }
+                    }
+                }
+            }, "OpenNLP model preloading");
+            preloadThread.setDaemon(true);
+            preloadThread.start();
+        }
+    }
+    /**
+     * Stops preloading, logs the statistics of the {@link InstancePool}s and
+     * clears them.
+     * @param context the context
+     */
+    @Deactivate
+    protected void deactivate(ComponentContext context) {
+        if(preloadThread != null){
+            preloadThread.interrupt();
+            preloadThread = null;
+        }
+        for(Entry<String,Map<String,Long>> stats : getPoolStatistics().entrySet()){
+            log.info(" > pool {}: {}", stats.getKey(), stats.getValue());
+        }
+        synchronized (pools) {
+            pools.clear();
+        }
+        poolSize = DEFAULT_POOL_SIZE;
+    }
+
 //    /**
 //     * Activates the component and re-enables all {@link DataFileProvider}s
 //     * previously {@link #registerModelLocation(BundleContext, String...) registered}.
@@ -618,6 +976,77 @@ public class OpenNLP {
             modelLock.readLock().unlock();
         }
     }
+    /**
+     * Getter for the {@link InstancePool} of the parsed model. Creates a new
+     * pool if none is present.
+     * @param model the model
+     * @param factory the factory used to create the pool if not present
+     * @return the pool or <code>null</code> if the parsed model is <code>null</code>
+     */
+    @SuppressWarnings("unchecked")
+    private <T> InstancePool<T> getPool(Object model, InstanceFactory<T> factory) {
+        if(model == null){
+            return null;
+        }
+        synchronized (pools) {
+            InstancePool<T> pool = (InstancePool<T>)pools.get(model);
+            if(pool == null){
+                pool = new InstancePool<T>(getModelName(model), factory, poolSize);
+                pools.put(model, pool);
+            }
+            return pool;
+        }
+    }
+    /**
+     * Getter for the name of a loaded model
+     * @param model the model
+     * @return the name or the name of the model class if the model was not
+     * loaded by this service
+     */
+    private String getModelName(Object model) {
+        modelLock.readLock().lock();
+        try {
+            for(Entry<String,Object> entry : models.entrySet()){
+                if(entry.getValue() == model){
+                    return entry.getKey();
+                }
+            }
+        } finally {
+            modelLock.readLock().unlock();
+        }
+        return model.getClass().getSimpleName() + '@' + Integer.toHexString(System.identityHashCode(model));
+    }
+    /**
+     * Loads the default model of the parsed type and language. Errors are
+     * logged and result in <code>null</code> to be returned.
+     * @param modelType the type of the model
+     * @param language the language
+     * @param type the named entity type (only used for {@link TokenNameFinderModel})
+     * @return the model or <code>null</code> if not available
+     */
+    private <T> T preloadModel(Class<T> modelType, String language, String type) {
+        try {
+            Object model;
+            if(modelType == SentenceModel.class){
+                model = getSentenceModel(language);
+            } else if(modelType == TokenizerModel.class){
+                model = getTokenizerModel(language);
+            } else if(modelType == POSModel.class){
+                model = getPartOfSpeechModel(language);
+            } else if(modelType == ChunkerModel.class){
+                model = getChunkerModel(language);
+            } else if(modelType == TokenNameFinderModel.class){
+                model = getNameModel(type, language);
+            } else {
+                throw new IllegalArgumentException("Unsupported model type " + modelType);
+            }
+            return modelType.cast(model);
+        } catch (IOException e) {
+            log.warn("Unable to preload " + modelType.getSimpleName() + " for language '"
+                + language + "'!", e);
+            return null;
+        }
+    }
     /**
      * Lookup an openNLP data file via the {@link #dataFileProvider}
      * @param modelName the name of the model
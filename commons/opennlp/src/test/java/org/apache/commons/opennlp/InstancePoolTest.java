@@ -0,0 +1,84 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.commons.opennlp;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.stanbol.commons.opennlp.InstancePool;
+import org.apache.stanbol.commons.opennlp.InstancePool.InstanceFactory;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class InstancePoolTest {
+
+    private static class CountingFactory extends InstanceFactory<StringBuilder> {
+        final AtomicInteger created = new AtomicInteger();
+        @Override
+        public StringBuilder create() {
+            created.incrementAndGet();
+            return new StringBuilder();
+        }
+        @Override
+        public void reset(StringBuilder instance) {
+            instance.setLength(0);
+        }
+    }
+
+    @Test
+    public void testReuse() {
+        CountingFactory factory = new CountingFactory();
+        InstancePool<StringBuilder> pool = new InstancePool<StringBuilder>("test", factory, 2);
+        StringBuilder first = pool.borrow();
+        first.append("state");
+        pool.release(first);
+        StringBuilder second = pool.borrow();
+        Assert.assertSame(first, second);
+        //state is reset on release
+        Assert.assertEquals(0, second.length());
+        StringBuilder third = pool.borrow();
+        Assert.assertNotSame(second, third);
+        pool.release(second);
+        pool.release(third);
+        Assert.assertEquals(2, factory.created.get());
+        Assert.assertEquals(Long.valueOf(3), pool.getStatistics().get("borrowed"));
+        Assert.assertEquals(Long.valueOf(2), pool.getStatistics().get("idle"));
+    }
+
+    @Test
+    public void testWaitForRelease() throws InterruptedException {
+        final InstancePool<StringBuilder> pool = new InstancePool<StringBuilder>(
+            "test", new CountingFactory(), 1);
+        final StringBuilder borrowed = pool.borrow();
+        Thread releaser = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                pool.release(borrowed);
+            }
+        });
+        releaser.start();
+        //blocks until the instance is released by the other thread
+        Assert.assertSame(borrowed, pool.borrow());
+        releaser.join();
+        Assert.assertEquals(Long.valueOf(1), pool.getStatistics().get("waits"));
+        Assert.assertTrue(pool.getStatistics().get("waitTime") > 0);
+    }
+}
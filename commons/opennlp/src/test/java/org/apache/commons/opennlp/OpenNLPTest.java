@@ -22,16 +22,19 @@ import java.util.Arrays;
 
 import opennlp.tools.chunker.Chunker;
 import opennlp.tools.chunker.ChunkerModel;
+import opennlp.tools.namefind.NameFinderME;
 import opennlp.tools.namefind.TokenNameFinder;
 import opennlp.tools.namefind.TokenNameFinderModel;
 import opennlp.tools.postag.POSModel;
 import opennlp.tools.postag.POSTagger;
+import opennlp.tools.postag.POSTaggerME;
 import opennlp.tools.sentdetect.SentenceDetector;
 import opennlp.tools.sentdetect.SentenceModel;
 import opennlp.tools.tokenize.SimpleTokenizer;
 import opennlp.tools.tokenize.Tokenizer;
 import opennlp.tools.tokenize.TokenizerModel;
 
+import org.apache.stanbol.commons.opennlp.InstancePool;
 import org.apache.stanbol.commons.opennlp.OpenNLP;
 import org.junit.Assert;
 import org.junit.BeforeClass;
@@ -157,6 +160,42 @@ public class OpenNLPTest {
         Assert.assertNull(tokenModel);
     }
     
+    @Test
+    public void testPreloadAndPools() throws IOException{
+        Assert.assertTrue(openNLP.preload("en") > 0);
+        Assert.assertEquals(0, openNLP.preload("ru"));
+        POSModel model = openNLP.getPartOfSpeechModel("en");
+        InstancePool<POSTaggerME> pool = openNLP.getPartOfSpeechTaggerPool(model);
+        Assert.assertNotNull(pool);
+        //the same pool is returned for the same model
+        Assert.assertSame(pool, openNLP.getPartOfSpeechTaggerPool(model));
+        Assert.assertNull(openNLP.getPartOfSpeechTaggerPool(null));
+        POSTaggerME tagger = pool.borrow();
+        try {
+            Assert.assertEquals(3, tagger.tag(new String[]{"This","is","Stanbol"}).length);
+        } finally {
+            pool.release(tagger);
+        }
+        Assert.assertTrue(openNLP.getPoolStatistics().containsKey(pool.getName()));
+    }
+    
+    @Test
+    public void testRemoveModel() throws IOException{
+        TokenNameFinderModel model = openNLP.getModel(TokenNameFinderModel.class, "en-ner-location.bin", null);
+        Assert.assertNotNull(model);
+        InstancePool<NameFinderME> pool = openNLP.getNameFinderPool(model);
+        Assert.assertTrue(openNLP.getPoolStatistics().containsKey(pool.getName()));
+        Assert.assertTrue(openNLP.removeModel("en-ner-location.bin"));
+        //the pool of the removed model is dropped
+        Assert.assertFalse(openNLP.getPoolStatistics().containsKey(pool.getName()));
+        Assert.assertFalse(openNLP.removeModel("en-ner-location.bin"));
+        //the model is loaded again on the next request
+        TokenNameFinderModel reloaded = openNLP.getModel(TokenNameFinderModel.class, "en-ner-location.bin", null);
+        Assert.assertNotNull(reloaded);
+        Assert.assertNotSame(model, reloaded);
+        Assert.assertNotSame(pool, openNLP.getNameFinderPool(reloaded));
+    }
+    
     @Test(expected=IllegalStateException.class)
     public void testLoadIncompatibleModelByName() throws IOException{
         SentenceModel sentModel = openNLP.getModel(SentenceModel.class, "en-token.bin", null);
@@ -2,7 +2,6 @@ package org.apache.stanbol.enhancer.engines.dereference.entityhub;
 
 import static org.apache.stanbol.enhancer.engines.dereference.DereferenceConstants.DEREFERENCE_ENTITIES_LDPATH;
 
-import java.io.StringReader;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
@@ -112,7 +111,8 @@ public class EntityhubDereferenceContext extends DereferenceContext {
             RDFBackend<Object> parseBackend = new ParseBackend<Object>(valueFactory);
             EntityhubLDPath parseLdPath = new EntityhubLDPath(parseBackend, valueFactory);
             try {
-                ldpathProgram = parseLdPath.parseProgram(new StringReader(program));
+                //programs are cached as the context is created for every request
+                ldpathProgram = parseLdPath.getProgram(program);
             } catch (LDPathParseException e) {
                 log.error("Unable to parse Context LDPath pogram: \n {}", program);
                 throw new DereferenceConfigurationException(
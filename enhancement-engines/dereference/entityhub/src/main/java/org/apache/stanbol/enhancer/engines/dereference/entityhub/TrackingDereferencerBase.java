@@ -49,6 +49,7 @@ import org.apache.stanbol.entityhub.core.mapping.DefaultFieldMapperImpl;
 import org.apache.stanbol.entityhub.core.mapping.FieldMappingUtils;
 import org.apache.stanbol.entityhub.core.mapping.ValueConverterFactory;
 import org.apache.stanbol.entityhub.ldpath.EntityhubLDPath;
+import org.apache.stanbol.entityhub.ldpath.backend.AbstractBackend;
 import org.apache.stanbol.entityhub.model.clerezza.RdfReference;
 import org.apache.stanbol.entityhub.model.clerezza.RdfRepresentation;
 import org.apache.stanbol.entityhub.model.clerezza.RdfValueFactory;
@@ -310,8 +311,13 @@ public abstract class TrackingDereferencerBase<T> implements EntityDereferencer
                     copyMapped(uri, rep, fieldMapper, langs, graph, writeLock);
                 }
                 if(ldpathProgram != null){
+                    RDFBackend<Object> rdfBackend = getRdfBackend(service);
+                    if(rdfBackend instanceof AbstractBackend){
+                        //avoid loading the Representation of the context again
+                        ((AbstractBackend)rdfBackend).addCached(rep);
+                    }
                     //this executes LDPath statements
-                    copyLdPath(uri, getRdfBackend(service), ldpathProgram, langs, graph, writeLock);
+                    copyLdPath(uri, rdfBackend, ldpathProgram, langs, graph, writeLock);
                 }
             }
             return true;
@@ -20,12 +20,16 @@ import static org.apache.stanbol.enhancer.servicesapi.rdf.Properties.ENHANCER_CO
 import static org.apache.stanbol.enhancer.servicesapi.rdf.Properties.RDFS_LABEL;
 
 import java.io.IOException;
+import java.util.AbstractMap.SimpleEntry;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Dictionary;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -43,6 +47,7 @@ import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
 import org.apache.felix.scr.annotations.Properties;
 import org.apache.felix.scr.annotations.Property;
+import org.apache.felix.scr.annotations.PropertyOption;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.Service;
 import org.apache.stanbol.enhancer.servicesapi.Blob;
@@ -118,6 +123,56 @@ public class DisambiguatorEngine extends AbstractEnhancementEngine<IOException,R
      */
     public static final Set<String> SUPPORTED_MIMETYPES = Collections.singleton(PLAIN_TEXT_MIMETYPE);
 
+    /**
+     * Disambiguation mode issuing a {@link SimilarityConstraint} query for every
+     * mention (the default)
+     */
+    public static final String MODE_QUERY = "query";
+    /**
+     * Disambiguation mode comparing a {@link TermVector} calculated once per
+     * document with the cached term vectors of the suggested entities
+     */
+    public static final String MODE_TERM_VECTOR = "termVector";
+    /**
+     * The disambiguation mode ({@link #MODE_QUERY} or {@link #MODE_TERM_VECTOR})
+     */
+    @Property(value = MODE_QUERY, options = {
+            @PropertyOption(name = MODE_QUERY, value = "%enhancer.engine.disambiguation.mlt.mode.option.query"),
+            @PropertyOption(name = MODE_TERM_VECTOR,
+                value = "%enhancer.engine.disambiguation.mlt.mode.option.termVector")})
+    public static final String DISAMBIGUATION_MODE = "enhancer.engine.disambiguation.mlt.mode";
+    /**
+     * The maximum number of entity {@link TermVector}s cached by the
+     * {@link #MODE_TERM_VECTOR} mode
+     */
+    @Property(intValue = DisambiguatorEngine.DEFAULT_VECTOR_CACHE_SIZE)
+    public static final String VECTOR_CACHE_SIZE = "enhancer.engine.disambiguation.mlt.vectorCacheSize";
+    /**
+     * The default number of cached entity term vectors
+     */
+    public static final int DEFAULT_VECTOR_CACHE_SIZE = 10000;
+    /**
+     * Sorts disambiguation scores by descending score
+     */
+    private static final Comparator<Entry<IRI,Float>> SCORE_COMPARATOR = new Comparator<Entry<IRI,Float>>() {
+        @Override
+        public int compare(Entry<IRI,Float> e1, Entry<IRI,Float> e2) {
+            return e2.getValue().compareTo(e1.getValue());
+        }
+    };
+
+    private String mode = MODE_QUERY;
+    /**
+     * LRU cache for the term vectors of entities. Keys are
+     * <code>{site}|{language}|{entity}</code>. Guarded by {@link #vectorCacheLock}.
+     */
+    private Map<String,TermVector> vectorCache = createVectorCache(DEFAULT_VECTOR_CACHE_SIZE);
+    /**
+     * Lock for the {@link #vectorCache} (the cache itself is replaced on
+     * activation)
+     */
+    private final Object vectorCacheLock = new Object();
+
     /**
      * Used to lookup the Entityhub {@link Site} used to perform the disambiguation.
      */
@@ -220,6 +275,40 @@ public class DisambiguatorEngine extends AbstractEnhancementEngine<IOException,R
         }
 
         // (2) Disambiguate the SavedEntities
+        if (MODE_TERM_VECTOR.equals(mode)) {
+            disambiguateByTermVectors(disData, contentLangauge);
+        } else {
+            disambiguateByQueries(disData, textContent, contentLangauge);
+        }
+        // (3) Write back the Results of the Disambiguation process
+        // NOTE (rwesten): In the original version of Kritarth this was done as
+        // part of (2) - disambiguation. This is now changed as in (2) the
+        // disambiguation results are stored in the Suggestions and only
+        // applied to the EnhancementStructure in (3). This allows to reduce the
+        // coverage of the wirte lock needed to be applied to the ContentItem.
+        ci.getLock().writeLock().lock();
+        try {
+            applyDisambiguationResults(graph, disData);
+        } finally {
+            ci.getLock().writeLock().unlock();
+        }
+    }
+
+    /**
+     * Disambiguates the {@link SavedEntity SavedEntities} by issuing a
+     * {@link SimilarityConstraint} query for every mention ({@link #MODE_QUERY}).
+     * 
+     * @param disData
+     *            the disambiguation data
+     * @param textContent
+     *            the plain text content
+     * @param contentLangauge
+     *            the language of the content or <code>null</code> if not known
+     * @throws EngineException
+     *             if a query fails
+     */
+    protected void disambiguateByQueries(DisambiguationData disData, String textContent, String contentLangauge)
+            throws EngineException {
         for (SavedEntity savedEntity : disData.textAnnotations.values()) {
             if (savedEntity.getSuggestions().size() <= 1) {
                 // we need not to disambiguate if only one suggestion is present
@@ -295,18 +384,167 @@ public class DisambiguatorEngine extends AbstractEnhancementEngine<IOException,R
                 log.debug(" - not disambiguated because of empty context!");
             }
         }
-        // (3) Write back the Results of the Disambiguation process
-        // NOTE (rwesten): In the original version of Kritarth this was done as
-        // part of (2) - disambiguation. This is now changed as in (2) the
-        // disambiguation results are stored in the Suggestions and only
-        // applied to the EnhancementStructure in (3). This allows to reduce the
-        // coverage of the wirte lock needed to be applied to the ContentItem.
-        ci.getLock().writeLock().lock();
+    }
+
+    /**
+     * Disambiguates the {@link SavedEntity SavedEntities} by comparing a
+     * {@link TermVector} calculated once for the document with the term vectors
+     * of the suggested entities ({@link #MODE_TERM_VECTOR}). The term vectors of
+     * entities are calculated from the natural language texts of the
+     * {@link Representation} and cached so that only entities not yet in the
+     * cache need to be retrieved from the {@link Site}. The uncached entities
+     * suggested for all mentions of the document are retrieved with a single
+     * request per {@link Site}.
+     * 
+     * @param disData
+     *            the disambiguation data
+     * @param contentLangauge
+     *            the language of the content or <code>null</code> if not known
+     * @throws EngineException
+     *             if an entity could not be retrieved from its Site
+     */
+    protected void disambiguateByTermVectors(DisambiguationData disData, String contentLangauge)
+            throws EngineException {
+        // the context is the same for all mentions: all selected texts of the document
+        TermVector context = TermVector.create(disData.allSelectedTexts);
+        log.debug("Use document context {} for term vector disambiguation", context);
+        if (context.isEmpty()) {
+            log.debug(" - not disambiguated because of empty context!");
+            return;
+        }
+        // (1) collect the suggested entities of all mentions grouped by site
+        Map<String,Set<IRI>> siteEntities = new HashMap<String,Set<IRI>>();
+        for (SavedEntity savedEntity : disData.textAnnotations.values()) {
+            if (savedEntity.getSuggestions().size() <= 1) {
+                // we need not to disambiguate if only one suggestion is present
+                continue;
+            }
+            Set<IRI> entityUris = siteEntities.get(savedEntity.getSite());
+            if (entityUris == null) {
+                entityUris = new HashSet<IRI>();
+                siteEntities.put(savedEntity.getSite(), entityUris);
+            }
+            for (Suggestion suggestion : savedEntity.getSuggestions()) {
+                entityUris.add(suggestion.getEntityUri());
+            }
+        }
+        // (2) get the term vectors with a single request per site
+        Map<String,Map<IRI,TermVector>> siteVectors = new HashMap<String,Map<IRI,TermVector>>();
+        for (Entry<String,Set<IRI>> entry : siteEntities.entrySet()) {
+            Site site = siteManager.getSite(entry.getKey());
+            if (site == null) {
+                log.warn("Unable to disambiguate Mentions with suggestions of Entityhub Site '{}' "
+                        + "because the Site is not active", entry.getKey());
+            } else {
+                siteVectors.put(entry.getKey(), getTermVectors(site, entry.getValue(), contentLangauge));
+            }
+        }
+        // (3) score the suggestions of the mentions
+        for (SavedEntity savedEntity : disData.textAnnotations.values()) {
+            Map<IRI,TermVector> vectors = siteVectors.get(savedEntity.getSite());
+            if (savedEntity.getSuggestions().size() <= 1 || vectors == null) {
+                continue;
+            }
+            // the terms of the mention itself are not part of its context
+            TermVector label = TermVector.create(savedEntity.getName());
+            List<Entry<IRI,Float>> scores = new ArrayList<Entry<IRI,Float>>(savedEntity.getSuggestions()
+                    .size());
+            for (Suggestion suggestion : savedEntity.getSuggestions()) {
+                TermVector vector = vectors.get(suggestion.getEntityUri());
+                double similarity = context.similarity(vector, label);
+                if (similarity > 0) {
+                    scores.add(new SimpleEntry<IRI,Float>(suggestion.getEntityUri(), (float) similarity));
+                }
+            }
+            Collections.sort(scores, SCORE_COMPARATOR);
+            disambiguateSuggestions(scores, savedEntity);
+        }
+    }
+
+    /**
+     * Getter for the (cached) {@link TermVector}s of Entities. Entities that
+     * are not yet cached are retrieved from the {@link Site} with a single
+     * request.
+     * 
+     * @param site
+     *            the site managing the entities
+     * @param entityUris
+     *            the URIs of the entities
+     * @param language
+     *            the language of the content. Only texts without language or in this language are used for
+     *            the term vectors
+     * @return the term vectors of the entities. {@link TermVector#EMPTY} for entities not known by the site
+     * @throws EngineException
+     *             if the entities could not be retrieved
+     */
+    protected Map<IRI,TermVector> getTermVectors(Site site, Collection<IRI> entityUris, String language)
+            throws EngineException {
+        String keyPrefix = site.getId() + '|' + language + '|';
+        Map<IRI,TermVector> vectors = new HashMap<IRI,TermVector>(entityUris.size() * 2);
+        Set<String> missing = new HashSet<String>();
+        synchronized (vectorCacheLock) {
+            for (IRI entityUri : entityUris) {
+                TermVector vector = vectorCache.get(keyPrefix + entityUri.getUnicodeString());
+                if (vector != null) {
+                    vectors.put(entityUri, vector);
+                } else {
+                    missing.add(entityUri.getUnicodeString());
+                }
+            }
+        }
+        if (missing.isEmpty()) {
+            return vectors;
+        }
+        Collection<Entity> entities;
         try {
-            applyDisambiguationResults(graph, disData);
-        } finally {
-            ci.getLock().writeLock().unlock();
+            entities = site.getEntities(missing);
+        } catch (SiteException e) {
+            throw new EngineException("Unable to retrieve Entities " + missing
+                    + " from Entityhub Site '" + site.getId() + "!", e);
         }
+        Map<String,TermVector> retrieved = new HashMap<String,TermVector>(missing.size() * 2);
+        for (Entity entity : entities) {
+            Representation rep = entity.getRepresentation();
+            List<String> texts = new ArrayList<String>();
+            for (Iterator<String> fields = rep.getFieldNames(); fields.hasNext();) {
+                for (Iterator<Text> values = rep.getText(fields.next()); values.hasNext();) {
+                    Text text = values.next();
+                    if (isLanguage(text.getLanguage(), language)) {
+                        texts.add(text.getText());
+                    }
+                }
+            }
+            retrieved.put(entity.getId(), TermVector.create(texts));
+        }
+        synchronized (vectorCacheLock) {
+            for (String entityUri : missing) {
+                TermVector vector = retrieved.get(entityUri);
+                if (vector == null) {
+                    log.debug(" - Entity {} not found on Site {}", entityUri, site.getId());
+                    vector = TermVector.EMPTY;
+                }
+                vectorCache.put(keyPrefix + entityUri, vector);
+                vectors.put(new IRI(entityUri), vector);
+            }
+        }
+        return vectors;
+    }
+
+    /**
+     * If a text with the parsed language is used for the content language.
+     * Texts without language are used for all languages. Otherwise the main
+     * language (e.g. 'en' for 'en-GB') needs to match.
+     */
+    private static boolean isLanguage(String textLanguage, String contentLanguage) {
+        if (textLanguage == null || contentLanguage == null) {
+            return true;
+        }
+        return getMainLanguage(textLanguage).equalsIgnoreCase(getMainLanguage(contentLanguage));
+    }
+
+    private static String getMainLanguage(String language) {
+        int sep = language.indexOf('-');
+        return sep > 0 ? language.substring(0, sep) : language;
     }
 
     /*
@@ -370,6 +608,30 @@ public class DisambiguatorEngine extends AbstractEnhancementEngine<IOException,R
      *            the saved entity to be disambiguated
      **/
     protected void disambiguateSuggestions(QueryResultList<Entity> results, SavedEntity savedEntity) {
+        List<Entry<IRI,Float>> scores = new ArrayList<Entry<IRI,Float>>(results.size());
+        for (Entity guess : results) {
+            Float score =
+                    guess.getRepresentation().getFirst(RdfResourceEnum.resultScore.getUri(), Float.class);
+            if (score == null) {
+                log.warn("Missing Score for Entityhub Query Result {}!", guess.getId());
+                continue;
+            }
+            scores.add(new SimpleEntry<IRI,Float>(new IRI(guess.getId()), score));
+        }
+        disambiguateSuggestions(scores, savedEntity);
+    }
+
+    /**
+     * Applies the disambiguation scores to the suggestions of the {@link SavedEntity}.
+     * <p>
+     * This method modifies the state of the {@link SavedEntity#getSuggestions()}
+     * 
+     * @param scores
+     *            the disambiguation scores of entities sorted by descending score
+     * @param savedEntity
+     *            the saved entity to be disambiguated
+     **/
+    protected void disambiguateSuggestions(List<Entry<IRI,Float>> scores, SavedEntity savedEntity) {
         // NOTE (rwesten) We should not score disambiguation results based on
         // how well the labels match.
         // Either use directly the scores of the disambiguation results OR
@@ -401,26 +663,13 @@ public class DisambiguatorEngine extends AbstractEnhancementEngine<IOException,R
          * * normalized score (ns) := s/ms ... ensures range [0..1] for disambiguation scores * disambiguated
          * confidence = c*cw+ns*dw ... guaranteed to be [0..1]
          */
-        List<Suggestion> matches = new ArrayList<Suggestion>(results.size());
-        Float maxScore = null;
         Float maxSuggestedScore = null;
-        Iterator<Entity> guesses = results.iterator();
         log.info("disambiguate {}: ", savedEntity.getName());
-        while (guesses.hasNext()) {
-            Entity guess = guesses.next();
-            Float score =
-                    guess.getRepresentation().getFirst(RdfResourceEnum.resultScore.getUri(), Float.class);
-            if (score == null) {
-                log.warn("Missing Score for Entityhub Query Result {}!", guess.getId());
-                continue;
-            }
-            if (maxScore == null) {
-                maxScore = score;
-            }
-            IRI uri = new IRI(guess.getId());
-            Suggestion suggestion = savedEntity.getSuggestion(uri);
+        for (Entry<IRI,Float> entry : scores) {
+            Float score = entry.getValue();
+            Suggestion suggestion = savedEntity.getSuggestion(entry.getKey());
             if (suggestion == null) {
-                log.info(" - not found {}", guess.getId());
+                log.info(" - not found {}", entry.getKey());
                 continue;
             }
             if (maxSuggestedScore == null) {
@@ -830,6 +1079,49 @@ public class DisambiguatorEngine extends AbstractEnhancementEngine<IOException,R
         // if (properties.get(FORMCEPT_SERVICE_URL) != null) {
         // this.serviceURL = (String) properties.get(FORMCEPT_SERVICE_URL);
         // }
+        Object value = properties.get(DISAMBIGUATION_MODE);
+        if (value == null || StringUtils.isBlank(value.toString())) {
+            mode = MODE_QUERY;
+        } else if (MODE_QUERY.equalsIgnoreCase(value.toString().trim())) {
+            mode = MODE_QUERY;
+        } else if (MODE_TERM_VECTOR.equalsIgnoreCase(value.toString().trim())) {
+            mode = MODE_TERM_VECTOR;
+        } else {
+            throw new ConfigurationException(DISAMBIGUATION_MODE, "Unknown disambiguation mode '" + value
+                    + "' (supported: " + MODE_QUERY + ", " + MODE_TERM_VECTOR + ")!");
+        }
+        value = properties.get(VECTOR_CACHE_SIZE);
+        int cacheSize;
+        if (value instanceof Number) {
+            cacheSize = ((Number) value).intValue();
+        } else if (value != null && !StringUtils.isBlank(value.toString())) {
+            try {
+                cacheSize = Integer.parseInt(value.toString().trim());
+            } catch (NumberFormatException e) {
+                throw new ConfigurationException(VECTOR_CACHE_SIZE, "Unable to parse the vector cache size from '"
+                        + value + "'!", e);
+            }
+        } else {
+            cacheSize = DEFAULT_VECTOR_CACHE_SIZE;
+        }
+        if (cacheSize < 0) {
+            throw new ConfigurationException(VECTOR_CACHE_SIZE, "The vector cache size MUST NOT be negative!");
+        }
+        synchronized (vectorCacheLock) {
+            vectorCache = createVectorCache(cacheSize);
+        }
+        log.info("activated {} (mode: {}, vector cache size: {})", new Object[] {getName(), mode, cacheSize});
+    }
+
+    private static Map<String,TermVector> createVectorCache(final int maxSize) {
+        return new LinkedHashMap<String,TermVector>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Entry<String,TermVector> eldest) {
+                return size() > maxSize;
+            }
+        };
     }
 
     /**
@@ -840,6 +1132,10 @@ public class DisambiguatorEngine extends AbstractEnhancementEngine<IOException,R
      */
     @Deactivate
     protected void deactivate(ComponentContext ce) {
+        synchronized (vectorCacheLock) {
+            vectorCache.clear();
+        }
+        mode = MODE_QUERY;
         super.deactivate(ce);
     }
 
@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.stanbol.enhancer.engine.disambiguation.mlt;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * Term vector used by the {@link DisambiguatorEngine#MODE_TERM_VECTOR
+ * term vector} disambiguation mode. Terms are the lower case letter/digit
+ * sequences with at least {@link #MIN_TERM_LENGTH} chars. Terms are weighted by
+ * <code>1 + ln(tf)</code>.
+ * <p>
+ * Instances are immutable and can therefore be shared (e.g. cached) between
+ * threads.
+ */
+public final class TermVector {
+
+    /**
+     * Shorter terms are ignored
+     */
+    public static final int MIN_TERM_LENGTH = 2;
+    /**
+     * The empty term vector
+     */
+    public static final TermVector EMPTY = new TermVector(Collections.<String,Integer> emptyMap());
+
+    private final Map<String,Double> weights;
+    private final double norm;
+
+    private TermVector(Map<String,Integer> termFrequencies) {
+        Map<String,Double> weights = new HashMap<String,Double>(termFrequencies.size() * 2);
+        double norm = 0;
+        for (Entry<String,Integer> entry : termFrequencies.entrySet()) {
+            double weight = 1 + Math.log(entry.getValue());
+            weights.put(entry.getKey(), weight);
+            norm = norm + weight * weight;
+        }
+        this.weights = weights;
+        this.norm = Math.sqrt(norm);
+    }
+
+    /**
+     * Creates the term vector for the parsed texts
+     *
+     * @param texts
+     *            the texts. <code>null</code> elements are ignored
+     * @return the term vector
+     */
+    public static TermVector create(Collection<String> texts) {
+        Map<String,Integer> termFrequencies = new HashMap<String,Integer>();
+        for (String text : texts) {
+            if (text != null) {
+                addTerms(text, termFrequencies);
+            }
+        }
+        return termFrequencies.isEmpty() ? EMPTY : new TermVector(termFrequencies);
+    }
+
+    /**
+     * Creates the term vector for the parsed text
+     *
+     * @param text
+     *            the text
+     * @return the term vector
+     */
+    public static TermVector create(String text) {
+        return create(Collections.singleton(text));
+    }
+
+    private static void addTerms(String text, Map<String,Integer> termFrequencies) {
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean termChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (termChar && start < 0) {
+                start = i;
+            } else if (!termChar && start >= 0) {
+                if (i - start >= MIN_TERM_LENGTH) {
+                    String term = text.substring(start, i).toLowerCase();
+                    Integer tf = termFrequencies.get(term);
+                    termFrequencies.put(term, tf == null ? 1 : tf + 1);
+                }
+                start = -1;
+            }
+        }
+    }
+
+    /**
+     * If this vector does not contain any term
+     *
+     * @return <code>true</code> if empty
+     */
+    public boolean isEmpty() {
+        return weights.isEmpty();
+    }
+
+    /**
+     * The number of terms in this vector
+     *
+     * @return the number of terms
+     */
+    public int size() {
+        return weights.size();
+    }
+
+    /**
+     * Calculates the cosine similarity of this vector with the parsed one
+     * while ignoring all terms of this vector that are also contained in the
+     * parsed ignored vector (e.g. the terms of the label of the disambiguated
+     * mention).
+     *
+     * @param other
+     *            the other vector
+     * @param ignored
+     *            the terms to ignore or <code>null</code> if none
+     * @return the similarity in the range [0..1]
+     */
+    public double similarity(TermVector other, TermVector ignored) {
+        if (other.isEmpty()) {
+            return 0;
+        }
+        double dot = 0;
+        double norm = 0;
+        for (Entry<String,Double> entry : weights.entrySet()) {
+            if (ignored != null && ignored.weights.containsKey(entry.getKey())) {
+                continue;
+            }
+            double weight = entry.getValue();
+            norm = norm + weight * weight;
+            Double otherWeight = other.weights.get(entry.getKey());
+            if (otherWeight != null) {
+                dot = dot + weight * otherWeight;
+            }
+        }
+        return dot == 0 ? 0 : dot / (Math.sqrt(norm) * other.norm);
+    }
+
+    @Override
+    public String toString() {
+        return "TermVector " + weights.keySet();
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.stanbol.enhancer.engine.disambiguation.mlt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class TermVectorTest {
+
+    private static final double DELTA = 1e-9;
+
+    @Test
+    public void testTokenizing() {
+        //terms are split by non letter or digit chars and lower cased
+        TermVector vector = TermVector.create("Paris, (France) is-the capital");
+        assertEquals(5, vector.size());
+        assertEquals(1, vector.similarity(TermVector.create("paris france is the capital"), null), DELTA);
+        //terms shorter as MIN_TERM_LENGTH are ignored
+        assertEquals(2, TermVector.create("a b c de 1 23").size());
+        //terms are counted over all texts. null texts are ignored
+        vector = TermVector.create(Arrays.asList("Paris", null, "PARIS", "France"));
+        assertEquals(2, vector.size());
+        assertSame(TermVector.EMPTY, TermVector.create(Arrays.asList("", " - ", "a")));
+        assertTrue(TermVector.EMPTY.isEmpty());
+    }
+
+    @Test
+    public void testTermFrequency() {
+        TermVector context = TermVector.create("paris city");
+        //the more often "paris" is mentioned the more similar is the vector
+        double once = TermVector.create("paris london").similarity(context, null);
+        double twice = TermVector.create("paris paris london").similarity(context, null);
+        assertTrue(twice > once);
+    }
+
+    @Test
+    public void testIgnoredTerms() {
+        TermVector entity = TermVector.create("Paris capital of France");
+        TermVector context = TermVector.create("Paris Hilton");
+        TermVector label = TermVector.create("Paris");
+        assertTrue(entity.similarity(context, null) > 0);
+        //the only shared term is ignored
+        assertEquals(0, entity.similarity(context, label), DELTA);
+        //other shared terms are still considered
+        context = TermVector.create("Paris is in France");
+        assertTrue(entity.similarity(context, label) > 0);
+        //ignoring all terms of the vector
+        assertEquals(0, label.similarity(context, label), DELTA);
+    }
+
+    @Test
+    public void testCosineRange() {
+        TermVector vector = TermVector.create("Paris capital of France");
+        assertEquals(1, vector.similarity(vector, null), DELTA);
+        assertEquals(0, vector.similarity(TermVector.create("London England"), null), DELTA);
+        assertEquals(0, vector.similarity(TermVector.EMPTY, null), DELTA);
+        assertEquals(0, TermVector.EMPTY.similarity(vector, null), DELTA);
+        String[] texts = new String[]{"Paris", "Paris France", "capital city of France",
+                "France France France", "Paris is the capital of France", "Hilton Paris"};
+        for (String first : texts) {
+            for (String second : texts) {
+                for (String ignored : texts) {
+                    double similarity = TermVector.create(first).similarity(
+                        TermVector.create(second), TermVector.create(ignored));
+                    assertTrue(similarity >= 0);
+                    assertTrue(similarity <= 1 + DELTA);
+                }
+                double similarity = TermVector.create(first).similarity(
+                    TermVector.create(second), null);
+                //cosine similarity is symmetric
+                assertEquals(similarity, TermVector.create(second).similarity(
+                    TermVector.create(first), null), DELTA);
+            }
+        }
+    }
+}
@@ -102,6 +102,18 @@ public class InMemoryEntityIndex implements EntitySearcher {
         return entities.get(id);
     }
 
+    /**
+     * Batched lookups are not supported as lookups on this in-memory
+     * index do not need any round trip.
+     * @return <code>null</code>
+     */
+    @Override
+    public Map<List<String>,Collection<? extends Entity>> lookup(IRI field,
+            Set<IRI> includeFields, Collection<List<String>> searches,
+            String[] languages, Integer limit) {
+        return null;
+    }
+
     @Override
     public Collection<? extends Entity> lookup(IRI field,
                                            Set<IRI> includeFields,
@@ -8,6 +8,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 
 import org.apache.stanbol.entityhub.core.model.EntityImpl;
@@ -96,6 +97,18 @@ public class MockEntityCorefDbpediaSite implements Site {
 		return entities.get(id);
 	}
 
+	@Override
+	public Collection<Entity> getEntities(Iterable<String> ids) throws SiteException {
+		List<Entity> found = new ArrayList<Entity>();
+		for (String id : ids) {
+			Entity entity = entities.get(id);
+			if (entity != null) {
+				found.add(entity);
+			}
+		}
+		return found;
+	}
+
 	@Override
 	public InputStream getContent(String id, String contentType) throws SiteException {
 		return null;
@@ -17,22 +17,46 @@
 package org.apache.stanbol.enhancer.engines.entityhublinking;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.apache.clerezza.commons.rdf.IRI;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang.ArrayUtils;
 import org.apache.commons.lang.StringUtils;
+import org.apache.stanbol.enhancer.engines.entitylinking.Entity;
 import org.apache.stanbol.enhancer.engines.entitylinking.EntitySearcher;
+import org.apache.stanbol.entityhub.servicesapi.model.Representation;
 import org.apache.stanbol.entityhub.servicesapi.model.rdf.RdfResourceEnum;
 import org.apache.stanbol.entityhub.servicesapi.query.FieldQuery;
 import org.apache.stanbol.entityhub.servicesapi.query.FieldQueryFactory;
+import org.apache.stanbol.entityhub.servicesapi.query.QueryResultList;
 import org.apache.stanbol.entityhub.servicesapi.query.TextConstraint;
 
 public final class EntitySearcherUtils {
 
+    /**
+     * The maximum number of results requested by a combined query created
+     * for {@link EntitySearcher#lookup(IRI, Set, Collection, String[], Integer)}
+     */
+    public static final int MAX_BATCH_LIMIT = 1000;
+    /**
+     * The maximum number of distinct search tokens of a combined query created
+     * for {@link EntitySearcher#lookup(IRI, Set, Collection, String[], Integer)}.
+     * As the combined query matches any of its tokens queries with more tokens
+     * will typically reach the limit on real world vocabularies. In such cases
+     * the combined query would only add an additional request as all
+     * searches need to be looked up individually anyway.
+     */
+    public static final int MAX_BATCH_TERMS = 8;
+
     /**
      * Restrict instantiation
      */
@@ -84,4 +108,108 @@ public final class EntitySearcherUtils {
         return query;
     }
 
+    /**
+     * Validates the parsed searches as parsed to 
+     * {@link EntitySearcher#lookup(IRI, Set, Collection, String[], Integer)}
+     * and creates a single fieldQuery for the union of the search tokens of
+     * all searches.
+     * @return the query
+     */
+    public final static FieldQuery createFieldQuery(FieldQueryFactory factory,
+                                        IRI field,
+                                        Set<IRI> includeFields,
+                                        Collection<List<String>> searches,
+                                        String... languages) {
+        return createFieldQuery(factory, field, includeFields, 
+            new ArrayList<String>(getTerms(searches)), languages);
+    }
+    /**
+     * Validates the parsed searches and returns the distinct search tokens
+     * of all searches
+     * @param searches the searches
+     * @return the distinct search tokens
+     */
+    private static Set<String> getTerms(Collection<List<String>> searches){
+        if(searches == null || searches.isEmpty()){
+            throw new IllegalArgumentException("The parsed collection of searches MUST NOT be NULL nor empty");
+        }
+        Set<String> terms = new LinkedHashSet<String>();
+        for(List<String> search : searches){
+            if(search == null || search.isEmpty()){
+                throw new IllegalArgumentException("The parsed searches MUST NOT contain NULL nor empty lists");
+            }
+            terms.addAll(search);
+        }
+        return terms;
+    }
+    /**
+     * If a combined query for the parsed searches is expected to return
+     * complete results. This is not the case if the combined query would use
+     * more as {@link #MAX_BATCH_TERMS} distinct tokens or if the expected
+     * number of results exceeds {@link #MAX_BATCH_LIMIT}.
+     * @param searches the searches
+     * @param limit the expected number of results per search
+     * @return <code>true</code> if a combined query should be used
+     */
+    public final static boolean isBatchable(Collection<List<String>> searches, int limit){
+        return getTerms(searches).size() <= MAX_BATCH_TERMS && 
+                limit * searches.size() <= MAX_BATCH_LIMIT;
+    }
+    /**
+     * If the results of a combined query are complete. Yards might reduce the
+     * limit of a query (e.g. to the maximum number of results they support).
+     * Because of that the results are compared with the limit of the query
+     * as executed.
+     * @param results the results of the combined query
+     * @param queryLimit the limit of the combined query as requested
+     * @return <code>true</code> if the results are complete
+     */
+    public final static boolean isComplete(QueryResultList<?> results, int queryLimit){
+        int limit = queryLimit;
+        FieldQuery executed = results.getQuery();
+        if(executed != null && executed.getLimit() != null && executed.getLimit() > 0){
+            limit = Math.min(limit, executed.getLimit());
+        }
+        return results.size() < limit;
+    }
+    /**
+     * Assigns the results of a combined query created by 
+     * {@link #createFieldQuery(FieldQueryFactory, IRI, Set, Collection, String...)}
+     * to the parsed searches. As the combined query matches any token of any
+     * search all Entities a query for a single search would return are
+     * contained in the results - but only if the combined query was not
+     * truncated by its limit. Because of that all results are assigned to
+     * every search if <code>complete = true</code>. This is a super set of
+     * the results of every single search. This is fine as the Entities need
+     * anyway be matched against the text by the caller.<p>
+     * If the combined query was truncated (<code>complete = false</code>) it
+     * can not be guaranteed that results for a search are complete. In this
+     * case an empty map is returned so that the caller falls back to
+     * individual lookups.
+     * @param searches the searches
+     * @param results the results of the combined query
+     * @param languages the languages
+     * @param complete if all results of the combined query where retrieved
+     * @return the results for the searches
+     */
+    public final static Map<List<String>,Collection<? extends Entity>> assignResults(
+            Collection<List<String>> searches, Collection<? extends Representation> results,
+            String[] languages, boolean complete){
+        if(!complete){
+            return Collections.emptyMap();
+        }
+        Set<String> languagesSet = new HashSet<String>(Arrays.asList(languages));
+        List<Entity> entities = new ArrayList<Entity>(results.size());
+        for(Representation result : results){
+            entities.add(new EntityhubEntity(result, null, languagesSet));
+        }
+        entities = Collections.unmodifiableList(entities);
+        Map<List<String>,Collection<? extends Entity>> assigned = 
+                new HashMap<List<String>,Collection<? extends Entity>>();
+        for(List<String> search : searches){
+            assigned.put(search, entities);
+        }
+        return assigned;
+    }
+
 }
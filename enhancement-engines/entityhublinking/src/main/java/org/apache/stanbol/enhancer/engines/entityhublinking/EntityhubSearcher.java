@@ -127,6 +127,38 @@ public final class EntityhubSearcher extends TrackingEntitySearcher<Entityhub> i
         }
     }
 
+    @Override
+    public Map<List<String>,Collection<? extends Entity>> lookup(IRI field,
+                                           Set<IRI> includeFields,
+                                           Collection<List<String>> searches,
+                                           String[] languages,
+                                           Integer limit) throws EntitySearcherException {
+        Entityhub entityhub = getSearchService();
+        if(entityhub == null){
+            throw new EntitySearcherException("The Entityhub is currently not active");
+        }
+        FieldQuery query = EntitySearcherUtils.createFieldQuery(entityhub.getQueryFactory(),
+            field, includeFields, searches, languages);
+        if(limit == null || limit <= 0){
+            limit = this.limit != null ? this.limit : query.getLimit();
+        }
+        if(!EntitySearcherUtils.isBatchable(searches, limit)){
+            //the combined query would be truncated anyway
+            return Collections.emptyMap();
+        }
+        int queryLimit = limit*searches.size();
+        query.setLimit(queryLimit);
+        QueryResultList<Representation> results;
+        try {
+            results = entityhub.find(query);
+        } catch (EntityhubException e) {
+            throw new EntitySearcherException("Exception while searchign for "+
+                searches+'@'+Arrays.toString(languages)+"in the Entityhub", e);
+        }
+        return EntitySearcherUtils.assignResults(searches, results.results(),
+            languages, EntitySearcherUtils.isComplete(results, queryLimit));
+    }
+
     @Override
     public boolean supportsOfflineMode() {
         return true; //the entityhub is always offline
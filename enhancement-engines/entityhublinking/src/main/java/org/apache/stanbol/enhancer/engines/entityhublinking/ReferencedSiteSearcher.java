@@ -143,6 +143,41 @@ public final class ReferencedSiteSearcher extends TrackingEntitySearcher<Site> i
         }
     }
 
+    @Override
+    public Map<List<String>,Collection<? extends Entity>> lookup(IRI field,
+                                           Set<IRI> includeFields,
+                                           Collection<List<String>> searches,
+                                           String[] languages,
+                                           Integer limit) throws IllegalStateException {
+        Site site = getSearchService();
+        if(site == null){
+            throw new IllegalStateException("ReferencedSite "+siteId+" is currently not available");
+        }
+        FieldQuery query = EntitySearcherUtils.createFieldQuery(site.getQueryFactory(), 
+            field, includeFields, searches, languages);
+        if(limit == null || limit <= 0){
+            limit = this.limit != null ? this.limit : query.getLimit();
+        }
+        if(!EntitySearcherUtils.isBatchable(searches, limit)){
+            //the combined query would be truncated anyway
+            return Collections.emptyMap();
+        }
+        int queryLimit = limit*searches.size();
+        query.setLimit(queryLimit);
+        queryStats.begin();
+        QueryResultList<Representation> results;
+        try {
+            results = site.find(query);
+        } catch (SiteException e) {
+            throw new IllegalStateException("Exception while searchign for "+
+                searches+'@'+Arrays.toString(languages)+"in the ReferencedSite "+
+                site.getId(), e);
+        }
+        queryStats.complete();
+        return EntitySearcherUtils.assignResults(searches, results.results(),
+            languages, EntitySearcherUtils.isComplete(results, queryLimit));
+    }
+
     @Override
     public boolean supportsOfflineMode() {
         Site site = getSearchService();
@@ -54,6 +54,38 @@ public interface EntitySearcher {
     Collection<? extends Entity> lookup(IRI field, Set<IRI> selectedFields, 
         List<String> search, String[] languages, Integer limit, Integer offset) 
                 throws EntitySearcherException;
+    /**
+     * Lookup Entities for multiple searches (e.g. all search token windows
+     * of a sentence) with a single request. This allows implementations to
+     * combine the parsed searches to a single query to avoid a round trip
+     * to the vocabulary for every search.<p>
+     * Results for a search MUST include all Entities returned by
+     * {@link #lookup(IRI, Set, List, String[], Integer, Integer)} for the
+     * same parameters (over all pages). Implementations MAY return a super set
+     * of this results. If this can not be guaranteed for a search (e.g.
+     * because a combined query was truncated) the search MUST NOT be contained
+     * in the returned map. Searches that are not contained in the returned
+     * map need to be looked up individually by the caller.
+     * @param field the field used to search for values in the parsed languages
+     * @param selectedFields A set of fields that need to be included within the
+     * returned {@link Representation}. See {@link #lookup(IRI, Set, List, String[], Integer, Integer)}
+     * @param searches the searches. Each search is a list of tokens as parsed
+     * to {@link #lookup(IRI, Set, List, String[], Integer, Integer)}.
+     * MUST NOT be <code>null</code>
+     * @param languages the languages to include in the search
+     * @param limit The expected number of results per search or <code>null</code>
+     * to use the default. Implementations may use this to limit the size of
+     * combined requests.
+     * @return the Entities found for the parsed searches or <code>null</code>
+     * if this EntitySearcher does not support batched lookups.
+     * @throws EntitySearcherException An exception while searching for concepts
+     * @throws IllegalArgumentException if the parsed field is <code>null</code>;
+     * the collection with the searches is <code>null</code> or contains
+     * <code>null</code> or empty lists.
+     */
+    Map<List<String>,Collection<? extends Entity>> lookup(IRI field,
+        Set<IRI> selectedFields, Collection<List<String>> searches,
+        String[] languages, Integer limit) throws EntitySearcherException;
     /**
      * Lookup an Entity of the linked vocabulary by the id.
      * @param id the id
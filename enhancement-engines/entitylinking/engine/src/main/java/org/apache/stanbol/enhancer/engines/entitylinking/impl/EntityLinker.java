@@ -24,6 +24,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -97,6 +98,25 @@ public class EntityLinker {
     private long processingTime = -1;
 
     private Map<List<String>,List<Entity>> lookupCache;
+    /**
+     * Results of batched lookups performed for the search tokens of the
+     * current section. 
+     * @see #prefetchLookups()
+     */
+    private Map<List<String>,Collection<? extends Entity>> prefetched;
+    /**
+     * The section the {@link #prefetched} results where retrieved for
+     */
+    private Section prefetchedSection;
+    /**
+     * The limit used for batched lookups
+     */
+    private final int batchLookupLimit;
+    /**
+     * Set to <code>false</code> if the {@link #entitySearcher} does not
+     * support batched lookups
+     */
+    private boolean batchLookupSupported = true;
 
 
     public EntityLinker(AnalysedText analysedText, String language,
@@ -113,6 +133,7 @@ public class EntityLinker {
                 LabelTokenizer labelTokenizer, LinkingStateAware linkingStateAware) {
         //this.analysedText = analysedText;
         this.lookupCache = new HashMap<List<String>,List<Entity>>();
+        this.prefetched = new HashMap<List<String>,Collection<? extends Entity>>();
         this.entitySearcher = entitySearcher;
         this.linkerConfig = linkerConfig;
         this.textProcessingConfig = textProcessingConfig;
@@ -121,6 +142,8 @@ public class EntityLinker {
         minSearchResults = entitySearcher.getLimit() == null ? MIN_SEARCH_LIMIT : 
             Math.max(MIN_SEARCH_LIMIT,entitySearcher.getLimit());
         //this.lookupLimit  = Math.max(minResults,linkerConfig.getMaxSuggestions()*3);
+        this.batchLookupLimit = Math.max(MIN_SEARCH_LIMIT, 
+            linkerConfig.getMaxSuggestions()*2*linkerConfig.getMaxSearchTokens());
         this.linkingStateAware = linkingStateAware;
         //init the language settings
         this.documentLang = state.getLanguage();
@@ -154,6 +177,10 @@ public class EntityLinker {
                 }
                 linkingStateAware.startToken(state.getToken().token); //notify the current token
             }
+            if(batchLookupSupported && !state.getSentence().equals(prefetchedSection)){
+                prefetchedSection = state.getSentence();
+                prefetchLookups();
+            }
             TokenData token = state.getToken();
             if(log.isDebugEnabled()){
                 log.debug("--- preocess Token {}: {} (lemma: {}) linkable={}, matchable={} | chunk: {}",
@@ -161,104 +188,7 @@ public class EntityLinker {
                         token.isLinkable, token.isMatchable, token.inChunk != null ? 
                                 (token.inChunk.chunk + " "+ token.inChunk.chunk.getSpan()) : "none"});
             }
-            List<TokenData> searchStrings = new ArrayList<TokenData>(linkerConfig.getMaxSearchTokens());
-            getSearchString(token);
-            searchStrings.add(token);
-            //Determine the range we are allowed to search for tokens
-            final int minIncludeIndex;
-            final int maxIndcludeIndex;
-            int consumedIndex = state.getConsumedIndex();
-            //NOTE: testing has shown that using Chunks to restrict search for
-            //      additional matchable tokens does have an negative impact on
-            //      recall. Because of that this restriction is for now deactivated
-//            if(token.inChunk != null && !textProcessingConfig.isIgnoreChunks()){
-//                minIncludeIndex = token.inChunk.getStartTokenIndex();
-//                maxIndcludeIndex = token.inChunk.getEndTokenIndex();
-//                log.debug("  - restrict context to chunk[{}, {}]",
-//                    minIncludeIndex, maxIndcludeIndex);
-//            } else {
-                maxIndcludeIndex = state.getTokens().size() - 1;
-                minIncludeIndex = 0;
-//            }
-            int prevIndex = token.index;
-            int pastIndex = token.index;
-            int pastNonMatchable = 0;
-            int prevNonMatchable = 0;
-            int distance = 0;
-            do { 
-                distance++;//keep track of the distance
-                //get the past token at the given distance (However ignore
-                //non AlphaNumeric tokens when calculating the distance)
-                pastIndex++;
-                TokenData pastToken = null;
-                while(pastToken == null && maxIndcludeIndex >= pastIndex &&
-                        pastNonMatchable <= 1){
-                    TokenData td = state.getTokens().get(pastIndex);
-                    if(td.hasAlphaNumeric){
-                        pastToken = td;
-                    } else {
-                        pastIndex++;
-                    }
-                }
-                //get the previous token at the given distance (However ignore
-                //non AlphaNumeric tokens when calculating the distance)
-                prevIndex--;
-                TokenData prevToken = null;
-                while(prevToken == null && minIncludeIndex <= prevIndex &&
-                        //allow one nonMatchable token if prevIndex > the last
-                        //consumed one and zero nonMatchable if prevIndex is <=
-                        //the last consumed one
-                        ((prevIndex > consumedIndex && prevNonMatchable <= 1) ||
-                                prevIndex <= consumedIndex && prevNonMatchable < 1)){
-                    TokenData td = state.getTokens().get(prevIndex);
-                    if(td.hasAlphaNumeric){
-                        prevToken = td;
-                    } else {
-                        prevIndex--;
-                    }
-                }
-                //now that we know the tokens at this distance check if they are matchable
-                //Fist the past token
-                if(pastToken != null){
-                    if(log.isDebugEnabled()){
-                        log.debug("    {} {}:'{}' (lemma: {}) linkable={}, matchable={}",new Object[]{
-                                pastToken.isMatchable? '+':'-',pastToken.index,
-                                pastToken.getTokenText(), pastToken.getTokenLemma(),
-                                pastToken.isLinkable, pastToken.isMatchable
-                        });
-                    }
-                    if(pastToken.isMatchable){
-                        searchStrings.add(pastToken);
-                    } else {
-                        pastNonMatchable++;
-                    }
-                }
-                //Second in the previous token
-                if(prevToken != null){
-                    if(log.isDebugEnabled()){
-                        log.debug("    {} {}:'{}' (lemma: {}) linkable={}, matchable={}",new Object[]{
-                            prevToken.isMatchable? '+':'-',prevToken.index,
-                            prevToken.getTokenText(), prevToken.getTokenLemma(),
-                            prevToken.isLinkable, prevToken.isMatchable
-                        });
-                    }
-                    if(prevToken.isMatchable){
-                        getSearchString(prevToken);
-                        searchStrings.add(0,prevToken);
-                    } else {
-                        prevNonMatchable++;
-                    }
-                }
-            } while(searchStrings.size() < linkerConfig.getMaxSearchTokens() && distance <
-                    linkerConfig.getMaxSearchDistance() &&
-                    (prevIndex > minIncludeIndex || pastIndex < maxIndcludeIndex) &&
-                    (prevNonMatchable <= 1 || pastNonMatchable <= 1));
-            //we might have an additional element in the list
-            if(searchStrings.size() > linkerConfig.getMaxSearchTokens()){
-                searchStrings = searchStrings.subList( //the last part of the list
-                    searchStrings.size()-linkerConfig.getMaxSearchTokens(), 
-                    searchStrings.size());
-            }
+            List<TokenData> searchStrings = getSearchTokens(token, state.getConsumedIndex());
             if(log.isDebugEnabled()){
                 List<String> list = new ArrayList<String>(searchStrings.size());
                 for(TokenData dt : searchStrings){
@@ -577,16 +507,159 @@ public class EntityLinker {
         }
     }
     /**
-     * Searches for Entities in the {@link #entitySearcher} corresponding to the
-     * {@link Token#getText() words} of the current {@link #state position} in
-     * the text.
-     * @param searchTokens the list of {@link Token#getText() words} to search
-     * entities for.
-     * @return The sorted list with the suggestions.
-     * If there are no suggestions an empty list will be returned.
-     * @throws EntitySearcherException 
+     * Collects the matchable tokens around the parsed token that are used
+     * to search for Entities.
+     * @param token the current token
+     * @param consumedIndex the index of the last consumed token
+     * @return the search tokens
      */
-    private List<Suggestion> lookupEntities(List<TokenData> searchTokens) throws EntitySearcherException {
+    private List<TokenData> getSearchTokens(TokenData token, int consumedIndex){
+        List<TokenData> searchStrings = new ArrayList<TokenData>(linkerConfig.getMaxSearchTokens());
+        getSearchString(token);
+        searchStrings.add(token);
+        //Determine the range we are allowed to search for tokens
+        final int minIncludeIndex;
+        final int maxIndcludeIndex;
+        //NOTE: testing has shown that using Chunks to restrict search for
+        //      additional matchable tokens does have an negative impact on
+        //      recall. Because of that this restriction is for now deactivated
+//            if(token.inChunk != null && !textProcessingConfig.isIgnoreChunks()){
+//                minIncludeIndex = token.inChunk.getStartTokenIndex();
+//                maxIndcludeIndex = token.inChunk.getEndTokenIndex();
+//                log.debug("  - restrict context to chunk[{}, {}]",
+//                    minIncludeIndex, maxIndcludeIndex);
+//            } else {
+            maxIndcludeIndex = state.getTokens().size() - 1;
+            minIncludeIndex = 0;
+//            }
+        int prevIndex = token.index;
+        int pastIndex = token.index;
+        int pastNonMatchable = 0;
+        int prevNonMatchable = 0;
+        int distance = 0;
+        do { 
+            distance++;//keep track of the distance
+            //get the past token at the given distance (However ignore
+            //non AlphaNumeric tokens when calculating the distance)
+            pastIndex++;
+            TokenData pastToken = null;
+            while(pastToken == null && maxIndcludeIndex >= pastIndex &&
+                    pastNonMatchable <= 1){
+                TokenData td = state.getTokens().get(pastIndex);
+                if(td.hasAlphaNumeric){
+                    pastToken = td;
+                } else {
+                    pastIndex++;
+                }
+            }
+            //get the previous token at the given distance (However ignore
+            //non AlphaNumeric tokens when calculating the distance)
+            prevIndex--;
+            TokenData prevToken = null;
+            while(prevToken == null && minIncludeIndex <= prevIndex &&
+                    //allow one nonMatchable token if prevIndex > the last
+                    //consumed one and zero nonMatchable if prevIndex is <=
+                    //the last consumed one
+                    ((prevIndex > consumedIndex && prevNonMatchable <= 1) ||
+                            prevIndex <= consumedIndex && prevNonMatchable < 1)){
+                TokenData td = state.getTokens().get(prevIndex);
+                if(td.hasAlphaNumeric){
+                    prevToken = td;
+                } else {
+                    prevIndex--;
+                }
+            }
+            //now that we know the tokens at this distance check if they are matchable
+            //Fist the past token
+            if(pastToken != null){
+                if(log.isDebugEnabled()){
+                    log.debug("    {} {}:'{}' (lemma: {}) linkable={}, matchable={}",new Object[]{
+                            pastToken.isMatchable? '+':'-',pastToken.index,
+                            pastToken.getTokenText(), pastToken.getTokenLemma(),
+                            pastToken.isLinkable, pastToken.isMatchable
+                    });
+                }
+                if(pastToken.isMatchable){
+                    searchStrings.add(pastToken);
+                } else {
+                    pastNonMatchable++;
+                }
+            }
+            //Second in the previous token
+            if(prevToken != null){
+                if(log.isDebugEnabled()){
+                    log.debug("    {} {}:'{}' (lemma: {}) linkable={}, matchable={}",new Object[]{
+                        prevToken.isMatchable? '+':'-',prevToken.index,
+                        prevToken.getTokenText(), prevToken.getTokenLemma(),
+                        prevToken.isLinkable, prevToken.isMatchable
+                    });
+                }
+                if(prevToken.isMatchable){
+                    getSearchString(prevToken);
+                    searchStrings.add(0,prevToken);
+                } else {
+                    prevNonMatchable++;
+                }
+            }
+        } while(searchStrings.size() < linkerConfig.getMaxSearchTokens() && distance <
+                linkerConfig.getMaxSearchDistance() &&
+                (prevIndex > minIncludeIndex || pastIndex < maxIndcludeIndex) &&
+                (prevNonMatchable <= 1 || pastNonMatchable <= 1));
+        //we might have an additional element in the list
+        if(searchStrings.size() > linkerConfig.getMaxSearchTokens()){
+            searchStrings = searchStrings.subList( //the last part of the list
+                searchStrings.size()-linkerConfig.getMaxSearchTokens(), 
+                searchStrings.size());
+        }
+        return searchStrings;
+    }
+    /**
+     * Performs a single batched lookup for the search tokens of all linkable
+     * tokens of the current section (including the fallback searches for
+     * single tokens) and stores the results in {@link #prefetched}.
+     * Searches already present in the {@link #lookupCache} are not included.
+     * As search tokens do depend on the consumed tokens some of the
+     * prefetched searches might not be used. Lookups for such searches are
+     * still performed individually.
+     * @throws EntitySearcherException
+     */
+    private void prefetchLookups() throws EntitySearcherException {
+        prefetched.clear();
+        int consumedIndex = state.getConsumedIndex();
+        Set<List<String>> searches = new LinkedHashSet<List<String>>();
+        for(TokenData token : state.getTokens()){
+            if(token.isLinkable && token.index > consumedIndex){
+                List<String> search = getSearchStrings(getSearchTokens(token, consumedIndex));
+                if(!lookupCache.containsKey(search)){
+                    searches.add(search);
+                }
+                search = Collections.singletonList(getSearchString(token));
+                if(!lookupCache.containsKey(search)){
+                    searches.add(search);
+                }
+            }
+        }
+        if(searches.size() < 2){
+            return; //nothing to gain
+        }
+        lookupStats.begin(); //keep statistics
+        Map<List<String>,Collection<? extends Entity>> results = entitySearcher.lookup(
+            linkerConfig.getNameField(), linkerConfig.getSelectedFields(), 
+            searches, getLookupLanguages(), batchLookupLimit);
+        lookupStats.complete();
+        if(results == null){
+            log.debug(" > batched lookups are not supported by {}",entitySearcher);
+            batchLookupSupported = false;
+        } else {
+            log.debug(" > prefetched results for {} of {} searches",results.size(),searches.size());
+            prefetched.putAll(results);
+        }
+    }
+    /**
+     * Getter for the languages used for lookups
+     * @return the languages
+     */
+    private String[] getLookupLanguages(){
         Set<String> languages = new HashSet<String>();
         languages.add(linkerConfig.getDefaultLanguage());
         languages.add(state.getLanguage());
@@ -594,11 +667,33 @@ public class EntityLinker {
         if(countryCodeIndex >= 2){
             languages.add(state.getLanguage().substring(0,countryCodeIndex));
         }
+        return languages.toArray(new String[languages.size()]);
+    }
+    /**
+     * Converts the parsed search tokens to the search strings
+     * @param searchTokens the search tokens
+     * @return the search strings
+     */
+    private List<String> getSearchStrings(List<TokenData> searchTokens){
         List<String> searchStrings = new ArrayList<String>(searchTokens.size());
         for(Iterator<TokenData> it = searchTokens.iterator();it.hasNext();){
             searchStrings.add(getSearchString(it.next()));
         }
-        String[] languageArray = languages.toArray(new String[languages.size()]);
+        return searchStrings;
+    }
+    /**
+     * Searches for Entities in the {@link #entitySearcher} corresponding to the
+     * {@link Token#getText() words} of the current {@link #state position} in
+     * the text.
+     * @param searchTokens the list of {@link Token#getText() words} to search
+     * entities for.
+     * @return The sorted list with the suggestions.
+     * If there are no suggestions an empty list will be returned.
+     * @throws EntitySearcherException 
+     */
+    private List<Suggestion> lookupEntities(List<TokenData> searchTokens) throws EntitySearcherException {
+        List<String> searchStrings = getSearchStrings(searchTokens);
+        String[] languageArray = getLookupLanguages();
         List<Suggestion> suggestions = new ArrayList<Suggestion>();
         //check if we have the search strings in the cache
         List<Entity> results = lookupCache.get(searchStrings);
@@ -611,7 +706,8 @@ public class EntityLinker {
         } else { // we need to perform a new query
             results = new ArrayList<Entity>();
             //perform the lookup with the parsed parameter
-            int numResults = performLookup(searchStrings, languageArray, suggestions, searchTokens, results);
+            int numResults = performLookup(searchStrings, languageArray, suggestions, searchTokens, results,
+                prefetched.remove(searchStrings));
             //cache the results
             lookupCache.put(searchStrings, results);
             //if no match where found in the result .. fallback to a search for the
@@ -633,7 +729,8 @@ public class EntityLinker {
                 } else {
                     results = new ArrayList<Entity>();
                     log.debug("     ... fallback to search for active token '{}' ...",searchStrings);
-                    performLookup(searchStrings, languageArray, suggestions, searchTokens, results);
+                    performLookup(searchStrings, languageArray, suggestions, searchTokens, results,
+                        prefetched.remove(searchStrings));
                     //cache the results of the fall-back query
                     lookupCache.put(searchStrings, results);
                 }
@@ -654,12 +751,17 @@ public class EntityLinker {
      * parameters. This is used to cache results of queries. This avoid issuing
      * the same query twice for a analysed document.
      * string.
+     * @param prefetchedResults the results of a batched lookup for the parsed
+     * search strings used instead of individual requests or <code>null</code>
+     * if not available. Those are guaranteed to include all results of an
+     * individual lookup.
      * @return
      * @throws EntitySearcherException
      */
     private int performLookup(List<String> searchStrings, String[] languageArray,
             List<Suggestion> suggestions, List<TokenData> searchTokens, 
-            List<Entity> queryResults) throws EntitySearcherException {
+            List<Entity> queryResults, Collection<? extends Entity> prefetchedResults) 
+                    throws EntitySearcherException {
         int minProcessedResults = linkerConfig.getMaxSuggestions()*3;
         int lookupLimit = Math.max(MIN_SEARCH_LIMIT, linkerConfig.getMaxSuggestions()*2*searchTokens.size());
         int maxResults = lookupLimit*2;
@@ -681,15 +783,25 @@ public class EntityLinker {
                 moreResultsAvailable && (numResults-numFiltered) < (minProcessedResults) &&
                 numResults < maxResults){
             Collection<? extends Entity> results;
-            log.debug("   > request entities [{}-{}] entities ...",offset,(offset+lookupLimit));
-            lookupStats.begin(); //keep statistics
-            results = entitySearcher.lookup(linkerConfig.getNameField(),
-                linkerConfig.getSelectedFields(), searchStrings, languageArray,
-                lookupLimit, offset);
-            lookupStats.complete();
-            log.debug("      < found {} entities ...",results.size());
-            //queries might return more as the requested results
-            moreResultsAvailable = results.size() >= lookupLimit;
+            if(offset == 0 && prefetchedResults != null){
+                results = prefetchedResults;
+                log.debug("   > use {} prefetched entities ...",results.size());
+                //prefetched results are complete (see EntitySearcher#lookup(..))
+                //NOTE: paging with offset = prefetchedResults.size() is not
+                //      possible as the ranking of the batched lookup is
+                //      different to the ranking of the individual lookup
+                moreResultsAvailable = false;
+            } else {
+                log.debug("   > request entities [{}-{}] entities ...",offset,(offset+lookupLimit));
+                lookupStats.begin(); //keep statistics
+                results = entitySearcher.lookup(linkerConfig.getNameField(),
+                    linkerConfig.getSelectedFields(), searchStrings, languageArray,
+                    lookupLimit, offset);
+                lookupStats.complete();
+                log.debug("      < found {} entities ...",results.size());
+                //queries might return more as the requested results
+                moreResultsAvailable = results.size() >= lookupLimit;
+            }
             numResults = numResults + results.size();
             offset = numResults;
             matchingStats.begin();
@@ -51,6 +51,7 @@ import org.apache.clerezza.commons.rdf.impl.utils.TripleImpl;
 import org.apache.stanbol.commons.indexedgraph.IndexedGraph;
 import org.apache.stanbol.enhancer.contentitem.inmemory.InMemoryContentItemFactory;
 import org.apache.stanbol.enhancer.engines.entitylinking.Entity;
+import org.apache.stanbol.enhancer.engines.entitylinking.EntitySearcherException;
 import org.apache.stanbol.enhancer.engines.entitylinking.LabelTokenizer;
 import org.apache.stanbol.enhancer.engines.entitylinking.config.EntityLinkerConfig;
 import org.apache.stanbol.enhancer.engines.entitylinking.config.LanguageProcessingConfig;
@@ -247,6 +248,8 @@ public class EntityLinkingEngineTest {
 
     @After
     public void unbindServices() {
+        searcher.setBatchLookups(true, true);
+        searcher.resetCounts();
     }
 
     @AfterClass
@@ -342,6 +345,62 @@ public class EntityLinkingEngineTest {
                 Arrays.asList("urn:test:UniversityOfOtago","urn:test:UniversityOfOtago_Texas")));
         validateEntityLinkerResults(linker, expectedResults);
     }
+    /**
+     * Tests that batched lookups are used by the EntityLinker and that
+     * results are the same regardless if searches are looked up batched,
+     * individually or if the batched lookup does not return results for
+     * some searches.
+     * @throws Exception
+     */
+    @Test
+    public void testEntityLinkerWithBatchedLookups() throws Exception {
+        //(1) no support for batched lookups
+        searcher.setBatchLookups(false, false);
+        searcher.resetCounts();
+        linkNouns();
+        assertEquals(1, searcher.getBatchLookupCount()); //not tried again
+        int individualLookups = searcher.getLookupCount();
+        assertTrue(individualLookups > 0);
+        //(2) batched lookups
+        searcher.setBatchLookups(true, true);
+        searcher.resetCounts();
+        linkNouns();
+        assertTrue(searcher.getBatchLookupCount() > 0);
+        assertTrue("batched lookups MUST reduce the number of individual lookups ("+
+            searcher.getLookupCount()+" >= "+individualLookups+")",
+            searcher.getLookupCount() < individualLookups);
+        //(3) incomplete batched lookups need to fall back to individual lookups
+        searcher.setBatchLookups(true, false);
+        searcher.resetCounts();
+        linkNouns();
+        assertTrue(searcher.getBatchLookupCount() > 0);
+        assertEquals(individualLookups, searcher.getLookupCount());
+    }
+    /**
+     * Links {@link #TEST_ANALYSED_TEXT} with the configuration used by
+     * {@link #testEntityLinkerWithNouns()} and validates the results
+     */
+    private void linkNouns() throws EntitySearcherException {
+        LanguageProcessingConfig tpc = new LanguageProcessingConfig();
+        tpc.setLinkedLexicalCategories(LanguageProcessingConfig.DEFAULT_LINKED_LEXICAL_CATEGORIES);
+        tpc.setLinkedPos(Collections.EMPTY_SET);
+        EntityLinkerConfig config = new EntityLinkerConfig();
+        config.setMinFoundTokens(2);//this is assumed by this test
+        config.setRedirectProcessingMode(RedirectProcessingMode.FOLLOW);
+        EntityLinker linker = new EntityLinker(TEST_ANALYSED_TEXT,"en",
+            tpc, searcher, config, labelTokenizer);
+        linker.process();
+        Map<String,List<String>> expectedResults = new HashMap<String,List<String>>();
+        expectedResults.put("Patrick Marshall", new ArrayList<String>(
+                Arrays.asList("urn:test:PatrickMarshall")));
+        expectedResults.put("geologist", new ArrayList<String>(
+                Arrays.asList("urn:test:redirect:Geologist"))); //the redirected entity
+        expectedResults.put("New Zealand", new ArrayList<String>(
+                Arrays.asList("urn:test:NewZealand")));
+        expectedResults.put("University of Otago", new ArrayList<String>(
+                Arrays.asList("urn:test:UniversityOfOtago","urn:test:UniversityOfOtago_Texas")));
+        validateEntityLinkerResults(linker, expectedResults);
+    }
     private void validateEntityLinkerResults(EntityLinker linker, Map<String,List<String>> expectedResults) {
         log.info("---------------------");
         log.info("- Validating Results-");
@@ -46,7 +46,17 @@ public class TestSearcherImpl implements EntitySearcher {
     private SortedMap<String,Collection<Entity>> data = new TreeMap<String,Collection<Entity>>(String.CASE_INSENSITIVE_ORDER);
     private Map<IRI,Entity> entities = new HashMap<IRI,Entity>();
     private Map<IRI,Collection<RDFTerm>> originInfo;
-
+    /**
+     * If batched lookups are supported
+     */
+    private boolean batchLookups = true;
+    /**
+     * If <code>false</code> batched lookups return no results to emulate a
+     * truncated combined query
+     */
+    private boolean completeBatchResults = true;
+    private int lookupCount;
+    private int batchLookupCount;
     
     public TestSearcherImpl(String siteId,IRI nameField, LabelTokenizer tokenizer) {
         this.nameField = nameField;
@@ -85,6 +95,11 @@ public class TestSearcherImpl implements EntitySearcher {
                                            Set<IRI> includeFields,
                                            List<String> search,
                                            String[] languages,Integer numResults, Integer offset) throws IllegalStateException {
+        lookupCount++;
+        return lookup(field, search, offset);
+    }
+    
+    private Collection<? extends Entity> lookup(IRI field, List<String> search, Integer offset){
         if(field.equals(nameField)){
             //we do not need sorting
             //Representation needs to implement equals, therefore results filters multiple matches
@@ -112,6 +127,52 @@ public class TestSearcherImpl implements EntitySearcher {
         }
     }
 
+    @Override
+    public Map<List<String>,Collection<? extends Entity>> lookup(IRI field,
+            Set<IRI> includeFields, Collection<List<String>> searches,
+            String[] languages, Integer limit) throws IllegalStateException {
+        batchLookupCount++;
+        if(!batchLookups){
+            return null;
+        }
+        Map<List<String>,Collection<? extends Entity>> results = 
+                new HashMap<List<String>,Collection<? extends Entity>>();
+        if(completeBatchResults){
+            for(List<String> search : searches){
+                results.put(search, lookup(field, search, null));
+            }
+        }
+        return results;
+    }
+    /**
+     * Configures how batched lookups are handled by this searcher
+     * @param supported if batched lookups are supported
+     * @param complete if batched lookups return results
+     */
+    public void setBatchLookups(boolean supported, boolean complete){
+        this.batchLookups = supported;
+        this.completeBatchResults = complete;
+    }
+    /**
+     * Resets the {@link #getLookupCount()} and {@link #getBatchLookupCount()}
+     */
+    public void resetCounts(){
+        lookupCount = 0;
+        batchLookupCount = 0;
+    }
+    /**
+     * @return the number of individual lookups since the last {@link #resetCounts()}
+     */
+    public int getLookupCount() {
+        return lookupCount;
+    }
+    /**
+     * @return the number of batched lookups since the last {@link #resetCounts()}
+     */
+    public int getBatchLookupCount() {
+        return batchLookupCount;
+    }
+
     @Override
     public boolean supportsOfflineMode() {
         return true;
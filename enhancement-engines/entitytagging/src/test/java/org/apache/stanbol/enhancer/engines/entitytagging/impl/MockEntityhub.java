@@ -18,6 +18,7 @@ package org.apache.stanbol.enhancer.engines.entitytagging.impl;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedList;
 
 import org.apache.solr.client.solrj.SolrServer;
@@ -120,6 +121,11 @@ class MockEntityhub implements Entityhub {
         return null;
     }
 
+    @Override
+    public Collection<Entity> getEntities(Iterable<String> entityIds) throws IllegalArgumentException, EntityhubException {
+        return Collections.emptyList();
+    }
+
     @Override
     public Entity importEntity(String reference) throws IllegalStateException,
                                                 IllegalArgumentException,
@@ -86,6 +86,22 @@ public class LanguageDetectionEnhancementEngine
     @Property(intValue=LanguageDetectionEnhancementEngine.DEFAULT_MAX_SUGGESTED_LANGUAGES)
     public static final String MAX_SUGGESTED_PROP = "org.apache.stanbol.enhancer.engines.langdetect.max-suggested";
 
+    /**
+     * The maximum number of characters read from the beginning of the text
+     * if no {@link #PROBE_LENGTH_PROP probe length} is configured. Values
+     * &lt;= 0 read the whole text.
+     */
+    @Property(intValue=LanguageDetectionEnhancementEngine.DEFAULT_SAMPLE_LENGTH)
+    public static final String SAMPLE_LENGTH_PROP = "org.apache.stanbol.enhancer.engines.langdetect.sample-length";
+
+    /**
+     * The probability of the best language that is sufficient to stop the
+     * detection before the whole sample is processed. Values &gt;= 1 deactivate
+     * this.
+     */
+    @Property(doubleValue=LanguageDetectionEnhancementEngine.DEFAULT_MIN_CONFIDENCE)
+    public static final String MIN_CONFIDENCE_PROP = "org.apache.stanbol.enhancer.engines.langdetect.min-confidence";
+
     /**
      * The default value for the Execution of this Engine (
      * {@link ServiceProperties#ORDERING_NLP_LANGAUGE_DETECTION})<p>
@@ -124,6 +140,24 @@ public class LanguageDetectionEnhancementEngine
      */
     private static final int DEFAULT_MAX_SUGGESTED_LANGUAGES = 3;
 
+    /**
+     * Default for the maximum number of characters read from the text. The
+     * language detection library does not use more than 10000 characters
+     * of the parsed text so reading more is not necessary.
+     */
+    private static final int DEFAULT_SAMPLE_LENGTH = 10000;
+
+    /**
+     * Default for the probability sufficient to stop the detection early
+     */
+    private static final double DEFAULT_MIN_CONFIDENCE = 0.99;
+
+    /**
+     * The length of the first text window used for the detection. If the
+     * detected language is not certain enough the window is doubled.
+     */
+    private static final int SAMPLE_WINDOW = 1000;
+
     /**
      * How much text should be used for testing: If the value is 0 or smaller,
      * the complete text will be used. Otherwise a text probe of the given length
@@ -133,6 +167,10 @@ public class LanguageDetectionEnhancementEngine
     
     private int maxSuggestedLanguages = DEFAULT_MAX_SUGGESTED_LANGUAGES;
     
+    private int sampleLength = DEFAULT_SAMPLE_LENGTH;
+    
+    private double minConfidence = DEFAULT_MIN_CONFIDENCE;
+    
     /**
      * The literal factory
      */
@@ -181,6 +219,33 @@ public class LanguageDetectionEnhancementEngine
             if(maxSuggestedLanguages < 1){
                 maxSuggestedLanguages = DEFAULT_MAX_SUGGESTED_LANGUAGES;
             }
+            value = properties.get(SAMPLE_LENGTH_PROP);
+            if(value instanceof Number){
+                sampleLength = ((Number)value).intValue();
+            } else if(value != null){
+                try {
+                    sampleLength = Integer.parseInt(value.toString());
+                } catch (NumberFormatException e) {
+                    throw new ConfigurationException(SAMPLE_LENGTH_PROP, 
+                        "The parsed 'sample length' MUST be a valid Integer", e);
+                }
+            } else {
+                sampleLength = DEFAULT_SAMPLE_LENGTH;
+            }
+            value = properties.get(MIN_CONFIDENCE_PROP);
+            if(value instanceof Number){
+                minConfidence = ((Number)value).doubleValue();
+            } else if(value != null){
+                try {
+                    minConfidence = Double.parseDouble(value.toString());
+                } catch (NumberFormatException e) {
+                    throw new ConfigurationException(MIN_CONFIDENCE_PROP, 
+                        "The parsed 'minimum confidence' MUST be a valid floating "
+                        + "point number", e);
+                }
+            } else {
+                minConfidence = DEFAULT_MIN_CONFIDENCE;
+            }
         }
         languageIdentifier = new LanguageIdentifier();
     }
@@ -190,6 +255,8 @@ public class LanguageDetectionEnhancementEngine
         this.languageIdentifier = null;
         this.maxSuggestedLanguages = -1;
         this.probeLength = -1;
+        this.sampleLength = DEFAULT_SAMPLE_LENGTH;
+        this.minConfidence = DEFAULT_MIN_CONFIDENCE;
     }
 
     public int canEnhance(ContentItem ci) throws EngineException {
@@ -211,7 +278,10 @@ public class LanguageDetectionEnhancementEngine
         }
         String text = "";
         try {
-            text = ContentItemHelper.getText(contentPart.getValue());
+            //a probe from the middle requires the whole text. Otherwise only
+            //the sample is read from the beginning of the text
+            text = ContentItemHelper.getText(contentPart.getValue(), 
+                probeLength > 0 ? -1 : sampleLength);
         } catch (IOException e) {
             throw new InvalidContentException(this, ci, e);
         }
@@ -229,7 +299,9 @@ public class LanguageDetectionEnhancementEngine
         }
         List<Language> languages = null;
         try {
-            languages = languageIdentifier.getLanguages(text);
+            languages = minConfidence < 1 ? 
+                    languageIdentifier.getLanguages(text, SAMPLE_WINDOW, minConfidence) :
+                        languageIdentifier.getLanguages(text);
             log.debug("language identified: {}",languages);
         } catch (LangDetectException e) {
             Enum<?> errorCode = e.getCode();
@@ -36,13 +36,31 @@ import com.cybozu.labs.langdetect.Language;
 
 public class LanguageIdentifier {
     
+    /**
+     * The language profiles are immutable and kept by the static
+     * {@link DetectorFactory}. They are loaded only once and shared by all
+     * instances (and threads) to avoid reloading them (and breaking
+     * detections running in parallel) on every instantiation.
+     */
+    private static boolean profilesLoaded = false;
+    /**
+     * The maximum number of characters a sample is extended to not split
+     * the last word
+     */
+    private static final int MAX_WORD_LENGTH = 64;
+    
     public LanguageIdentifier() throws LangDetectException {
-        DetectorFactory.clear();
-        try {
-            DetectorFactory.loadProfile(loadProfiles("profiles","profiles.cfg"));
-        } catch (Exception e) {
-            throw new LangDetectException(null, "Error in Initialization: "+e.getMessage());
-        } 
+        synchronized (LanguageIdentifier.class) {
+            if(!profilesLoaded){
+                DetectorFactory.clear();
+                try {
+                    DetectorFactory.loadProfile(loadProfiles("profiles","profiles.cfg"));
+                } catch (Exception e) {
+                    throw new LangDetectException(null, "Error in Initialization: "+e.getMessage());
+                }
+                profilesLoaded = true;
+            }
+        }
     }
     /**
      * Load the profiles from the classpath
@@ -86,5 +104,49 @@ public class LanguageIdentifier {
         detector.append(text);
         return detector.getProbabilities();
     }
+    
+    /**
+     * Detects the languages based on growing samples from the beginning of
+     * the parsed text. The first sample uses <code>windowLength</code>
+     * characters. If the probability of the best language is lower than
+     * <code>minProbability</code> the size of the sample is doubled until
+     * the whole text is used.<p>
+     * For long texts this typically only needs to process the first sample.
+     * @param text the text
+     * @param windowLength the length of the first sample. If <code>&lt;= 0</code>
+     * the whole text is used
+     * @param minProbability the probability of the best language required to
+     * stop with the current sample
+     * @return the detected languages
+     * @throws LangDetectException if no language could be detected for the
+     * whole text
+     */
+    public List<Language> getLanguages(String text, int windowLength, double minProbability) throws LangDetectException {
+        if(windowLength <= 0 || text.length() <= windowLength){
+            return getLanguages(text);
+        }
+        int end = 0;
+        int length = windowLength;
+        while(true){
+            end = Math.min(text.length(), end + length);
+            //do not split words (texts of some languages do not use spaces)
+            int maxEnd = Math.min(text.length(), end + MAX_WORD_LENGTH);
+            while(end < maxEnd && !Character.isWhitespace(text.charAt(end))){
+                end++;
+            }
+            try {
+                List<Language> languages = getLanguages(text.substring(0, end));
+                if(end >= text.length() || (!languages.isEmpty() && 
+                        languages.get(0).prob >= minProbability)){
+                    return languages;
+                }
+            } catch (LangDetectException e) {
+                if(end >= text.length()){
+                    throw e;
+                } //else the sample might not contain any usable text
+            }
+            length = end; //double the size of the sample
+        }
+    }
 
 }
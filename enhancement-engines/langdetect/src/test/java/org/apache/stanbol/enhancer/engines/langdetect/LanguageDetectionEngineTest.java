@@ -20,6 +20,7 @@ import static org.junit.Assert.assertEquals;
 import static org.apache.stanbol.enhancer.test.helper.EnhancementStructureHelper.validateAllEntityAnnotations;
 import static org.apache.stanbol.enhancer.test.helper.EnhancementStructureHelper.validateAllTextAnnotations;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
@@ -27,6 +28,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 
 
 import org.apache.clerezza.rdf.core.LiteralFactory;
@@ -52,6 +54,7 @@ import org.slf4j.LoggerFactory;
 import com.cybozu.labs.langdetect.Detector;
 import com.cybozu.labs.langdetect.DetectorFactory;
 import com.cybozu.labs.langdetect.LangDetectException;
+import com.cybozu.labs.langdetect.Language;
 
 /**
  * {@link LanguageDetectionEngineTest} is a test class for {@link TextCategorizer}.
@@ -99,6 +102,25 @@ public class LanguageDetectionEngineTest {
         }
     }
     
+    /**
+     * Tests the language identification based on growing samples
+     *
+     * @throws IOException if there is an error when reading the text
+     */
+    @Test
+    public void testSampledLangId() throws LangDetectException, IOException {
+        for (String file: TEST_FILE_NAMES) {
+            String expectedLang = file.substring(0,2);
+            InputStream in = LanguageDetectionEngineTest.class.getClassLoader().getResourceAsStream(file);
+            assertNotNull("failed to load resource " + file, in);
+            String text = IOUtils.toString(in, "UTF-8");
+            in.close();
+            List<Language> languages = langId.getLanguages(text, 100, 0.99);
+            assertFalse(languages.isEmpty());
+            assertEquals(expectedLang, languages.get(0).lang.substring(0,2));
+        }
+    }
+    
     /**
      * Test the engine and validates the created enhancements
      * @throws EngineException
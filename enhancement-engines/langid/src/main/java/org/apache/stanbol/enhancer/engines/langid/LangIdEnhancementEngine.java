@@ -73,6 +73,13 @@ public class LangIdEnhancementEngine
     @Property
     public static final String PROBE_LENGTH_PROP = "org.apache.stanbol.enhancer.engines.langid.probe-length";
 
+    /**
+     * The maximum number of characters read from the beginning of the text.
+     * The probe is taken from the middle of this sample.
+     */
+    @Property(intValue=LangIdEnhancementEngine.SAMPLE_LENGTH_DEFAULT)
+    public static final String SAMPLE_LENGTH_PROP = "org.apache.stanbol.enhancer.engines.langid.sample-length";
+
 
     /**
      * The default value for the Execution of this Engine (
@@ -100,6 +107,8 @@ public class LangIdEnhancementEngine
 
     private static final int PROBE_LENGTH_DEFAULT = 1000;
 
+    private static final int SAMPLE_LENGTH_DEFAULT = 10000;
+
     /**
      * How much text should be used for testing: If the value is 0 or smaller,
      * the complete text will be used. Otherwise a text probe of the given length
@@ -107,6 +116,12 @@ public class LangIdEnhancementEngine
      */
     private int probeLength = PROBE_LENGTH_DEFAULT;
 
+    /**
+     * The maximum number of characters read from the text. If the value is
+     * 0 or smaller the complete text is read.
+     */
+    private int sampleLength = SAMPLE_LENGTH_DEFAULT;
+
     /**
      * Initialize the language identifier model and load the prop length bound if
      * provided as a property.
@@ -121,6 +136,19 @@ public class LangIdEnhancementEngine
             Dictionary<String, String> properties = ce.getProperties();
             String lengthVal = properties.get(PROBE_LENGTH_PROP);
             probeLength = lengthVal == null ? PROBE_LENGTH_DEFAULT : Integer.parseInt(lengthVal);
+            Object value = ((Dictionary<?,?>)properties).get(SAMPLE_LENGTH_PROP);
+            if(value instanceof Number){
+                sampleLength = ((Number)value).intValue();
+            } else if(value != null){
+                try {
+                    sampleLength = Integer.parseInt(value.toString());
+                } catch (NumberFormatException e) {
+                    throw new ConfigurationException(SAMPLE_LENGTH_PROP, 
+                        "The parsed 'sample length' MUST be a valid Integer", e);
+                }
+            } else {
+                sampleLength = SAMPLE_LENGTH_DEFAULT;
+            }
         }
         LanguageIdentifier.initProfiles();
     }
@@ -144,7 +172,7 @@ public class LangIdEnhancementEngine
         }
         String text = "";
         try {
-            text = ContentItemHelper.getText(contentPart.getValue());
+            text = ContentItemHelper.getText(contentPart.getValue(), sampleLength);
         } catch (IOException e) {
             throw new InvalidContentException(this, ci, e);
         }
@@ -154,12 +182,23 @@ public class LangIdEnhancementEngine
             return;
         }
 
-        // truncate text to some piece from the middle if probeLength > 0
+        // truncate text to some piece from the middle if probeLength > 0.
+        // If the language is not reasonably certain the probe is doubled
+        // until the whole text is used
         int checkLength = probeLength;
+        LanguageIdentifier languageIdentifier;
         if (checkLength > 0 && text.length() > checkLength) {
-            text = text.substring(text.length() / 2 - checkLength / 2, text.length() / 2 + checkLength / 2);
+            do {
+                languageIdentifier = new LanguageIdentifier(text.substring(
+                    text.length() / 2 - checkLength / 2, text.length() / 2 + checkLength / 2));
+                checkLength = checkLength * 2;
+            } while(!languageIdentifier.isReasonablyCertain() && checkLength < text.length());
+            if(!languageIdentifier.isReasonablyCertain()){
+                languageIdentifier = new LanguageIdentifier(text);
+            }
+        } else {
+            languageIdentifier = new LanguageIdentifier(text);
         }
-        LanguageIdentifier languageIdentifier = new LanguageIdentifier(text);
         String language = languageIdentifier.getLanguage();
         log.info("language identified as " + language);
 
@@ -183,6 +222,14 @@ public class LangIdEnhancementEngine
         this.probeLength = probeLength;
     }
 
+    public int getSampleLength() {
+        return sampleLength;
+    }
+
+    public void setSampleLength(int sampleLength) {
+        this.sampleLength = sampleLength;
+    }
+
     public Map<String, Object> getServiceProperties() {
         return Collections.singletonMap(ENHANCEMENT_ENGINE_ORDERING, (Object) defaultOrder);
     }
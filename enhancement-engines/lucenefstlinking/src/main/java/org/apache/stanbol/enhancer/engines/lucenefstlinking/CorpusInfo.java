@@ -76,6 +76,12 @@ public class CorpusInfo {
      * if the FST corpus can be created on the fly
      */
     public final boolean allowCreation;
+    /**
+     * if the FST corpus is shared with other {@link CorpusInfo}s using the
+     * same {@link #fst} file and kept in memory until the corpus is
+     * {@link #release() released}.
+     */
+    public final boolean shared;
     /**
      * The Solr {@link Analyzer} used for the field
      */
@@ -86,6 +92,10 @@ public class CorpusInfo {
     protected final ReadWriteLock corpusLock = new ReentrantReadWriteLock();
     
     protected Reference<TaggerFstCorpus> taggerCorpusRef;
+    /**
+     * Strong reference to the corpus used if this corpus is {@link #shared}
+     */
+    private TaggerFstCorpus sharedCorpus;
     
     private Future<TaggerFstCorpus> enqueuedCorpus;
     /**
@@ -109,13 +119,15 @@ public class CorpusInfo {
      * @param analyzer
      * @param fst
      * @param allowCreation
+     * @param shared
      */
-    protected CorpusInfo(String language, String indexField, String storeField, FieldType fieldType, File fst, boolean allowCreation){
+    protected CorpusInfo(String language, String indexField, String storeField, FieldType fieldType, File fst, boolean allowCreation, boolean shared){
         this.language = language;
         this.indexedField = indexField;
         this.storedField = storeField;
         this.fst = fst;
         this.allowCreation = allowCreation;
+        this.shared = shared;
         this.analyzer = fieldType.getAnalyzer();
         this.taggingAnalyzer = fieldType.getQueryAnalyzer();
         this.fstDate = fst.isFile() ? new Date(fst.lastModified()) : null;
@@ -149,7 +161,8 @@ public class CorpusInfo {
      * Allows to explicitly set the corpus after runtime creation has finished.
      * The corpus will be linked by using a {@link WeakReference} to allow the
      * GC to free the memory it consumes. If this happens the corpus will be
-     * loaded from the {@link #fst} file.
+     * loaded from the {@link #fst} file. {@link #shared} corpora are strongly
+     * referenced instead.
      * @param enqueued the version of the corpus
      * @param corpus the corpus
      */
@@ -161,6 +174,8 @@ public class CorpusInfo {
                 taggerCorpusRef.clear();
                 taggerCorpusRef = null;
             }
+            //NOTE: if shared the loaded corpus is still available via the registry
+            sharedCorpus = null;
             if(corpus != null){
                 //reset any error
                 this.errorMessage = null; 
@@ -169,7 +184,11 @@ public class CorpusInfo {
                 //GC to free the corpus earlier.
                 //This is done, because here the corpus was just built and not
                 //yet requested. So we want those to be GCed earlier.
-                taggerCorpusRef = new WeakReference<TaggerFstCorpus>(corpus);
+                if(shared){
+                    sharedCorpus = corpus;
+                } else {
+                    taggerCorpusRef = new WeakReference<TaggerFstCorpus>(corpus);
+                }
             }
         } finally {
             corpusLock.writeLock().unlock();
@@ -191,6 +210,9 @@ public class CorpusInfo {
                                 }
                             }
                             corpus.save(fst);
+                            if(shared){ //publish the new version to other holders
+                                SharedCorpusRegistry.update(fst, corpus, CorpusInfo.this);
+                            }
                             return null; //not used
                         }
                     });
@@ -211,7 +233,7 @@ public class CorpusInfo {
                             taggerCorpusRef = new SoftReference<TaggerFstCorpus>(corpus);
                         }
                     } finally {
-                        corpusLock.writeLock().lock();
+                        corpusLock.writeLock().unlock();
                     }
                 } else { //Runtime exception
                     throw RuntimeException.class.cast(e);
@@ -224,7 +246,11 @@ public class CorpusInfo {
         TaggerFstCorpus corpus;
         corpusLock.readLock().lock();
         try {
-            corpus = taggerCorpusRef == null ? null : taggerCorpusRef.get();
+            if(shared){
+                corpus = sharedCorpus;
+            } else {
+                corpus = taggerCorpusRef == null ? null : taggerCorpusRef.get();
+            }
             if(corpus != null){
                 //on first usage replace a WeakReference with a SoftReference
                 if(taggerCorpusRef instanceof WeakReference<?>){
@@ -242,14 +268,20 @@ public class CorpusInfo {
             log.info(" ... load FST corpus {}",fst);
             corpusLock.writeLock().lock();
             try { //STANBOL-1177: load FST models in AccessController.doPrivileged(..)
-                corpus = taggerCorpusRef == null ? null : taggerCorpusRef.get();
+                if(shared){
+                    corpus = sharedCorpus;
+                } else {
+                    corpus = taggerCorpusRef == null ? null : taggerCorpusRef.get();
+                }
                 if(corpus == null){ //corpus not loaded while waiting for the write lock
                     corpus = AccessController.doPrivileged(new PrivilegedExceptionAction<TaggerFstCorpus>() {
                         public TaggerFstCorpus run() throws IOException {
                             if(fst.exists() && //if the file exists AND the file was not yet failing to load 
                                     //OR the file is newer as the last version failing to load
                                     (!fstFileError || FileUtils.isFileNewer(fst, fstDate))){
-                                TaggerFstCorpus corpus = TaggerFstCorpus.load(fst);
+                                TaggerFstCorpus corpus = shared ? 
+                                        SharedCorpusRegistry.acquire(fst, CorpusInfo.this) :
+                                            TaggerFstCorpus.load(fst);
                                 if(corpus != null){
                                     //I need to set fstDate here, because I can not
                                     //access lastModified() outside doPrivileged
@@ -271,7 +303,11 @@ public class CorpusInfo {
                     });
                     if(corpus != null){
                         fstFileError = false;
-                        taggerCorpusRef = new SoftReference<TaggerFstCorpus>(corpus);
+                        if(shared){
+                            sharedCorpus = corpus;
+                        } else {
+                            taggerCorpusRef = new SoftReference<TaggerFstCorpus>(corpus);
+                        }
                     } //else not loaded from file
                 } //else corpus was loaded while waiting for the write lock
             } catch (PrivilegedActionException pae) {
@@ -291,6 +327,27 @@ public class CorpusInfo {
         }
         return corpus;
     }
+    /**
+     * Releases a {@link #shared} corpus so that it can be garbage collected
+     * as soon as no other {@link CorpusInfo} uses it. Needs to be called if
+     * this {@link CorpusInfo} is no longer used. For non shared corpora this
+     * only clears the reference to the corpus.
+     */
+    protected void release(){
+        corpusLock.writeLock().lock();
+        try {
+            if(taggerCorpusRef != null){
+                taggerCorpusRef.clear();
+                taggerCorpusRef = null;
+            }
+            if(shared){
+                sharedCorpus = null;
+                SharedCorpusRegistry.release(fst, this);
+            }
+        } finally {
+            corpusLock.writeLock().unlock();
+        }
+    }
     /**
      * Called after the curpus was enqueued for rebuilding
      */
@@ -330,6 +387,7 @@ public class CorpusInfo {
         sb.append(" | file: ").append(fst.getName())
             .append("(exists: ").append(fst.isFile()).append(')')
             .append(" | runtime creation: ").append(allowCreation)
+            .append(" | shared: ").append(shared)
             .append("]");
         return sb.toString();
     }
@@ -273,10 +273,11 @@ public class FstLinkingEngine implements EnhancementEngine, ServiceProperties {
                 }
             }
             int matches = match(content, tags.values(), session.entityMentionTypes);
-            log.debug(" - loaded {} ({} loaded, {} cached, {} appended) Matches in {} ms", 
-                    new Object[]{matches, session.getSessionDocLoaded(),
+            log.debug(" - loaded {} ({} loaded, {} cached, {} appended) Matches in {} ms "
+                    + "(disc IO: {} ms)", new Object[]{matches, session.getSessionDocLoaded(),
                         session.getSessionDocCached(), session.getSessionDocAppended(),
-                        System.currentTimeMillis()-taggingEnd});
+                        System.currentTimeMillis()-taggingEnd,
+                        session.getSessionDocLoadTime()/1000000});
             if(log.isDebugEnabled() && session.getDocumentCache() != null){
                 log.debug("EntityCache Statistics: {}", 
                     session.getDocumentCache().printStatistics());
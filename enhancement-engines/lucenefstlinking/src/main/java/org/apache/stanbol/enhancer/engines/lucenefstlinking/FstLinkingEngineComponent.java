@@ -76,6 +76,7 @@ import org.apache.stanbol.enhancer.engines.entitylinking.config.EntityLinkerConf
 import org.apache.stanbol.enhancer.engines.entitylinking.config.TextProcessingConfig;
 import org.apache.stanbol.enhancer.engines.lucenefstlinking.cache.EntityCacheManager;
 import org.apache.stanbol.enhancer.engines.lucenefstlinking.cache.FastLRUCacheManager;
+import org.apache.stanbol.enhancer.engines.lucenefstlinking.cache.TinyLfuEntityCacheManager;
 import org.apache.stanbol.enhancer.nlp.ner.NerTag;
 import org.apache.stanbol.enhancer.nlp.utils.LanguageConfiguration;
 import org.apache.stanbol.enhancer.servicesapi.EnhancementEngine;
@@ -144,6 +145,8 @@ import com.google.common.util.concurrent.ThreadFactoryBuilder;
         intValue=FstLinkingEngineComponent.DEFAULT_FST_THREAD_POOL_SIZE),
     @Property(name=FstLinkingEngineComponent.ENTITY_CACHE_SIZE, 
         intValue=FstLinkingEngineComponent.DEFAULT_ENTITY_CACHE_SIZE),
+    @Property(name=FstLinkingEngineComponent.ENTITY_CACHE_TINY_LFU, 
+        boolValue=FstLinkingEngineComponent.DEFAULT_ENTITY_CACHE_TINY_LFU),
     @Property(name=SUGGESTIONS, intValue=DEFAULT_SUGGESTIONS),
     @Property(name=INCLUDE_SIMILAR_SCORE, boolValue=DEFAULT_INCLUDE_SIMILAR_SCORE),
     @Property(name=CASE_SENSITIVE,boolValue=DEFAULT_CASE_SENSITIVE_MATCHING_STATE),
@@ -223,6 +226,17 @@ public class FstLinkingEngineComponent {
      * The default size of the Entity Cache is set to 65k entities.
      */
     public static final int DEFAULT_ENTITY_CACHE_SIZE = 65536;
+    /**
+     * Parameter used to switch from the default LRU based EntityCache to the
+     * {@link TinyLfuEntityCacheManager}. This cache is keyed by the URIs of
+     * Entities, only invalidates changed Entities on updates of the Solr index
+     * and uses a frequency based admission policy. 
+     */
+    public static final String ENTITY_CACHE_TINY_LFU = "enhancer.engines.linking.lucenefst.entityCacheTinyLfu";
+    /**
+     * By default the LRU based EntityCache is used
+     */
+    public static final boolean DEFAULT_ENTITY_CACHE_TINY_LFU = false;
 
     /**
      * Changed default for the {@link EntityLinkerConfig#MIN_FOUND_TOKENS} property.
@@ -344,6 +358,10 @@ public class FstLinkingEngineComponent {
      * The size of the EntityCache ( <code>0</code> ... means deactivated)
      */
     private int entityCacheSize;
+    /**
+     * If the {@link TinyLfuEntityCacheManager} is used
+     */
+    private boolean entityCacheTinyLfu;
 
     private Map<String,Set<String>> nerTypeMappings;
     
@@ -580,6 +598,17 @@ public class FstLinkingEngineComponent {
             this.entityCacheSize = entityCacheSize < 0 ? DEFAULT_ENTITY_CACHE_SIZE : entityCacheSize;
         	log.info(" ... EntityCache enabled (size: {})",this.entityCacheSize);
         }
+        value = properties.get(ENTITY_CACHE_TINY_LFU);
+        if(value instanceof Boolean){
+            entityCacheTinyLfu = ((Boolean)value).booleanValue();
+        } else if(value != null){
+            entityCacheTinyLfu = Boolean.parseBoolean(value.toString());
+        } else {
+            entityCacheTinyLfu = DEFAULT_ENTITY_CACHE_TINY_LFU;
+        }
+        if(entityCacheTinyLfu && this.entityCacheSize > 0){
+            log.info(" ... use TinyLFU EntityCache");
+        }
         
         //(8) parse the Entity type field
         value = properties.get(IndexConfiguration.SOLR_TYPE_FIELD);
@@ -775,7 +804,12 @@ public class FstLinkingEngineComponent {
                 indexConfig.setFstDirectory(getFstDirectory(core, fstFolder));
                 //set the DocumentCacheFactory
                 if(entityCacheSize > 0){
-                    indexConfig.setEntityCacheManager(new FastLRUCacheManager(entityCacheSize));
+                    if(entityCacheTinyLfu){
+                        indexConfig.setEntityCacheManager(new TinyLfuEntityCacheManager(
+                            core.getLatestSchema().getUniqueKeyField(), entityCacheSize));
+                    } else {
+                        indexConfig.setEntityCacheManager(new FastLRUCacheManager(entityCacheSize));
+                    }
                 } //else no entityCache is used
                 if(skipAltTokensConfig != null){
                     indexConfig.setSkipAltTokens(skipAltTokensConfig);
@@ -812,6 +846,16 @@ public class FstLinkingEngineComponent {
                         } finally {
                             fstInfo.corpusLock.writeLock().unlock();
                         }
+                    } else if(fstInfo.shared && fstInfo.isFstFile()){
+                        //preload shared corpora so that the engine can be
+                        //registered without waiting for the FST to be loaded
+                        final CorpusInfo sharedFstInfo = fstInfo;
+                        fstCreatorService.submit(new Runnable() {
+                            @Override
+                            public void run() {
+                                sharedFstInfo.getCorpus();
+                            }
+                        });
                     }
                 }
                 
@@ -975,6 +1019,7 @@ public class FstLinkingEngineComponent {
         textProcessingConfig = null;
         entityLinkerConfig = null;
         entityCacheSize = -1;
+        entityCacheTinyLfu = DEFAULT_ENTITY_CACHE_TINY_LFU;
         bundleContext = null;
         skipAltTokensConfig = null;
         
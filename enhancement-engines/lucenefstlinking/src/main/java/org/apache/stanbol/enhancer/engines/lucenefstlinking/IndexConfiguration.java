@@ -112,6 +112,11 @@ public class IndexConfiguration {
      * lanugages might override this)
      */
     private final boolean runtimeGeneration;
+    /**
+     * If FST corpora are shared by default (Note: explicitly configured
+     * languages might override this)
+     */
+    private final boolean sharedCorpora;
 
     /**
      * used to track if this index configuration is active
@@ -223,6 +228,20 @@ public class IndexConfiguration {
      * file for a language
      */
     public static final String PARAM_FST = "fst";
+    /**
+     * By default FST corpora are not shared. Use {@link #PARAM_SHARED} to
+     * enable it.
+     */
+    public static final boolean DEFAULT_SHARED = false;
+    /**
+     * Parameter used by the {@link IndexConfiguration#FST_CONFIG} to specify
+     * that loaded FST corpora are shared with all other configurations that
+     * use the same FST file within this JVM. Shared corpora are kept in memory
+     * until no longer used by any configuration. Non shared corpora are only
+     * softly referenced and will be re-loaded from the FST file if they got
+     * garbage collected.
+     */
+    public static final String PARAM_SHARED = "shared";
     
     public IndexConfiguration(LanguageConfiguration fstConfig, SolrCore index, FieldEncodingEnum fieldEncoding, String defaultLanguage){
         if(fstConfig == null){
@@ -239,6 +258,13 @@ public class IndexConfiguration {
         } else {
             runtimeGeneration = Boolean.parseBoolean(allowCreationString);
         }
+        //check if corpora are shared
+        String sharedString = fstConfig.getDefaultParameters().get(IndexConfiguration.PARAM_SHARED);
+        if(sharedString == null){
+            sharedCorpora = IndexConfiguration.DEFAULT_SHARED;
+        } else {
+            sharedCorpora = Boolean.parseBoolean(sharedString);
+        }
         
         this.index = index;
         if(fieldEncoding == null){
@@ -256,12 +282,19 @@ public class IndexConfiguration {
     }
     
     /**
-     * Assumed to be called in a write lock on {@link #corpusInfoLock}
+     * Assumed to be called in a write lock on {@link #corpusInfoLock}. 
+     * {@link CorpusInfo#shared Shared} corpora are registered with the
+     * {@link SharedCorpusRegistry} before the corpora of replaced 
+     * {@link CorpusInfo}s are released. This keeps already loaded FST 
+     * corpora in memory.
      * @param corpus
      */
     private void addCorpusInfo(CorpusInfo corpus){
         if(corpus != null){
             corpusInfos.put(corpus.language, corpus);
+            if(corpus.shared){
+                SharedCorpusRegistry.register(corpus.fst, corpus);
+            }
         }
     }
     
@@ -439,10 +472,16 @@ public class IndexConfiguration {
     }
     
     /**
-     * Deactivates this {@link IndexConfiguration}
+     * Deactivates this {@link IndexConfiguration}. This also releases all
+     * FST corpora loaded by this configuration.
      */
     public void deactivate(){
         active = false;
+        if(corpusInfos != null){
+            for(CorpusInfo corpusInfo : getCorpora()){
+                corpusInfo.release();
+            }
+        }
     }
     
     /**
@@ -481,6 +520,14 @@ public class IndexConfiguration {
     public boolean isRuntimeGeneration() {
         return runtimeGeneration;
     }
+    /**
+     * If FST corpora are shared by default (Note: explicitly configured
+     * languages might override this)
+     * @return if FST corpora are shared by default
+     */
+    public boolean isSharedCorpora() {
+        return sharedCorpora;
+    }
     
     public boolean isActive() {
         return active;
@@ -590,6 +637,8 @@ public class IndexConfiguration {
                 corpusInfosCopy = new HashMap<String,CorpusInfo>(corpusInfos);
                 corpusInfos.clear(); //clear the old data
             }
+            //keep the old corpora to release those that are no longer used
+            Collection<CorpusInfo> oldCorpusInfos = new ArrayList<CorpusInfo>(corpusInfosCopy.values());
             //(0) get basic parameters of the default configuration
             log.debug(" - default config");
             Map<String,String> defaultParams = fstConfig.getDefaultParameters();
@@ -681,7 +730,7 @@ public class IndexConfiguration {
                                                 !fstInfo.storedField.equals(storeFieldName)){ //store field compatible
                                             CorpusInfo newFstInfo = new CorpusInfo(language, 
                                                 fieldInfo.name, storeFieldName,  
-                                                fieldType, fstFile, runtimeGeneration);
+                                                fieldType, fstFile, runtimeGeneration, sharedCorpora);
                                             log.debug(" ... {} {} ", fstInfo == null ? "create" : "update", newFstInfo);
                                             addCorpusInfo(newFstInfo);
                                             corpusInfosCopy.put(language, newFstInfo);
@@ -715,6 +764,8 @@ public class IndexConfiguration {
                 String langFstFileName = config.get(IndexConfiguration.PARAM_FST);
                 final boolean langAllowCreation;
                 final String langAllowCreationString = config.get(IndexConfiguration.PARAM_RUNTIME_GENERATION);
+                final boolean langShared;
+                final String langSharedString = config.get(IndexConfiguration.PARAM_SHARED);
                 if(langIndexField != null){
                     //also consider explicit field names as default for the fst name
                     if(langFstFileName == null){
@@ -746,6 +797,11 @@ public class IndexConfiguration {
                 } else {
                     langAllowCreation = runtimeGeneration;
                 }
+                if(langSharedString != null){
+                    langShared = Boolean.parseBoolean(langSharedString);
+                } else {
+                    langShared = sharedCorpora;
+                }
                 //(2.b) check if the Solr field is present
                 String encodedLangIndexField = FieldEncodingEnum.encodeLanguage(
                     langIndexField, fieldEncoding, language);
@@ -763,10 +819,11 @@ public class IndexConfiguration {
                                 CorpusInfo langFstInfo = corpusInfosCopy.get(language);
                                 if(langFstInfo == null || //new one
                                         !langFstInfo.indexedField.equals(encodedLangIndexField) || //index field compatible
-                                        !langFstInfo.storedField.equals(encodedLangStoreField)){ //store field compatible
+                                        !langFstInfo.storedField.equals(encodedLangStoreField) || //store field compatible
+                                        langFstInfo.shared != langShared){ //shared state compatible
                                     CorpusInfo newLangFstInfo = new CorpusInfo(language, 
                                         encodedLangIndexField,encodedLangStoreField,
-                                        fieldType, langFstFile, langAllowCreation);
+                                        fieldType, langFstFile, langAllowCreation, langShared);
                                     log.debug("   ... {} {} for explicitly configured language", 
                                         langFstInfo == null ? "create" : "update", newLangFstInfo);
                                     addCorpusInfo(newLangFstInfo);
@@ -795,6 +852,12 @@ public class IndexConfiguration {
                                 language, langIndexField, encodedLangIndexField });
                 }
             }
+            //(3) release FST corpora of no longer used CorpusInfos
+            for(CorpusInfo oldCorpusInfo : oldCorpusInfos){
+                if(corpusInfos.get(oldCorpusInfo.language) != oldCorpusInfo){
+                    oldCorpusInfo.release();
+                }
+            }
         } finally {
             corpusInfoLock.writeLock().unlock();
         }
@@ -79,6 +79,8 @@ import org.osgi.service.component.ComponentContext;
             intValue=FstLinkingEngineComponent.DEFAULT_FST_THREAD_POOL_SIZE),
         @Property(name=FstLinkingEngineComponent.ENTITY_CACHE_SIZE, 
             intValue=FstLinkingEngineComponent.DEFAULT_ENTITY_CACHE_SIZE),
+        @Property(name=FstLinkingEngineComponent.ENTITY_CACHE_TINY_LFU, 
+            boolValue=FstLinkingEngineComponent.DEFAULT_ENTITY_CACHE_TINY_LFU),
         @Property(name=SUGGESTIONS, intValue=DEFAULT_SUGGESTIONS),
         @Property(name=INCLUDE_SIMILAR_SCORE, boolValue=DEFAULT_INCLUDE_SIMILAR_SCORE),
         @Property(name=CASE_SENSITIVE,boolValue=DEFAULT_CASE_SENSITIVE_MATCHING_STATE),
@@ -0,0 +1,174 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.engines.lucenefstlinking;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.opensextant.solrtexttagger.TaggerFstCorpus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * JVM wide registry for {@link TaggerFstCorpus} instances used by
+ * {@link CorpusInfo}s that are configured as
+ * {@link IndexConfiguration#PARAM_SHARED shared}.<p>
+ * Corpora are keyed by the canonical path of the FST file. All
+ * {@link CorpusInfo}s referring the same FST file (e.g. multiple
+ * FstLinkingEngine configurations for the same SolrCore) will use the
+ * same {@link TaggerFstCorpus} instance. A corpus is strongly referenced
+ * as long as at least a single holder has not {@link #release(File, Object)
+ * released} it. This means that - unlike non shared corpora - shared corpora
+ * are never evicted by the GC and re-loaded under memory pressure.<p>
+ * Changes to the FST file are detected by its last modification date and
+ * size. In this case the next call to {@link #acquire(File, Object)} will load
+ * the new version of the corpus.
+ */
+final class SharedCorpusRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(SharedCorpusRegistry.class);
+
+    private static final Map<String,Entry> entries = new HashMap<String,Entry>();
+
+    private SharedCorpusRegistry(){/* no instances allowed*/}
+
+    /**
+     * Getter for the shared corpus for the parsed FST file. If the corpus is
+     * not yet loaded or the FST file was updated since it was loaded it is
+     * (re)loaded. The parsed holder is registered for the corpus.<p>
+     * NOTE: callers are responsible to call this within
+     * <code>AccessController.doPrivileged(..)</code> (see STANBOL-1177).
+     * @param fst the FST file
+     * @param holder the holder of the corpus (typically the {@link CorpusInfo})
+     * @return the corpus or <code>null</code> if the FST file does not exist
+     * or the FST file does not contain a corpus.
+     * @throws IOException on any error while loading the FST file
+     */
+    static TaggerFstCorpus acquire(File fst, Object holder) throws IOException {
+        Entry entry = register(fst, holder);
+        synchronized (entry) { //only one thread loads the same corpus
+            if(!fst.isFile()){
+                return entry.corpus; //keep the current (if any)
+            }
+            if(entry.corpus == null || entry.lastModified != fst.lastModified() ||
+                    entry.length != fst.length()){
+                log.info(" ... load shared FST corpus {} (holders: {})", fst,
+                    entry.holders.size());
+                long lastModified = fst.lastModified();
+                long length = fst.length();
+                TaggerFstCorpus corpus = TaggerFstCorpus.load(fst);
+                if(corpus != null){
+                    entry.corpus = corpus;
+                    entry.lastModified = lastModified;
+                    entry.length = length;
+                }
+            } else {
+                log.debug(" ... use already loaded shared FST corpus {}", fst);
+            }
+            return entry.corpus;
+        }
+    }
+    /**
+     * Sets the corpus for the parsed FST file after it was created at runtime
+     * and written to the parsed file.
+     * @param fst the FST file the corpus was written to
+     * @param corpus the corpus
+     * @param holder the holder of the corpus
+     */
+    static void update(File fst, TaggerFstCorpus corpus, Object holder){
+        Entry entry = register(fst, holder);
+        synchronized (entry) {
+            entry.corpus = corpus;
+            entry.lastModified = fst.lastModified();
+            entry.length = fst.length();
+        }
+    }
+    /**
+     * Registers the parsed holder for the corpus of the parsed FST file without
+     * loading it. Registering holders before releasing old ones ensures that
+     * a loaded corpus is kept in memory if a configuration is replaced by
+     * a new one using the same FST file.
+     * @param fst the FST file
+     * @param holder the holder of the corpus
+     * @return the entry for the FST file
+     */
+    static Entry register(File fst, Object holder){
+        synchronized (entries) {
+            String key = getKey(fst);
+            Entry entry = entries.get(key);
+            if(entry == null){
+                entry = new Entry();
+                entries.put(key, entry);
+            }
+            entry.holders.add(holder);
+            return entry;
+        }
+    }
+    /**
+     * Releases the corpus for the parsed holder. If no holder remains the
+     * corpus is removed from the registry.
+     * @param fst the FST file
+     * @param holder the holder
+     */
+    static void release(File fst, Object holder){
+        synchronized (entries) {
+            String key = getKey(fst);
+            Entry entry = entries.get(key);
+            if(entry != null && entry.holders.remove(holder) &&
+                    entry.holders.isEmpty()){
+                log.debug(" ... release shared FST corpus {}", fst);
+                entries.remove(key);
+            }
+        }
+    }
+
+    /**
+     * The number of holders registered for the corpus of the parsed FST file
+     * @param fst the FST file
+     * @return the number of holders or <code>0</code> if the FST file is not
+     * registered
+     */
+    static int getHolderCount(File fst){
+        synchronized (entries) {
+            Entry entry = entries.get(getKey(fst));
+            return entry == null ? 0 : entry.holders.size();
+        }
+    }
+
+    private static String getKey(File fst){
+        try {
+            return fst.getCanonicalPath();
+        } catch (IOException e) {
+            return fst.getAbsolutePath();
+        }
+    }
+
+    static class Entry {
+
+        final Set<Object> holders = Collections.newSetFromMap(
+            new IdentityHashMap<Object,Boolean>());
+        TaggerFstCorpus corpus;
+        long lastModified;
+        long length;
+
+    }
+}
@@ -120,6 +120,7 @@ public class TaggingSession implements Closeable {
     private int docLoaded = 0;
     private int docCached = 0;
     private int docAppended = 0;
+    private long docLoadTime = 0;
     //private final ValueSourceAccessor uniqueKeyCache;
     //private final Map<Integer,Match> matchPool = new HashMap<Integer,Match>(2048);
     private final FieldLoaderImpl fieldLoader;
@@ -216,7 +217,7 @@ public class TaggingSession implements Closeable {
             this.rankingField = null;
         }
         if(config.getEntityCacheManager() != null){
-            documentCacheRef = config.getEntityCacheManager().getCache(indexVersion);
+            documentCacheRef = config.getEntityCacheManager().getCache(indexVersion, searcher);
         }
 //        uniqueKeyCache = null; //no longer used.
 //        uniqueKeyCache = new ValueSourceAccessor(searcher, idSchemaField.getType()
@@ -337,6 +338,14 @@ public class TaggingSession implements Closeable {
     public int getSessionDocAppended(){
         return docAppended;
     }
+    /**
+     * The time (in nano seconds) spent in this session for loading Lucene
+     * Documents (and missing fields of cached Documents) from disc. 
+     * @return the time spent for loading documents from disc
+     */
+    public long getSessionDocLoadTime(){
+        return docLoadTime;
+    }
 
     
     /**
@@ -502,6 +511,7 @@ public class TaggingSession implements Closeable {
             if(doc == null){
                 doc = cache != null ? cache.get(ID) : null;
                 if(doc == null){
+                    long start = System.nanoTime();
                     doc = reader.document(id, solrDocfields);
                     //if we read a doc from the index we need to add information about
                     //the fields we loaded (especially the languages of labels loaded
@@ -511,6 +521,7 @@ public class TaggingSession implements Closeable {
                         doc.add(loadedFieldsField);
                     }
                     docLoaded++;
+                    docLoadTime += System.nanoTime() - start;
                     if(cache != null){
                         cache.cache(ID, doc);
                     }
@@ -524,7 +535,9 @@ public class TaggingSession implements Closeable {
                     }
                     if(!fields.isEmpty()){ //we are missing some fields
                         //need to load it from the index
+                        long start = System.nanoTime();
                         Document tmp = reader.document(id, fields);
+                        docLoadTime += System.nanoTime() - start;
                         //add the additional fields to the cached doc
                         for(IndexableField field : tmp.getFields()){
                             doc.add(field);
@@ -534,9 +547,9 @@ public class TaggingSession implements Closeable {
                             doc.add(new StringField(LOADED_FIELDS_FIELD_NAME, 
                                 loadedField, Store.NO));
                         }
-                        //NOTE: no need to update the cache, as we have updated the
-                        //cached value.
-                        //cache.cache(ID, doc);
+                        //NOTE: caches that store copies of documents (e.g. the
+                        //TinyLfuEntityCache) need to be updated
+                        cache.cache(ID, doc);
                         docAppended++;
                     } else {
                         docCached++;
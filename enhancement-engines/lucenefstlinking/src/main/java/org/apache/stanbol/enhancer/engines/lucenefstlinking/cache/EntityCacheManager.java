@@ -45,9 +45,14 @@ public interface EntityCacheManager {
      * {@link SolrIndexSearcher} instance can be used as version object as a new 
      * cache instance should be created if a new index searcher was opened by 
      * the SolrCore.
+     * @param searcher the {@link SolrIndexSearcher} for the parsed version.
+     * Implementations that do not key cached entities by Lucene document ids
+     * (e.g. the {@link TinyLfuEntityCacheManager}) need it to map document ids
+     * to the unique keys of entities. Callers MUST NOT use the returned
+     * {@link EntityCache} after the searcher was closed.
      * @return A counting reference to the EntityCache
      */
-    RefCounted<EntityCache> getCache(Object version);
+    RefCounted<EntityCache> getCache(Object version, SolrIndexSearcher searcher);
 
     /**
      * Called if the EntityCacheManager is no longer used
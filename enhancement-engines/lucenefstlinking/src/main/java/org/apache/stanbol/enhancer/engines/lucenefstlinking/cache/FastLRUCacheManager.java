@@ -26,6 +26,7 @@ import org.apache.lucene.document.Document;
 import org.apache.solr.search.CacheRegenerator;
 import org.apache.solr.search.FastLRUCache;
 import org.apache.solr.search.SolrCache;
+import org.apache.solr.search.SolrIndexSearcher;
 import org.apache.solr.util.RefCounted;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -80,7 +81,7 @@ public class FastLRUCacheManager implements EntityCacheManager {
     
     
     @Override
-    public RefCounted<EntityCache> getCache(Object version) {
+    public RefCounted<EntityCache> getCache(Object version, SolrIndexSearcher searcher) {
         lock.readLock().lock();
         try {
             if(current != null && current.get().getVersion().equals(version)){
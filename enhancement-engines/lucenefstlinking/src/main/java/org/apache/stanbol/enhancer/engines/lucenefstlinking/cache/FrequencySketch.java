@@ -0,0 +1,118 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.engines.lucenefstlinking.cache;
+
+/**
+ * Count-Min sketch with 4bit counters used to estimate the access frequency
+ * of cached entities (as used by the TinyLFU admission policy).
+ * <p>
+ * Each <code>long</code> of the table holds 16 counters. An element is
+ * mapped to one counter in four rows (using different hash seeds). The
+ * estimated frequency is the minimum of those counters. To allow the sketch
+ * to adapt to changes in the access pattern all counters are halved after
+ * <code>10 * maximumSize</code> increments.
+ * <p>
+ * This class is not thread safe.
+ */
+final class FrequencySketch {
+
+    private static final long[] SEEDS = new long[]{
+        0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L,
+        0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+    /**
+     * Mask used to clear the highest bit of all counters after shifting
+     */
+    private static final long RESET_MASK = 0x7777777777777777L;
+
+    private final long[] table;
+    private final int tableMask;
+    private final int sampleSize;
+    private int size;
+
+    /**
+     * Creates a sketch for a cache with the parsed maximum size
+     * @param maximumSize the maximum number of cached elements
+     */
+    FrequencySketch(int maximumSize) {
+        int length = 16;
+        int max = Math.max(16, Math.min(maximumSize, 1 << 28));
+        while(length < max){
+            length = length << 1;
+        }
+        table = new long[length];
+        tableMask = length - 1;
+        sampleSize = (int)Math.min(10L * maximumSize, Integer.MAX_VALUE);
+    }
+    /**
+     * The estimated frequency of the parsed element
+     * @param e the element
+     * @return the estimated frequency in the range [0..15]
+     */
+    int frequency(Object e) {
+        int hash = spread(e.hashCode());
+        int frequency = 15;
+        for(int i = 0; i < 4; i++){
+            int h = rehash(hash, i);
+            int shift = (h & 15) << 2;
+            int index = (h >>> 4) & tableMask;
+            frequency = Math.min(frequency, (int)((table[index] >>> shift) & 15L));
+        }
+        return frequency;
+    }
+    /**
+     * Increments the frequency of the parsed element
+     * @param e the element
+     */
+    void increment(Object e) {
+        int hash = spread(e.hashCode());
+        boolean added = false;
+        for(int i = 0; i < 4; i++){
+            int h = rehash(hash, i);
+            int shift = (h & 15) << 2;
+            int index = (h >>> 4) & tableMask;
+            long mask = 15L << shift;
+            if((table[index] & mask) != mask){ //counter is not saturated
+                table[index] += 1L << shift;
+                added = true;
+            }
+        }
+        if(added && ++size >= sampleSize){
+            reset();
+        }
+    }
+    /**
+     * Halves all counters
+     */
+    private void reset() {
+        for(int i = 0; i < table.length; i++){
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        size = size >>> 1;
+    }
+
+    private static int rehash(int hash, int i) {
+        long h = (hash + SEEDS[i]) * SEEDS[i];
+        h += h >>> 32;
+        return (int)h;
+    }
+
+    private static int spread(int x) {
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        return (x >>> 16) ^ x;
+    }
+}
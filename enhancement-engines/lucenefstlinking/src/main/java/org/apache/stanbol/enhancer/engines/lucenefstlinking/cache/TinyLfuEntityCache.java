@@ -0,0 +1,98 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.engines.lucenefstlinking.cache;
+
+import java.util.List;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.AtomicReaderContext;
+import org.apache.lucene.index.ReaderUtil;
+import org.apache.solr.schema.SchemaField;
+import org.apache.solr.search.SolrIndexSearcher;
+import org.apache.stanbol.enhancer.engines.lucenefstlinking.impl.ValueSourceAccessor;
+
+/**
+ * {@link EntityCache} view over the data of a {@link TinyLfuEntityCacheManager}
+ * for a specific {@link SolrIndexSearcher}. It maps Lucene document ids of
+ * the searcher to the unique keys (URIs) of entities used as keys by the
+ * {@link TinyLfuEntityCacheManager}.
+ * <p>
+ * Instances are not thread safe and are intended to be used by a single
+ * tagging session.
+ */
+class TinyLfuEntityCache implements EntityCache {
+
+    private final TinyLfuEntityCacheManager manager;
+    private final Object version;
+    private final List<AtomicReaderContext> leaves;
+    private final ValueSourceAccessor uniqueKeys;
+
+    TinyLfuEntityCache(TinyLfuEntityCacheManager manager, Object version,
+            SolrIndexSearcher searcher, SchemaField idField) {
+        this.manager = manager;
+        this.version = version;
+        this.leaves = searcher.getTopReaderContext().leaves();
+        this.uniqueKeys = new ValueSourceAccessor(searcher,
+            idField.getType().getValueSource(idField, null));
+    }
+
+    @Override
+    public Object getVersion() {
+        return version;
+    }
+
+    @Override
+    public Document get(Integer docId) {
+        String uri = getUri(docId);
+        if(uri == null){
+            return null;
+        }
+        AtomicReaderContext leaf = leaves.get(ReaderUtil.subIndex(docId, leaves));
+        return manager.get(uri, manager.getSegmentId(leaf.reader().getCoreCacheKey()),
+            docId - leaf.docBase);
+    }
+
+    @Override
+    public void cache(Integer docId, Document doc) {
+        String uri = getUri(docId);
+        if(uri != null){
+            AtomicReaderContext leaf = leaves.get(ReaderUtil.subIndex(docId, leaves));
+            manager.cache(uri, manager.getSegmentId(leaf.reader().getCoreCacheKey()),
+                docId - leaf.docBase, doc);
+        }
+    }
+
+    private String getUri(Integer docId) {
+        Object value = uniqueKeys.objectVal(docId);
+        return value == null ? null : value.toString();
+    }
+
+    @Override
+    public int size() {
+        return manager.size();
+    }
+
+    @Override
+    public String printStatistics() {
+        return manager.printStatistics();
+    }
+
+    @Override
+    public String toString() {
+        return manager.printStatistics();
+    }
+}
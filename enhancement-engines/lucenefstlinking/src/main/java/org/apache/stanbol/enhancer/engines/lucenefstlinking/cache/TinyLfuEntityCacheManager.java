@@ -0,0 +1,394 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.engines.lucenefstlinking.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.index.IndexableField;
+import org.apache.solr.schema.SchemaField;
+import org.apache.solr.search.SolrIndexSearcher;
+import org.apache.solr.util.RefCounted;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link EntityCacheManager} that manages a single cache that is shared
+ * over all versions of the index.
+ * <p>
+ * Unlike the {@link FastLRUCacheManager} entities are not keyed by Lucene
+ * document ids but by the unique key of the entity (the URI). As Lucene
+ * document ids change with every merge of index segments each cached entity
+ * also stores the segment and the segment local document id it was loaded
+ * from. As Lucene never changes documents in existing segments (updates are
+ * deletes followed by adds to new segments) cached entities are valid as
+ * long as they are requested for the same segment and local document id.
+ * Outdated entities are invalidated on their next request. Because of this
+ * the cache is not cleared after the index was updated but only entities
+ * that have changed since are re-loaded from disc.
+ * <p>
+ * Cached entities are stored in a compact binary form (a single
+ * <code>byte[]</code> per entity) rather than as Lucene {@link Document}s.
+ * <p>
+ * New entities are only admitted to a full cache if their estimated access
+ * frequency is higher as the one of the least recently used entity that
+ * would be evicted (TinyLFU admission policy). This prevents entities that
+ * are only requested once (e.g. rare entities mentioned in a single document)
+ * from evicting frequently used ones.
+ * <p>
+ * NOTE: Mapping Lucene document ids to URIs uses the Lucene FieldCache of
+ * the unique key field of the Solr index. This requires additional memory
+ * for every segment of the index.
+ */
+public class TinyLfuEntityCacheManager implements EntityCacheManager {
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private static final byte TYPE_STRING = 0;
+    private static final byte TYPE_INT = 1;
+    private static final byte TYPE_LONG = 2;
+    private static final byte TYPE_FLOAT = 3;
+    private static final byte TYPE_DOUBLE = 4;
+
+    private final int maxSize;
+    private final SchemaField idField;
+    /**
+     * The cached entities in access order. Guarded by <code>this</code>.
+     */
+    private final LinkedHashMap<String,CachedEntity> entities;
+    /**
+     * Frequency sketch used for admission. Guarded by <code>this</code>.
+     */
+    private final FrequencySketch sketch;
+    /**
+     * Maps the core cache keys of index segments to int ids. Weak keys avoid
+     * holding references to closed segments.
+     */
+    private final Map<Object,Integer> segmentIds = new WeakHashMap<Object,Integer>();
+    private int nextSegmentId = 0;
+
+    private boolean closed = false;
+
+    private long lookups;
+    private long hits;
+    private long invalidated;
+    private long inserts;
+    private long rejected;
+    private long evicted;
+
+    /**
+     * Creates a cache manager
+     * @param idField the unique key field of the Solr index
+     * @param size the maximum number of cached entities. If <code>&lt;= 0</code>
+     * the default size of <code>65536</code> is used
+     */
+    public TinyLfuEntityCacheManager(SchemaField idField, int size) {
+        if(idField == null){
+            throw new IllegalArgumentException("The parsed unique key field MUST NOT be NULL!");
+        }
+        this.idField = idField;
+        this.maxSize = size > 0 ? size : 65536;
+        log.debug("> create {} (size: {}| idField: {})", new Object[]{
+                getClass().getSimpleName(), maxSize, idField.getName()});
+        this.entities = new LinkedHashMap<String,CachedEntity>(
+            Math.min(maxSize, 1024), 0.75f, true);
+        this.sketch = new FrequencySketch(maxSize);
+    }
+
+    @Override
+    public RefCounted<EntityCache> getCache(Object version, SolrIndexSearcher searcher) {
+        //the data are shared over all versions. So we only need to create a
+        //lightweight view for the parsed searcher
+        RefCounted<EntityCache> ref = new RefCounted<EntityCache>(
+                new TinyLfuEntityCache(this, version, searcher, idField)) {
+            @Override
+            protected void close() {/* nothing to do */}
+        };
+        ref.incref();
+        return ref;
+    }
+    /**
+     * Getter for the int id of the segment with the parsed core cache key
+     * @param coreKey the core cache key of the segment
+     * @return the id of the segment
+     */
+    synchronized int getSegmentId(Object coreKey){
+        Integer id = segmentIds.get(coreKey);
+        if(id == null){
+            id = Integer.valueOf(nextSegmentId++);
+            segmentIds.put(coreKey, id);
+        }
+        return id.intValue();
+    }
+    /**
+     * Getter for the cached document of the entity with the parsed URI
+     * @param uri the URI of the entity
+     * @param segmentId the id of the segment the entity is requested for
+     * @param localDocId the local document id within the segment
+     * @return the document or <code>null</code> if not cached or outdated
+     */
+    Document get(String uri, int segmentId, int localDocId){
+        byte[] data;
+        synchronized (this) {
+            if(closed){
+                return null;
+            }
+            lookups++;
+            sketch.increment(uri);
+            CachedEntity entity = entities.get(uri);
+            if(entity == null){
+                return null;
+            }
+            if(entity.segmentId != segmentId || entity.localDocId != localDocId){
+                //the entity was updated or the segment was merged
+                entities.remove(uri);
+                invalidated++;
+                return null;
+            }
+            hits++;
+            data = entity.data;
+        }
+        return decode(data);
+    }
+    /**
+     * Caches the parsed document for the entity with the parsed URI
+     * @param uri the URI of the entity
+     * @param segmentId the id of the segment the document was loaded from
+     * @param localDocId the local document id within the segment
+     * @param doc the document
+     */
+    void cache(String uri, int segmentId, int localDocId, Document doc){
+        CachedEntity entity = new CachedEntity(segmentId, localDocId, encode(doc));
+        synchronized (this) {
+            if(closed){
+                return;
+            }
+            if(entities.containsKey(uri) || entities.size() < maxSize){
+                entities.put(uri, entity);
+                inserts++;
+                return;
+            }
+            //the cache is full: apply the TinyLFU admission policy
+            Iterator<Map.Entry<String,CachedEntity>> it = entities.entrySet().iterator();
+            String victim = it.next().getKey(); //the least recently used entity
+            if(sketch.frequency(uri) > sketch.frequency(victim)){
+                it.remove();
+                evicted++;
+                entities.put(uri, entity);
+                inserts++;
+            } else {
+                rejected++;
+            }
+        }
+    }
+
+    synchronized int size() {
+        return entities.size();
+    }
+
+    synchronized String printStatistics() {
+        StringBuilder sb = new StringBuilder("TinyLFU EntityCache[size: ");
+        sb.append(entities.size()).append('/').append(maxSize)
+            .append(" | lookups: ").append(lookups)
+            .append(" | hits: ").append(hits);
+        if(lookups > 0){
+            sb.append(" (").append(Math.round(hits * 1000d / lookups) / 10d).append("%)");
+        }
+        sb.append(" | invalidated: ").append(invalidated)
+            .append(" | inserts: ").append(inserts)
+            .append(" | evicted: ").append(evicted)
+            .append(" | rejected: ").append(rejected).append(']');
+        return sb.toString();
+    }
+
+    @Override
+    public synchronized void close() {
+        log.debug(" > close {}", printStatistics());
+        closed = true;
+        entities.clear();
+        segmentIds.clear();
+    }
+
+    /**
+     * Encodes the stored fields of the parsed document. Binary fields are
+     * ignored.<p>
+     * Field names are written on their first occurrence. Later occurrences
+     * only refer to the index of the name. The number of fields and the name
+     * indexes are written as variable length ints (<code>0</code> marks an
+     * ignored binary field) so there is no limit on the number of fields or
+     * distinct field names.
+     * <p>
+     * Package private for unit tests
+     */
+    static byte[] encode(Document doc) {
+        List<String> names = new ArrayList<String>(8);
+        List<IndexableField> fields = doc.getFields();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(32 * fields.size());
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            writeVInt(out, fields.size());
+            for(IndexableField field : fields){
+                Number num = field.numericValue();
+                String value = num == null ? field.stringValue() : null;
+                if(num == null && value == null){ //ignore binary values
+                    writeVInt(out, 0);
+                    continue;
+                }
+                int nameIndex = names.indexOf(field.name());
+                if(nameIndex < 0){
+                    nameIndex = names.size();
+                    names.add(field.name());
+                    writeVInt(out, nameIndex + 1);
+                    writeString(out, field.name());
+                } else {
+                    writeVInt(out, nameIndex + 1);
+                }
+                if(num instanceof Integer){
+                    out.writeByte(TYPE_INT);
+                    out.writeInt(num.intValue());
+                } else if(num instanceof Long){
+                    out.writeByte(TYPE_LONG);
+                    out.writeLong(num.longValue());
+                } else if(num instanceof Float){
+                    out.writeByte(TYPE_FLOAT);
+                    out.writeFloat(num.floatValue());
+                } else if(num != null){
+                    out.writeByte(TYPE_DOUBLE);
+                    out.writeDouble(num.doubleValue());
+                } else {
+                    out.writeByte(TYPE_STRING);
+                    writeString(out, value);
+                }
+            }
+            out.flush();
+        } catch (IOException e) { //not expected for in-memory streams
+            throw new IllegalStateException("Unable to encode Document "+doc, e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes a Document encoded by {@link #encode(Document)}.
+     * <p>
+     * Package private for unit tests
+     */
+    static Document decode(byte[] data) {
+        List<String> names = new ArrayList<String>(8);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        Document doc = new Document();
+        try {
+            int size = readVInt(in);
+            for(int i = 0; i < size; i++){
+                int nameIndex = readVInt(in) - 1;
+                if(nameIndex < 0){
+                    continue; //ignored binary value
+                }
+                String name;
+                if(nameIndex == names.size()){ //first occurrence of this name
+                    name = readString(in);
+                    names.add(name);
+                } else {
+                    name = names.get(nameIndex);
+                }
+                switch (in.readByte()) {
+                    case TYPE_INT:
+                        doc.add(new StoredField(name, in.readInt()));
+                        break;
+                    case TYPE_LONG:
+                        doc.add(new StoredField(name, in.readLong()));
+                        break;
+                    case TYPE_FLOAT:
+                        doc.add(new StoredField(name, in.readFloat()));
+                        break;
+                    case TYPE_DOUBLE:
+                        doc.add(new StoredField(name, in.readDouble()));
+                        break;
+                    default:
+                        doc.add(new StoredField(name, readString(in)));
+                        break;
+                }
+            }
+        } catch (IOException e) { //not expected for in-memory streams
+            throw new IllegalStateException("Unable to decode cached Document", e);
+        }
+        return doc;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(UTF8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, UTF8);
+    }
+    /**
+     * Writes a positive int using 1-5 bytes (7 bits per byte)
+     */
+    private static void writeVInt(DataOutputStream out, int value) throws IOException {
+        while((value & ~0x7F) != 0){
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVInt(DataInputStream in) throws IOException {
+        int value = 0;
+        for(int shift = 0; shift < 32; shift += 7){
+            int b = in.readByte();
+            value |= (b & 0x7F) << shift;
+            if((b & 0x80) == 0){
+                return value;
+            }
+        }
+        throw new IOException("Invalid variable length int");
+    }
+
+    /**
+     * A cached entity
+     */
+    private static class CachedEntity {
+
+        final int segmentId;
+        final int localDocId;
+        final byte[] data;
+
+        CachedEntity(int segmentId, int localDocId, byte[] data) {
+            this.segmentId = segmentId;
+            this.localDocId = localDocId;
+            this.data = data;
+        }
+    }
+}
@@ -102,6 +102,7 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
+import org.opensextant.solrtexttagger.TaggerFstCorpus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -335,6 +336,56 @@ public class FstLinkingEngineTest {
                 DBPEDIA+"Election", DBPEDIA+"Party", DBPEDIA+"Policy"));
     }
 
+    /**
+     * Tests that {@link IndexConfiguration}s with <code>shared=true</code>
+     * use the same FST corpus and that the corpus is released as soon as
+     * the last {@link IndexConfiguration} using it is deactivated
+     */
+    @Test
+    public void testSharedCorpora() throws Exception {
+        File fst = fstConfig.getCorpus("en").fst;
+        Assert.assertTrue("FST model not created by setup()", fst.isFile());
+        LanguageConfiguration langConf = new LanguageConfiguration("not.used", 
+            new String[]{"en;field=dbpedia-ont:surfaceForm;shared=true"});
+        IndexConfiguration config1 = new IndexConfiguration(langConf, core, FieldEncodingEnum.SolrYard,"");
+        IndexConfiguration config2 = new IndexConfiguration(langConf, core, FieldEncodingEnum.SolrYard,"");
+        try {
+            config1.activate();
+            CorpusInfo corpus1 = config1.getCorpus("en");
+            Assert.assertTrue(corpus1.shared);
+            Assert.assertEquals(fst.getCanonicalFile(), corpus1.fst.getCanonicalFile());
+            //registered on activation (before loading the corpus)
+            Assert.assertEquals(1, SharedCorpusRegistry.getHolderCount(fst));
+            TaggerFstCorpus tagger1 = corpus1.getCorpus();
+            Assert.assertNotNull(tagger1);
+            
+            config2.activate();
+            CorpusInfo corpus2 = config2.getCorpus("en");
+            Assert.assertNotSame(corpus1, corpus2);
+            Assert.assertEquals(2, SharedCorpusRegistry.getHolderCount(fst));
+            //the second configuration uses the already loaded corpus
+            Assert.assertSame(tagger1, corpus2.getCorpus());
+            Assert.assertSame(tagger1, SharedCorpusRegistry.acquire(fst, corpus2));
+            Assert.assertEquals(2, SharedCorpusRegistry.getHolderCount(fst));
+            
+            //updates are visible to all holders
+            SharedCorpusRegistry.update(fst, tagger1, corpus1);
+            Assert.assertSame(tagger1, SharedCorpusRegistry.acquire(fst, corpus2));
+            
+            //deactivating the first keeps the corpus for the second
+            config1.deactivate();
+            Assert.assertEquals(1, SharedCorpusRegistry.getHolderCount(fst));
+            Assert.assertSame(tagger1, SharedCorpusRegistry.acquire(fst, corpus2));
+            Assert.assertSame(tagger1, corpus2.getCorpus());
+            //releasing the last user frees the corpus
+            config2.deactivate();
+            Assert.assertEquals(0, SharedCorpusRegistry.getHolderCount(fst));
+        } finally {
+            config1.deactivate();
+            config2.deactivate();
+        }
+    }
+
     /**
      * @param expected
      */
@@ -0,0 +1,61 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.engines.lucenefstlinking.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class FrequencySketchTest {
+
+    @Test
+    public void testIncrement() {
+        FrequencySketch sketch = new FrequencySketch(1024);
+        assertEquals(0, sketch.frequency("http://www.example.org/a"));
+        for(int i = 1; i <= 5; i++){
+            sketch.increment("http://www.example.org/a");
+            assertEquals(i, sketch.frequency("http://www.example.org/a"));
+        }
+        //other elements are not affected
+        assertEquals(0, sketch.frequency("http://www.example.org/b"));
+    }
+
+    @Test
+    public void testSaturation() {
+        FrequencySketch sketch = new FrequencySketch(1024);
+        for(int i = 0; i < 100; i++){
+            sketch.increment("http://www.example.org/a");
+        }
+        assertEquals(15, sketch.frequency("http://www.example.org/a"));
+    }
+
+    @Test
+    public void testReset() {
+        //a sketch for 16 elements is reset after 160 increments
+        FrequencySketch sketch = new FrequencySketch(16);
+        for(int i = 0; i < 8; i++){
+            sketch.increment("http://www.example.org/a");
+        }
+        assertEquals(8, sketch.frequency("http://www.example.org/a"));
+        for(int i = 0; i < 200; i++){
+            sketch.increment("http://www.example.org/other"+i);
+        }
+        //the frequency of the element needs to be halved
+        assertTrue(sketch.frequency("http://www.example.org/a") < 8);
+    }
+}
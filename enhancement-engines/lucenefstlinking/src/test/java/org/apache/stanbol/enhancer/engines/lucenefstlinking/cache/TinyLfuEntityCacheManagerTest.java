@@ -0,0 +1,138 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.engines.lucenefstlinking.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.util.List;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.util.BytesRef;
+import org.apache.solr.schema.SchemaField;
+import org.apache.solr.schema.StrField;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TinyLfuEntityCacheManagerTest {
+
+    private static final String NS = "http://www.example.org/";
+
+    private TinyLfuEntityCacheManager manager;
+
+    @Before
+    public void init(){
+        manager = new TinyLfuEntityCacheManager(new SchemaField("uri", new StrField()), 2);
+    }
+
+    @After
+    public void close(){
+        manager.close();
+    }
+
+    @Test
+    public void testEncodeDecode() {
+        Document doc = new Document();
+        doc.add(new StoredField("label", "Paris"));
+        doc.add(new StoredField("label", "Parigi"));
+        doc.add(new StoredField("rank", 42));
+        doc.add(new StoredField("count", 1234567890123L));
+        doc.add(new StoredField("float", 1.5f));
+        doc.add(new StoredField("double", 2.25d));
+        doc.add(new StoredField("binary", new BytesRef(new byte[]{1,2,3})));
+        doc.add(new StoredField("label", "París"));
+        Document decoded = TinyLfuEntityCacheManager.decode(TinyLfuEntityCacheManager.encode(doc));
+        //binary fields are ignored
+        assertEquals(7, decoded.getFields().size());
+        assertEquals(3, decoded.getValues("label").length);
+        assertEquals("París", decoded.getValues("label")[2]);
+        assertEquals(Integer.valueOf(42), decoded.getField("rank").numericValue());
+        assertEquals(Long.valueOf(1234567890123L), decoded.getField("count").numericValue());
+        assertEquals(Float.valueOf(1.5f), decoded.getField("float").numericValue());
+        assertEquals(Double.valueOf(2.25d), decoded.getField("double").numericValue());
+        assertNull(decoded.getField("binary"));
+    }
+
+    /**
+     * Documents with more as 127 distinct field names MUST NOT loose data
+     */
+    @Test
+    public void testEncodeDecodeManyFields() {
+        Document doc = new Document();
+        for(int i = 0; i < 300; i++){
+            doc.add(new StoredField("field"+i, "value"+i));
+        }
+        //fields with names that are already known
+        for(int i = 0; i < 300; i+=10){
+            doc.add(new StoredField("field"+i, "other"+i));
+        }
+        Document decoded = TinyLfuEntityCacheManager.decode(TinyLfuEntityCacheManager.encode(doc));
+        List<IndexableField> fields = doc.getFields();
+        List<IndexableField> decodedFields = decoded.getFields();
+        assertEquals(fields.size(), decodedFields.size());
+        for(int i = 0; i < fields.size(); i++){
+            assertEquals(fields.get(i).name(), decodedFields.get(i).name());
+            assertEquals(fields.get(i).stringValue(), decodedFields.get(i).stringValue());
+        }
+    }
+
+    @Test
+    public void testInvalidation() {
+        manager.cache(NS+"a", 0, 1, createDocument("a"));
+        assertNotNull(manager.get(NS+"a", 0, 1));
+        //requested for an other segment or document id
+        assertNull(manager.get(NS+"a", 1, 1));
+        //the outdated entity was removed
+        assertNull(manager.get(NS+"a", 0, 1));
+        assertEquals(0, manager.size());
+    }
+
+    @Test
+    public void testAdmission() {
+        manager.cache(NS+"a", 0, 1, createDocument("a"));
+        manager.cache(NS+"b", 0, 2, createDocument("b"));
+        for(int i = 0; i < 3; i++){
+            assertNotNull(manager.get(NS+"b", 0, 2));
+            assertNotNull(manager.get(NS+"a", 0, 1));
+        }
+        //"b" is now the least recently used entity
+        //a rarely used entity is not admitted to the full cache
+        assertNull(manager.get(NS+"c", 0, 3));
+        manager.cache(NS+"c", 0, 3, createDocument("c"));
+        assertEquals(2, manager.size());
+        assertNull(manager.get(NS+"c", 0, 3));
+        //a frequently used entity replaces the least recently used one
+        for(int i = 0; i < 5; i++){
+            assertNull(manager.get(NS+"c", 0, 3));
+        }
+        manager.cache(NS+"c", 0, 3, createDocument("c"));
+        assertEquals(2, manager.size());
+        assertEquals("c", manager.get(NS+"c", 0, 3).get("label"));
+        assertNotNull(manager.get(NS+"a", 0, 1));
+        assertNull(manager.get(NS+"b", 0, 2));
+    }
+
+    private static Document createDocument(String label){
+        Document doc = new Document();
+        doc.add(new StoredField("label", label));
+        return doc;
+    }
+}
@@ -44,6 +44,7 @@ import org.apache.felix.scr.annotations.Properties;
 import org.apache.felix.scr.annotations.Property;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.Service;
+import org.apache.stanbol.commons.opennlp.InstancePool;
 import org.apache.stanbol.commons.opennlp.OpenNLP;
 import org.apache.stanbol.enhancer.engines.opennlp.chunker.model.PhraseTagSetRegistry;
 import org.apache.stanbol.enhancer.nlp.NlpProcessingRole;
@@ -186,8 +187,8 @@ public class OpenNlpChunkingEngine extends AbstractEnhancementEngine<RuntimeExce
         AnalysedText at = getAnalysedText(this, ci, true);
         String language = getLanguage(this, ci, true);
         isLangaugeConfigured(this, languageConfiguration, language, true);
-        ChunkerME chunker = initChunker(language);
-        if(chunker == null){
+        InstancePool<ChunkerME> chunkerPool = initChunkerPool(language);
+        if(chunkerPool == null){
             return;
         }
         //init the Phrase TagSet
@@ -250,8 +251,15 @@ public class OpenNlpChunkingEngine extends AbstractEnhancementEngine<RuntimeExce
                 
                 // (2) Chunk the sentence
                 
-                String[] chunkTags = chunker.chunk(tokenStrings, tokenPos);
-                double[] chunkProb = chunker.probs();
+                String[] chunkTags;
+                double[] chunkProb;
+                ChunkerME chunker = chunkerPool.borrow();
+                try {
+                    chunkTags = chunker.chunk(tokenStrings, tokenPos);
+                    chunkProb = chunker.probs();
+                } finally {
+                    chunkerPool.release(chunker);
+                }
                 if(log.isTraceEnabled()){
                     log.trace("Chunks: {}"+Arrays.toString(chunkTags));
                 }
@@ -408,7 +416,7 @@ public class OpenNlpChunkingEngine extends AbstractEnhancementEngine<RuntimeExce
     }
     
    
-    private ChunkerME initChunker(String language) {
+    private InstancePool<ChunkerME> initChunkerPool(String language) {
         isLangaugeConfigured(this,languageConfiguration,language, true); //check if the parsed language is ok
         String modelName = languageConfiguration.getParameter(language, MODEL_PARAM_NAME);
         ChunkerModel model;
@@ -433,7 +441,7 @@ public class OpenNlpChunkingEngine extends AbstractEnhancementEngine<RuntimeExce
             log.trace("no Chunker Model for language {}",language);
             return null;
         } else {
-            return new ChunkerME(model);
+            return openNLP.getChunkerPool(model);
         }
     }
 
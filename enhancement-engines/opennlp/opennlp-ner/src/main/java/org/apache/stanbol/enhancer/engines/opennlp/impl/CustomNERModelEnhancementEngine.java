@@ -40,6 +40,7 @@ import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.ReferencePolicy;
 import org.apache.felix.scr.annotations.Service;
+import org.apache.stanbol.commons.opennlp.InstancePool;
 import org.apache.stanbol.commons.opennlp.OpenNLP;
 import org.apache.stanbol.commons.stanboltools.datafileprovider.DataFileListener;
 import org.apache.stanbol.commons.stanboltools.datafileprovider.DataFileTracker;
@@ -131,7 +132,7 @@ public class CustomNERModelEnhancementEngine
     @Reference
     private DataFileTracker dataFileTracker;
     
-    private DataFileListener modelFileListener;
+    private NamedModelFileListener modelFileListener;
     
     protected void activate(ComponentContext ctx) throws IOException, ConfigurationException {
         super.activate(ctx);
@@ -226,6 +227,7 @@ public class CustomNERModelEnhancementEngine
 
     protected void deactivate(ComponentContext ctx) {
         dataFileTracker.removeAll(modelFileListener); //remove all tracked files
+        modelFileListener.removeAll(); //unload the models and drop their pools
         config = null;
         super.deactivate(ctx);
     }
@@ -276,9 +278,24 @@ public class CustomNERModelEnhancementEngine
                 		"because the resource is no longer available via the DataFileProvider infrastructure.",
                 		new Object[]{resource,language,getClass().getSimpleName(),getName()});
                 config.removeCustomNameFinderModel(language, resource);
+                openNLP.removeModel(resource); //unload the model and drop its pool
             }
             return false; //keep tracking
         }
+        /**
+         * Removes all registered models from {@link NEREngineCore#openNLP}.
+         * This also drops the {@link InstancePool}s of the models.
+         */
+        void removeAll() {
+            Set<String> resources;
+            synchronized (registeredModels) {
+                resources = new HashSet<String>(registeredModels.keySet());
+                registeredModels.clear();
+            }
+            for(String resource : resources){
+                openNLP.removeModel(resource);
+            }
+        }
         
     }
 
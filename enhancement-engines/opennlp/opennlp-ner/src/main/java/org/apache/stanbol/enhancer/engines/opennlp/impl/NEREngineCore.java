@@ -53,6 +53,7 @@ import org.apache.clerezza.commons.rdf.IRI;
 import org.apache.clerezza.commons.rdf.impl.utils.PlainLiteralImpl;
 import org.apache.clerezza.commons.rdf.impl.utils.TripleImpl;
 import org.apache.commons.lang.StringUtils;
+import org.apache.stanbol.commons.opennlp.InstancePool;
 import org.apache.stanbol.commons.opennlp.OpenNLP;
 import org.apache.stanbol.commons.stanboltools.datafileprovider.DataFileProvider;
 import org.apache.stanbol.enhancer.nlp.NlpAnnotations;
@@ -455,7 +456,7 @@ public abstract class NEREngineCore
         // version with explicit sentence endings to reflect heading / paragraph
         // structure of an HTML or PDF document converted to text
 
-        NameFinderME finder = new NameFinderME(nameFinderModel);
+        InstancePool<NameFinderME> finderPool = openNLP.getNameFinderPool(nameFinderModel);
         Map<String,List<NameOccurrence>> nameOccurrences = new LinkedHashMap<String,List<NameOccurrence>>();
         List<Section> sentences = new ArrayList<Section>();
         //Holds the tokens of the previouse (pos 0) current (pos 1) and next (pos 2) sentence
@@ -463,56 +464,60 @@ public abstract class NEREngineCore
         if(sentences.isEmpty()){ //no sentence annotations
             sentences.add(at); //process as a single section
         }
-        for (int i=0;i<sentences.size();i++) {
-            String sentence = sentences.get(i).getSpan();
+        NameFinderME finder = finderPool.borrow();
+        try { //adaptive data are cleared on release
+            for (int i=0;i<sentences.size();i++) {
+                String sentence = sentences.get(i).getSpan();
             
-            // build a context by concatenating three sentences to be used for
-            // similarity ranking / disambiguation + contextual snippet in the
-            // extraction structure
-            List<String> contextElements = new ArrayList<String>();
-            contextElements.add(sentence);
-            //three sentences as context
-            String context = at.getSpan().substring(
-                sentences.get(Math.max(0, i-1)).getStart(),
-                sentences.get(Math.min(sentences.size()-1, i+1)).getEnd());
+                // build a context by concatenating three sentences to be used for
+                // similarity ranking / disambiguation + contextual snippet in the
+                // extraction structure
+                List<String> contextElements = new ArrayList<String>();
+                contextElements.add(sentence);
+                //three sentences as context
+                String context = at.getSpan().substring(
+                    sentences.get(Math.max(0, i-1)).getStart(),
+                    sentences.get(Math.min(sentences.size()-1, i+1)).getEnd());
 
-            // get the tokens, words of the current sentence
-            List<Token> tokens = new ArrayList<Token>(32);
-            List<String> words = new ArrayList<String>(32);
-            for(Iterator<Token> it =sentences.get(i).getTokens();it.hasNext();){
-                Token t = it.next();
-                tokens.add(t);
-                words.add(t.getSpan());
-            }
-            Span[] nameSpans = finder.find(words.toArray(new String[words.size()]));
-            double[] probs = finder.probs();
-            //int lastStartPosition = 0;
-            for (int j = 0; j < nameSpans.length; j++) {
-                String name = at.getSpan().substring(tokens.get(nameSpans[j].getStart()).getStart(), 
-                    tokens.get(nameSpans[j].getEnd()-1).getEnd());
-                Double confidence = 1.0;
-                for (int k = nameSpans[j].getStart(); k < nameSpans[j].getEnd(); k++) {
-                    confidence *= probs[k];
+                // get the tokens, words of the current sentence
+                List<Token> tokens = new ArrayList<Token>(32);
+                List<String> words = new ArrayList<String>(32);
+                for(Iterator<Token> it =sentences.get(i).getTokens();it.hasNext();){
+                    Token t = it.next();
+                    tokens.add(t);
+                    words.add(t.getSpan());
                 }
-                int start = tokens.get(nameSpans[j].getStart()).getStart();
-                int end = start + name.length();
-                NerTag nerTag = config.getNerTag(nameSpans[j].getType());
-                //create the occurrence for writing fise:TextAnnotations
-                NameOccurrence occurrence = new NameOccurrence(name, start, end, nerTag.getType(),
-                    context, confidence);
-                List<NameOccurrence> occurrences = nameOccurrences.get(name);
-                if (occurrences == null) {
-                    occurrences = new ArrayList<NameOccurrence>();
+                Span[] nameSpans = finder.find(words.toArray(new String[words.size()]));
+                double[] probs = finder.probs();
+                //int lastStartPosition = 0;
+                for (int j = 0; j < nameSpans.length; j++) {
+                    String name = at.getSpan().substring(tokens.get(nameSpans[j].getStart()).getStart(), 
+                        tokens.get(nameSpans[j].getEnd()-1).getEnd());
+                    Double confidence = 1.0;
+                    for (int k = nameSpans[j].getStart(); k < nameSpans[j].getEnd(); k++) {
+                        confidence *= probs[k];
+                    }
+                    int start = tokens.get(nameSpans[j].getStart()).getStart();
+                    int end = start + name.length();
+                    NerTag nerTag = config.getNerTag(nameSpans[j].getType());
+                    //create the occurrence for writing fise:TextAnnotations
+                    NameOccurrence occurrence = new NameOccurrence(name, start, end, nerTag.getType(),
+                        context, confidence);
+                    List<NameOccurrence> occurrences = nameOccurrences.get(name);
+                    if (occurrences == null) {
+                        occurrences = new ArrayList<NameOccurrence>();
+                    }
+                    occurrences.add(occurrence);
+                    nameOccurrences.put(name, occurrences);
+                    //add also the NerAnnotation to the AnalysedText
+                    Chunk chunk = at.addChunk(start, end);
+                    //TODO: build AnnotationModel based on the configured Mappings
+                    chunk.addAnnotation(NER_ANNOTATION, Value.value(nerTag, confidence));
                 }
-                occurrences.add(occurrence);
-                nameOccurrences.put(name, occurrences);
-                //add also the NerAnnotation to the AnalysedText
-                Chunk chunk = at.addChunk(start, end);
-                //TODO: build AnnotationModel based on the configured Mappings
-                chunk.addAnnotation(NER_ANNOTATION, Value.value(nerTag, confidence));
             }
+        } finally {
+            finderPool.release(finder);
         }
-        finder.clearAdaptiveData();
         log.debug("{} name occurrences found: {}", nameOccurrences.size(), nameOccurrences);
         return nameOccurrences;
     }    
@@ -523,73 +528,83 @@ public abstract class NEREngineCore
         String textWithDots = text.replaceAll("\\n\\n", ".\n");
         text = removeNonUtf8CompliantCharacters(text);
 
-        SentenceDetectorME sentenceDetector = new SentenceDetectorME(getSentenceModel("en"));
-
-        Span[] sentenceSpans = sentenceDetector.sentPosDetect(textWithDots);
+        InstancePool<SentenceDetectorME> sentenceDetectorPool = 
+                openNLP.getSentenceDetectorPool(getSentenceModel("en"));
+        Span[] sentenceSpans;
+        SentenceDetectorME sentenceDetector = sentenceDetectorPool.borrow();
+        try {
+            sentenceSpans = sentenceDetector.sentPosDetect(textWithDots);
+        } finally {
+            sentenceDetectorPool.release(sentenceDetector);
+        }
 
-        NameFinderME finder = new NameFinderME(nameFinderModel);
+        InstancePool<NameFinderME> finderPool = openNLP.getNameFinderPool(nameFinderModel);
         Tokenizer tokenizer = openNLP.getTokenizer(language);
         Map<String,List<NameOccurrence>> nameOccurrences = new LinkedHashMap<String,List<NameOccurrence>>();
-        for (int i = 0; i < sentenceSpans.length; i++) {
-            String sentence = sentenceSpans[i].getCoveredText(text).toString().trim();
+        NameFinderME finder = finderPool.borrow();
+        try { //adaptive data are cleared on release
+            for (int i = 0; i < sentenceSpans.length; i++) {
+                String sentence = sentenceSpans[i].getCoveredText(text).toString().trim();
 
-            // build a context by concatenating three sentences to be used for
-            // similarity ranking / disambiguation + contextual snippet in the
-            // extraction structure
-            List<String> contextElements = new ArrayList<String>();
-            if (i > 0) {
-                CharSequence previousSentence = sentenceSpans[i - 1].getCoveredText(text);
-                contextElements.add(previousSentence.toString().trim());
-            }
-            contextElements.add(sentence.trim());
-            if (i + 1 < sentenceSpans.length) {
-                CharSequence nextSentence = sentenceSpans[i + 1].getCoveredText(text);
-                contextElements.add(nextSentence.toString().trim());
-            }
-            String context = StringUtils.join(contextElements, " ");
+                // build a context by concatenating three sentences to be used for
+                // similarity ranking / disambiguation + contextual snippet in the
+                // extraction structure
+                List<String> contextElements = new ArrayList<String>();
+                if (i > 0) {
+                    CharSequence previousSentence = sentenceSpans[i - 1].getCoveredText(text);
+                    contextElements.add(previousSentence.toString().trim());
+                }
+                contextElements.add(sentence.trim());
+                if (i + 1 < sentenceSpans.length) {
+                    CharSequence nextSentence = sentenceSpans[i + 1].getCoveredText(text);
+                    contextElements.add(nextSentence.toString().trim());
+                }
+                String context = StringUtils.join(contextElements, " ");
 
-            // extract the names in the current sentence and
-            // keep them store them with the current context
-            Span[] tokenSpans = tokenizer.tokenizePos(sentence);
-            String[] tokens = Span.spansToStrings(tokenSpans, sentence);
-            Span[] nameSpans = finder.find(tokens);
-            double[] probs = finder.probs();
-            //int lastStartPosition = 0;
-            for (int j = 0; j < nameSpans.length; j++) {
-                String name = sentence.substring(tokenSpans[nameSpans[j].getStart()].getStart(), 
-                    tokenSpans[nameSpans[j].getEnd()-1].getEnd());
-                //NOTE: With OpenNLP 1.6 the probability is now stored in the span
-                double prob = nameSpans[j].getProb();
-                //prob == 0.0 := unspecified
-                Double confidence = prob != 0.0 ? Double.valueOf(prob) : null;
-                if(confidence == null){ //fall back to the old if it is not set.
-                    for (int k = nameSpans[j].getStart(); k < nameSpans[j].getEnd(); k++) {
-                        prob *= probs[k];
+                // extract the names in the current sentence and
+                // keep them store them with the current context
+                Span[] tokenSpans = tokenizer.tokenizePos(sentence);
+                String[] tokens = Span.spansToStrings(tokenSpans, sentence);
+                Span[] nameSpans = finder.find(tokens);
+                double[] probs = finder.probs();
+                //int lastStartPosition = 0;
+                for (int j = 0; j < nameSpans.length; j++) {
+                    String name = sentence.substring(tokenSpans[nameSpans[j].getStart()].getStart(), 
+                        tokenSpans[nameSpans[j].getEnd()-1].getEnd());
+                    //NOTE: With OpenNLP 1.6 the probability is now stored in the span
+                    double prob = nameSpans[j].getProb();
+                    //prob == 0.0 := unspecified
+                    Double confidence = prob != 0.0 ? Double.valueOf(prob) : null;
+                    if(confidence == null){ //fall back to the old if it is not set.
+                        for (int k = nameSpans[j].getStart(); k < nameSpans[j].getEnd(); k++) {
+                            prob *= probs[k];
+                        }
+                        confidence = Double.valueOf(prob);
+                    } else if(confidence < 0.5d){
+                        //It looks like as if preceptron based models do return
+                        //invalid probabilities. As it is expected the Named Entities
+                        //with a probability < 50% are not even returned by finder.find(..)
+                        //we will just ignore confidence values < 0.5 here
+                        confidence = null;
                     }
-                    confidence = Double.valueOf(prob);
-                } else if(confidence < 0.5d){
-                    //It looks like as if preceptron based models do return
-                    //invalid probabilities. As it is expected the Named Entities
-                    //with a probability < 50% are not even returned by finder.find(..)
-                    //we will just ignore confidence values < 0.5 here
-                    confidence = null;
-                }
-                int start = tokenSpans[nameSpans[j].getStart()].getStart();
-                int absoluteStart = sentenceSpans[i].getStart() + start;
-                int absoluteEnd = absoluteStart + name.length();
-                NerTag nerTag = config.getNerTag(nameSpans[j].getType());
-                NameOccurrence occurrence = new NameOccurrence(name, absoluteStart, absoluteEnd, 
-                    nerTag.getType(),context, confidence);
+                    int start = tokenSpans[nameSpans[j].getStart()].getStart();
+                    int absoluteStart = sentenceSpans[i].getStart() + start;
+                    int absoluteEnd = absoluteStart + name.length();
+                    NerTag nerTag = config.getNerTag(nameSpans[j].getType());
+                    NameOccurrence occurrence = new NameOccurrence(name, absoluteStart, absoluteEnd, 
+                        nerTag.getType(),context, confidence);
 
-                List<NameOccurrence> occurrences = nameOccurrences.get(name);
-                if (occurrences == null) {
-                    occurrences = new ArrayList<NameOccurrence>();
+                    List<NameOccurrence> occurrences = nameOccurrences.get(name);
+                    if (occurrences == null) {
+                        occurrences = new ArrayList<NameOccurrence>();
+                    }
+                    occurrences.add(occurrence);
+                    nameOccurrences.put(name, occurrences);
                 }
-                occurrences.add(occurrence);
-                nameOccurrences.put(name, occurrences);
             }
+        } finally {
+            finderPool.release(finder);
         }
-        finder.clearAdaptiveData();
         log.debug("{} name occurrences found: {}", nameOccurrences.size(), nameOccurrences);
         return nameOccurrences;
     }
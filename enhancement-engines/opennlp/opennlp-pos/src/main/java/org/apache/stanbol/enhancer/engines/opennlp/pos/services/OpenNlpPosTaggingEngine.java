@@ -26,16 +26,19 @@ import java.util.Dictionary;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 
 import opennlp.tools.postag.POSModel;
 import opennlp.tools.postag.POSTagger;
 import opennlp.tools.postag.POSTaggerME;
-import opennlp.tools.sentdetect.SentenceDetector;
 import opennlp.tools.sentdetect.SentenceDetectorME;
 import opennlp.tools.sentdetect.SentenceModel;
-import opennlp.tools.tokenize.Tokenizer;
+import opennlp.tools.tokenize.SimpleTokenizer;
+import opennlp.tools.tokenize.TokenizerME;
+import opennlp.tools.tokenize.TokenizerModel;
 import opennlp.tools.util.Sequence;
 
 import org.apache.clerezza.commons.rdf.IRI;
@@ -47,6 +50,7 @@ import org.apache.felix.scr.annotations.Properties;
 import org.apache.felix.scr.annotations.Property;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.Service;
+import org.apache.stanbol.commons.opennlp.InstancePool;
 import org.apache.stanbol.commons.opennlp.OpenNLP;
 import org.apache.stanbol.enhancer.engines.opennlp.pos.model.PosTagSetRegistry;
 import org.apache.stanbol.enhancer.nlp.NlpProcessingRole;
@@ -65,6 +69,7 @@ import org.apache.stanbol.enhancer.nlp.phrase.PhraseTag;
 import org.apache.stanbol.enhancer.nlp.pos.PosTag;
 import org.apache.stanbol.enhancer.nlp.utils.LanguageConfiguration;
 import org.apache.stanbol.enhancer.nlp.utils.NlpEngineHelper;
+import org.apache.stanbol.enhancer.servicesapi.BatchEnhancementEngine;
 import org.apache.stanbol.enhancer.servicesapi.Blob;
 import org.apache.stanbol.enhancer.servicesapi.ContentItem;
 import org.apache.stanbol.enhancer.servicesapi.EngineException;
@@ -94,7 +99,8 @@ import org.slf4j.LoggerFactory;
         @Property(name=OpenNlpPosTaggingEngine.CONFIG_LANGUAGES, value = {"*"},cardinality=Integer.MAX_VALUE),
         @Property(name=Constants.SERVICE_RANKING,intValue=-100) //give the default instance a ranking < 0
 })
-public class OpenNlpPosTaggingEngine extends AbstractEnhancementEngine<RuntimeException,RuntimeException> implements ServiceProperties {
+public class OpenNlpPosTaggingEngine extends AbstractEnhancementEngine<RuntimeException,RuntimeException> 
+        implements BatchEnhancementEngine, ServiceProperties {
 
     private static final Map<String,Object> SERVICE_PROPERTIES;
     static {
@@ -176,7 +182,7 @@ public class OpenNlpPosTaggingEngine extends AbstractEnhancementEngine<RuntimeEx
             return CANNOT_ENHANCE;
         }
 
-        if(getPOSTagger(language) == null) {
+        if(getPOSTaggerPool(language) == null) {
             log.trace(" > can NOT enhance ContentItem {} because no POSTagger is"
                     + "is present for language {}",ci,language);
             return CANNOT_ENHANCE;
@@ -205,13 +211,85 @@ public class OpenNlpPosTaggingEngine extends AbstractEnhancementEngine<RuntimeEx
         AnalysedText at = initAnalysedText(this,analysedTextFactory,ci);
         String language = getLanguage(this, ci, true);
         
-        POSTagger posTagger = getPOSTagger(language);
-        if(posTagger == null){
+        InstancePool<POSTaggerME> posTaggerPool = getPOSTaggerPool(language);
+        if(posTaggerPool == null){
             //this means that the POS tagger became unavailable in-between
             //the call to canEnhance and computeEnhancement
             throw new EngineException("PosTagger for langauge '"+language
                 + "is not available."); 
         }
+        POSTaggerME posTagger = posTaggerPool.borrow();
+        try {
+            posTag(at, language, posTagger);
+        } finally {
+            posTaggerPool.release(posTagger);
+        }
+    }
+    /**
+     * Processes the parsed ContentItems grouped by language. The
+     * {@link POSTaggerME} for a language is only borrowed once and used
+     * for all ContentItems of that language in the batch.
+     */
+    @Override
+    public Map<Integer,EngineException> computeEnhancements(List<ContentItem> contentItems) {
+        Map<Integer,EngineException> failed = new HashMap<Integer,EngineException>();
+        Map<String,List<Integer>> languageItems = new LinkedHashMap<String,List<Integer>>();
+        AnalysedText[] analysedTexts = new AnalysedText[contentItems.size()];
+        for(int i = 0; i < contentItems.size(); i++){
+            ContentItem ci = contentItems.get(i);
+            String language;
+            try {
+                analysedTexts[i] = initAnalysedText(this,analysedTextFactory,ci);
+                language = getLanguage(this, ci, true);
+            } catch (EngineException e) {
+                failed.put(i, e);
+                continue;
+            } catch (RuntimeException e) {
+                failed.put(i, new EngineException(this, ci, e));
+                continue;
+            }
+            List<Integer> items = languageItems.get(language);
+            if(items == null){
+                items = new ArrayList<Integer>();
+                languageItems.put(language, items);
+            }
+            items.add(i);
+        }
+        for(Entry<String,List<Integer>> entry : languageItems.entrySet()){
+            String language = entry.getKey();
+            InstancePool<POSTaggerME> posTaggerPool = getPOSTaggerPool(language);
+            if(posTaggerPool == null){
+                for(Integer i : entry.getValue()){
+                    failed.put(i, new EngineException("PosTagger for langauge '"+language
+                        + "is not available."));
+                }
+                continue;
+            }
+            log.debug(" > POS tag {} ContentItems with language {}",
+                entry.getValue().size(), language);
+            POSTaggerME posTagger = posTaggerPool.borrow();
+            try {
+                for(Integer i : entry.getValue()){
+                    try {
+                        posTag(analysedTexts[i], language, posTagger);
+                    } catch (RuntimeException e) {
+                        failed.put(i, new EngineException(this, contentItems.get(i), e));
+                    }
+                }
+            } finally {
+                posTaggerPool.release(posTagger);
+            }
+        }
+        return failed;
+    }
+    /**
+     * POS tags the parsed {@link AnalysedText} by using the parsed tagger.
+     * Sentences and Tokens are detected if not yet present.
+     * @param at the analysed text
+     * @param language the language of the text
+     * @param posTagger the POS tagger for the language
+     */
+    private void posTag(AnalysedText at, String language, POSTaggerME posTagger) {
         TagSet<PosTag> tagSet = tagSetRegistry.getTagSet(language);
         if(tagSet == null){
             log.warn("No POS TagSet registered for Language '{}'. Will build an "
@@ -355,10 +433,21 @@ public class OpenNlpPosTaggingEngine extends AbstractEnhancementEngine<RuntimeEx
     }
 
     private List<Token> tokenize(Section section,String langauge) {
-        Tokenizer tokenizer = getTokenizer(langauge);
+        InstancePool<TokenizerME> tokenizerPool = getTokenizerPool(langauge);
         String text = section.getSpan();
         List<Token> tokens = new ArrayList<Token>(text.length()/5); //assume avr. token length is 5
-        opennlp.tools.util.Span[] tokenSpans = tokenizer.tokenizePos(section.getSpan());
+        opennlp.tools.util.Span[] tokenSpans;
+        if(tokenizerPool != null){
+            TokenizerME tokenizer = tokenizerPool.borrow();
+            try {
+                tokenSpans = tokenizer.tokenizePos(text);
+            } finally {
+                tokenizerPool.release(tokenizer);
+            }
+        } else {
+            log.debug("Use Simple Tokenizer for language {}",langauge);
+            tokenSpans = SimpleTokenizer.INSTANCE.tokenizePos(text);
+        }
         for(int i=0;i<tokenSpans.length;i++){
             Token token = section.addToken(tokenSpans[i].getStart(), tokenSpans[i].getEnd());
             log.trace(" > add {}",token);
@@ -368,11 +457,18 @@ public class OpenNlpPosTaggingEngine extends AbstractEnhancementEngine<RuntimeEx
     }
 
     private List<Section> detectSentences(AnalysedText at, String language) {
-        SentenceDetector sentenceDetector = getSentenceDetector(language);
+        InstancePool<SentenceDetectorME> sentenceDetectorPool = getSentenceDetectorPool(language);
         List<Section> sentences;
-        if(sentenceDetector != null){
+        if(sentenceDetectorPool != null){
+            opennlp.tools.util.Span[] sentSpans;
+            SentenceDetectorME sentenceDetector = sentenceDetectorPool.borrow();
+            try {
+                sentSpans = sentenceDetector.sentPosDetect(at.getSpan());
+            } finally {
+                sentenceDetectorPool.release(sentenceDetector);
+            }
             sentences = new ArrayList<Section>();
-            for(opennlp.tools.util.Span sentSpan : sentenceDetector.sentPosDetect(at.getSpan())) {
+            for(opennlp.tools.util.Span sentSpan : sentSpans) {
                 Sentence sentence = at.addSentence(sentSpan.getStart(), sentSpan.getEnd());
                 log.trace(" > add {}",sentence);
                 sentences.add(sentence);
@@ -406,7 +502,7 @@ public class OpenNlpPosTaggingEngine extends AbstractEnhancementEngine<RuntimeEx
     }
     
     
-    private SentenceDetector getSentenceDetector(String language) {
+    private InstancePool<SentenceDetectorME> getSentenceDetectorPool(String language) {
         try {
             SentenceModel model = openNLP.getSentenceModel(language);
             if(model != null) {
@@ -414,14 +510,14 @@ public class OpenNlpPosTaggingEngine extends AbstractEnhancementEngine<RuntimeEx
                     new Object[]{model.getClass().getSimpleName(), 
                                  model.getLanguage(), 
                                  model.getVersion() != null ? model.getVersion() : "undefined"});
-                return new SentenceDetectorME(model);
+                return openNLP.getSentenceDetectorPool(model);
             }
         } catch (Exception e) {
         }
         log.debug("Sentence Detection Model for Language '{}' not available.", language);
         return null;
     }
-    private POSTagger getPOSTagger(String language) {
+    private InstancePool<POSTaggerME> getPOSTaggerPool(String language) {
         String modelName = languageConfig.getParameter(language,MODEL_NAME_PARAM);
         try {
             POSModel model;
@@ -435,7 +531,7 @@ public class OpenNlpPosTaggingEngine extends AbstractEnhancementEngine<RuntimeEx
                     new Object[]{model.getClass().getSimpleName(), 
                                  model.getLanguage(), 
                                  model.getVersion() != null ? model.getVersion() : "undefined"});
-                return new POSTaggerME(model);
+                return openNLP.getPartOfSpeechTaggerPool(model);
             }
         } catch (Exception e) {
             log.warn("Unable to load POS model for language '"+language+"'!",e);
@@ -444,8 +540,17 @@ public class OpenNlpPosTaggingEngine extends AbstractEnhancementEngine<RuntimeEx
         return null;
     }
     
-    private Tokenizer getTokenizer(String language){
-        return openNLP.getTokenizer(language);
+    private InstancePool<TokenizerME> getTokenizerPool(String language){
+        try {
+            TokenizerModel model = openNLP.getTokenizerModel(language);
+            if(model != null){
+                return openNLP.getTokenizerPool(model);
+            }
+        } catch (Exception e) {
+            log.warn("Unable to load Tokenizer Model for language '"+language
+                + "': Will use Simple Tokenizer instead",e);
+        }
+        return null;
     }
     
 }
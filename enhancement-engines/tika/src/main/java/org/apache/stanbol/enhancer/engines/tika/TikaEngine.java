@@ -27,6 +27,8 @@ import static org.apache.stanbol.enhancer.servicesapi.helper.EnhancementEngineHe
 import static org.apache.tika.mime.MediaType.TEXT_PLAIN;
 
 import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStreamWriter;
@@ -62,11 +64,13 @@ import org.apache.stanbol.enhancer.servicesapi.ContentItemFactory;
 import org.apache.stanbol.enhancer.servicesapi.ContentSink;
 import org.apache.stanbol.enhancer.servicesapi.EngineException;
 import org.apache.stanbol.enhancer.servicesapi.EnhancementEngine;
+import org.apache.stanbol.enhancer.servicesapi.FileBackedBlob;
 import org.apache.stanbol.enhancer.servicesapi.ServiceProperties;
 import org.apache.stanbol.enhancer.servicesapi.impl.AbstractEnhancementEngine;
 import org.apache.tika.config.TikaConfig;
 import org.apache.tika.detect.Detector;
 import org.apache.tika.exception.TikaException;
+import org.apache.tika.io.TikaInputStream;
 import org.apache.tika.metadata.Metadata;
 import org.apache.tika.mime.MediaType;
 import org.apache.tika.parser.AutoDetectParser;
@@ -207,7 +211,7 @@ public class TikaEngine
         if(supproted.contains(plainMediaType)) {
             final InputStream in;
             if(mtas.in == null){
-                in = ci.getStream();
+                in = openStream(ci.getBlob());
             } else {
                 in = mtas.in;
             }
@@ -350,7 +354,7 @@ public class TikaEngine
         mtas.mediaType = getMediaType(ci.getBlob());
         mtas.uri = ci.getUri().getUnicodeString();
         if(mtas.mediaType == null || mtas.mediaType.equals(MediaType.OCTET_STREAM)){
-            mtas.in = new BufferedInputStream(ci.getStream());
+            mtas.in = openStream(ci.getBlob());
             Metadata m = new Metadata();
             m.add(Metadata.RESOURCE_NAME_KEY, mtas.uri);
             try {
@@ -365,6 +369,27 @@ public class TikaEngine
         return mtas;
     }
 
+    /**
+     * Opens a stream for the parsed Blob. For {@link FileBackedBlob}s a
+     * {@link TikaInputStream} is used to allow Tika parsers that need random
+     * access (e.g. for ZIP based or PDF documents) to directly use the file 
+     * instead of copying the content to a temporary file.
+     * @param blob the blob
+     * @return the stream supporting {@link InputStream#mark(int)}
+     */
+    private InputStream openStream(Blob blob) {
+        if(blob instanceof FileBackedBlob){
+            File file = ((FileBackedBlob)blob).getFile();
+            try {
+                return TikaInputStream.get(file);
+            } catch (FileNotFoundException e) {
+                log.warn("File {} of FileBackedBlob not present -> fallback to "
+                    + "Blob#getStream()", file);
+            }
+        }
+        return new BufferedInputStream(blob.getStream());
+    }
+
     /**
      * @param ci
      * @return
@@ -18,6 +18,7 @@ package org.apache.stanbol.enhancer.engine.topic;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -34,6 +35,13 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.clerezza.commons.rdf.ImmutableGraph;
 import org.apache.clerezza.rdf.core.LiteralFactory;
@@ -57,11 +65,18 @@ import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.ReferencePolicy;
 import org.apache.felix.scr.annotations.ReferenceStrategy;
 import org.apache.felix.scr.annotations.Service;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
 import org.apache.solr.client.solrj.SolrQuery;
 import org.apache.solr.client.solrj.SolrServer;
 import org.apache.solr.client.solrj.SolrServerException;
 import org.apache.solr.client.solrj.embedded.EmbeddedSolrServer;
+import org.apache.solr.client.solrj.request.FieldAnalysisRequest;
 import org.apache.solr.client.solrj.request.UpdateRequest;
+import org.apache.solr.client.solrj.response.AnalysisResponseBase.AnalysisPhase;
+import org.apache.solr.client.solrj.response.AnalysisResponseBase.TokenInfo;
+import org.apache.solr.client.solrj.response.FieldAnalysisResponse;
 import org.apache.solr.client.solrj.response.QueryResponse;
 import org.apache.solr.client.solrj.util.ClientUtils;
 import org.apache.solr.common.SolrDocument;
@@ -69,6 +84,10 @@ import org.apache.solr.common.SolrDocumentList;
 import org.apache.solr.common.SolrInputDocument;
 import org.apache.solr.common.params.CommonParams;
 import org.apache.solr.common.params.MoreLikeThisParams;
+import org.apache.solr.common.util.NamedList;
+import org.apache.solr.core.CoreContainer;
+import org.apache.solr.core.SolrCore;
+import org.apache.solr.schema.FieldType;
 import org.apache.stanbol.commons.solr.managed.ManagedSolrServer;
 import org.apache.stanbol.commons.solr.utils.StreamQueryRequest;
 import org.apache.stanbol.enhancer.servicesapi.Blob;
@@ -86,6 +105,7 @@ import org.apache.stanbol.enhancer.servicesapi.rdf.OntologicalClasses;
 import org.apache.stanbol.enhancer.servicesapi.rdf.TechnicalClasses;
 import org.apache.stanbol.enhancer.topic.ConfiguredSolrCoreTracker;
 import org.apache.stanbol.enhancer.topic.EmbeddedSolrHelper;
+import org.apache.stanbol.enhancer.topic.TopicCentroidIndex;
 import org.apache.stanbol.enhancer.topic.UTCTimeStamper;
 import org.apache.stanbol.enhancer.topic.api.Batch;
 import org.apache.stanbol.enhancer.topic.api.BatchProcessor;
@@ -148,6 +168,8 @@ import org.slf4j.LoggerFactory;
         @Property(name = TopicClassificationEngine.SOLR_CORE_CONFIG,
             value = TopicClassificationEngine.DEFAULT_SOLR_CORE_CONFIG),
         @Property(name = TopicClassificationEngine.LANGUAGES),
+        @Property(name = TopicClassificationEngine.CENTROID_INDEX,
+            boolValue = TopicClassificationEngine.DEFAULT_CENTROID_INDEX),
      // those properties can still be set via a configuration file, but as most users
      // will not use them exclude those from the configuration form
 //             @Property(name = TopicClassificationEngine.SIMILARTITY_FIELD, value = TopicClassificationEngine.DEFAULT_SIMILARTITY_FIELD),
@@ -258,6 +280,21 @@ public class TopicClassificationEngine extends ConfiguredSolrCoreTracker impleme
     
     public static final String TRAINING_SET_ID = "org.apache.stanbol.enhancer.engine.topic.trainingSetId";
 
+    /**
+     * If enabled topics are suggested by using an in-memory {@link TopicCentroidIndex} built from the term
+     * vectors of the model entries instead of a MoreLikeThis query for every classified text. This requires
+     * the '/tvrh' (TermVectorComponent) request handler in the SolrCore configuration. If it is missing
+     * the engine falls back to MoreLikeThis queries.
+     */
+    public static final String CENTROID_INDEX = "org.apache.stanbol.enhancer.engine.topic.centroidIndex";
+
+    public static final boolean DEFAULT_CENTROID_INDEX = false;
+
+    /**
+     * The request handler with the TermVectorComponent used to build the {@link TopicCentroidIndex}
+     */
+    public static final String TERM_VECTOR_REQUEST_HANDLER = "/tvrh";
+
     private static final Logger log = LoggerFactory.getLogger(TopicClassificationEngine.class);
 
     /**
@@ -297,6 +334,12 @@ public class TopicClassificationEngine extends ConfiguredSolrCoreTracker impleme
     public int MAX_SUGGESTIONS = 5; // never suggest more than this: this is expected to be a reasonable
                                     // estimate of the number of topics occurring in each documents
 
+    // the number of most interesting terms of a text used to find similar topics
+    public int MAX_QUERY_TERMS = 30;
+
+    // the maximum number of tokens of a text analysed for finding similar topics
+    public int MAX_NUM_TOKENS_PARSED = 10000;
+
     protected String engineName;
 
     protected List<String> acceptedLanguages;
@@ -354,6 +397,22 @@ public class TopicClassificationEngine extends ConfiguredSolrCoreTracker impleme
 
     protected boolean evaluationRunning = false;
 
+    protected boolean useCentroidIndex = DEFAULT_CENTROID_INDEX;
+
+    /**
+     * The current centroid index. Replaced as a whole after the model was updated so concurrent
+     * classifications always see a consistent index. <code>null</code> if not yet built or invalidated.
+     */
+    private volatile TopicCentroidIndex centroidIndex;
+
+    /**
+     * Set if the centroid index could not be built (e.g. because the SolrCore does not provide term
+     * vectors). Reset by {@link #updateModel(boolean)}.
+     */
+    private volatile boolean centroidIndexUnavailable = false;
+
+    private final Object centroidIndexLock = new Object();
+
     @Reference(cardinality = ReferenceCardinality.OPTIONAL_UNARY, bind = "bindManagedSolrServer", unbind = "unbindManagedSolrServer", strategy = ReferenceStrategy.EVENT, policy = ReferencePolicy.DYNAMIC)
     protected ManagedSolrServer managedSolrServerDummy; // trick to call the super class binders
 
@@ -365,12 +424,12 @@ public class TopicClassificationEngine extends ConfiguredSolrCoreTracker impleme
     private File embeddedSolrServerDir;
 
     /**
-     * Embedded Solr server used for {@link #performCVFold(File, int, int, int, boolean)}
+     * Embedded Solr servers (by fold index) used for {@link #performCVFold(int, int, int, boolean)}
      * if no ManagedSolrServer is present (e.g. when running outside of OSGI).
      * Lazily initialised relative to {@link #embeddedSolrServerDir} on the first
-     * call to performCVFold
+     * call to performCVFold of a fold
      */
-    private EmbeddedSolrServer __evaluationServer;
+    private final Map<Integer,EmbeddedSolrServer> __evaluationServers = new HashMap<Integer,EmbeddedSolrServer>();
 
     private File __evaluationServerDir;
 
@@ -411,16 +470,9 @@ public class TopicClassificationEngine extends ConfiguredSolrCoreTracker impleme
         if (trainingSetTracker != null) {
             trainingSetTracker.close();
         }
-        //shutdown the evaluation server and delete the data of the evaluation server
-        if(__evaluationServer != null){
-            try {
-                __evaluationServer.getCoreContainer().shutdown();
-            }catch (Exception e){
-              //ignore  
-            } finally {
-                FileUtils.deleteQuietly(__evaluationServerDir);
-            }
-        }
+        //shutdown the evaluation servers and delete the data of the evaluation servers
+        shutdownEvaluationServers();
+        centroidIndex = null;
         context = null;
     }
 
@@ -447,6 +499,16 @@ public class TopicClassificationEngine extends ConfiguredSolrCoreTracker impleme
         broaderField = getRequiredStringParam(config, BROADER_FIELD, DEFAULT_BROADER_FIELD);
         primaryTopicUriField = getRequiredStringParam(config, PRIMARY_TOPIC_URI_FIELD, DEFAULT_PRIMARY_TOPIC_URI_FIELD);
         trainingSetId = (String) config.get(TRAINING_SET_ID);
+        Object centroidIndexValue = config.get(CENTROID_INDEX);
+        if (centroidIndexValue instanceof Boolean) {
+            useCentroidIndex = ((Boolean) centroidIndexValue).booleanValue();
+        } else if (centroidIndexValue != null) {
+            useCentroidIndex = Boolean.parseBoolean(centroidIndexValue.toString());
+        } else {
+            useCentroidIndex = DEFAULT_CENTROID_INDEX;
+        }
+        centroidIndex = null;
+        centroidIndexUnavailable = false;
         Object orderParamValue = config.get(ORDER);
         if (orderParamValue instanceof Number) {
             order = ((Number) orderParamValue).intValue();
@@ -620,6 +682,43 @@ public class TopicClassificationEngine extends ConfiguredSolrCoreTracker impleme
     }
 
     public List<TopicSuggestion> suggestTopics(String text) throws ClassifierException {
+        // over query the number of suggestions to find a statistical cut based on the curve of the scores of
+        // the top suggestion
+        TopicCentroidIndex index = useCentroidIndex ? getCentroidIndex() : null;
+        List<TopicSuggestion> suggestedTopics;
+        if (index != null) {
+            suggestedTopics = index.suggestTopics(analyzeText(text), MAX_QUERY_TERMS, MAX_SUGGESTIONS * 3);
+        } else {
+            suggestedTopics = suggestTopicsWithMoreLikeThis(text);
+        }
+        if (suggestedTopics.size() <= 1) {
+            // no need to apply the cutting heuristic
+            return suggestedTopics;
+        }
+        // filter out suggestions that are less than some threshold based on the mean of the top scores
+        float mean = 0.0f;
+        for (TopicSuggestion suggestion : suggestedTopics) {
+            mean += suggestion.score / suggestedTopics.size();
+        }
+        float threshold = 0.25f * suggestedTopics.get(0).score + 0.75f * mean;
+        List<TopicSuggestion> filteredSuggestions = new ArrayList<TopicSuggestion>();
+        for (TopicSuggestion suggestion : suggestedTopics) {
+            if (filteredSuggestions.size() >= MAX_SUGGESTIONS) {
+                return filteredSuggestions;
+            }
+            if (filteredSuggestions.isEmpty() || suggestion.score > threshold) {
+                filteredSuggestions.add(suggestion);
+            } else {
+                break;
+            }
+        }
+        return filteredSuggestions;
+    }
+
+    /**
+     * Suggests topics by sending a MoreLikeThis query for the parsed text to the SolrCore
+     */
+    protected List<TopicSuggestion> suggestTopicsWithMoreLikeThis(String text) throws ClassifierException {
         List<TopicSuggestion> suggestedTopics = new ArrayList<TopicSuggestion>(MAX_SUGGESTIONS * 3);
         SolrServer solrServer = getActiveSolrServer();
         SolrQuery query = new SolrQuery();
@@ -628,8 +727,8 @@ public class TopicClassificationEngine extends ConfiguredSolrCoreTracker impleme
         query.set(MoreLikeThisParams.MATCH_INCLUDE, false);
         query.set(MoreLikeThisParams.MIN_DOC_FREQ, 1);
         query.set(MoreLikeThisParams.MIN_TERM_FREQ, 1);
-        query.set(MoreLikeThisParams.MAX_QUERY_TERMS, 30);
-        query.set(MoreLikeThisParams.MAX_NUM_TOKENS_PARSED, 10000);
+        query.set(MoreLikeThisParams.MAX_QUERY_TERMS, MAX_QUERY_TERMS);
+        query.set(MoreLikeThisParams.MAX_NUM_TOKENS_PARSED, MAX_NUM_TOKENS_PARSED);
         // TODO: find a way to parse the interesting terms and report them
         // for debugging / explanation in dedicated RDF data structure.
         // query.set(MoreLikeThisParams.INTERESTING_TERMS, "details");
@@ -674,28 +773,274 @@ public class TopicClassificationEngine extends ConfiguredSolrCoreTracker impleme
                 throw new ClassifierException(e);
             }
         }
-        if (suggestedTopics.size() <= 1) {
-            // no need to apply the cutting heuristic
-            return suggestedTopics;
+        return suggestedTopics;
+    }
+
+    /**
+     * Getter for the {@link TopicCentroidIndex}. Builds the index if not yet available.
+     * 
+     * @return the index or <code>null</code> if the index can not be built for the SolrCore of this engine
+     */
+    protected TopicCentroidIndex getCentroidIndex() {
+        TopicCentroidIndex index = centroidIndex;
+        if (index == null && !centroidIndexUnavailable) {
+            synchronized (centroidIndexLock) {
+                index = centroidIndex;
+                if (index == null && !centroidIndexUnavailable) {
+                    try {
+                        index = buildCentroidIndex();
+                        centroidIndex = index;
+                    } catch (ClassifierException e) {
+                        log.warn("Unable to build the TopicCentroidIndex for TopicClassifier '" + engineName
+                                 + "'. Will use MoreLikeThis queries instead.", e);
+                        centroidIndexUnavailable = true;
+                    }
+                }
+            }
         }
-        // filter out suggestions that are less than some threshold based on the mean of the top scores
-        float mean = 0.0f;
-        for (TopicSuggestion suggestion : suggestedTopics) {
-            mean += suggestion.score / suggestedTopics.size();
+        return index;
+    }
+
+    /**
+     * Builds a new {@link TopicCentroidIndex} and replaces the current one. Concurrent classifications
+     * continue to use the current index until the new one is available.
+     */
+    protected void reloadCentroidIndex() {
+        try {
+            TopicCentroidIndex index = buildCentroidIndex();
+            synchronized (centroidIndexLock) {
+                centroidIndex = index;
+                centroidIndexUnavailable = false;
+            }
+        } catch (ClassifierException e) {
+            log.warn("Unable to rebuild the TopicCentroidIndex for TopicClassifier '" + engineName
+                     + "'. Will use MoreLikeThis queries instead.", e);
+            synchronized (centroidIndexLock) {
+                centroidIndex = null;
+                centroidIndexUnavailable = true;
+            }
         }
-        float threshold = 0.25f * suggestedTopics.get(0).score + 0.75f * mean;
-        List<TopicSuggestion> filteredSuggestions = new ArrayList<TopicSuggestion>();
-        for (TopicSuggestion suggestion : suggestedTopics) {
-            if (filteredSuggestions.size() >= MAX_SUGGESTIONS) {
-                return filteredSuggestions;
+    }
+
+    /**
+     * Builds the {@link TopicCentroidIndex} by reading the metadata entries and the term vectors of the
+     * model entries of all topics from the SolrCore.
+     */
+    protected TopicCentroidIndex buildCentroidIndex() throws ClassifierException {
+        long start = System.currentTimeMillis();
+        SolrServer solrServer = getActiveSolrServer();
+        if (solrServer == null) {
+            throw new ClassifierException(String.format("SolrCore '%s' is not available", solrCoreId));
+        }
+        int batchSize = 1000;
+        try {
+            // (1) read the metadata of all topics
+            Map<String,SolrDocument> metadata = new HashMap<String,SolrDocument>();
+            SolrQuery query = new SolrQuery("*:*");
+            query.addFilterQuery(entryTypeField + ":" + METADATA_ENTRY);
+            query.setFields(conceptUriField, broaderField, primaryTopicUriField);
+            query.addSortField(entryIdField, SolrQuery.ORDER.asc);
+            query.setRows(batchSize);
+            int offset = 0;
+            SolrDocumentList results;
+            do {
+                query.setStart(offset);
+                results = solrServer.query(query).getResults();
+                for (SolrDocument result : results) {
+                    metadata.put(result.getFirstValue(conceptUriField).toString(), result);
+                }
+                offset += results.size();
+            } while (offset < results.getNumFound() && !results.isEmpty());
+            // (2) read the term vectors of the model entries
+            TopicCentroidIndex.Builder builder = new TopicCentroidIndex.Builder();
+            query = new SolrQuery("*:*");
+            query.setRequestHandler(TERM_VECTOR_REQUEST_HANDLER);
+            query.addFilterQuery(entryTypeField + ":" + MODEL_ENTRY);
+            query.setFields(entryIdField, conceptUriField);
+            query.addSortField(entryIdField, SolrQuery.ORDER.asc);
+            query.set("tv", true);
+            query.set("tv.tf", true);
+            query.set("tv.fl", similarityField);
+            query.setRows(batchSize);
+            offset = 0;
+            do {
+                query.setStart(offset);
+                QueryResponse response = solrServer.query(query);
+                results = response.getResults();
+                Map<String,Map<String,Integer>> termVectors = parseTermVectors(response);
+                for (SolrDocument result : results) {
+                    String conceptUri = result.getFirstValue(conceptUriField).toString();
+                    SolrDocument topicMetadata = metadata.get(conceptUri);
+                    String primaryTopicUri = null;
+                    Collection<Object> broader = null;
+                    if (topicMetadata != null) {
+                        if (primaryTopicUriField != null) {
+                            primaryTopicUri = (String) topicMetadata.getFirstValue(primaryTopicUriField);
+                        }
+                        if (broaderField != null) {
+                            broader = topicMetadata.getFieldValues(broaderField);
+                        }
+                    }
+                    builder.addTopic(conceptUri, primaryTopicUri, broader,
+                        termVectors.get(result.getFirstValue(entryIdField).toString()));
+                }
+                offset += results.size();
+            } while (offset < results.getNumFound() && !results.isEmpty());
+            TopicCentroidIndex index = builder.build();
+            log.info("Built {} for TopicClassifier '{}' in {}ms", new Object[] {index, engineName,
+                    System.currentTimeMillis() - start});
+            return index;
+        } catch (SolrServerException e) {
+            String msg = String.format("Error while reading the term vectors of the topics from Solr Core '%s'"
+                                       + " (a '%s' request handler using the TermVectorComponent is required).",
+                solrCoreId, TERM_VECTOR_REQUEST_HANDLER);
+            throw new ClassifierException(msg, e);
+        } catch (RuntimeException e) {
+            String msg = String.format("Error while building the centroid index for Solr Core '%s'.", solrCoreId);
+            throw new ClassifierException(msg, e);
+        }
+    }
+
+    /**
+     * Parses the term frequencies of the {@link #similarityField} from the response of the
+     * TermVectorComponent
+     * 
+     * @return the term frequencies by unique key of the model entry
+     */
+    protected Map<String,Map<String,Integer>> parseTermVectors(QueryResponse response) throws ClassifierException {
+        Object termVectorsValue = response.getResponse().get("termVectors");
+        if (!(termVectorsValue instanceof NamedList<?>)) {
+            throw new ClassifierException(String.format("Response of Solr Core '%s' does not contain term "
+                                                        + "vectors (check the '%s' request handler).",
+                solrCoreId, TERM_VECTOR_REQUEST_HANDLER));
+        }
+        Map<String,Map<String,Integer>> termVectors = new HashMap<String,Map<String,Integer>>();
+        for (Entry<String,?> docEntry : (NamedList<?>) termVectorsValue) {
+            if (!(docEntry.getValue() instanceof NamedList<?>)) {
+                continue; // e.g. the uniqueKeyFieldName
             }
-            if (filteredSuggestions.isEmpty() || suggestion.score > threshold) {
-                filteredSuggestions.add(suggestion);
-            } else {
-                break;
+            NamedList<?> doc = (NamedList<?>) docEntry.getValue();
+            Object uniqueKey = doc.get("uniqueKey");
+            Object fieldVector = doc.get(similarityField);
+            Map<String,Integer> termFrequencies = new HashMap<String,Integer>();
+            if (fieldVector instanceof NamedList<?>) {
+                for (Entry<String,?> termEntry : (NamedList<?>) fieldVector) {
+                    Object tf = termEntry.getValue() instanceof NamedList<?> ? ((NamedList<?>) termEntry
+                            .getValue()).get("tf") : null;
+                    if (tf instanceof Number) {
+                        termFrequencies.put(termEntry.getKey(), ((Number) tf).intValue());
+                    }
+                }
             }
+            termVectors.put(uniqueKey == null ? docEntry.getKey() : uniqueKey.toString(), termFrequencies);
         }
-        return filteredSuggestions;
+        return termVectors;
+    }
+
+    /**
+     * Analyses the parsed text with the analyzer of the {@link #similarityField} as configured by the
+     * schema of the SolrCore. For embedded SolrCores (including the cores of the {@link ManagedSolrServer})
+     * the text is analysed locally with the index analyzer of the field type. Otherwise the field analysis
+     * request handler of the SolrCore is used.
+     * 
+     * @return the terms and their frequencies
+     */
+    protected Map<String,Integer> analyzeText(String text) throws ClassifierException {
+        SolrServer solrServer = getActiveSolrServer();
+        SolrCore core = getEmbeddedSolrCore(solrServer);
+        if (core != null) {
+            try {
+                FieldType fieldType = core.getLatestSchema().getFieldTypeNoEx(similarityField);
+                if (fieldType != null) {
+                    return analyzeText(fieldType.getAnalyzer(), text);
+                } //else unknown field: let the field analysis request report the error
+            } catch (IOException e) {
+                throw new ClassifierException(String.format("Error while analysing text with field '%s' of "
+                                                            + "Solr Core '%s'", similarityField, solrCoreId), e);
+            } finally {
+                core.close(); //decrements the reference count
+            }
+        }
+        FieldAnalysisRequest request = new FieldAnalysisRequest();
+        request.addFieldName(similarityField);
+        request.setFieldValue(text);
+        Map<String,Integer> termFrequencies = new HashMap<String,Integer>();
+        try {
+            FieldAnalysisResponse response = request.process(solrServer);
+            FieldAnalysisResponse.Analysis analysis = response.getFieldNameAnalysis(similarityField);
+            AnalysisPhase lastPhase = null;
+            if (analysis != null && analysis.getIndexPhases() != null) {
+                for (AnalysisPhase phase : analysis.getIndexPhases()) {
+                    lastPhase = phase;
+                }
+            }
+            if (lastPhase == null) {
+                return termFrequencies;
+            }
+            int tokenCount = 0;
+            for (TokenInfo token : lastPhase.getTokens()) {
+                if (tokenCount++ >= MAX_NUM_TOKENS_PARSED) {
+                    break;
+                }
+                Integer tf = termFrequencies.get(token.getText());
+                termFrequencies.put(token.getText(), tf == null ? 1 : tf + 1);
+            }
+        } catch (SolrServerException e) {
+            throw new ClassifierException(String.format("Error while analysing text with field '%s' of "
+                                                        + "Solr Core '%s'", similarityField, solrCoreId), e);
+        } catch (IOException e) {
+            throw new ClassifierException(String.format("Error while analysing text with field '%s' of "
+                                                        + "Solr Core '%s'", similarityField, solrCoreId), e);
+        }
+        return termFrequencies;
+    }
+
+    /**
+     * Analyses the parsed text with the parsed analyzer
+     * 
+     * @return the terms and their frequencies
+     */
+    private Map<String,Integer> analyzeText(Analyzer analyzer, String text) throws IOException {
+        Map<String,Integer> termFrequencies = new HashMap<String,Integer>();
+        TokenStream tokens = analyzer.tokenStream(similarityField, new StringReader(text));
+        try {
+            CharTermAttribute term = tokens.addAttribute(CharTermAttribute.class);
+            tokens.reset();
+            int tokenCount = 0;
+            while (tokenCount++ < MAX_NUM_TOKENS_PARSED && tokens.incrementToken()) {
+                String termText = term.toString();
+                Integer tf = termFrequencies.get(termText);
+                termFrequencies.put(termText, tf == null ? 1 : tf + 1);
+            }
+            tokens.end();
+        } finally {
+            tokens.close();
+        }
+        return termFrequencies;
+    }
+
+    /**
+     * Getter for the SolrCore of an {@link EmbeddedSolrServer}. The SolrCore is looked up by the name of
+     * the tracked {@link #indexReference} or - for fixed {@link EmbeddedSolrServer}s - by the name of the
+     * only core of the {@link CoreContainer}. Callers need to {@link SolrCore#close() close} the returned
+     * core.
+     * 
+     * @return the SolrCore or <code>null</code> if the parsed server is not embedded or the core can not
+     *         be determined
+     */
+    private SolrCore getEmbeddedSolrCore(SolrServer server) {
+        if (!(server instanceof EmbeddedSolrServer)) {
+            return null;
+        }
+        CoreContainer coreContainer = ((EmbeddedSolrServer) server).getCoreContainer();
+        String coreName;
+        if (indexReference != null) {
+            coreName = indexReference.getIndex();
+        } else {
+            Collection<String> coreNames = coreContainer.getCoreNames();
+            coreName = coreNames.size() == 1 ? coreNames.iterator().next() : null;
+        }
+        return coreName == null ? null : coreContainer.getCore(coreName);
     }
 
     @Override
@@ -867,6 +1212,7 @@ public class TopicClassificationEngine extends ConfiguredSolrCoreTracker impleme
         try {
             solrServer.deleteByQuery("*:*");
             solrServer.commit();
+            centroidIndex = null;
         } catch (Exception e) {
             String msg = String.format("Error deleting concepts from Solr Core '%s'", solrCoreId);
             throw new ClassifierException(msg, e);
@@ -882,6 +1228,7 @@ public class TopicClassificationEngine extends ConfiguredSolrCoreTracker impleme
         try {
             solrServer.deleteByQuery(conceptUriField + ":" + ClientUtils.escapeQueryChars(conceptId));
             solrServer.commit();
+            centroidIndex = null;
         } catch (Exception e) {
             String msg = String
                     .format("Error removing concept '%s' on Solr Core '%s'", conceptId, solrCoreId);
@@ -919,6 +1266,17 @@ public class TopicClassificationEngine extends ConfiguredSolrCoreTracker impleme
     }
 
     protected int batchOverTopics(BatchProcessor<SolrDocument> processor) throws TrainingSetException {
+        return batchOverTopics(processor, false);
+    }
+
+    /**
+     * @param processor
+     *            the processor called for batches of topic metadata entries
+     * @param readOnly
+     *            if <code>true</code> the SolrCore is not committed after every batch and not optimized at
+     *            the end. Only allowed for processors that do not modify the SolrCore of this classifier.
+     */
+    protected int batchOverTopics(BatchProcessor<SolrDocument> processor, boolean readOnly) throws TrainingSetException {
         // TODO: implement incremental update by using the date informations
         int processedCount = 0;
         SolrServer solrServer = getActiveSolrServer();
@@ -949,12 +1307,16 @@ public class TopicClassificationEngine extends ConfiguredSolrCoreTracker impleme
                     }
                 }
                 processedCount += processor.process(batchDocuments);
-                solrServer.commit();
+                if (!readOnly) {
+                    solrServer.commit();
+                }
                 if (count < batchSize) {
                     done = true;
                 }
             }
-            solrServer.optimize();
+            if (!readOnly) {
+                solrServer.optimize();
+            }
         } catch (Exception e) {
             String msg = String.format("Error while updating topics on Solr Core '%s'.", solrCoreId);
             throw new TrainingSetException(msg, e);
@@ -1001,6 +1363,10 @@ public class TopicClassificationEngine extends ConfiguredSolrCoreTracker impleme
                 return processed;
             }
         });
+        if (useCentroidIndex) {
+            // hot swap the centroid index with one reflecting the updated model
+            reloadCentroidIndex();
+        }
         long stop = System.currentTimeMillis();
         log.info("Sucessfully updated {} topics in {}s", updatedTopics, (double) (stop - start) / 1000.);
         return updatedTopics;
@@ -1123,6 +1489,8 @@ public class TopicClassificationEngine extends ConfiguredSolrCoreTracker impleme
         config.put(TopicClassificationEngine.NEGATIVE_SUPPORT_FIELD, "negative_support");
         config.put(TopicClassificationEngine.FALSE_POSITIVES_FIELD, "false_positives");
         config.put(TopicClassificationEngine.FALSE_NEGATIVES_FIELD, "false_negatives");
+        // evaluate the classifier with the same classification method
+        config.put(TopicClassificationEngine.CENTROID_INDEX, useCentroidIndex);
         return config;
     }
 
@@ -1137,36 +1505,81 @@ public class TopicClassificationEngine extends ConfiguredSolrCoreTracker impleme
             throw new ClassifierException("Another evaluation is already running");
         }
         int updatedTopics = 0;
+        int cvFoldCount = 3; // 3-folds CV is hardcoded for now
+        int cvIterationCount = 3; // make it possible to limit the number of folds to use
+        ExecutorService executor = Executors.newFixedThreadPool(cvIterationCount,
+            new CVFoldThreadFactory(engineName));
         // NOTE: The folder used to create the SolrServer used for CVFold
         //       is now created within the #embeddedSolrServerDir
         try {
             evaluationRunning = true;
-            int cvFoldCount = 3; // 3-folds CV is hardcoded for now
-            int cvIterationCount = 3; // make it possible to limit the number of folds to use
 
             // We will use the training set quite intensively, ensure that the index is packed and its
             // statistics are up to date
             getTrainingSet().optimize();
+            // the folds are evaluated in parallel. Each fold uses its own evaluation classifier and the
+            // results are written to the metadata entries after all folds are completed
+            List<Future<List<CVFoldEvaluation>>> folds = new ArrayList<Future<List<CVFoldEvaluation>>>(
+                    cvIterationCount);
             for (int cvFoldIndex = 0; cvFoldIndex < cvIterationCount; cvFoldIndex++) {
-                updatedTopics = performCVFold(cvFoldIndex, cvFoldCount, cvIterationCount,
-                    incremental);
+                final int foldIndex = cvFoldIndex;
+                final int foldCount = cvFoldCount;
+                final int iterationCount = cvIterationCount;
+                final boolean incr = incremental;
+                folds.add(executor.submit(new Callable<List<CVFoldEvaluation>>() {
+                    @Override
+                    public List<CVFoldEvaluation> call() throws Exception {
+                        return performCVFold(foldIndex, foldCount, iterationCount, incr);
+                    }
+                }));
+            }
+            List<List<CVFoldEvaluation>> foldEvaluations = new ArrayList<List<CVFoldEvaluation>>(folds.size());
+            for (Future<List<CVFoldEvaluation>> fold : folds) {
+                foldEvaluations.add(fold.get());
             }
             SolrServer solrServer = getActiveSolrServer();
+            for (List<CVFoldEvaluation> evaluations : foldEvaluations) {
+                for (CVFoldEvaluation evaluation : evaluations) {
+                    updatePerformanceMetadata(evaluation.conceptId, evaluation.precision, evaluation.recall,
+                        evaluation.positiveSupport, evaluation.negativeSupport,
+                        evaluation.falsePositiveExamples, evaluation.falseNegativeExamples);
+                }
+                // commit after every fold as the metadata of a topic are updated once per fold
+                solrServer.commit();
+                updatedTopics = evaluations.size();
+            }
             solrServer.optimize();
-        } catch (ConfigurationException e) {
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
             throw new ClassifierException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof ClassifierException) {
+                throw (ClassifierException) cause;
+            } else if (cause instanceof TrainingSetException) {
+                throw (TrainingSetException) cause;
+            } else {
+                throw new ClassifierException(cause);
+            }
         } catch (IOException e) {
             throw new ClassifierException(e);
         } catch (SolrServerException e) {
             throw new ClassifierException(e);
         } finally {
-            FileUtils.deleteQuietly(__evaluationServerDir);
+            executor.shutdownNow();
+            shutdownEvaluationServers();
             evaluationRunning = false;
         }
         return updatedTopics;
     }
 
-    protected int performCVFold(int cvFoldIndex, int cvFoldCount, int cvIterations, boolean incremental)
+    /**
+     * Evaluates the classifier on a single cross validation fold. Several folds may be evaluated
+     * concurrently. The evaluation does not modify the SolrCore of this classifier.
+     * 
+     * @return the evaluation results of the topics with enough examples
+     */
+    protected List<CVFoldEvaluation> performCVFold(int cvFoldIndex, int cvFoldCount, int cvIterations, boolean incremental)
             throws ConfigurationException, TrainingSetException, ClassifierException {
 
         cvIterations = cvIterations <= 0 ? cvFoldCount : cvFoldCount;
@@ -1179,19 +1592,13 @@ public class TopicClassificationEngine extends ConfiguredSolrCoreTracker impleme
                 // OSGi setup: the evaluation server will be generated automatically using the
                 // managedSolrServer
                 classifier.bindManagedSolrServer(managedSolrServer);
+                // every fold needs its own core as folds are evaluated in parallel
                 classifier.activate(context, getCanonicalConfiguration(
-                    engineName + "-evaluation", //TODO: maybe we should use the SolrCoreName instead
+                    engineName + "-evaluation-" + cvFoldIndex, //TODO: maybe we should use the SolrCoreName instead
                     solrCoreConfig));
             } else {
-                if(__evaluationServer == null){
-                    __evaluationServerDir = new File(embeddedSolrServerDir,engineName + "-evaluation");
-                    if(!__evaluationServerDir.exists()){
-                        FileUtils.forceMkdir(__evaluationServerDir);
-                    }
-                    __evaluationServer = EmbeddedSolrHelper.makeEmbeddedSolrServer(__evaluationServerDir,
-                        "evaluationclassifierserver", "default-topic-model", "default-topic-model");
-                }
-                classifier.configure(getCanonicalConfiguration(__evaluationServer,solrCoreConfig));
+                classifier.configure(getCanonicalConfiguration(getEvaluationServer(cvFoldIndex),
+                    solrCoreConfig));
             }
         } catch (Exception e) {
             throw new ClassifierException(e);
@@ -1220,7 +1627,7 @@ public class TopicClassificationEngine extends ConfiguredSolrCoreTracker impleme
                 }
                 return batch.size();
             }
-        });
+        }, true);
 
         // build the model on the for the current train CV folds
         classifier.setCrossValidationInfo(cvFoldIndex, cvFoldCount);
@@ -1230,9 +1637,10 @@ public class TopicClassificationEngine extends ConfiguredSolrCoreTracker impleme
 
         final int foldCount = cvFoldCount;
         final int foldIndex = cvFoldIndex;
+        final List<CVFoldEvaluation> evaluations = new ArrayList<CVFoldEvaluation>();
 
         // iterate over the topics again to compute scores on the test fold
-        int updatedTopics = batchOverTopics(new BatchProcessor<SolrDocument>() {
+        batchOverTopics(new BatchProcessor<SolrDocument>() {
 
             @Override
             public int process(List<SolrDocument> batch) throws TrainingSetException, ClassifierException {
@@ -1328,19 +1736,14 @@ public class TopicClassificationEngine extends ConfiguredSolrCoreTracker impleme
                         if (truePositives != 0 || falseNegatives != 0) {
                             recall = truePositives / (float) (truePositives + falseNegatives);
                         }
-                        updatePerformanceMetadata(topic, precision, recall, positiveSupport, negativeSupport,
-                            falsePositiveExamples, falseNegativeExamples);
+                        evaluations.add(new CVFoldEvaluation(topic, precision, recall, positiveSupport,
+                                negativeSupport, falsePositiveExamples, falseNegativeExamples));
                         updated += 1;
                     }
                 }
-                try {
-                    getActiveSolrServer().commit();
-                } catch (Exception e) {
-                    throw new ClassifierException(e);
-                }
                 return updated;
             }
-        });
+        }, true);
 
         long stop = System.currentTimeMillis();
         log.info(String.format("Finished CV iteration %d/%d on classifier %s in %fs.", cvFoldIndex + 1,
@@ -1349,7 +1752,82 @@ public class TopicClassificationEngine extends ConfiguredSolrCoreTracker impleme
             // close open trackers
             classifier.deactivate(context);
         }
-        return updatedTopics;
+        return evaluations;
+    }
+
+    /**
+     * Getter for the embedded SolrServer used by the evaluation classifier of a cross validation fold if no
+     * ManagedSolrServer is present (e.g. when running outside of OSGI).
+     */
+    private EmbeddedSolrServer getEvaluationServer(int cvFoldIndex) throws Exception {
+        synchronized (__evaluationServers) {
+            EmbeddedSolrServer server = __evaluationServers.get(cvFoldIndex);
+            if (server == null) {
+                __evaluationServerDir = new File(embeddedSolrServerDir, engineName + "-evaluation");
+                if (!__evaluationServerDir.exists()) {
+                    FileUtils.forceMkdir(__evaluationServerDir);
+                }
+                server = EmbeddedSolrHelper.makeEmbeddedSolrServer(__evaluationServerDir,
+                    "evaluationclassifierserver-" + cvFoldIndex, "default-topic-model", "default-topic-model");
+                __evaluationServers.put(cvFoldIndex, server);
+            }
+            return server;
+        }
+    }
+
+    /**
+     * Shuts down the embedded SolrServers used for cross validation and deletes their data
+     */
+    private void shutdownEvaluationServers() {
+        synchronized (__evaluationServers) {
+            for (EmbeddedSolrServer server : __evaluationServers.values()) {
+                try {
+                    server.getCoreContainer().shutdown();
+                } catch (Exception e) {
+                    // ignore
+                }
+            }
+            __evaluationServers.clear();
+            if (__evaluationServerDir != null) {
+                FileUtils.deleteQuietly(__evaluationServerDir);
+            }
+        }
+    }
+
+    /**
+     * The evaluation results of a topic for a single cross validation fold
+     */
+    protected static class CVFoldEvaluation {
+
+        final String conceptId;
+
+        final float precision;
+
+        final float recall;
+
+        final int positiveSupport;
+
+        final int negativeSupport;
+
+        final List<String> falsePositiveExamples;
+
+        final List<String> falseNegativeExamples;
+
+        CVFoldEvaluation(String conceptId,
+                         float precision,
+                         float recall,
+                         int positiveSupport,
+                         int negativeSupport,
+                         List<String> falsePositiveExamples,
+                         List<String> falseNegativeExamples) {
+            this.conceptId = conceptId;
+            this.precision = precision;
+            this.recall = recall;
+            this.positiveSupport = positiveSupport;
+            this.negativeSupport = negativeSupport;
+            this.falsePositiveExamples = falsePositiveExamples;
+            this.falseNegativeExamples = falseNegativeExamples;
+        }
     }
 
     /**
@@ -1535,4 +2013,24 @@ public class TopicClassificationEngine extends ConfiguredSolrCoreTracker impleme
         }
         return importedCount;
     }
-}
\ No newline at end of file
+
+    /**
+     * Creates daemon threads used to evaluate the folds of the cross validation
+     */
+    private static class CVFoldThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+        private final String engineName;
+
+        CVFoldThreadFactory(String engineName) {
+            this.engineName = engineName;
+        }
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "Stanbol Topic Classifier " + engineName + " CV Fold Thread "
+                                          + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
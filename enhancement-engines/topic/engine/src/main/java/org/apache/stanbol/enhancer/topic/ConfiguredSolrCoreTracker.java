@@ -48,6 +48,12 @@ public abstract class ConfiguredSolrCoreTracker {
 
     protected RegisteredSolrServerTracker indexTracker;
 
+    /**
+     * The reference to the tracked SolrCore or <code>null</code> if a fixed
+     * {@link #solrServer} is used.
+     */
+    protected IndexReference indexReference;
+
     // instance of classifierSolrServer to use if not using the OSGi service tracker (e.g. for tests)
     protected SolrServer solrServer;
 
@@ -134,6 +140,7 @@ public abstract class ConfiguredSolrCoreTracker {
             // Bind a fixed Solr server client instead of doing dynamic OSGi lookup using the service tracker.
             // This can be useful both for unit-testing .
             solrServer = (SolrServer) config.get(solrCoreProperty);
+            indexReference = null;
             solrCoreConfig = TopicClassificationEngine.DEFAULT_SOLR_CORE_CONFIG;
         } else {
             if (context == null) {
@@ -152,6 +159,7 @@ public abstract class ConfiguredSolrCoreTracker {
                 IndexReference indexReference = IndexReference.parse(solrCoreId);
                 //String configName = getRequiredStringParam(config, SOLR_CONFIG, defaultValue)
                 indexReference = checkInitSolrIndex(indexReference, solrCoreConfig);
+                this.indexReference = indexReference;
                 // track the solr core OSGi updates
                 indexTracker = new RegisteredSolrServerTracker(context.getBundleContext(), indexReference);
                 indexTracker.open();
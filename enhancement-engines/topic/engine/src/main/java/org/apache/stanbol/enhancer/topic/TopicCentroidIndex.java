@@ -0,0 +1,302 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.stanbol.enhancer.topic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.apache.stanbol.enhancer.topic.api.TopicSuggestion;
+
+/**
+ * Compact in-memory index over the centroids (the TF-IDF vectors of the model entries) of all topics of a
+ * topic classifier. Terms are mapped to ids by a term dictionary and for every term id the topics using this
+ * term are stored as sparse arrays (topic ids and weights). Classifying a document is therefore a top-k dot
+ * product over the posting arrays of the (at most <code>maxQueryTerms</code>) most interesting terms of the
+ * document and does not require any request to the Solr index.
+ * <p>
+ * Weights use the same TF-IDF formulas as Lucene: <code>tf := sqrt(freq)</code> and
+ * <code>idf := 1 + ln(numTopics/(df+1))</code>. Both the centroids and the document vector are L2
+ * normalised so scores are cosine similarities in the range [0..1].
+ * <p>
+ * Instances are immutable and therefore thread safe. Use the {@link Builder} to create them.
+ */
+public final class TopicCentroidIndex {
+
+    private final Map<String,Integer> termIds;
+
+    private final float[] idf;
+
+    private final int[][] postingTopics;
+
+    private final float[][] postingWeights;
+
+    private final String[] conceptUris;
+
+    private final String[] primaryTopicUris;
+
+    private final List<Collection<?>> broaderConcepts;
+
+    private TopicCentroidIndex(Map<String,Integer> termIds,
+                               float[] idf,
+                               int[][] postingTopics,
+                               float[][] postingWeights,
+                               String[] conceptUris,
+                               String[] primaryTopicUris,
+                               List<Collection<?>> broaderConcepts) {
+        this.termIds = termIds;
+        this.idf = idf;
+        this.postingTopics = postingTopics;
+        this.postingWeights = postingWeights;
+        this.conceptUris = conceptUris;
+        this.primaryTopicUris = primaryTopicUris;
+        this.broaderConcepts = broaderConcepts;
+    }
+
+    /**
+     * The number of topics in this index
+     *
+     * @return the number of topics
+     */
+    public int getTopicCount() {
+        return conceptUris.length;
+    }
+
+    /**
+     * The number of terms in the term dictionary
+     *
+     * @return the number of terms
+     */
+    public int getTermCount() {
+        return idf.length;
+    }
+
+    /**
+     * Suggests the topics with the most similar centroids for a document.
+     *
+     * @param termFrequencies
+     *            the analysed terms of the document and their frequencies
+     * @param maxQueryTerms
+     *            the maximum number of document terms (those with the highest TF-IDF weights) used for the
+     *            similarity
+     * @param limit
+     *            the maximum number of suggestions
+     * @return the suggestions sorted by descending score. Topics with a score of zero are not included.
+     */
+    public List<TopicSuggestion> suggestTopics(Map<String,Integer> termFrequencies, int maxQueryTerms, int limit) {
+        // (1) weight the terms of the document known by the term dictionary
+        int[] queryTerms = new int[termFrequencies.size()];
+        float[] queryWeights = new float[termFrequencies.size()];
+        int size = 0;
+        for (Entry<String,Integer> entry : termFrequencies.entrySet()) {
+            Integer termId = termIds.get(entry.getKey());
+            if (termId != null && entry.getValue() != null && entry.getValue() > 0) {
+                queryTerms[size] = termId;
+                queryWeights[size] = (float) Math.sqrt(entry.getValue()) * idf[termId];
+                size++;
+            }
+        }
+        if (size == 0 || limit <= 0) {
+            return Collections.emptyList();
+        }
+        // (2) keep the maxQueryTerms terms with the highest weights
+        if (maxQueryTerms > 0 && size > maxQueryTerms) {
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            final float[] weights = queryWeights;
+            Arrays.sort(order, new Comparator<Integer>() {
+                @Override
+                public int compare(Integer i1, Integer i2) {
+                    return Float.compare(weights[i2], weights[i1]);
+                }
+            });
+            int[] selectedTerms = new int[maxQueryTerms];
+            float[] selectedWeights = new float[maxQueryTerms];
+            for (int i = 0; i < maxQueryTerms; i++) {
+                selectedTerms[i] = queryTerms[order[i]];
+                selectedWeights[i] = queryWeights[order[i]];
+            }
+            queryTerms = selectedTerms;
+            queryWeights = selectedWeights;
+            size = maxQueryTerms;
+        }
+        double norm = 0;
+        for (int i = 0; i < size; i++) {
+            norm += queryWeights[i] * queryWeights[i];
+        }
+        float queryNorm = (float) Math.sqrt(norm);
+        // (3) accumulate the dot products over the posting arrays
+        float[] scores = new float[conceptUris.length];
+        for (int i = 0; i < size; i++) {
+            float weight = queryWeights[i] / queryNorm;
+            int[] topics = postingTopics[queryTerms[i]];
+            float[] topicWeights = postingWeights[queryTerms[i]];
+            for (int j = 0; j < topics.length; j++) {
+                scores[topics[j]] += weight * topicWeights[j];
+            }
+        }
+        // (4) select the top-k topics
+        int[] top = new int[Math.min(limit, scores.length)];
+        int topSize = 0;
+        for (int topic = 0; topic < scores.length; topic++) {
+            float score = scores[topic];
+            if (score <= 0 || (topSize == top.length && score <= scores[top[topSize - 1]])) {
+                continue;
+            }
+            int pos = topSize == top.length ? topSize - 1 : topSize++;
+            while (pos > 0 && scores[top[pos - 1]] < score) {
+                top[pos] = top[pos - 1];
+                pos--;
+            }
+            top[pos] = topic;
+        }
+        List<TopicSuggestion> suggestions = new ArrayList<TopicSuggestion>(topSize);
+        for (int i = 0; i < topSize; i++) {
+            int topic = top[i];
+            suggestions.add(new TopicSuggestion(conceptUris[topic], primaryTopicUris[topic], broaderConcepts
+                    .get(topic), scores[topic]));
+        }
+        return suggestions;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("TopicCentroidIndex(topics: %d, terms: %d)", getTopicCount(), getTermCount());
+    }
+
+    /**
+     * Builder for {@link TopicCentroidIndex} instances. Not thread safe.
+     */
+    public static class Builder {
+
+        private final Map<String,Integer> termIds = new HashMap<String,Integer>();
+
+        private int[] docFreqs = new int[1024];
+
+        private final List<String> conceptUris = new ArrayList<String>();
+
+        private final List<String> primaryTopicUris = new ArrayList<String>();
+
+        private final List<Collection<?>> broaderConcepts = new ArrayList<Collection<?>>();
+
+        private final List<int[]> topicTerms = new ArrayList<int[]>();
+
+        private final List<int[]> topicFreqs = new ArrayList<int[]>();
+
+        /**
+         * Adds a topic
+         *
+         * @param conceptUri
+         *            the URI of the concept
+         * @param primaryTopicUri
+         *            the primary topic or <code>null</code> if none
+         * @param broader
+         *            the broader concepts or <code>null</code> if none
+         * @param termFrequencies
+         *            the terms and term frequencies of the model entry of the topic. <code>null</code> or an
+         *            empty map if the topic has not yet a model
+         * @return this builder
+         */
+        public Builder addTopic(String conceptUri,
+                                String primaryTopicUri,
+                                Collection<?> broader,
+                                Map<String,Integer> termFrequencies) {
+            if (conceptUri == null) {
+                throw new IllegalArgumentException("The parsed concept URI MUST NOT be NULL!");
+            }
+            int size = termFrequencies == null ? 0 : termFrequencies.size();
+            int[] terms = new int[size];
+            int[] freqs = new int[size];
+            int i = 0;
+            if (termFrequencies != null) {
+                for (Entry<String,Integer> entry : termFrequencies.entrySet()) {
+                    if (entry.getValue() == null || entry.getValue() <= 0) {
+                        continue;
+                    }
+                    Integer termId = termIds.get(entry.getKey());
+                    if (termId == null) {
+                        termId = termIds.size();
+                        termIds.put(entry.getKey(), termId);
+                        if (termId == docFreqs.length) {
+                            docFreqs = Arrays.copyOf(docFreqs, docFreqs.length * 2);
+                        }
+                    }
+                    docFreqs[termId]++;
+                    terms[i] = termId;
+                    freqs[i] = entry.getValue();
+                    i++;
+                }
+            }
+            conceptUris.add(conceptUri);
+            primaryTopicUris.add(primaryTopicUri);
+            broaderConcepts.add(broader);
+            topicTerms.add(i == size ? terms : Arrays.copyOf(terms, i));
+            topicFreqs.add(i == size ? freqs : Arrays.copyOf(freqs, i));
+            return this;
+        }
+
+        /**
+         * Builds the index
+         *
+         * @return the index
+         */
+        public TopicCentroidIndex build() {
+            int numTopics = conceptUris.size();
+            int numTerms = termIds.size();
+            float[] idf = new float[numTerms];
+            for (int term = 0; term < numTerms; term++) {
+                idf[term] = (float) (1 + Math.log(numTopics / (double) (docFreqs[term] + 1)));
+            }
+            int[][] postingTopics = new int[numTerms][];
+            float[][] postingWeights = new float[numTerms][];
+            for (int term = 0; term < numTerms; term++) {
+                postingTopics[term] = new int[docFreqs[term]];
+                postingWeights[term] = new float[docFreqs[term]];
+            }
+            int[] postingSizes = new int[numTerms];
+            for (int topic = 0; topic < numTopics; topic++) {
+                int[] terms = topicTerms.get(topic);
+                int[] freqs = topicFreqs.get(topic);
+                double norm = 0;
+                float[] weights = new float[terms.length];
+                for (int i = 0; i < terms.length; i++) {
+                    weights[i] = (float) Math.sqrt(freqs[i]) * idf[terms[i]];
+                    norm += weights[i] * weights[i];
+                }
+                float topicNorm = (float) Math.sqrt(norm);
+                for (int i = 0; i < terms.length; i++) {
+                    int term = terms[i];
+                    postingTopics[term][postingSizes[term]] = topic;
+                    postingWeights[term][postingSizes[term]] = weights[i] / topicNorm;
+                    postingSizes[term]++;
+                }
+            }
+            return new TopicCentroidIndex(new HashMap<String,Integer>(termIds), idf, postingTopics,
+                    postingWeights, conceptUris.toArray(new String[numTopics]),
+                    primaryTopicUris.toArray(new String[numTopics]), new ArrayList<Collection<?>>(
+                            broaderConcepts));
+        }
+    }
+}
@@ -45,6 +45,10 @@ import org.apache.commons.lang.StringUtils;
 import org.apache.solr.client.solrj.SolrQuery;
 import org.apache.solr.client.solrj.SolrServerException;
 import org.apache.solr.client.solrj.embedded.EmbeddedSolrServer;
+import org.apache.solr.client.solrj.request.FieldAnalysisRequest;
+import org.apache.solr.client.solrj.response.AnalysisResponseBase.AnalysisPhase;
+import org.apache.solr.client.solrj.response.AnalysisResponseBase.TokenInfo;
+import org.apache.solr.client.solrj.response.FieldAnalysisResponse;
 import org.apache.solr.client.solrj.response.QueryResponse;
 import org.apache.solr.common.params.CommonParams;
 import org.apache.stanbol.commons.solr.utils.StreamQueryRequest;
@@ -416,6 +420,88 @@ public class TopicEngineTest extends EmbeddedSolrHelper {
         assertEquals(0, classifier.updateModel(true));
     }
 
+    @Test
+    public void testLocalTextAnalysis() throws Exception {
+        log.info(" --- testLocalTextAnalysis --- ");
+        String text = "Apple's iPad is a small handheld computer with a touch screen UI."
+                      + " Apple sold the iPad at a very high price and made record profits.";
+        // the embedded SolrCore analyses the text locally
+        Map<String,Integer> local = classifier.analyzeText(text);
+        assertFalse(local.isEmpty());
+        // the result needs to be the same as the one of the field analysis request handler
+        FieldAnalysisRequest request = new FieldAnalysisRequest();
+        request.addFieldName(classifier.similarityField);
+        request.setFieldValue(text);
+        FieldAnalysisResponse response = request.process(classifierSolrServer);
+        AnalysisPhase lastPhase = null;
+        for (AnalysisPhase phase : response.getFieldNameAnalysis(classifier.similarityField).getIndexPhases()) {
+            lastPhase = phase;
+        }
+        Map<String,Integer> remote = new TreeMap<String,Integer>();
+        for (TokenInfo token : lastPhase.getTokens()) {
+            Integer tf = remote.get(token.getText());
+            remote.put(token.getText(), tf == null ? 1 : tf + 1);
+        }
+        assertEquals(remote, new TreeMap<String,Integer>(local));
+    }
+
+    @Test
+    public void testCentroidIndexClassification() throws Exception {
+        log.info(" --- testCentroidIndexClassification --- ");
+        Hashtable<String,Object> config = getDefaultClassifierConfigParams();
+        config.put(TopicClassificationEngine.CENTROID_INDEX, true);
+        classifier.configure(config);
+
+        String business = "urn:topics/business";
+        String technology = "urn:topics/technology";
+        String apple = "urn:topics/apple";
+        String sport = "urn:topics/sport";
+        String football = "urn:topics/football";
+        classifier.addConcept(business, null);
+        classifier.addConcept(technology, null);
+        classifier.addConcept(sport, null);
+        classifier.addConcept(apple, Arrays.asList(business, technology));
+        classifier.addConcept(football, Arrays.asList(sport));
+        classifier.setTrainingSet(trainingSet);
+
+        // no model yet: the centroids are empty
+        assertEquals(5, classifier.updateModel(false));
+        assertEquals(0, classifier.suggestTopics("Apple sold the iPad at a very high price").size());
+
+        String STOP_WORDS = " the a is are be in at ";
+        trainingSet.registerExample(null, "Money, money, money is the root of all evil." + STOP_WORDS,
+            Arrays.asList(business));
+        trainingSet.registerExample(null, "Apple's iPad is a small handheld computer with a touch screen UI"
+                                          + STOP_WORDS, Arrays.asList(apple, technology));
+        trainingSet.registerExample(null, "Apple sold the iPad at a very high price"
+                                          + " and made record profits." + STOP_WORDS,
+            Arrays.asList(apple, business));
+        trainingSet.registerExample(null, "Manchester United won 3-2 against FC Barcelona." + STOP_WORDS,
+            Arrays.asList(football));
+        // the centroid index is replaced after the update of the model
+        assertEquals(5, classifier.updateModel(false));
+
+        List<TopicSuggestion> suggestions = classifier
+                .suggestTopics("Apple sold the iPad at a very high price");
+        assertFalse(suggestions.isEmpty());
+        assertEquals(apple, suggestions.get(0).conceptUri);
+        assertEquals(Arrays.asList(business, technology), suggestions.get(0).broader);
+        for (int i = 1; i < suggestions.size(); i++) {
+            assertTrue(suggestions.get(i - 1).score >= suggestions.get(i).score);
+        }
+        suggestions = classifier.suggestTopics("Manchester United won against Barcelona");
+        assertFalse(suggestions.isEmpty());
+        for (TopicSuggestion suggestion : suggestions) {
+            assertTrue(football.equals(suggestion.conceptUri) || sport.equals(suggestion.conceptUri));
+        }
+
+        // removed concepts are no longer suggested
+        classifier.removeConcept(apple);
+        for (TopicSuggestion suggestion : classifier.suggestTopics("Apple sold the iPad at a very high price")) {
+            assertFalse(apple.equals(suggestion.conceptUri));
+        }
+    }
+
     @Test
     public void testUpdatePerformanceEstimates() throws Exception {
         log.info(" --- testUpdatePerformanceEstimates --- ");
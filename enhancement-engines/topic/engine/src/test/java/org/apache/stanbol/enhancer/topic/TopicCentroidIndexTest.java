@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.stanbol.enhancer.topic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.stanbol.enhancer.topic.api.TopicSuggestion;
+import org.junit.Test;
+
+public class TopicCentroidIndexTest {
+
+    private static Map<String,Integer> terms(String text) {
+        Map<String,Integer> termFrequencies = new HashMap<String,Integer>();
+        for (String term : text.split(" ")) {
+            Integer tf = termFrequencies.get(term);
+            termFrequencies.put(term, tf == null ? 1 : tf + 1);
+        }
+        return termFrequencies;
+    }
+
+    private TopicCentroidIndex buildIndex() {
+        return new TopicCentroidIndex.Builder()
+                .addTopic("urn:topics/sport", null, null, terms("the football match goal the team"))
+                .addTopic("urn:topics/music", "http://dbpedia.org/resource/Music", null,
+                    terms("the band concert guitar the album"))
+                .addTopic("urn:topics/football", null, Arrays.asList("urn:topics/sport"),
+                    terms("football football goal worldcup the team"))
+                .addTopic("urn:topics/empty", null, null, null).build();
+    }
+
+    @Test
+    public void testIndexStatistics() {
+        TopicCentroidIndex index = buildIndex();
+        assertEquals(4, index.getTopicCount());
+        assertEquals(10, index.getTermCount());
+    }
+
+    @Test
+    public void testSuggestTopics() {
+        TopicCentroidIndex index = buildIndex();
+        List<TopicSuggestion> suggestions = index.suggestTopics(terms("football worldcup goal"), 30, 10);
+        // the music and the empty topic do not share any term with the text
+        assertEquals(2, suggestions.size());
+        assertEquals("urn:topics/football", suggestions.get(0).conceptUri);
+        assertEquals(Arrays.asList("urn:topics/sport"), suggestions.get(0).broader);
+        assertEquals("urn:topics/sport", suggestions.get(1).conceptUri);
+        assertTrue(suggestions.get(0).score > suggestions.get(1).score);
+        assertTrue(suggestions.get(0).score <= 1.0001f);
+
+        suggestions = index.suggestTopics(terms("guitar concert"), 30, 10);
+        assertEquals(1, suggestions.size());
+        assertEquals("urn:topics/music", suggestions.get(0).conceptUri);
+        assertEquals("http://dbpedia.org/resource/Music", suggestions.get(0).primaryTopicUri);
+
+        // unknown terms
+        assertTrue(index.suggestTopics(terms("unknown words only"), 30, 10).isEmpty());
+    }
+
+    @Test
+    public void testLimits() {
+        TopicCentroidIndex index = buildIndex();
+        List<TopicSuggestion> suggestions = index.suggestTopics(terms("the football band"), 30, 10);
+        assertEquals(3, suggestions.size());
+        List<TopicSuggestion> limited = index.suggestTopics(terms("the football band"), 30, 1);
+        assertEquals(1, limited.size());
+        assertEquals(suggestions.get(0).conceptUri, limited.get(0).conceptUri);
+        // only the term with the highest weight ('guitar') is used
+        suggestions = index.suggestTopics(terms("the the guitar"), 1, 10);
+        assertEquals(1, suggestions.size());
+        assertEquals("urn:topics/music", suggestions.get(0).conceptUri);
+    }
+}
@@ -45,6 +45,7 @@ import org.apache.stanbol.enhancer.servicesapi.ContentItem;
 import org.apache.stanbol.enhancer.servicesapi.ContentItemFactory;
 import org.apache.stanbol.enhancer.servicesapi.ContentSink;
 import org.apache.stanbol.enhancer.servicesapi.ContentSource;
+import org.apache.stanbol.enhancer.servicesapi.FileBackedBlob;
 import org.apache.stanbol.enhancer.servicesapi.helper.ContentItemHelper;
 import org.apache.stanbol.enhancer.servicesapi.impl.AbstractContentItemFactory;
 import org.apache.stanbol.enhancer.servicesapi.impl.ContentItemImpl;
@@ -65,7 +66,8 @@ import org.slf4j.LoggerFactory;
 @Service(value=ContentItemFactory.class)
 @Properties(value={
     @Property(name=FileContentItemFactory.PARAM_BASE_DIR,value=""),
-    @Property(name=Constants.SERVICE_RANKING, intValue=50)
+    @Property(name=Constants.SERVICE_RANKING, intValue=50),
+    @Property(name=AbstractContentItemFactory.PARAM_COMPACT_METADATA,boolValue=false)
 })
 public class FileContentItemFactory extends AbstractContentItemFactory implements ContentItemFactory {
 
@@ -111,6 +113,7 @@ public class FileContentItemFactory extends AbstractContentItemFactory implement
     
     @Activate
     protected void activate(ComponentContext ctx) throws ConfigurationException {
+        setCompactMetadata(ctx.getProperties().get(PARAM_COMPACT_METADATA));
         Object value = ctx.getProperties().get(PARAM_BASE_DIR);
         if(value != null && !value.toString().isEmpty()){
             String home = ctx.getBundleContext().getProperty("sling.home");
@@ -292,7 +295,7 @@ public class FileContentItemFactory extends AbstractContentItemFactory implement
      * @author Rupert Westenthaler
      *
      */
-    public class FileBlob implements Blob {
+    public class FileBlob implements FileBackedBlob {
 
         private final File file;
         /**
@@ -335,7 +338,8 @@ public class FileContentItemFactory extends AbstractContentItemFactory implement
          * The tmp file representing this Blob
          * @return the file
          */
-        protected final File getFile() {
+        @Override
+        public final File getFile() {
             return file;
         }
 
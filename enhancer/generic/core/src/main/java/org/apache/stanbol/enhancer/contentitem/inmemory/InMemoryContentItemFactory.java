@@ -16,16 +16,21 @@
 */
 package org.apache.stanbol.enhancer.contentitem.inmemory;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.SequenceInputStream;
 
 import org.apache.clerezza.commons.rdf.Graph;
 import org.apache.clerezza.commons.rdf.IRI;
+import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Properties;
 import org.apache.felix.scr.annotations.Property;
 import org.apache.felix.scr.annotations.Service;
+import org.apache.stanbol.enhancer.contentitem.file.FileContentItemFactory;
 import org.apache.stanbol.enhancer.servicesapi.Blob;
 import org.apache.stanbol.enhancer.servicesapi.ContentItem;
 import org.apache.stanbol.enhancer.servicesapi.ContentItemFactory;
@@ -33,16 +38,43 @@ import org.apache.stanbol.enhancer.servicesapi.ContentSink;
 import org.apache.stanbol.enhancer.servicesapi.ContentSource;
 import org.apache.stanbol.enhancer.servicesapi.helper.ContentItemHelper;
 import org.apache.stanbol.enhancer.servicesapi.impl.AbstractContentItemFactory;
+import org.apache.stanbol.enhancer.servicesapi.impl.ByteArraySource;
+import org.apache.stanbol.enhancer.servicesapi.impl.StreamSource;
+import org.apache.stanbol.enhancer.servicesapi.impl.StringSource;
 import org.osgi.framework.Constants;
+import org.osgi.service.cm.ConfigurationException;
+import org.osgi.service.component.ComponentContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 @Component(inherit=true)
 @Service(value=ContentItemFactory.class)
 @Properties(value={
     //set service ranking to an positive integer so that others do not accitently
     //override the default
-    @Property(name=Constants.SERVICE_RANKING,intValue=100)
+    @Property(name=Constants.SERVICE_RANKING,intValue=100),
+    @Property(name=AbstractContentItemFactory.PARAM_COMPACT_METADATA,boolValue=false),
+    @Property(name=InMemoryContentItemFactory.PARAM_SPILL_THRESHOLD,
+        intValue=InMemoryContentItemFactory.DEFAULT_SPILL_THRESHOLD)
 })
 public class InMemoryContentItemFactory extends AbstractContentItemFactory implements ContentItemFactory {
     
+    private final Logger log = LoggerFactory.getLogger(InMemoryContentItemFactory.class);
+    
+    /**
+     * The maximum number of bytes of streamed content (e.g. the request body
+     * of an enhancement request) kept in memory. {@link Blob}s for content
+     * exceeding this threshold are stored in temporary files (see
+     * {@link FileContentItemFactory}). Values <code>&lt;= 0</code> deactivate
+     * this feature. {@link ContentSource}s that already hold the content in
+     * memory (e.g. {@link ByteArraySource}, {@link StringSource}) are never
+     * spilled to files.
+     */
+    public static final String PARAM_SPILL_THRESHOLD = "stanbol.enhancer.contentitem.inmemory.spillThreshold";
+    /**
+     * The default spill threshold (4 MByte)
+     */
+    public static final int DEFAULT_SPILL_THRESHOLD = 4 * 1024 * 1024;
+    
     private static InMemoryContentItemFactory instance;
     /**
      * Getter for the singleton instance of this factory. Within an OSGI 
@@ -57,10 +89,46 @@ public class InMemoryContentItemFactory extends AbstractContentItemFactory imple
         return instance;
     }
     
+    /**
+     * The spill threshold. Instances created by the default constructor do
+     * not spill content to files.
+     */
+    private int spillThreshold = -1;
+    /**
+     * Lazily initialised factory used to create file backed blobs for
+     * content exceeding the {@link #spillThreshold}
+     */
+    private FileContentItemFactory spillFactory;
+    
     public InMemoryContentItemFactory() {
         super(true); //lazy initialisation makes a lot of sense for in-memory implementations
     }
 
+    @Activate
+    protected void activate(ComponentContext ctx) throws ConfigurationException {
+        setCompactMetadata(ctx.getProperties().get(PARAM_COMPACT_METADATA));
+        Object value = ctx.getProperties().get(PARAM_SPILL_THRESHOLD);
+        if(value instanceof Number){
+            spillThreshold = ((Number)value).intValue();
+        } else if(value != null && !value.toString().trim().isEmpty()){
+            try {
+                spillThreshold = Integer.parseInt(value.toString().trim());
+            } catch (NumberFormatException e) {
+                throw new ConfigurationException(PARAM_SPILL_THRESHOLD, 
+                    "Unable to parse spill threshold from '"+value+"'!", e);
+            }
+        } else {
+            spillThreshold = DEFAULT_SPILL_THRESHOLD;
+        }
+        if(spillThreshold > 0){
+            log.info("activate {} (spill threshold: {} bytes)", 
+                getClass().getSimpleName(), spillThreshold);
+        } else {
+            log.info("activate {} (spilling to temp files deactivated)",
+                getClass().getSimpleName());
+        }
+    }
+
     @Override
     protected ContentItem createContentItem(IRI id, Blob blob, Graph metadata) {
         return new InMemoryContentItem(id, blob, metadata);
@@ -76,8 +144,57 @@ public class InMemoryContentItemFactory extends AbstractContentItemFactory imple
         if(source == null){
             throw new IllegalArgumentException("The parsed ContentSource MUST NOT be NULL!");
         }
-        //use source.getData to avoid making copies of byte arrays
-        return new InMemoryBlob(source.getData(), source.getMediaType(),null);
+        if(spillThreshold <= 0 || source instanceof ByteArraySource || 
+                source instanceof StringSource){
+            //use source.getData to avoid making copies of byte arrays
+            return new InMemoryBlob(source.getData(), source.getMediaType(),null);
+        }
+        //read up to spillThreshold bytes into memory
+        InputStream in = source.getStream();
+        byte[] buffer = new byte[Math.min(spillThreshold, 8192)];
+        int length = 0;
+        int read;
+        int next = -1; //the first byte after the threshold
+        while((read = in.read(buffer, length, buffer.length - length)) != -1){
+            length += read;
+            if(length == buffer.length){
+                if(length >= spillThreshold){
+                    //check if the content exceeds the threshold
+                    next = in.read();
+                    if(next == -1){
+                        read = -1;
+                    }
+                    break;
+                }
+                byte[] grown = new byte[Math.min(spillThreshold, buffer.length * 2)];
+                System.arraycopy(buffer, 0, grown, 0, length);
+                buffer = grown;
+            }
+        }
+        if(read == -1){ //all data read without exceeding the threshold
+            in.close();
+            byte[] data;
+            if(length == buffer.length){
+                data = buffer;
+            } else {
+                data = new byte[length];
+                System.arraycopy(buffer, 0, data, 0, length);
+            }
+            return new InMemoryBlob(data, source.getMediaType(),null);
+        }
+        //spill the already read data and the remaining content to a temp file
+        log.debug("spill content exceeding {} bytes to temporary file", spillThreshold);
+        InputStream buffered = new SequenceInputStream(new ByteArrayInputStream(buffer, 0, length),
+            new ByteArrayInputStream(new byte[]{(byte)next}));
+        return getSpillFactory().createBlob(new StreamSource(new SequenceInputStream(buffered, in),
+            source.getMediaType(), source.getFileName(), source.getHeaders()));
+    }
+    
+    private synchronized FileContentItemFactory getSpillFactory(){
+        if(spillFactory == null){
+            spillFactory = new FileContentItemFactory();
+        }
+        return spillFactory;
     }
 
     @Override
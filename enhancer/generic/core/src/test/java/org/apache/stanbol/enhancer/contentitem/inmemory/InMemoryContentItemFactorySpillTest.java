@@ -0,0 +1,129 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.contentitem.inmemory;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.stanbol.enhancer.servicesapi.Blob;
+import org.apache.stanbol.enhancer.servicesapi.ContentItem;
+import org.apache.stanbol.enhancer.servicesapi.FileBackedBlob;
+import org.apache.stanbol.enhancer.servicesapi.impl.ByteArraySource;
+import org.apache.stanbol.enhancer.servicesapi.impl.StreamSource;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.osgi.service.cm.ConfigurationException;
+
+/**
+ * Tests that streamed content exceeding the
+ * {@link InMemoryContentItemFactory#DEFAULT_SPILL_THRESHOLD} is stored in
+ * temporary files.
+ */
+public class InMemoryContentItemFactorySpillTest {
+
+    private static final String MEDIA_TYPE = "application/octet-stream";
+
+    private static InMemoryContentItemFactory factory;
+
+    @BeforeClass
+    public static void init() throws ConfigurationException {
+        factory = new InMemoryContentItemFactory();
+        //use the default configuration
+        factory.activate(new MockComponentContext());
+    }
+
+    private static byte[] createContent(int length){
+        byte[] data = new byte[length];
+        for(int i = 0; i < length; i++){
+            data[i] = (byte)(i * 31);
+        }
+        return data;
+    }
+
+    private static byte[] read(Blob blob) throws IOException {
+        InputStream in = blob.getStream();
+        try {
+            return IOUtils.toByteArray(in);
+        } finally {
+            IOUtils.closeQuietly(in);
+        }
+    }
+
+    @Test
+    public void testSmallContentInMemory() throws IOException {
+        byte[] data = createContent(1024);
+        Blob blob = factory.createBlob(new StreamSource(new ByteArrayInputStream(data), MEDIA_TYPE));
+        assertFalse(blob instanceof FileBackedBlob);
+        assertArrayEquals(data, read(blob));
+    }
+
+    @Test
+    public void testContentOfThresholdSizeInMemory() throws IOException {
+        byte[] data = createContent(InMemoryContentItemFactory.DEFAULT_SPILL_THRESHOLD);
+        Blob blob = factory.createBlob(new StreamSource(new ByteArrayInputStream(data), MEDIA_TYPE));
+        assertFalse(blob instanceof FileBackedBlob);
+        assertEquals(data.length, blob.getContentLength());
+    }
+
+    @Test
+    public void testInMemorySourcesAreNotSpilled() throws IOException {
+        byte[] data = createContent(InMemoryContentItemFactory.DEFAULT_SPILL_THRESHOLD + 1);
+        Blob blob = factory.createBlob(new ByteArraySource(data, MEDIA_TYPE));
+        assertFalse(blob instanceof FileBackedBlob);
+    }
+
+    @Test
+    public void testSpillToFile() throws IOException, InterruptedException {
+        byte[] data = createContent(InMemoryContentItemFactory.DEFAULT_SPILL_THRESHOLD + 12345);
+        File file = createSpilledContentItem(data);
+        //the temp file needs to be deleted if the blob is no longer used
+        for(int i = 0; i < 50 && file.exists(); i++){
+            System.gc();
+            System.runFinalization();
+            Thread.sleep(100);
+        }
+        assertFalse("temporary file "+file+" was not deleted", file.exists());
+    }
+    /**
+     * Creates a ContentItem for the parsed data and checks that the content
+     * was spilled to a file.
+     * @return the temporary file
+     */
+    private File createSpilledContentItem(byte[] data) throws IOException {
+        ContentItem ci = factory.createContentItem(
+            new StreamSource(new ByteArrayInputStream(data), MEDIA_TYPE));
+        Blob blob = ci.getBlob();
+        assertTrue(blob instanceof FileBackedBlob);
+        File file = ((FileBackedBlob)blob).getFile();
+        assertTrue(file.isFile());
+        assertEquals(data.length, file.length());
+        assertEquals(data.length, blob.getContentLength());
+        assertEquals(MEDIA_TYPE, blob.getMimeType());
+        //the data read into memory before reaching the threshold and the
+        //remaining data need to be present
+        assertArrayEquals(data, read(blob));
+        return file;
+    }
+}
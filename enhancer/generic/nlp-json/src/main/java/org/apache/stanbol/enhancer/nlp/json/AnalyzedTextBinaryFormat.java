@@ -0,0 +1,126 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.nlp.json;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.Charset;
+
+/**
+ * Constants and utilities shared by the {@link AnalyzedTextBinarySerializer}
+ * and the {@link AnalyzedTextBinaryParser}.<p>
+ * The binary format is defined as follows:<ul>
+ * <li> a header with the {@link #MAGIC} bytes and the {@link #VERSION}
+ * <li> a list of span records where the first record MUST BE the
+ * {@link org.apache.stanbol.enhancer.nlp.model.AnalysedText} itself. Each
+ * record starts with the ordinal of the SpanType + 1 (varint). The start
+ * position is encoded relative to the start of the previous span (zig-zag
+ * varint) followed by the length of the span (varint) and the number of
+ * annotations (varint).
+ * <li> each annotation refers the key and the value by their index in a
+ * dictionary (varint). Keys and values are added to the dictionary on their
+ * first occurrence. In this case the index is equals to the current size of
+ * the dictionary and is followed by the definition of the key (string) or
+ * value (class index and the JSON serialisation of the value as created by
+ * the {@link org.apache.stanbol.enhancer.nlp.json.valuetype.ValueTypeSerializer}).
+ * The lowest bit of the value index indicates if the index is followed by
+ * the probability (double).
+ * <li> a <code>0</code> byte marks the end of the list
+ * </ul>
+ * Because of the dictionaries repeated annotations (e.g. POS or NER tags) are
+ * only serialised once per {@link org.apache.stanbol.enhancer.nlp.model.AnalysedText}.
+ */
+final class AnalyzedTextBinaryFormat {
+
+    private AnalyzedTextBinaryFormat(){/* no instances */}
+
+    static final Charset UTF8 = Charset.forName("UTF-8");
+
+    static final byte[] MAGIC = new byte[]{'S','N','L','P'};
+
+    static final byte VERSION = 1;
+    /**
+     * Marks the end of the span records
+     */
+    static final int END = 0;
+
+    static void writeHeader(DataOutput out) throws IOException {
+        out.write(MAGIC);
+        out.writeByte(VERSION);
+    }
+
+    static void readHeader(DataInput in) throws IOException {
+        byte[] magic = new byte[MAGIC.length];
+        in.readFully(magic);
+        for(int i = 0; i < magic.length; i++){
+            if(magic[i] != MAGIC[i]){
+                throw new IOException("The parsed data are not a binary serialized AnalysedText!");
+            }
+        }
+        byte version = in.readByte();
+        if(version != VERSION){
+            throw new IOException("Unsupported version "+version+" of the binary "
+                + "AnalysedText format (supported: "+VERSION+")!");
+        }
+    }
+
+    static void writeVarInt(DataOutput out, int value) throws IOException {
+        while((value & ~0x7F) != 0){
+            out.writeByte((value & 0x7F) | 0x80);
+            value = value >>> 7;
+        }
+        out.writeByte(value);
+    }
+
+    static int readVarInt(DataInput in) throws IOException {
+        int value = 0;
+        for(int shift = 0; shift < 32; shift += 7){
+            byte b = in.readByte();
+            value |= (b & 0x7F) << shift;
+            if(b >= 0){
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint in binary serialized AnalysedText!");
+    }
+
+    static void writeZigZag(DataOutput out, int value) throws IOException {
+        writeVarInt(out, (value << 1) ^ (value >> 31));
+    }
+
+    static int readZigZag(DataInput in) throws IOException {
+        int value = readVarInt(in);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    static void writeString(DataOutput out, String value) throws IOException {
+        byte[] bytes = value.getBytes(UTF8);
+        writeVarInt(out, bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(DataInput in) throws IOException {
+        int length = readVarInt(in);
+        if(length < 0){
+            throw new IOException("Illegal string length "+length+" in binary serialized AnalysedText!");
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, UTF8);
+    }
+}
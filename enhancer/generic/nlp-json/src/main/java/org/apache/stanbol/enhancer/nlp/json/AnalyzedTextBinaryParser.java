@@ -0,0 +1,276 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.nlp.json;
+
+import static org.apache.stanbol.enhancer.nlp.json.AnalyzedTextBinaryFormat.END;
+import static org.apache.stanbol.enhancer.nlp.json.AnalyzedTextBinaryFormat.readHeader;
+import static org.apache.stanbol.enhancer.nlp.json.AnalyzedTextBinaryFormat.readString;
+import static org.apache.stanbol.enhancer.nlp.json.AnalyzedTextBinaryFormat.readVarInt;
+import static org.apache.stanbol.enhancer.nlp.json.AnalyzedTextBinaryFormat.readZigZag;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.felix.scr.annotations.Component;
+import org.apache.felix.scr.annotations.ConfigurationPolicy;
+import org.apache.felix.scr.annotations.Reference;
+import org.apache.felix.scr.annotations.Service;
+import org.apache.stanbol.enhancer.nlp.json.valuetype.ValueTypeParser;
+import org.apache.stanbol.enhancer.nlp.json.valuetype.ValueTypeParserRegistry;
+import org.apache.stanbol.enhancer.nlp.model.AnalysedText;
+import org.apache.stanbol.enhancer.nlp.model.AnalysedTextFactory;
+import org.apache.stanbol.enhancer.nlp.model.Span;
+import org.apache.stanbol.enhancer.nlp.model.SpanTypeEnum;
+import org.apache.stanbol.enhancer.nlp.model.annotation.Value;
+import org.codehaus.jackson.JsonNode;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.codehaus.jackson.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Parses {@link AnalysedText}s serialized by the {@link AnalyzedTextBinarySerializer}.
+ * Values of annotations are parsed by using the {@link ValueTypeParser}s
+ * also used by the {@link AnalyzedTextParser}. Every distinct value is only
+ * parsed once and the same instance is used for all {@link Span}s annotated
+ * with this value.
+ */
+@Component(immediate=true,policy=ConfigurationPolicy.IGNORE)
+@Service(value=AnalyzedTextBinaryParser.class)
+public class AnalyzedTextBinaryParser {
+
+    private final Logger log = LoggerFactory.getLogger(AnalyzedTextBinaryParser.class);
+
+    private static final SpanTypeEnum[] SPAN_TYPES = SpanTypeEnum.values();
+
+    private static AnalyzedTextBinaryParser defaultInstance;
+
+    protected ObjectMapper mapper = new ObjectMapper();
+    /**
+     * Can be used when running outside of OSGI to obtain the default (singleton)
+     * instance.
+     * @return
+     */
+    public static final AnalyzedTextBinaryParser getDefaultInstance(){
+        if(defaultInstance == null){
+            defaultInstance = new AnalyzedTextBinaryParser(
+                ValueTypeParserRegistry.getInstance());
+        }
+        return defaultInstance;
+    }
+
+    /**
+     * Default constructor used by OSGI
+     */
+    public AnalyzedTextBinaryParser() {}
+
+    /**
+     * Constructs a new Parser instance for the parsed {@link ValueTypeParserRegistry}
+     * instance. Typically this constructor should not be used as usages within
+     * an OSGI environment MUST lookup the service via the service registry.
+     * Usages outside an OSGI environment should prefer to use the
+     * {@link #getDefaultInstance()} instance to obtain the singleton instance.
+     * @param vtpr
+     */
+    public AnalyzedTextBinaryParser(ValueTypeParserRegistry vtpr){
+        if(vtpr == null){
+            throw new IllegalArgumentException("The parsed ValueTypeParserRegistry MUST NOT be NULL!");
+        }
+        this.valueTypeParserRegistry = vtpr;
+    }
+
+    @Reference
+    protected ValueTypeParserRegistry valueTypeParserRegistry;
+
+    /**
+     * Parses {@link AnalysedText} {@link Span}s including annotations from the
+     * {@link InputStream}. The {@link AnalysedText} instance that is going to
+     * be enriched with the parsed data needs to be parsed. In the simplest case
+     * the caller can create an empty instance by using a
+     * {@link AnalysedTextFactory}.
+     * @param in The stream to read the data from
+     * @param at The {@link AnalysedText} instance used to add the data to
+     * @return the parsed {@link AnalysedText} instance enriched with the
+     * information parsed from the Stream
+     * @throws IOException on any Error while reading or parsing the data
+     * from the Stream
+     */
+    public AnalysedText parse(InputStream in, AnalysedText at) throws IOException {
+        if(in == null){
+            throw new IllegalArgumentException("The parsed InputStream MUST NOT be NULL!");
+        }
+        if(at == null){
+            throw new IllegalArgumentException("The parsed AnalysedText MUST NOT be NULL!");
+        }
+        DataInputStream dataIn = new DataInputStream(new BufferedInputStream(in));
+        readHeader(dataIn);
+        Dictionaries dict = new Dictionaries();
+        int type = readVarInt(dataIn);
+        if(type != SpanTypeEnum.Text.ordinal() + 1){
+            throw new IOException("The first span of a binary serialized AnalyzedText "
+                + "MUST BE of the type 'Text'!");
+        }
+        int start = readZigZag(dataIn);
+        int end = start + readVarInt(dataIn);
+        if(start != 0 || at.getEnd() != end){
+            throw new IOException("The size of the local text '"+at.getEnd()+"' does not "
+                + "match the span of the parsed AnalyzedText ["+start+","+end+"]!");
+        }
+        readAnnotations(dataIn, at, at, dict);
+        while((type = readVarInt(dataIn)) != END){
+            start = start + readZigZag(dataIn);
+            end = start + readVarInt(dataIn);
+            if(type < 0 || type > SPAN_TYPES.length){
+                throw new IOException("Unknown SpanType ordinal "+(type - 1)+"!");
+            }
+            Span span;
+            switch (SPAN_TYPES[type - 1]) {
+                case Sentence:
+                    span = at.addSentence(start, end);
+                    break;
+                case Chunk:
+                    span = at.addChunk(start, end);
+                    break;
+                case Token:
+                    span = at.addToken(start, end);
+                    break;
+                default:
+                    log.warn("Unsupported span of type {} [{},{}] (ignored)",
+                        new Object[]{SPAN_TYPES[type - 1],start,end});
+                    span = null;
+            }
+            readAnnotations(dataIn, span, at, dict);
+        }
+        return at;
+    }
+
+    /**
+     * Reads the annotations of a span.
+     * @param in the stream
+     * @param span the span or <code>null</code> to skip the annotations
+     * @param at the AnalysedText
+     * @param dict the dictionaries
+     */
+    private void readAnnotations(DataInputStream in, Span span, AnalysedText at,
+            Dictionaries dict) throws IOException {
+        int count = readVarInt(in);
+        for(int i = 0; i < count; i++){
+            String key = readKey(in, dict);
+            int ref = readVarInt(in);
+            int index = ref >>> 1;
+            Object value;
+            if(index == dict.values.size()){
+                value = readValueDefinition(in, key, dict, at);
+                dict.values.add(value);
+            } else if(index < dict.values.size()){
+                value = dict.values.get(index);
+            } else {
+                throw new IOException("Illegal value index "+index+" (dictionary size: "
+                        + dict.values.size()+")!");
+            }
+            double prob = (ref & 1) != 0 ? in.readDouble() : Value.UNKNOWN_PROBABILITY;
+            if(value != null && span != null){
+                span.addValue(key, prob == Value.UNKNOWN_PROBABILITY ?
+                        Value.value(value) : Value.value(value, prob));
+            }
+        }
+    }
+
+    private String readKey(DataInputStream in, Dictionaries dict) throws IOException {
+        int index = readVarInt(in);
+        if(index == dict.keys.size()){
+            String key = readString(in);
+            dict.keys.add(key);
+            return key;
+        } else if(index < dict.keys.size()){
+            return dict.keys.get(index);
+        } else {
+            throw new IOException("Illegal key index "+index+" (dictionary size: "
+                    + dict.keys.size()+")!");
+        }
+    }
+
+    /**
+     * Reads the definition of a value
+     * @return the value or <code>null</code> if the value could not be parsed
+     */
+    private Object readValueDefinition(DataInputStream in, String key, Dictionaries dict,
+            AnalysedText at) throws IOException {
+        int classIndex = readVarInt(in);
+        Class<?> clazz;
+        if(classIndex == dict.classes.size()){
+            String className = readString(in);
+            try {
+                clazz = AnalyzedTextBinaryParser.class.getClassLoader().loadClass(className);
+            } catch (ClassNotFoundException e) {
+                log.warn("Unable to parse values of the class "+className
+                    + " because the class can not be resolved (ignored)",e);
+                clazz = null;
+            }
+            dict.classes.add(clazz);
+        } else if(classIndex < dict.classes.size()){
+            clazz = dict.classes.get(classIndex);
+        } else {
+            throw new IOException("Illegal class index "+classIndex+" (dictionary size: "
+                    + dict.classes.size()+")!");
+        }
+        String json = readString(in);
+        if(clazz == null){
+            return null;
+        }
+        JsonNode node = mapper.readTree(json);
+        if(!node.isObject()){
+            log.warn("Unable to parse value for annotation {} because it is "
+                + "no JSON object (ignored, json: {})", key, json);
+            return null;
+        }
+        ObjectNode jValue = (ObjectNode)node;
+        ValueTypeParser<?> parser = valueTypeParserRegistry.getParser(clazz);
+        if(parser != null){
+            return parser.parse(jValue, at);
+        } else {
+            JsonNode valueNode = jValue.path("value");
+            if(valueNode.isMissingNode()){
+                log.warn("unable to parse value for annotation {} because the "
+                    + "field 'value' is not present (ignored, json: {})",
+                    key,json);
+                return null;
+            }
+            try {
+                return mapper.treeToValue(valueNode, clazz);
+            } catch (IOException e) {
+                log.warn("unable to parse value for annotation "+ key
+                    + " because the value can not be converted to the class "
+                    + clazz.getName() + " (ignored, json: "+json+")",e);
+                return null;
+            }
+        }
+    }
+
+    /**
+     * The dictionaries used while parsing a single {@link AnalysedText}
+     */
+    private static class Dictionaries {
+        final List<String> keys = new ArrayList<String>();
+        final List<Class<?>> classes = new ArrayList<Class<?>>();
+        final List<Object> values = new ArrayList<Object>();
+    }
+}
@@ -0,0 +1,230 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.nlp.json;
+
+import static org.apache.stanbol.enhancer.nlp.json.AnalyzedTextBinaryFormat.END;
+import static org.apache.stanbol.enhancer.nlp.json.AnalyzedTextBinaryFormat.writeHeader;
+import static org.apache.stanbol.enhancer.nlp.json.AnalyzedTextBinaryFormat.writeString;
+import static org.apache.stanbol.enhancer.nlp.json.AnalyzedTextBinaryFormat.writeVarInt;
+import static org.apache.stanbol.enhancer.nlp.json.AnalyzedTextBinaryFormat.writeZigZag;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.felix.scr.annotations.Component;
+import org.apache.felix.scr.annotations.ConfigurationPolicy;
+import org.apache.felix.scr.annotations.Reference;
+import org.apache.felix.scr.annotations.Service;
+import org.apache.stanbol.enhancer.nlp.json.valuetype.ValueTypeSerializer;
+import org.apache.stanbol.enhancer.nlp.json.valuetype.ValueTypeSerializerRegistry;
+import org.apache.stanbol.enhancer.nlp.model.AnalysedText;
+import org.apache.stanbol.enhancer.nlp.model.Span;
+import org.apache.stanbol.enhancer.nlp.model.SpanTypeEnum;
+import org.apache.stanbol.enhancer.nlp.model.annotation.Value;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.codehaus.jackson.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Serializes an AnalysedText instance by using a compact binary format
+ * (see {@link #MEDIA_TYPE}). Values of annotations are serialized by using
+ * the {@link ValueTypeSerializer}s also used by the {@link AnalyzedTextSerializer},
+ * but every distinct value is only written once.
+ * @see AnalyzedTextBinaryParser
+ */
+@Component(immediate=true,policy=ConfigurationPolicy.IGNORE)
+@Service(value=AnalyzedTextBinarySerializer.class)
+public class AnalyzedTextBinarySerializer {
+
+    /**
+     * The media type used for binary serialized {@link AnalysedText}s.
+     */
+    public static final String MEDIA_TYPE = "application/x-stanbol-analysedtext";
+
+    private final Logger log = LoggerFactory.getLogger(AnalyzedTextBinarySerializer.class);
+
+    private static AnalyzedTextBinarySerializer defaultInstance;
+
+    protected ObjectMapper mapper = new ObjectMapper();
+    /**
+     * Can be used when running outside of OSGI to obtain the default (singleton)
+     * instance.
+     * @return
+     */
+    public static final AnalyzedTextBinarySerializer getDefaultInstance(){
+        if(defaultInstance == null){
+            defaultInstance = new AnalyzedTextBinarySerializer(ValueTypeSerializerRegistry.getInstance());
+        }
+        return defaultInstance;
+    }
+
+    /**
+     * Default constructor used by OSGI
+     */
+    public AnalyzedTextBinarySerializer() {}
+
+    /**
+     * Constructs a new Serializer instance for the parsed {@link ValueTypeSerializerRegistry}
+     * instance. Typically this constructor should not be used as usages within
+     * an OSGI environment MUST lookup the service via the service registry.
+     * Usages outside an OSGI environment should prefer to use the
+     * {@link #getDefaultInstance()} instance to obtain the singleton instance.
+     * @param vtsr
+     */
+    public AnalyzedTextBinarySerializer(ValueTypeSerializerRegistry vtsr){
+        if(vtsr == null){
+            throw new IllegalArgumentException("The parsed ValueTypeSerializerRegistry MUST NOT be NULL!");
+        }
+        this.valueTypeSerializerRegistry = vtsr;
+    }
+
+    @Reference
+    protected ValueTypeSerializerRegistry valueTypeSerializerRegistry;
+
+    /**
+     * Serializes the parsed {@link AnalysedText} to the {@link OutputStream}.
+     * The stream is flushed but not closed.
+     * @param at the {@link AnalysedText} to serialize
+     * @param out the {@link OutputStream}
+     */
+    public void serialize(AnalysedText at, OutputStream out) throws IOException {
+        if(at == null){
+            throw new IllegalArgumentException("The parsed AnalysedText MUST NOT be NULL!");
+        }
+        if(out == null){
+            throw new IllegalArgumentException("The parsed OutputStream MUST NOT be NULL");
+        }
+        DataOutputStream dataOut = new DataOutputStream(new BufferedOutputStream(out));
+        writeHeader(dataOut);
+        Dictionaries dict = new Dictionaries();
+        int prevStart = writeSpan(dataOut, at, 0, dict);
+        for(Iterator<Span> it = at.getEnclosed(EnumSet.allOf(SpanTypeEnum.class));it.hasNext();){
+            prevStart = writeSpan(dataOut, it.next(), prevStart, dict);
+        }
+        writeVarInt(dataOut, END);
+        dataOut.flush();
+        log.trace(" ... serialized {} with {} keys and {} distinct values",
+            new Object[]{at, dict.keys.size(), dict.values.size()});
+    }
+
+    private int writeSpan(DataOutputStream out, Span span, int prevStart, Dictionaries dict) throws IOException {
+        writeVarInt(out, span.getType().ordinal() + 1);
+        writeZigZag(out, span.getStart() - prevStart);
+        writeVarInt(out, span.getEnd() - span.getStart());
+        Set<String> keys = span.getKeys();
+        int count = 0;
+        for(String key : keys){
+            count += span.getValues(key).size();
+        }
+        writeVarInt(out, count);
+        for(String key : keys){
+            for(Value<?> value : span.getValues(key)){
+                writeKey(out, key, dict);
+                writeValue(out, value, dict);
+            }
+        }
+        return span.getStart();
+    }
+
+    private void writeKey(DataOutputStream out, String key, Dictionaries dict) throws IOException {
+        Integer index = dict.keys.get(key);
+        if(index == null){
+            index = dict.keys.size();
+            dict.keys.put(key, index);
+            writeVarInt(out, index);
+            writeString(out, key);
+        } else {
+            writeVarInt(out, index);
+        }
+    }
+
+    private void writeValue(DataOutputStream out, Value<?> value, Dictionaries dict) throws IOException {
+        boolean hasProb = value.probability() != Value.UNKNOWN_PROBABILITY;
+        //tags are typically shared instances. So check by identity first to
+        //avoid serializing them to JSON
+        Integer index = dict.instances.get(value.value());
+        if(index == null){
+            index = writeValueDefinition(out, value.value(), hasProb, dict);
+            dict.instances.put(value.value(), index);
+        } else {
+            writeVarInt(out, (index << 1) | (hasProb ? 1 : 0));
+        }
+        if(hasProb){
+            out.writeDouble(value.probability());
+        }
+    }
+
+    /**
+     * Writes the index of the parsed value and - if not yet present in the
+     * dictionary - its definition
+     * @return the index of the value
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private Integer writeValueDefinition(DataOutputStream out, Object value, boolean hasProb,
+            Dictionaries dict) throws IOException {
+        Class<?> valueType = value.getClass();
+        ValueTypeSerializer vts = valueTypeSerializerRegistry.getSerializer(valueType);
+        ObjectNode jValue;
+        if(vts != null){
+            jValue = vts.serialize(mapper,value);
+        } else { //use the default binding and the "value" field
+            jValue = mapper.createObjectNode();
+            jValue.put("value", mapper.valueToTree(value));
+        }
+        String className = valueType.getName();
+        String json = mapper.writeValueAsString(jValue);
+        String valueKey = className + '\n' + json;
+        Integer index = dict.values.get(valueKey);
+        if(index == null){
+            index = dict.values.size();
+            dict.values.put(valueKey, index);
+            writeVarInt(out, (index << 1) | (hasProb ? 1 : 0));
+            Integer classIndex = dict.classes.get(className);
+            if(classIndex == null){
+                classIndex = dict.classes.size();
+                dict.classes.put(className, classIndex);
+                writeVarInt(out, classIndex);
+                writeString(out, className);
+            } else {
+                writeVarInt(out, classIndex);
+            }
+            writeString(out, json);
+        } else {
+            writeVarInt(out, (index << 1) | (hasProb ? 1 : 0));
+        }
+        return index;
+    }
+
+    /**
+     * The dictionaries used while serializing a single {@link AnalysedText}
+     */
+    private static class Dictionaries {
+        final Map<String,Integer> keys = new HashMap<String,Integer>();
+        final Map<String,Integer> classes = new HashMap<String,Integer>();
+        final Map<String,Integer> values = new HashMap<String,Integer>();
+        final Map<Object,Integer> instances = new IdentityHashMap<Object,Integer>();
+    }
+}
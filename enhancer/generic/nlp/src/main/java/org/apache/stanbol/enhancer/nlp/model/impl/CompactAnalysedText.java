@@ -0,0 +1,196 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.nlp.model.impl;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.apache.stanbol.enhancer.nlp.model.AnalysedText;
+import org.apache.stanbol.enhancer.nlp.model.Chunk;
+import org.apache.stanbol.enhancer.nlp.model.Sentence;
+import org.apache.stanbol.enhancer.nlp.model.Span;
+import org.apache.stanbol.enhancer.nlp.model.SpanTypeEnum;
+import org.apache.stanbol.enhancer.nlp.model.annotation.Value;
+import org.apache.stanbol.enhancer.nlp.model.tag.Tag;
+import org.apache.stanbol.enhancer.servicesapi.Blob;
+
+/**
+ * Memory efficient {@link AnalysedText} implementation. Different to the 
+ * {@link AnalysedTextImpl} Spans are not stored as objects in a 
+ * <code>TreeMap</code> but in one {@link SpanArray} (struct-of-arrays) per
+ * {@link SpanTypeEnum type}. {@link Span} instances returned by this 
+ * implementation are lightweight views created on demand.<p>
+ * Annotation values are interned: {@link Value}s of {@link Tag}s (e.g. 
+ * PosTags, NerTags ...) with the same probability are shared by all spans 
+ * of this AnalysedText.<p>
+ * Like the {@link AnalysedTextImpl} this class is not thread safe.
+ */
+public class CompactAnalysedText extends CompactSection implements AnalysedText {
+
+    private final Blob blob;
+    private final String text;
+    /**
+     * The spans by {@link SpanTypeEnum#ordinal()}
+     */
+    private final SpanArray[] spans = new SpanArray[SpanTypeEnum.values().length];
+    /**
+     * The annotations of the text itself
+     */
+    private Object[] annotations;
+    /**
+     * Dictionary used to intern annotation keys and values
+     */
+    private final Map<Object,Object> dictionary = new HashMap<Object,Object>();
+    
+    public CompactAnalysedText(Blob blob, String text) {
+        super(SpanTypeEnum.Text, 0, text.length());
+        this.blob = blob;
+        this.text = text;
+    }
+
+    @Override
+    public SpanTypeEnum getType() {
+        return SpanTypeEnum.Text;
+    }
+
+    @Override
+    public Sentence addSentence(int start, int end) {
+        return addSpan(SpanTypeEnum.Sentence, this, start, end);
+    }
+
+    @Override
+    public Chunk addChunk(int start, int end) {
+        return addSpan(SpanTypeEnum.Chunk, this, start, end);
+    }
+
+    @Override
+    public Iterator<Sentence> getSentences() {
+        return filter(SpanTypeEnum.Sentence);
+    }
+
+    @Override
+    public Iterator<Chunk> getChunks() {
+        return filter(SpanTypeEnum.Chunk);
+    }
+
+    @Override
+    public CharSequence getText() {
+        return text;
+    }
+    
+    @Override
+    public String getSpan() {
+        return text;
+    }
+
+    @Override
+    public Blob getBlob() {
+        return blob;
+    }
+    
+    @Override
+    protected Object[] getAnnotationArray() {
+        return annotations;
+    }
+    
+    @Override
+    protected void setAnnotationArray(Object[] annotations) {
+        this.annotations = annotations;
+    }
+    /**
+     * Getter for the {@link SpanArray} for the parsed type
+     * @param type the type
+     * @return the array
+     */
+    SpanArray getSpanArray(SpanTypeEnum type){
+        SpanArray array = spans[type.ordinal()];
+        if(array == null){
+            array = new SpanArray();
+            spans[type.ordinal()] = array;
+        }
+        return array;
+    }
+    /**
+     * Adds a span relative to the parsed one. If the span is already present
+     * a view to the existing span is returned.
+     * @param type the type of the span
+     * @param relativeTo the span the parsed start/end are relative to
+     * @param start the relative start
+     * @param end the relative end
+     * @return the span
+     * @throws IllegalArgumentException if the span is illegal or if it 
+     * exceeds the end of the span it is relative to.
+     */
+    @SuppressWarnings("unchecked")
+    <T extends Span> T addSpan(SpanTypeEnum type, Span relativeTo, int start, int end){
+        //same validation as SpanImpl
+        int absStart = relativeTo.getStart() + start;
+        int absEnd = relativeTo.getStart() + end;
+        if(absStart < 0 || absEnd < absStart){
+            throw new IllegalArgumentException("Illegal span ["+absStart+','+absEnd+']');
+        }
+        if(relativeTo.getEnd() < absEnd){
+            throw new IllegalArgumentException("Illegal span ["+start+','+end
+                + "] for "+type+" relative to "+relativeTo+" : Span of the "
+                + " contained Token MUST NOT extend the others!");
+        }
+        SpanArray array = getSpanArray(type);
+        int index = array.add(absStart, absEnd);
+        return (T)createSpan(type, absStart, absEnd, index, array.modCount);
+    }
+    /**
+     * Creates the view for the parsed span
+     */
+    CompactSpan createSpan(SpanTypeEnum type, int start, int end, int index, int modCount){
+        switch (type) {
+            case Token:
+                return new CompactToken(this, start, end, index, modCount);
+            case Chunk:
+                return new CompactChunk(this, start, end, index, modCount);
+            case Sentence:
+                return new CompactSentence(this, start, end, index, modCount);
+            default:
+                throw new IllegalArgumentException("Spans of type " + type 
+                    + " are not supported by " + getClass().getSimpleName());
+        }
+    }
+    /**
+     * Interns annotation keys and {@link Value}s of {@link Tag}s
+     * @param o the key or value
+     * @return the interned instance
+     */
+    Object intern(Object o){
+        if(o instanceof String || (o instanceof Value<?> && 
+                ((Value<?>)o).value() instanceof Tag<?>)){
+            Object current = dictionary.get(o);
+            if(current == null){
+                dictionary.put(o, o);
+                return o;
+            } else {
+                return current;
+            }
+        } else {
+            return o;
+        }
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("%s: [%d, %d]", type, start, end);
+    }
+}
@@ -0,0 +1,200 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.nlp.model.impl;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.apache.stanbol.enhancer.nlp.model.Section;
+import org.apache.stanbol.enhancer.nlp.model.Span;
+import org.apache.stanbol.enhancer.nlp.model.SpanTypeEnum;
+import org.apache.stanbol.enhancer.nlp.model.Token;
+
+/**
+ * A {@link CompactSpan} that contains other spans. Iterators over enclosed
+ * spans directly walk the {@link SpanArray}s of the requested types. 
+ */
+public abstract class CompactSection extends CompactSpan implements Section {
+
+    /**
+     * Constructor used by {@link CompactAnalysedText}
+     */
+    CompactSection(SpanTypeEnum type, int start, int end) {
+        super(type, start, end);
+    }
+
+    CompactSection(CompactAnalysedText context, SpanTypeEnum type, int start, int end, int index, int modCount) {
+        super(context, type, start, end, index, modCount);
+    }
+
+    @Override
+    public Iterator<Span> getEnclosed(Set<SpanTypeEnum> types) {
+        return new SpanIterator(types, start, end, type, end);
+    }
+
+    @Override
+    public Iterator<Span> getEnclosed(Set<SpanTypeEnum> types, int startOffset, int endOffset) {
+        //same window semantics as SectionImpl
+        if(startOffset >= (end - start)){ //start is outside the span
+            return Collections.<Span>emptySet().iterator();
+        }
+        int startIdx = startOffset < 0 ? start : (start + startOffset);
+        int endIdx = start + endOffset;
+        if(endIdx <= startIdx) {
+            return Collections.<Span>emptySet().iterator();
+        } else if(endIdx > end){
+            endIdx = end;
+        }
+        return new SpanIterator(types, startIdx, endIdx, SpanTypeEnum.Text, endIdx);
+    }
+
+    @Override
+    public Token addToken(int start, int end) {
+        return context.addSpan(SpanTypeEnum.Token, this, start, end);
+    }
+    
+    @Override
+    public Iterator<Token> getTokens() {
+        return filter(SpanTypeEnum.Token);
+    }
+    /**
+     * Iterates over all enclosed spans of the parsed type
+     * @param spanType the type
+     * @return the iterator
+     */
+    @SuppressWarnings("unchecked")
+    protected <T extends Span> Iterator<T> filter(SpanTypeEnum spanType){
+        Iterator<?> it = new SpanIterator(EnumSet.of(spanType), start, end, type, end);
+        return (Iterator<T>)it;
+    }
+    
+    /**
+     * Iterator over the {@link SpanArray}s of the selected types. Iterates in
+     * the natural order of spans. For a single type this is a walk over the
+     * arrays. For multiple types the next span is selected from the current
+     * position within each of the arrays.<p>
+     * Like the iterators of {@link SectionImpl} this does not throw 
+     * {@link java.util.ConcurrentModificationException}s but considers
+     * additions of Spans.
+     */
+    private class SpanIterator implements Iterator<Span> {
+        
+        private final SpanTypeEnum[] types;
+        private final SpanArray[] arrays;
+        private final int[] positions;
+        private final int[] modCounts;
+        /**
+         * The iteration ends with the first span that starts at or after
+         * this position
+         */
+        private final int limit;
+        //the last returned span (initially the start of the window)
+        private int lastStart;
+        private int lastEnd;
+        private SpanTypeEnum lastType;
+        private int lastArray = -1;
+        
+        SpanIterator(Set<SpanTypeEnum> selected, int start, int end, SpanTypeEnum type, int limit) {
+            int size = 0;
+            SpanTypeEnum[] types = new SpanTypeEnum[selected.size()];
+            for(SpanTypeEnum t : selected){
+                if(t != SpanTypeEnum.Text){ //the text is never enclosed
+                    types[size] = t;
+                    size++;
+                }
+            }
+            this.types = new SpanTypeEnum[size];
+            System.arraycopy(types, 0, this.types, 0, size);
+            this.arrays = new SpanArray[size];
+            this.positions = new int[size];
+            this.modCounts = new int[size];
+            for(int i = 0; i < size; i++){
+                arrays[i] = context.getSpanArray(this.types[i]);
+                modCounts[i] = -1; //forces the initial lookup
+            }
+            this.limit = limit;
+            this.lastStart = start;
+            this.lastEnd = end;
+            this.lastType = type;
+        }
+        /**
+         * Updates the positions if spans where inserted or removed and
+         * returns the index of the array with the next span
+         * @return the index of the array or <code>-1</code> if none
+         */
+        private int getNext(){
+            int next = -1;
+            for(int i = 0; i < arrays.length; i++){
+                SpanArray array = arrays[i];
+                if(modCounts[i] != array.modCount){
+                    //spans of the same type need to be after the last (exclusive).
+                    //For other types spans with the same start/end are after if
+                    //the ordinal of the type is higher
+                    positions[i] = array.higher(lastStart, lastEnd, 
+                        types[i].ordinal() > lastType.ordinal());
+                    modCounts[i] = array.modCount;
+                }
+                int pos = positions[i];
+                if(pos < array.size && array.starts[pos] < limit){
+                    if(next < 0 || compare(array.starts[pos], array.ends[pos], types[i],
+                            arrays[next].starts[positions[next]], 
+                            arrays[next].ends[positions[next]], types[next]) < 0){
+                        next = i;
+                    }
+                }
+            }
+            return next;
+        }
+        
+        @Override
+        public boolean hasNext() {
+            return getNext() >= 0;
+        }
+
+        @Override
+        public Span next() {
+            int next = getNext();
+            if(next < 0){
+                throw new NoSuchElementException();
+            }
+            SpanArray array = arrays[next];
+            int pos = positions[next];
+            lastStart = array.starts[pos];
+            lastEnd = array.ends[pos];
+            lastType = types[next];
+            lastArray = next;
+            positions[next] = pos + 1;
+            return context.createSpan(lastType, lastStart, lastEnd, pos, array.modCount);
+        }
+
+        @Override
+        public void remove() {
+            if(lastArray < 0){
+                throw new IllegalStateException("remove can only be called once after a call to next");
+            }
+            SpanArray array = arrays[lastArray];
+            int index = array.indexOf(lastStart, lastEnd);
+            if(index >= 0){
+                array.remove(index);
+            }
+            lastArray = -1;
+        }
+    }
+}
@@ -0,0 +1,235 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.nlp.model.impl;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.apache.stanbol.enhancer.nlp.model.Span;
+import org.apache.stanbol.enhancer.nlp.model.SpanTypeEnum;
+
+/**
+ * Lightweight view over a Span stored in the {@link SpanArray} of a
+ * {@link CompactAnalysedText}. Instances are created on demand (e.g. while
+ * iterating) and do not hold any data other than the type, start and end
+ * of the span. Annotations are read from and written to the 
+ * {@link SpanArray}. Because of that different instances for the same
+ * span share the same annotations.<p>
+ * The index of the span within the {@link SpanArray} is cached and only
+ * looked up (binary search) if spans where inserted or removed in the
+ * meantime.
+ */
+public abstract class CompactSpan extends AnnotatedImpl implements Span {
+
+    protected final CompactAnalysedText context;
+    protected final SpanTypeEnum type;
+    protected final int start;
+    protected final int end;
+    
+    private int index;
+    private int modCount;
+    
+    /**
+     * Constructor used by {@link CompactAnalysedText} to create the span
+     * for the text itself.
+     */
+    CompactSpan(SpanTypeEnum type, int start, int end){
+        this.context = (CompactAnalysedText)this;
+        this.type = type;
+        this.start = start;
+        this.end = end;
+        this.index = -1;
+    }
+    
+    CompactSpan(CompactAnalysedText context, SpanTypeEnum type, int start, int end, int index, int modCount) {
+        this.context = context;
+        this.type = type;
+        this.start = start;
+        this.end = end;
+        this.index = index;
+        this.modCount = modCount;
+    }
+    
+    @Override
+    public SpanTypeEnum getType() {
+        return type;
+    }
+
+    @Override
+    public int getStart() {
+        return start;
+    }
+
+    @Override
+    public int getEnd() {
+        return end;
+    }
+
+    @Override
+    public CompactAnalysedText getContext() {
+        return context;
+    }
+
+    @Override
+    public String getSpan() {
+        return context.getText().subSequence(start, end).toString();
+    }
+    /**
+     * The current index of this span within the {@link SpanArray}
+     * @return the index or <code>-1</code> if this span was removed
+     */
+    private int getIndex(SpanArray spans){
+        if(modCount != spans.modCount){
+            index = spans.indexOf(start, end);
+            modCount = spans.modCount;
+        }
+        return index < 0 || index >= spans.size ? -1 : index;
+    }
+    /**
+     * Getter for the annotations of this span
+     * @return the annotations as array with alternating keys and values or
+     * <code>null</code> if none
+     */
+    protected Object[] getAnnotationArray(){
+        SpanArray spans = context.getSpanArray(type);
+        int idx = getIndex(spans);
+        return idx < 0 ? null : spans.annotations[idx];
+    }
+    /**
+     * Setter for the annotations of this span
+     * @param annotations the annotations as array with alternating keys and
+     * values or <code>null</code> if none
+     * @throws IllegalStateException if this span was removed from the
+     * {@link CompactAnalysedText}
+     */
+    protected void setAnnotationArray(Object[] annotations){
+        SpanArray spans = context.getSpanArray(type);
+        int idx = getIndex(spans);
+        if(idx < 0){
+            throw new IllegalStateException("Unable to set annotations for "
+                + this + " because this Span was removed from the AnalysedText!");
+        }
+        spans.annotations[idx] = annotations;
+    }
+    
+    @Override
+    public Set<String> getKeys() {
+        Object[] annotations = getAnnotationArray();
+        if(annotations == null){
+            return Collections.emptySet();
+        }
+        Set<String> keys = new LinkedHashSet<String>();
+        for(int i = 0; i < annotations.length; i = i + 2){
+            keys.add((String)annotations[i]);
+        }
+        return keys;
+    }
+    
+    @Override
+    protected Object getAnnotationValue(String key) {
+        Object[] annotations = getAnnotationArray();
+        if(annotations != null){
+            for(int i = 0; i < annotations.length; i = i + 2){
+                if(key.equals(annotations[i])){
+                    return annotations[i+1];
+                }
+            }
+        }
+        return null;
+    }
+    
+    @Override
+    protected void setAnnotationValue(String key, Object value) {
+        Object[] annotations = getAnnotationArray();
+        int pos = -1;
+        if(annotations != null){
+            for(int i = 0; pos < 0 && i < annotations.length; i = i + 2){
+                if(key.equals(annotations[i])){
+                    pos = i;
+                }
+            }
+        }
+        if(value == null){
+            if(pos >= 0){
+                if(annotations.length == 2){
+                    setAnnotationArray(null);
+                } else {
+                    Object[] updated = new Object[annotations.length - 2];
+                    System.arraycopy(annotations, 0, updated, 0, pos);
+                    System.arraycopy(annotations, pos + 2, updated, pos, 
+                        annotations.length - pos - 2);
+                    setAnnotationArray(updated);
+                }
+            } //else nothing to remove
+        } else {
+            value = context.intern(value);
+            if(pos >= 0){
+                annotations[pos + 1] = value;
+            } else {
+                Object[] updated;
+                if(annotations == null){
+                    updated = new Object[2];
+                } else {
+                    updated = new Object[annotations.length + 2];
+                    System.arraycopy(annotations, 0, updated, 0, annotations.length);
+                }
+                updated[updated.length - 2] = context.intern(key);
+                updated[updated.length - 1] = value;
+                setAnnotationArray(updated);
+            }
+        }
+    }
+    
+    @Override
+    public int hashCode() {
+        //same as SpanImpl
+        return 31 * (31 + start) + end;
+    }
+    
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof CompactSpan && type == ((CompactSpan)obj).type &&
+                start == ((CompactSpan)obj).start && end == ((CompactSpan)obj).end;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("%s: [%d, %d]", type, start, end);
+    }
+    
+    @Override
+    public int compareTo(Span o) {
+        return compare(start, end, type, o.getStart(), o.getEnd(), o.getType());
+    }
+    /**
+     * Compares two Spans using the same natural order as {@link SpanImpl}: 
+     * start (ASC), end (DESC), type (ordinal ASC)
+     */
+    static int compare(int start1, int end1, SpanTypeEnum type1, 
+            int start2, int end2, SpanTypeEnum type2){
+        if(start1 != start2){
+            return start1 < start2 ? -1 : 1;
+        }
+        if(end1 != end2){
+            return end1 < end2 ? 1 : -1;
+        }
+        int o1 = type1.ordinal();
+        int o2 = type2.ordinal();
+        return o1 < o2 ? -1 : o1 == o2 ? 0 : 1;
+    }
+}
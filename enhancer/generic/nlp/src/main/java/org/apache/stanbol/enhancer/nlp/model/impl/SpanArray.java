@@ -0,0 +1,143 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.nlp.model.impl;
+
+import java.util.Arrays;
+
+/**
+ * Struct-of-arrays storage for all {@link org.apache.stanbol.enhancer.nlp.model.Span}s
+ * of a single {@link org.apache.stanbol.enhancer.nlp.model.SpanTypeEnum type}
+ * used by the {@link CompactAnalysedText}.<p>
+ * Spans are sorted by start (ASC) and end (DESC) - the natural order of
+ * Spans of the same type. Spans are typically added in this order (e.g.
+ * Tokens by a tokenizer). In this case adding a Span is a simple append.
+ * Adding a Span before existing ones requires to shift the following ones
+ * and increases the {@link #modCount}.<p>
+ * Annotations are stored as <code>Object[]</code> with alternating keys and 
+ * values (see {@link CompactSpan}). <code>null</code> if a span has no 
+ * annotations.<p>
+ * This class is not thread safe.
+ */
+final class SpanArray {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    int[] starts = new int[INITIAL_CAPACITY];
+    int[] ends = new int[INITIAL_CAPACITY];
+    Object[][] annotations = new Object[INITIAL_CAPACITY][];
+    int size = 0;
+    /**
+     * Incremented if the index of existing spans changes (insertion of a span
+     * before existing ones or removal of a span). Appending spans does not
+     * change the modCount.
+     */
+    int modCount = 0;
+
+    /**
+     * Compares the span at the parsed index with the parsed start/end values
+     * @return <code>&lt; 0</code> if the span at the index is before,
+     * <code>0</code> if equals and <code>&gt; 0</code> if after the parsed
+     * start/end
+     */
+    private int compare(int index, int start, int end){
+        int s = starts[index];
+        if(s != start){
+            return s < start ? -1 : 1;
+        }
+        int e = ends[index];
+        return e == end ? 0 : e > end ? -1 : 1; //end in DESC order
+    }
+    /**
+     * Searches the Span with the parsed start and end
+     * @return the index or <code>-(insertion point) - 1</code> if not present
+     */
+    int indexOf(int start, int end){
+        //fast path for sequential adds
+        if(size == 0 || compare(size - 1, start, end) < 0){
+            return -size - 1;
+        }
+        int low = 0;
+        int high = size - 1;
+        while(low <= high){
+            int mid = (low + high) >>> 1;
+            int c = compare(mid, start, end);
+            if(c < 0){
+                low = mid + 1;
+            } else if(c > 0){
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -low - 1;
+    }
+    /**
+     * The index of the first span after the parsed start/end.
+     * @param inclusive if a span with the parsed start/end is included
+     * @return the index. {@link #size} if no such span exists
+     */
+    int higher(int start, int end, boolean inclusive){
+        int index = indexOf(start, end);
+        if(index < 0){
+            return -index - 1;
+        } else {
+            return inclusive ? index : index + 1;
+        }
+    }
+    /**
+     * Adds a span if not already present
+     * @return the index of the added or already present span
+     */
+    int add(int start, int end){
+        int index = indexOf(start, end);
+        if(index >= 0){
+            return index;
+        }
+        index = -index - 1;
+        if(size == starts.length){
+            int capacity = size + (size >> 1);
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+            annotations = Arrays.copyOf(annotations, capacity);
+        }
+        if(index < size){
+            System.arraycopy(starts, index, starts, index + 1, size - index);
+            System.arraycopy(ends, index, ends, index + 1, size - index);
+            System.arraycopy(annotations, index, annotations, index + 1, size - index);
+            annotations[index] = null;
+            modCount++;
+        }
+        starts[index] = start;
+        ends[index] = end;
+        size++;
+        return index;
+    }
+    /**
+     * Removes the span at the parsed index
+     */
+    void remove(int index){
+        int moved = size - index - 1;
+        if(moved > 0){
+            System.arraycopy(starts, index + 1, starts, index, moved);
+            System.arraycopy(ends, index + 1, ends, index, moved);
+            System.arraycopy(annotations, index + 1, annotations, index, moved);
+        }
+        size--;
+        annotations[size] = null;
+        modCount++;
+    }
+}
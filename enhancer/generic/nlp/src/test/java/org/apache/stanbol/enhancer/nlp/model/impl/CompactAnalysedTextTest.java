@@ -0,0 +1,223 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.nlp.model.impl;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.apache.stanbol.enhancer.nlp.NlpAnnotations;
+import org.apache.stanbol.enhancer.nlp.model.AnalysedText;
+import org.apache.stanbol.enhancer.nlp.model.Chunk;
+import org.apache.stanbol.enhancer.nlp.model.Section;
+import org.apache.stanbol.enhancer.nlp.model.Sentence;
+import org.apache.stanbol.enhancer.nlp.model.Span;
+import org.apache.stanbol.enhancer.nlp.model.SpanTypeEnum;
+import org.apache.stanbol.enhancer.nlp.model.Token;
+import org.apache.stanbol.enhancer.nlp.model.annotation.Value;
+import org.apache.stanbol.enhancer.nlp.pos.LexicalCategory;
+import org.apache.stanbol.enhancer.nlp.pos.PosTag;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests that the {@link CompactAnalysedText} behaves exactly as the 
+ * {@link AnalysedTextImpl} by adding the same spans to both implementations
+ * and comparing the results of iterations.
+ */
+public class CompactAnalysedTextTest {
+
+    private static final int TEXT_LENGTH = 2000;
+    
+    private static final List<Set<SpanTypeEnum>> TYPE_SETS = new ArrayList<Set<SpanTypeEnum>>();
+    static {
+        TYPE_SETS.add(EnumSet.of(SpanTypeEnum.Token));
+        TYPE_SETS.add(EnumSet.of(SpanTypeEnum.Chunk));
+        TYPE_SETS.add(EnumSet.of(SpanTypeEnum.Sentence));
+        TYPE_SETS.add(EnumSet.of(SpanTypeEnum.Sentence, SpanTypeEnum.Token));
+        TYPE_SETS.add(EnumSet.of(SpanTypeEnum.Chunk, SpanTypeEnum.Token));
+        TYPE_SETS.add(EnumSet.allOf(SpanTypeEnum.class));
+    }
+    
+    private static String createText(){
+        StringBuilder sb = new StringBuilder(TEXT_LENGTH);
+        for(int i = 0; i < TEXT_LENGTH; i++){
+            sb.append((char)('a' + (i % 26)));
+        }
+        return sb.toString();
+    }
+    
+    @Test
+    public void testSameSpansAsAnalysedTextImpl(){
+        String text = createText();
+        AnalysedText expected = new AnalysedTextImpl(null, text);
+        AnalysedText compact = new CompactAnalysedText(null, text);
+        //sentences, tokens and chunks in the order of a typical NLP chain 
+        Random random = new Random(42);
+        int sentStart = 0;
+        while(sentStart < TEXT_LENGTH - 10){
+            int sentEnd = Math.min(TEXT_LENGTH, sentStart + 20 + random.nextInt(80));
+            Sentence expectedSent = expected.addSentence(sentStart, sentEnd);
+            Sentence compactSent = compact.addSentence(sentStart, sentEnd);
+            Assert.assertEquals(expectedSent.getSpan(), compactSent.getSpan());
+            int tokenStart = 0;
+            while(tokenStart < sentEnd - sentStart - 1){
+                int tokenEnd = Math.min(sentEnd - sentStart, tokenStart + 1 + random.nextInt(8));
+                expectedSent.addToken(tokenStart, tokenEnd);
+                compactSent.addToken(tokenStart, tokenEnd);
+                tokenStart = tokenEnd + random.nextInt(2);
+            }
+            sentStart = sentEnd + random.nextInt(3);
+        }
+        //add chunks and tokens in random order (requires inserts)
+        for(int i = 0; i < 300; i++){
+            int start = random.nextInt(TEXT_LENGTH - 10);
+            int end = start + random.nextInt(10);
+            if(random.nextBoolean()){
+                expected.addChunk(start, end);
+                compact.addChunk(start, end);
+            } else {
+                expected.addToken(start, end);
+                compact.addToken(start, end);
+            }
+        }
+        for(Set<SpanTypeEnum> types : TYPE_SETS){
+            assertSameSpans(expected.getEnclosed(types), compact.getEnclosed(types));
+            for(int i = 0; i < 50; i++){
+                int start = random.nextInt(TEXT_LENGTH);
+                int end = start + random.nextInt(100);
+                assertSameSpans(expected.getEnclosed(types, start, end), 
+                    compact.getEnclosed(types, start, end));
+            }
+        }
+        assertSameSpans(expected.getTokens(), compact.getTokens());
+        assertSameSpans(expected.getChunks(), compact.getChunks());
+        Iterator<Sentence> expectedSentences = expected.getSentences();
+        Iterator<Sentence> compactSentences = compact.getSentences();
+        while(expectedSentences.hasNext()){
+            Sentence expectedSent = expectedSentences.next();
+            Sentence compactSent = compactSentences.next();
+            assertSameSpan(expectedSent, compactSent);
+            assertSameSpans(expectedSent.getTokens(), compactSent.getTokens());
+            assertSameSpans(expectedSent.getChunks(), compactSent.getChunks());
+        }
+        Assert.assertFalse(compactSentences.hasNext());
+    }
+    
+    @Test
+    public void testAddWhileIterating(){
+        String text = createText();
+        AnalysedText compact = new CompactAnalysedText(null, text);
+        for(int i = 0; i < 10; i++){
+            compact.addSentence(i * 100, (i + 1) * 100);
+        }
+        int count = 0;
+        Iterator<Span> it = compact.getEnclosed(EnumSet.allOf(SpanTypeEnum.class));
+        while(it.hasNext()){
+            Span span = it.next();
+            if(span.getType() == SpanTypeEnum.Sentence){
+                //add tokens at the start and the end of the sentence
+                ((Sentence)span).addToken(95, 100);
+                ((Sentence)span).addToken(0, 5);
+            }
+            count++;
+        }
+        //all sentences and all tokens need to be returned
+        Assert.assertEquals(30, count);
+    }
+    
+    @Test
+    public void testRemove(){
+        String text = createText();
+        AnalysedText compact = new CompactAnalysedText(null, text);
+        for(int i = 0; i < 10; i++){
+            compact.addToken(i * 10, i * 10 + 5);
+        }
+        Iterator<Token> it = compact.getTokens();
+        int index = 0;
+        while(it.hasNext()){
+            it.next();
+            if(index % 2 == 0){
+                it.remove();
+            }
+            index++;
+        }
+        Assert.assertEquals(10, index);
+        it = compact.getTokens();
+        index = 0;
+        while(it.hasNext()){
+            Token token = it.next();
+            Assert.assertEquals((index * 2 + 1) * 10, token.getStart());
+            index++;
+        }
+        Assert.assertEquals(5, index);
+    }
+    
+    @Test
+    public void testAnnotations(){
+        String text = createText();
+        AnalysedText compact = new CompactAnalysedText(null, text);
+        PosTag noun = new PosTag("N", LexicalCategory.Noun);
+        PosTag verb = new PosTag("V", LexicalCategory.Verb);
+        Token first = compact.addToken(10, 15);
+        Token second = compact.addToken(20, 25);
+        first.addAnnotation(NlpAnnotations.POS_ANNOTATION, Value.value(noun));
+        second.addAnnotation(NlpAnnotations.POS_ANNOTATION, Value.value(noun));
+        //annotations are stored in the text and not in the Span instance
+        Token firstCopy = compact.addToken(10, 15);
+        Assert.assertEquals(noun, firstCopy.getAnnotation(NlpAnnotations.POS_ANNOTATION).value());
+        //Values of Tags are interned
+        Assert.assertSame(first.getAnnotation(NlpAnnotations.POS_ANNOTATION), 
+            second.getAnnotation(NlpAnnotations.POS_ANNOTATION));
+        //inserting a Span before the annotated needs to keep the annotations
+        compact.addToken(0, 5);
+        firstCopy.addAnnotation(NlpAnnotations.POS_ANNOTATION, Value.value(verb, 0.9));
+        List<Value<PosTag>> values = first.getAnnotations(NlpAnnotations.POS_ANNOTATION);
+        Assert.assertEquals(2, values.size());
+        Assert.assertEquals(verb, values.get(0).value());
+        Assert.assertEquals(1, first.getKeys().size());
+        first.setAnnotation(NlpAnnotations.POS_ANNOTATION, null);
+        Assert.assertNull(first.getAnnotation(NlpAnnotations.POS_ANNOTATION));
+        Assert.assertTrue(first.getKeys().isEmpty());
+        Assert.assertNotNull(second.getAnnotation(NlpAnnotations.POS_ANNOTATION));
+        //annotations of the text
+        compact.addAnnotation(NlpAnnotations.POS_ANNOTATION, Value.value(noun));
+        Assert.assertEquals(noun, compact.getAnnotation(NlpAnnotations.POS_ANNOTATION).value());
+    }
+    
+    private void assertSameSpans(Iterator<? extends Span> expected, Iterator<? extends Span> actual){
+        while(expected.hasNext()){
+            Span expectedSpan = expected.next();
+            Assert.assertTrue("Missing Span " + expectedSpan, actual.hasNext());
+            assertSameSpan(expectedSpan, actual.next());
+        }
+        Assert.assertFalse(actual.hasNext());
+    }
+
+    private void assertSameSpan(Span expected, Span actual) {
+        Assert.assertEquals(expected.getType(), actual.getType());
+        Assert.assertEquals(expected.getStart(), actual.getStart());
+        Assert.assertEquals(expected.getEnd(), actual.getEnd());
+        Assert.assertEquals(expected.getSpan(), actual.getSpan());
+        Assert.assertEquals(0, expected.compareTo(actual));
+        Assert.assertEquals(expected instanceof Section, actual instanceof Section);
+        Assert.assertEquals(expected instanceof Chunk, actual instanceof Chunk);
+    }
+}
@@ -0,0 +1,57 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.servicesapi;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Optional extension of the {@link EnhancementEngine} interface for engines
+ * that can process several {@link ContentItem}s at once (e.g. to amortise
+ * the acquisition of resources such as models or index searchers over
+ * multiple documents).<p>
+ * {@link EnhancementJobManager} implementations MAY group pending executions
+ * of such engines over concurrently processed enhancement jobs and call
+ * {@link #computeEnhancements(List)} instead of
+ * {@link #computeEnhancements(ContentItem)}. As this is optional
+ * implementations MUST still support the enhancement of single
+ * {@link ContentItem}s.<p>
+ * Batches only contain {@link ContentItem}s for that {@link #canEnhance(ContentItem)}
+ * returned {@link #ENHANCE_ASYNC}. Because of that engines are required to use
+ * the {@link ContentItem#getLock()} to acquire read/write locks when reading/
+ * modifying information of the parsed {@link ContentItem}s.
+ */
+public interface BatchEnhancementEngine extends EnhancementEngine {
+
+    /**
+     * Compute enhancements for the supplied ContentItems. The results are
+     * expected to be stored in the same way as by 
+     * {@link #computeEnhancements(ContentItem)}.<p>
+     * An error while processing a single {@link ContentItem} MUST NOT cause
+     * the processing of the other ContentItems in the batch to fail. Such
+     * errors are reported by the returned map. Errors are keyed by the
+     * index of the ContentItem in the parsed list as different ContentItems
+     * might use the same {@link ContentItem#getUri() URI}.
+     * 
+     * @param contentItems the ContentItems to enhance
+     * @return {@link EngineException}s by the index of the ContentItems the
+     * enhancement failed for. An empty map if all ContentItems where
+     * successfully processed. MUST NOT be <code>null</code>.
+     */
+    Map<Integer,EngineException> computeEnhancements(List<ContentItem> contentItems);
+
+}
@@ -19,7 +19,9 @@ package org.apache.stanbol.enhancer.servicesapi.helper;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.OutputStream;
+import java.io.Reader;
 import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
 import java.security.MessageDigest;
@@ -340,6 +342,43 @@ public final class ContentItemHelper {
         String charset = blob.getParameter().get("charset");
         return IOUtils.toString(blob.getStream(), charset != null ? charset : UTF8);
     }
+    /**
+     * Getter for the first <code>maxLength</code> characters of the Text of an
+     * {@link Blob}. Only the required part of the {@link Blob#getStream()
+     * content} is read. This is intended for components (e.g. language
+     * identification) that only need a sample of possible long texts. This
+     * method respects the "charset" if present in the
+     * {@link Blob#getParameter() parameter} of the Blob.
+     * @param blob the {@link Blob}. MUST NOT be <code>null</code>.
+     * @param maxLength the maximum number of characters. If <code>&lt;= 0</code>
+     * the whole text is returned.
+     * @return the text
+     * @throws IOException on any exception while reading from the
+     * {@link InputStream} provided by the Blob.
+     * @throws IllegalArgumentException if the parsed Blob is <code>null</code>
+     */
+    public static String getText(Blob blob, int maxLength) throws IOException {
+        if(maxLength <= 0){
+            return getText(blob);
+        }
+        if(blob == null){
+            throw new IllegalArgumentException("The parsed Blob MUST NOT be NULL!");
+        }
+        String charset = blob.getParameter().get("charset");
+        Reader reader = new InputStreamReader(blob.getStream(), charset != null ? charset : UTF8);
+        try {
+            char[] buffer = new char[Math.min(maxLength, MIN_BUF_SIZE)];
+            StringBuilder text = new StringBuilder(buffer.length);
+            int read;
+            while(text.length() < maxLength && (read = reader.read(buffer, 0, 
+                    Math.min(buffer.length, maxLength - text.length()))) != -1){
+                text.append(buffer, 0, read);
+            }
+            return text.toString();
+        } finally {
+            IOUtils.closeQuietly(reader);
+        }
+    }
     /**
      * Creates the "{type}/{subtime}; [{param}={value}]+" mime type representation
      * for the {@link Blob#getMimeType()} and {@link Blob#getParameter()} values
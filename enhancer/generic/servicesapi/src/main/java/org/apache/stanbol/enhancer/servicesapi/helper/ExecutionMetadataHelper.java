@@ -113,7 +113,20 @@ public final class ExecutionMetadataHelper {
      * @param message An optional message
      */
     public static void setExecutionCompleted(Graph graph,BlankNodeOrIRI execution,String message){
-        Literal dateTime = lf.createTypedLiteral(new Date());
+        setExecutionCompleted(graph, execution, new Date(), message);
+    }
+    /**
+     * Sets the state of the ExecutionNode to completed by using the parsed
+     * completed time. Intended to be used by EnhancementJobManager
+     * implementations that keep the state of executions in memory and only
+     * write the execution metadata after the enhancement has finished.
+     * @param graph
+     * @param execution
+     * @param completed the completed time
+     * @param message An optional message
+     */
+    public static void setExecutionCompleted(Graph graph,BlankNodeOrIRI execution,Date completed,String message){
+        Literal dateTime = lf.createTypedLiteral(completed);
         setStatus(graph, execution,STATUS_COMPLETED);
         graph.add(new TripleImpl(execution, COMPLETED, dateTime));
         if(message != null){
@@ -146,7 +159,18 @@ public final class ExecutionMetadataHelper {
      * @param message An message describing why the execution failed
      */
     public static void setExecutionFaild(Graph graph,BlankNodeOrIRI execution,String message){
-        Literal dateTime = lf.createTypedLiteral(new Date());
+        setExecutionFaild(graph, execution, new Date(), message);
+    }
+    /**
+     * Set the parsed execution node to failed by using the parsed completed
+     * time.
+     * @param graph
+     * @param execution
+     * @param completed the time the execution has failed
+     * @param message An message describing why the execution failed
+     */
+    public static void setExecutionFaild(Graph graph,BlankNodeOrIRI execution,Date completed,String message){
+        Literal dateTime = lf.createTypedLiteral(completed);
         setStatus(graph, execution,STATUS_FAILED);
         graph.add(new TripleImpl(execution, COMPLETED, dateTime));
         if(message != null){
@@ -178,7 +202,16 @@ public final class ExecutionMetadataHelper {
      * @param execution
      */
     public static void setExecutionInProgress(Graph graph,BlankNodeOrIRI execution){
-        Literal dateTime = lf.createTypedLiteral(new Date());
+        setExecutionInProgress(graph, execution, new Date());
+    }
+    /**
+     * Sets an execution node to in-progress by using the parsed start time
+     * @param graph
+     * @param execution
+     * @param started the start time
+     */
+    public static void setExecutionInProgress(Graph graph,BlankNodeOrIRI execution,Date started){
+        Literal dateTime = lf.createTypedLiteral(started);
         setStatus(graph, execution,STATUS_IN_PROGRESS);
         graph.add(new TripleImpl(execution, STARTED, dateTime));
     }
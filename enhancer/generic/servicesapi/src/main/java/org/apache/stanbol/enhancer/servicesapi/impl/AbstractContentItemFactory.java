@@ -26,6 +26,8 @@ import org.apache.clerezza.commons.rdf.IRI;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.ConfigurationPolicy;
 import org.apache.felix.scr.annotations.Service;
+import org.apache.stanbol.commons.indexedgraph.CompactGraph;
+import org.apache.stanbol.commons.indexedgraph.IndexedGraph;
 import org.apache.stanbol.enhancer.servicesapi.Blob;
 import org.apache.stanbol.enhancer.servicesapi.ContentItem;
 import org.apache.stanbol.enhancer.servicesapi.ContentItemFactory;
@@ -53,11 +55,22 @@ import org.apache.stanbol.enhancer.servicesapi.helper.ContentItemHelper;
 @Service(value=ContentItemFactory.class)
 public abstract class AbstractContentItemFactory implements ContentItemFactory {
 
+    /**
+     * Boolean switch that allows to use the memory efficient {@link CompactGraph}
+     * instead of the {@link IndexedGraph} for the metadata of {@link ContentItem}s
+     * created without parsed metadata (default: <code>false</code>).
+     */
+    public static final String PARAM_COMPACT_METADATA = "stanbol.enhancer.contentitem.compactMetadata";
+
     /**
      * State if {@link LazyDereferencingBlob}s are used for {@link Blob}s
      * created for {@link ContentReference}s
      */
     private final boolean lazyLoadingBlobsEnabled;
+    /**
+     * If {@link CompactGraph}s are used for the metadata of created ContentItems
+     */
+    private boolean compactMetadata = false;
     /**
      * Default constructor setting {@link #isLazyDereferenceing()} to <code>false</code>
      */
@@ -100,7 +113,8 @@ public abstract class AbstractContentItemFactory implements ContentItemFactory {
         if(reference == null){
             throw new IllegalArgumentException("The parsed ContentReference MUST NOT be NULL!");
         }
-        return createContentItem(new IRI(reference.getReference()),createBlob(reference),metadata);
+        return createContentItem(new IRI(reference.getReference()),createBlob(reference),
+            metadata == null ? createMetadataGraph() : metadata);
     }
     @Override
     public final ContentItem createContentItem(String prefix, ContentSource source,Graph metadata) throws IOException {
@@ -110,7 +124,8 @@ public abstract class AbstractContentItemFactory implements ContentItemFactory {
         if(source == null){
             throw new IllegalArgumentException("The parsed ContentSource MUST NOT be NULL!");
         }
-        return createContentItem(prefix, createBlob(source), metadata);
+        return createContentItem(prefix, createBlob(source),
+            metadata == null ? createMetadataGraph() : metadata);
     }
 
     @Override
@@ -118,7 +133,36 @@ public abstract class AbstractContentItemFactory implements ContentItemFactory {
         if(source == null){
             throw new IllegalArgumentException("The parsed ContentSource MUST NOT be NULL!");
         }
-        return createContentItem(id, createBlob(source), metadata);
+        return createContentItem(id, createBlob(source),
+            metadata == null ? createMetadataGraph() : metadata);
+    }
+    /**
+     * Creates the {@link Graph} used as {@link ContentItem#getMetadata() metadata}
+     * for ContentItems created without parsed metadata.
+     * @return a {@link CompactGraph} if {@link #isCompactMetadata()} otherwise
+     * an {@link IndexedGraph}
+     */
+    protected Graph createMetadataGraph(){
+        return compactMetadata ? new CompactGraph() : new IndexedGraph();
+    }
+    /**
+     * Setter for the state if {@link CompactGraph}s are used for the metadata
+     * of created ContentItems. Typically called by the activate method of
+     * subclasses based on the value of {@link #PARAM_COMPACT_METADATA}.
+     * @param value the configured value. {@link Boolean} or {@link String}.
+     * <code>null</code> is interpreted as <code>false</code>.
+     */
+    protected void setCompactMetadata(Object value){
+        compactMetadata = value instanceof Boolean ? ((Boolean)value).booleanValue() :
+            value != null && Boolean.parseBoolean(value.toString());
+    }
+    /**
+     * Getter for the state if {@link CompactGraph}s are used for the metadata
+     * of created ContentItems
+     * @return the state
+     */
+    public boolean isCompactMetadata(){
+        return compactMetadata;
     }
 
     
@@ -31,6 +31,7 @@ import static org.apache.stanbol.enhancer.jersey.utils.RequestPropertiesHelper.O
 import static org.apache.stanbol.enhancer.jersey.utils.RequestPropertiesHelper.OUTPUT_CONTENT;
 import static org.apache.stanbol.enhancer.jersey.utils.RequestPropertiesHelper.OUTPUT_CONTENT_PART;
 import static org.apache.stanbol.enhancer.jersey.utils.RequestPropertiesHelper.RDF_FORMAT;
+import static org.apache.stanbol.enhancer.jersey.utils.RequestPropertiesHelper.STREAMING;
 
 import java.io.IOException;
 import java.util.HashSet;
@@ -178,6 +179,7 @@ public abstract class AbstractEnhancerResource extends TemplateLayoutConfigurati
             @QueryParam(value = "outputContentPart") Set<String> contentParts,
             @QueryParam(value = "omitMetadata") boolean omitMetadata,
             @QueryParam(value = "rdfFormat") String rdfFormat,
+            @QueryParam(value = "streaming") boolean streaming,
             @Context HttpHeaders headers) throws EnhancementException, IOException {
         Map<String,Object> reqProp = ContentItemHelper.initRequestPropertiesContentPart(ci);
         reqProp.put(INCLUDE_EXECUTION_METADATA, inclExecMetadata);
@@ -210,6 +212,7 @@ public abstract class AbstractEnhancerResource extends TemplateLayoutConfigurati
                     .build());
             }
         }
+        reqProp.put(STREAMING, streaming);
         enhance(ci,reqProp);
         ResponseBuilder rb = Response.ok(ci);
         MediaType mediaType = MediaTypeUtil.getAcceptableMediaType(headers, null);
@@ -227,8 +230,18 @@ public abstract class AbstractEnhancerResource extends TemplateLayoutConfigurati
      * @throws EnhancementException
      */
     protected void enhance(ContentItem ci, Map<String,Object> reqProp) throws EnhancementException {
+        enhance(ci, getChain(), reqProp);
+    }
+    /**
+     * Enhances the parsed ContentItem with the parsed chain
+     * @param ci the content item to enhance
+     * @param chain the chain
+     * @param reqProp the request properties or <code>null</code> if none
+     * @throws EnhancementException
+     */
+    protected void enhance(ContentItem ci, Chain chain, Map<String,Object> reqProp) throws EnhancementException {
         if (jobManager != null) {
-            jobManager.enhanceContent(ci, getChain());
+            jobManager.enhanceContent(ci, chain);
         }
         Graph graph = ci.getMetadata();
         Boolean includeExecutionMetadata = RequestPropertiesHelper.isIncludeExecutionMetadata(reqProp);
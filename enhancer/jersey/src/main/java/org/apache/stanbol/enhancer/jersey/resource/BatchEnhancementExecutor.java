@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.stanbol.enhancer.jersey.resource;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.felix.scr.annotations.Activate;
+import org.apache.felix.scr.annotations.Component;
+import org.apache.felix.scr.annotations.Deactivate;
+import org.apache.felix.scr.annotations.Properties;
+import org.apache.felix.scr.annotations.Property;
+import org.apache.felix.scr.annotations.Service;
+import org.osgi.service.cm.ConfigurationException;
+import org.osgi.service.component.ComponentContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Thread pool shared by all batch enhancement requests of the
+ * {@link GenericEnhancerUiResource}. The configured number of threads
+ * bounds the number of documents enhanced concurrently over all batch
+ * requests.
+ */
+@Component(immediate = true, metatype = true)
+@Service(value = BatchEnhancementExecutor.class)
+@Properties(value = {
+    @Property(name = BatchEnhancementExecutor.BATCH_THREADS,
+        intValue = BatchEnhancementExecutor.DEFAULT_BATCH_THREADS)
+})
+public class BatchEnhancementExecutor {
+
+    private final Logger log = LoggerFactory.getLogger(BatchEnhancementExecutor.class);
+    /**
+     * The number of threads used to enhance the documents of batch requests.
+     * Values &lt;= 1 enhance documents one after the other.
+     */
+    public static final String BATCH_THREADS = "stanbol.enhancer.web.batch.threads";
+    /**
+     * The default number of threads used to enhance documents of batch requests
+     */
+    public static final int DEFAULT_BATCH_THREADS = 4;
+
+    private ThreadPoolExecutor executor;
+
+    /**
+     * Default constructor used by OSGI
+     */
+    public BatchEnhancementExecutor() {}
+    /**
+     * Constructor for use outside of an OSGI environment. Call {@link #close()}
+     * to stop the threads.
+     * @param threads the number of threads
+     */
+    public BatchEnhancementExecutor(int threads) {
+        init(threads);
+    }
+
+    @Activate
+    protected void activate(ComponentContext ctx) throws ConfigurationException {
+        Object value = ctx.getProperties().get(BATCH_THREADS);
+        int threads;
+        if(value instanceof Number){
+            threads = ((Number)value).intValue();
+        } else if(value != null && !value.toString().isEmpty()){
+            try {
+                threads = Integer.parseInt(value.toString());
+            } catch (NumberFormatException e) {
+                throw new ConfigurationException(BATCH_THREADS, "The configured value '"
+                    + value + "' is not a valid integer", e);
+            }
+        } else {
+            threads = DEFAULT_BATCH_THREADS;
+        }
+        init(threads);
+        log.info("activated {} with {} threads", getClass().getSimpleName(), getThreads());
+    }
+
+    private void init(int threads) {
+        threads = Math.max(1, threads);
+        executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<Runnable>(), new BatchThreadFactory());
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    @Deactivate
+    protected void deactivate(ComponentContext ctx) {
+        log.info("deactivate {}", getClass().getSimpleName());
+        close();
+    }
+    /**
+     * Stops the threads and cancels documents that are still running
+     */
+    public void close() {
+        if(executor != null){
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+    /**
+     * The number of threads used to enhance documents
+     * @return the number of threads
+     * @throws IllegalStateException if this executor is not active
+     */
+    public int getThreads() {
+        return getExecutor().getMaximumPoolSize();
+    }
+    /**
+     * Submits a document of a batch request
+     * @param task the task enhancing the document
+     * @return the future for the result
+     * @throws IllegalStateException if this executor is not active
+     */
+    public <T> Future<T> submit(Callable<T> task) {
+        return getExecutor().submit(task);
+    }
+
+    private ThreadPoolExecutor getExecutor() {
+        ThreadPoolExecutor executor = this.executor;
+        if(executor == null){
+            throw new IllegalStateException(getClass().getSimpleName() + " is not active");
+        }
+        return executor;
+    }
+    /**
+     * Creates daemon threads used to enhance documents of batch requests
+     */
+    private static class BatchThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "Stanbol Enhancer Batch Thread "+count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
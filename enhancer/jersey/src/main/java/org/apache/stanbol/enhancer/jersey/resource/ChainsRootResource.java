@@ -82,6 +82,8 @@ public class ChainsRootResource extends BaseStanbolResource {
     private ContentItemFactory ciFactory;
     @Reference
     private Serializer serializer;
+    @Reference
+    private BatchEnhancementExecutor batchExecutor;
     
     protected Map<String,Map.Entry<ServiceReference,Chain>> _chainCache;
     protected ChainsTracker chainTracker;
@@ -159,7 +161,7 @@ public class ChainsRootResource extends BaseStanbolResource {
     public GenericEnhancerUiResource get(@PathParam(value = "chain") String chain) {
         return new GenericEnhancerUiResource(chain, jobManager, 
                 engineManager, chainTracker, ciFactory, serializer, 
-                getLayoutConfiguration(), getUriInfo());
+                batchExecutor, getLayoutConfiguration(), getUriInfo());
     }
 
     /*@OPTIONS
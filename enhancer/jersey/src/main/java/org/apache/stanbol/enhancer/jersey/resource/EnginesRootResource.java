@@ -54,12 +54,14 @@ public final class EnginesRootResource extends BaseStanbolResource  {
     private ContentItemFactory ciFactory;
     @Reference
     private Serializer serializer;
+    @Reference
+    private BatchEnhancementExecutor batchExecutor;
     
     @Path("")
     public GenericEnhancerUiResource get() {
         return new GenericEnhancerUiResource(null, jobManager, 
                 engineManager, chainManager, ciFactory, serializer,
-                getLayoutConfiguration(), getUriInfo());
+                batchExecutor, getLayoutConfiguration(), getUriInfo());
     }
     
 }
@@ -96,14 +96,16 @@ public final class EnhancerRootResource extends BaseStanbolResource {
     private ContentItemFactory ciFactory;
     @Reference
     private Serializer serializer;
+    @Reference
+    private BatchEnhancementExecutor batchExecutor;
     @Reference(cardinality = ReferenceCardinality.OPTIONAL_UNARY)
     private QueryEngine queryEngine;
     
     @Path("")
     public EnhancerResource get() {
         return new EnhancerResource(jobManager, engineManager, 
-                chainManager, ciFactory, serializer, getLayoutConfiguration(),
-                getUriInfo());
+                chainManager, ciFactory, serializer, batchExecutor,
+                getLayoutConfiguration(), getUriInfo());
     }
             
           
@@ -115,10 +117,11 @@ public final class EnhancerRootResource extends BaseStanbolResource {
             ChainManager chainManager, 
             ContentItemFactory ciFactory,
             Serializer serializer,
+            BatchEnhancementExecutor batchExecutor,
             LayoutConfiguration layoutConfiguration, 
             UriInfo uriInfo) {
             super(null, jobManager, engineManager, chainManager, ciFactory, 
-                    serializer, layoutConfiguration, uriInfo);
+                    serializer, batchExecutor, layoutConfiguration, uriInfo);
         }
 
         @GET
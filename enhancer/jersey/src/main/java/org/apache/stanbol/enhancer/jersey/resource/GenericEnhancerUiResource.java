@@ -18,28 +18,50 @@ package org.apache.stanbol.enhancer.jersey.resource;
 
 import static javax.ws.rs.core.MediaType.APPLICATION_FORM_URLENCODED;
 import static javax.ws.rs.core.MediaType.TEXT_HTML;
+import static javax.ws.rs.core.MediaType.TEXT_PLAIN;
+import static org.apache.stanbol.enhancer.jersey.utils.RequestPropertiesHelper.INCLUDE_EXECUTION_METADATA;
 
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 import javax.ws.rs.Consumes;
 import javax.ws.rs.FormParam;
 import javax.ws.rs.GET;
 import javax.ws.rs.POST;
+import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.ResponseBuilder;
+import javax.ws.rs.core.StreamingOutput;
 import javax.ws.rs.core.UriInfo;
 
 import org.apache.clerezza.commons.rdf.ImmutableGraph;
 import org.apache.clerezza.commons.rdf.BlankNodeOrIRI;
 import org.apache.clerezza.commons.rdf.Graph;
+import org.apache.clerezza.commons.rdf.IRI;
 import org.apache.clerezza.rdf.core.serializedform.Serializer;
+import org.apache.clerezza.rdf.core.serializedform.SupportedFormat;
 import org.apache.clerezza.rdf.core.sparql.QueryEngine;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Reference;
@@ -55,8 +77,11 @@ import org.apache.stanbol.enhancer.servicesapi.EnhancementEngine;
 import org.apache.stanbol.enhancer.servicesapi.EnhancementEngineManager;
 import org.apache.stanbol.enhancer.servicesapi.EnhancementException;
 import org.apache.stanbol.enhancer.servicesapi.EnhancementJobManager;
+import org.apache.stanbol.enhancer.servicesapi.helper.ContentItemHelper;
 import org.apache.stanbol.enhancer.servicesapi.helper.ExecutionPlanHelper;
 import org.apache.stanbol.enhancer.servicesapi.impl.StringSource;
+import org.codehaus.jettison.json.JSONException;
+import org.codehaus.jettison.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -72,6 +97,13 @@ import org.slf4j.LoggerFactory;
 public class GenericEnhancerUiResource extends AbstractEnhancerResource {
 
     private final Logger log = LoggerFactory.getLogger(getClass());
+    /**
+     * The media type for newline delimited JSON as used by the
+     * batch enhancement endpoint
+     */
+    public static final String NDJSON = "application/x-ndjson";
+    
+    private static final Charset UTF8 = Charset.forName("UTF-8");
     /**
      * Optional dependency - might be <code>null</code>
      */
@@ -80,6 +112,10 @@ public class GenericEnhancerUiResource extends AbstractEnhancerResource {
     private Set<ExecutionNode> _executionNodes;
     private Set<ExecutionNode> _activeNodes;
     protected final Chain chain;
+    /**
+     * The shared executor used to enhance documents of batch requests
+     */
+    protected final BatchEnhancementExecutor batchExecutor;
     
     public GenericEnhancerUiResource(String chainName,
             EnhancementJobManager jobManager, 
@@ -87,10 +123,12 @@ public class GenericEnhancerUiResource extends AbstractEnhancerResource {
             ChainManager chainManager, 
             ContentItemFactory ciFactory,
             Serializer serializer, 
+            BatchEnhancementExecutor batchExecutor,
             LayoutConfiguration layoutConfiguration, 
             UriInfo uriInfo) {
         super(jobManager, engineManager, chainManager, ciFactory, layoutConfiguration, uriInfo);
         this.serializer = serializer;
+        this.batchExecutor = batchExecutor;
         //this.queryEngine = queryEngine;
         if(chainName == null){
             chain = chainManager.getDefault();
@@ -144,7 +182,7 @@ public class GenericEnhancerUiResource extends AbstractEnhancerResource {
         }
         ContentItem ci = ciFactory.createContentItem(new StringSource(content));
         if(!buildAjaxview){ //rewrite to a normal EnhancementRequest
-            return enhanceFromData(ci, false, null, false, null, false, null, headers);
+            return enhanceFromData(ci, false, null, false, null, false, null, false, headers);
         } else { //enhance and build the AJAX response
             EnhancementException enhancementException;
             try {
@@ -164,6 +202,206 @@ public class GenericEnhancerUiResource extends AbstractEnhancerResource {
         }
     }
 
+    /**
+     * Batch enhancement endpoint. Allows to enhance a (possible large) number
+     * of (typically short) documents with a single request. Parsed documents
+     * are processed by the {@link Chain} of this endpoint. Documents are
+     * enhanced concurrently by the threads of the shared
+     * {@link BatchEnhancementExecutor} (see
+     * {@link BatchEnhancementExecutor#BATCH_THREADS}). Results
+     * are written to the response in the order of the parsed documents as
+     * soon as a document is processed.<p>
+     * Supported request formats:<ul>
+     * <li> <code>{@value #NDJSON}</code>: one JSON object per line with the
+     * properties <code>content</code> (required), <code>uri</code> (optional)
+     * and <code>mediaType</code> (optional, default: <code>text/plain</code>).
+     * <li> <code>text/plain</code>: every non empty line is enhanced as
+     * separate document.
+     * </ul>
+     * The response uses <code>{@value #NDJSON}</code> with one JSON object per
+     * parsed document. Each object provides the <code>index</code> of the
+     * document in the request, the <code>uri</code> of the
+     * {@link ContentItem} and either the <code>metadata</code> (serialized
+     * using the requested <code>rdfFormat</code>) or an <code>error</code>
+     * message.
+     */
+    @POST
+    @Path("/batch")
+    @Consumes({NDJSON, TEXT_PLAIN})
+    @Produces(NDJSON)
+    public Response enhanceBatch(final InputStream in,
+            @QueryParam(value = "executionmetadata") final boolean inclExecMetadata,
+            @QueryParam(value = "rdfFormat") String rdfFormat,
+            @Context HttpHeaders headers) {
+        final String format;
+        if(rdfFormat == null || rdfFormat.isEmpty()){
+            format = SupportedFormat.RDF_JSON;
+        } else {
+            try {
+                format = MediaType.valueOf(rdfFormat).toString();
+            } catch (IllegalArgumentException e) {
+                throw new WebApplicationException(e, 
+                    Response.status(Response.Status.BAD_REQUEST)
+                    .entity(String.format("Unable to parse MediaType form parameter" +
+                            "rdfFormat=%s",rdfFormat))
+                    .build());
+            }
+        }
+        MediaType requestType = headers.getMediaType();
+        final boolean json = requestType == null || 
+                !requestType.isCompatible(MediaType.TEXT_PLAIN_TYPE);
+        String charset = requestType == null ? null : 
+            requestType.getParameters().get("charset");
+        final Charset encoding = charset == null ? UTF8 : Charset.forName(charset);
+        //resolve the chain once for all documents of the batch
+        final Chain batchChain = getChain();
+        StreamingOutput output = new StreamingOutput() {
+            @Override
+            public void write(OutputStream out) throws IOException, WebApplicationException {
+                BufferedReader reader = new BufferedReader(new InputStreamReader(in, encoding));
+                Writer writer = new OutputStreamWriter(out, UTF8);
+                //bounds the number of documents read ahead of the written results
+                int maxPending = 2 * batchExecutor.getThreads();
+                LinkedList<Future<JSONObject>> pending = new LinkedList<Future<JSONObject>>();
+                int index = 0;
+                long start = System.currentTimeMillis();
+                try {
+                    String line;
+                    while((line = reader.readLine()) != null){
+                        if(line.trim().isEmpty()){
+                            continue;
+                        }
+                        final int entryIndex = index;
+                        final String entry = line;
+                        pending.add(batchExecutor.submit(new Callable<JSONObject>() {
+                            @Override
+                            public JSONObject call() {
+                                return enhanceBatchEntry(entryIndex, entry, json, 
+                                    batchChain, inclExecMetadata, format);
+                            }
+                        }));
+                        index++;
+                        //stream results back incrementally
+                        while(pending.size() >= maxPending || 
+                                (!pending.isEmpty() && pending.getFirst().isDone())){
+                            writeBatchResult(writer, pending.removeFirst());
+                        }
+                    }
+                    while(!pending.isEmpty()){
+                        writeBatchResult(writer, pending.removeFirst());
+                    }
+                } finally {
+                    //cancel remaining documents (e.g. if the client disconnected)
+                    for(Future<JSONObject> future : pending){
+                        future.cancel(true);
+                    }
+                }
+                log.debug("enhanced batch of {} documents in {}ms", index,
+                    System.currentTimeMillis() - start);
+            }
+        };
+        return Response.ok(output, NDJSON + "; charset=" + UTF8.name()).build();
+    }
+    
+    /**
+     * Waits for the result of a document of a batch request and writes it
+     * to the parsed writer
+     * @param writer the writer
+     * @param future the result of the document
+     * @throws IOException on any error while writing the result or if
+     * interrupted while waiting for the result
+     */
+    private void writeBatchResult(Writer writer, Future<JSONObject> future) throws IOException {
+        JSONObject result;
+        try {
+            result = future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the "
+                + "enhancement results of a batch request");
+        } catch (ExecutionException e) {
+            //enhanceBatchEntry does only throw Errors
+            log.warn("Unable to process document of batch request",e.getCause());
+            throw new IOException("Unable to process document of batch request", e.getCause());
+        }
+        writer.write(result.toString());
+        writer.write('\n');
+        writer.flush();
+    }
+
+    /**
+     * Enhances a single line of a batch request
+     * @param index the index of the line
+     * @param line the line
+     * @param json if the line is a JSON object or plain text
+     * @param chain the chain used to enhance the document
+     * @param inclExecMetadata if execution metadata are included in the results
+     * @param format the RDF format used to serialize the enhancement results
+     * @return the result for the line
+     */
+    private JSONObject enhanceBatchEntry(int index, String line, boolean json,
+            Chain chain, boolean inclExecMetadata, String format) {
+        JSONObject result = new JSONObject();
+        String uri = null;
+        try {
+            result.put("index", index);
+            String content;
+            String mediaType = TEXT_PLAIN;
+            if(json){
+                JSONObject entry = new JSONObject(line);
+                content = entry.optString("content", null);
+                uri = entry.optString("uri", null);
+                mediaType = entry.optString("mediaType", TEXT_PLAIN);
+            } else {
+                content = line;
+            }
+            if(content == null){
+                result.put("error", "Missing required property 'content'!");
+                return result;
+            }
+            ContentItem ci;
+            if(uri == null || uri.isEmpty()){
+                ci = ciFactory.createContentItem(new StringSource(content, mediaType));
+            } else {
+                ci = ciFactory.createContentItem(new IRI(uri), 
+                    new StringSource(content, mediaType));
+            }
+            uri = ci.getUri().getUnicodeString();
+            result.put("uri", uri);
+            Map<String,Object> reqProp = ContentItemHelper.initRequestPropertiesContentPart(ci);
+            reqProp.put(INCLUDE_EXECUTION_METADATA, inclExecMetadata);
+            enhance(ci, chain, reqProp);
+            ByteArrayOutputStream bout = new ByteArrayOutputStream();
+            serializer.serialize(bout, ci.getMetadata(), format);
+            result.put("metadata", new String(bout.toByteArray(), UTF8));
+        } catch (JSONException e) {
+            return createBatchError(index, uri, "Unable to parse JSON: " + e.getMessage());
+        } catch (EnhancementException e) {
+            log.warn("Unable to enhance document "+index+" of batch request",e);
+            return createBatchError(index, uri, e.getMessage());
+        } catch (IOException e) {
+            log.warn("Unable to create ContentItem for document "+index
+                + " of batch request",e);
+            return createBatchError(index, uri, e.getMessage());
+        } catch (RuntimeException e) {
+            log.warn("Unable to process document "+index+" of batch request",e);
+            return createBatchError(index, uri, e.getMessage());
+        }
+        return result;
+    }
+
+    private JSONObject createBatchError(int index, String uri, String message) {
+        JSONObject error = new JSONObject();
+        try {
+            error.put("index", index);
+            if(uri != null){
+                error.put("uri", uri);
+            }
+            error.put("error", message == null ? "unknown error" : message);
+        } catch (JSONException e) {/* not expected for non null keys */}
+        return error;
+    }
+
     public boolean isEngineActive(String name) {
         return engineManager.isEngine(name);
     }
@@ -87,6 +87,15 @@ public final class RequestPropertiesHelper {
      * set to "multipart/from-data" in such cases
      */
     public static final String RDF_FORMAT = "stanbol.enhancer.web.rdfFormat";
+    /**
+     * Boolean switch that allows to serialize RDF graphs (the metadata and
+     * RDF content parts) directly from the triples of the graph instead of
+     * using the Clerezza Serializer. This is supported for N-Triples, Turtle
+     * and JSON-LD and keeps the memory footprint of responses for large
+     * enhancement results low. For other formats the Clerezza Serializer is
+     * used.
+     */
+    public static final String STREAMING = "stanbol.enhancer.web.streaming";
     /**
      * {@link Set Set&lt;String&gt;} containing all the {@link IRI}s of 
      * {@link ContentItem#getPart(int, Class) ContentItem.getPart}(uri,{@link Blob})
@@ -172,6 +181,12 @@ public final class RequestPropertiesHelper {
     public static boolean isOmitMetadata(Map<String,Object> reqProp){
         return getState(reqProp, OMIT_METADATA);
     }
+    /**
+     * Checks the request properties for the {@link #STREAMING} state
+     */
+    public static boolean isStreaming(Map<String,Object> reqProp){
+        return getState(reqProp, STREAMING);
+    }
     /**
      * Getter for the {@link #PARSED_CONTENT_URIS}
      * @param reqProp
@@ -27,6 +27,7 @@ import static org.apache.stanbol.enhancer.jersey.utils.RequestPropertiesHelper.g
 import static org.apache.stanbol.enhancer.jersey.utils.RequestPropertiesHelper.getRdfFormat;
 import static org.apache.stanbol.enhancer.jersey.utils.RequestPropertiesHelper.isOmitMetadata;
 import static org.apache.stanbol.enhancer.jersey.utils.RequestPropertiesHelper.isOmitParsedContent;
+import static org.apache.stanbol.enhancer.jersey.utils.RequestPropertiesHelper.isStreaming;
 import static org.apache.stanbol.enhancer.servicesapi.helper.ContentItemHelper.getBlob;
 import static org.apache.stanbol.enhancer.servicesapi.helper.ContentItemHelper.getContentParts;
 
@@ -50,6 +51,7 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.locks.Lock;
 
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.HttpHeaders;
@@ -175,6 +177,7 @@ public class ContentItemWriter implements MessageBodyWriter<ContentItem> {
         //(0) handle default dataType
         Map<String,Object> reqProp = ContentItemHelper.getRequestPropertiesContentPart(ci);
         boolean omitMetadata = isOmitMetadata(reqProp);
+        boolean streaming = isStreaming(reqProp);
         if(!MULTIPART.isCompatible(mediaType)){ //two possible cases
             if(!omitMetadata){ //  (1) just return the RDF data
                 //(1.a) Backward support for default dataType if no Accept header is set
@@ -190,7 +193,12 @@ public class ContentItemWriter implements MessageBodyWriter<ContentItem> {
                 String contentType = ctb.toString();
                 httpHeaders.putSingle(HttpHeaders.CONTENT_TYPE, contentType);
                 try {
-                	serializer.serialize(entityStream, ci.getMetadata(), contentType);
+                    if(streaming && StreamingRdfSerializer.isSupported(contentType)){
+                        StreamingRdfSerializer.serialize(entityStream, ci.getMetadata(), 
+                            contentType, ci.getLock().readLock());
+                    } else {
+                        serializer.serialize(entityStream, ci.getMetadata(), contentType);
+                    }
                 } catch (UnsupportedSerializationFormatException e) {
                     throw new WebApplicationException("The enhancement results "
                         + "cannot be serialized in the requested media type: "
@@ -260,7 +268,8 @@ public class ContentItemWriter implements MessageBodyWriter<ContentItem> {
             //(2) serialising the metadata
             if(!isOmitMetadata(reqProp)){
                 entityBuilder.addPart("metadata", new ClerezzaContentBody(
-                    ci.getUri().getUnicodeString(), ci.getMetadata(), rdfFormat));
+                    ci.getUri().getUnicodeString(), ci.getMetadata(), rdfFormat,
+                    streaming ? ci.getLock().readLock() : null));
 //                entity.addBodyPart(new FormBodyPart("metadata", new ClerezzaContentBody(
 //                    ci.getUri().getUnicodeString(), ci.getMetadata(),
 //                    rdfFormat)));
@@ -309,7 +318,8 @@ public class ContentItemWriter implements MessageBodyWriter<ContentItem> {
                         entry.getKey())){
                         entityBuilder.addPart(entry.getKey().getUnicodeString(), 
                             new ClerezzaContentBody(null, //no file name
-                                entry.getValue(),rdfFormat));
+                                entry.getValue(),rdfFormat,
+                                streaming ? ci.getLock().readLock() : null));
                     } // else ignore this content part
                 }
             }
@@ -499,7 +509,9 @@ public class ContentItemWriter implements MessageBodyWriter<ContentItem> {
         
     }
     /**
-     * Supports serialised RDF graphs as {@link ContentBody}
+     * Supports serialised RDF graphs as {@link ContentBody}. If a lock is
+     * parsed and the format is supported the graph is serialized by the
+     * {@link StreamingRdfSerializer}.
      * @author Rupert Westenthaler
      *
      */
@@ -508,8 +520,9 @@ public class ContentItemWriter implements MessageBodyWriter<ContentItem> {
         private Graph graph;
         private String charset;
         private String name;
+        private Lock streamingLock;
 
-        protected ClerezzaContentBody(String name, Graph graph, MediaType mimeType){
+        protected ClerezzaContentBody(String name, Graph graph, MediaType mimeType, Lock streamingLock){
             super(ContentType.create(new StringBuilder(mimeType.getType())
             .append('/').append(mimeType.getSubtype()).toString(), UTF8));
             charset = mimeType.getParameters().get("charset");
@@ -518,6 +531,7 @@ public class ContentItemWriter implements MessageBodyWriter<ContentItem> {
             }
             this.name = name;
             this.graph = graph;
+            this.streamingLock = streamingLock;
         }
 
         @Override
@@ -542,7 +556,12 @@ public class ContentItemWriter implements MessageBodyWriter<ContentItem> {
 
         @Override
         public void writeTo(OutputStream out) throws IOException {
-            serializer.serialize(out, graph, getMediaType()+'/'+getSubType());
+            String format = getMediaType()+'/'+getSubType();
+            if(streamingLock != null && StreamingRdfSerializer.isSupported(format)){
+                StreamingRdfSerializer.serialize(out, graph, format, streamingLock);
+            } else {
+                serializer.serialize(out, graph, format);
+            }
         }
     }
     
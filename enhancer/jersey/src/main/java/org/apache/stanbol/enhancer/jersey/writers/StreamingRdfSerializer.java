@@ -0,0 +1,307 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.stanbol.enhancer.jersey.writers;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+
+import org.apache.clerezza.commons.rdf.BlankNode;
+import org.apache.clerezza.commons.rdf.Graph;
+import org.apache.clerezza.commons.rdf.IRI;
+import org.apache.clerezza.commons.rdf.Literal;
+import org.apache.clerezza.commons.rdf.RDFTerm;
+import org.apache.clerezza.commons.rdf.Triple;
+import org.apache.clerezza.rdf.core.serializedform.SupportedFormat;
+
+/**
+ * Serializes RDF graphs directly from the {@link Graph#iterator() triple
+ * iterator} to the output stream. In contrast to the Clerezza
+ * {@link org.apache.clerezza.rdf.core.serializedform.Serializer} no
+ * intermediate model of the graph is created, so the memory needed is
+ * independent of the size of the graph and the first bytes are written as
+ * soon as the first triple is read.<p>
+ * Supported formats are:<ul>
+ * <li> N-Triples
+ * <li> Turtle: written in the N-Triples subset of Turtle
+ * <li> JSON-LD: written in the flattened form as an array of node objects.
+ * Consecutive triples with the same subject are written to the same node
+ * object. JSON-LD processors merge node objects with the same
+ * <code>@id</code>.
+ * </ul>
+ * Output is always UTF-8 encoded and buffered by a buffer of
+ * {@link #BUFFER_SIZE} chars.
+ */
+public final class StreamingRdfSerializer {
+
+    private StreamingRdfSerializer(){/* no instances allowed*/}
+
+    /**
+     * The size of the buffer used for writing
+     */
+    public static final int BUFFER_SIZE = 8192;
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private static final String XSD_STRING = "http://www.w3.org/2001/XMLSchema#string";
+    private static final String RDF_LANG_STRING = "http://www.w3.org/1999/02/22-rdf-syntax-ns#langString";
+
+    private static final String APPLICATION_N_TRIPLES = "application/n-triples";
+    private static final String APPLICATION_LD_JSON = "application/ld+json";
+
+    private static final Set<String> TRIPLE_FORMATS = Collections.unmodifiableSet(
+        new HashSet<String>(Arrays.asList(SupportedFormat.N_TRIPLE, APPLICATION_N_TRIPLES,
+            SupportedFormat.TURTLE, SupportedFormat.X_TURTLE)));
+
+    private static final Set<String> JSON_LD_FORMATS = Collections.singleton(APPLICATION_LD_JSON);
+
+    /**
+     * Checks if the parsed format is supported
+     * @param format the format (parameters such as the charset are ignored)
+     * @return <code>true</code> if the parsed format is supported
+     */
+    public static boolean isSupported(String format){
+        String mimeType = getMimeType(format);
+        return TRIPLE_FORMATS.contains(mimeType) || JSON_LD_FORMATS.contains(mimeType);
+    }
+
+    /**
+     * Serializes the parsed graph
+     * @param out the stream to write to. The stream is flushed but not closed
+     * @param graph the graph
+     * @param format the format
+     * @param lock the read lock acquired while iterating over the graph or
+     * <code>null</code> if no lock is needed.
+     * @throws IOException on any error while writing to the stream
+     * @throws IllegalArgumentException if the parsed format is not
+     * {@link #isSupported(String) supported}
+     */
+    public static void serialize(OutputStream out, Graph graph, String format, Lock lock) throws IOException {
+        String mimeType = getMimeType(format);
+        boolean jsonLd;
+        if(JSON_LD_FORMATS.contains(mimeType)){
+            jsonLd = true;
+        } else if(TRIPLE_FORMATS.contains(mimeType)){
+            jsonLd = false;
+        } else {
+            throw new IllegalArgumentException("The format '" + format
+                + "' is not supported for streaming serialization!");
+        }
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, UTF8), BUFFER_SIZE);
+        if(lock != null){
+            lock.lock();
+        }
+        try {
+            if(jsonLd){
+                writeJsonLd(writer, graph.iterator());
+            } else {
+                writeNTriples(writer, graph.iterator());
+            }
+        } finally {
+            if(lock != null){
+                lock.unlock();
+            }
+        }
+        writer.flush();
+    }
+
+    private static String getMimeType(String format) {
+        if(format == null){
+            return null;
+        }
+        int index = format.indexOf(';');
+        return (index < 0 ? format : format.substring(0, index)).trim().toLowerCase();
+    }
+
+    private static void writeNTriples(Writer writer, Iterator<Triple> triples) throws IOException {
+        Map<BlankNode,String> bNodes = new HashMap<BlankNode,String>();
+        while(triples.hasNext()){
+            Triple triple = triples.next();
+            writeTerm(writer, triple.getSubject(), bNodes);
+            writer.write(' ');
+            writeTerm(writer, triple.getPredicate(), bNodes);
+            writer.write(' ');
+            writeTerm(writer, triple.getObject(), bNodes);
+            writer.write(" .\n");
+        }
+    }
+
+    private static void writeTerm(Writer writer, RDFTerm term, Map<BlankNode,String> bNodes) throws IOException {
+        if(term instanceof IRI){
+            writer.write('<');
+            writeEscaped(writer, ((IRI)term).getUnicodeString(), true);
+            writer.write('>');
+        } else if(term instanceof BlankNode){
+            writer.write(getBlankNodeId((BlankNode)term, bNodes));
+        } else {
+            Literal literal = (Literal)term;
+            writer.write('"');
+            writeEscaped(writer, literal.getLexicalForm(), false);
+            writer.write('"');
+            if(literal.getLanguage() != null){
+                writer.write('@');
+                writer.write(literal.getLanguage().toString());
+            } else if(literal.getDataType() != null &&
+                    !XSD_STRING.equals(literal.getDataType().getUnicodeString())){
+                writer.write("^^<");
+                writeEscaped(writer, literal.getDataType().getUnicodeString(), true);
+                writer.write('>');
+            }
+        }
+    }
+
+    private static void writeJsonLd(Writer writer, Iterator<Triple> triples) throws IOException {
+        Map<BlankNode,String> bNodes = new HashMap<BlankNode,String>();
+        writer.write('[');
+        RDFTerm currentSubject = null;
+        IRI currentPredicate = null;
+        //the properties of the current node object
+        Set<IRI> properties = new HashSet<IRI>();
+        boolean first = true;
+        while(triples.hasNext()){
+            Triple triple = triples.next();
+            if(triple.getSubject().equals(currentSubject) &&
+                    triple.getPredicate().equals(currentPredicate)){
+                writer.write(','); //add an other value to the current property
+            } else if(triple.getSubject().equals(currentSubject) &&
+                    !properties.contains(triple.getPredicate())){
+                writer.write("],"); //close the current property
+                writePropertyName(writer, triple.getPredicate());
+            } else { //start a new node object
+                if(!first){
+                    writer.write("]},\n");
+                } else {
+                    writer.write('\n');
+                    first = false;
+                }
+                properties.clear();
+                currentSubject = triple.getSubject();
+                writer.write("{\"@id\":\"");
+                writeEscaped(writer, triple.getSubject() instanceof BlankNode ?
+                        getBlankNodeId((BlankNode)triple.getSubject(), bNodes) :
+                            ((IRI)triple.getSubject()).getUnicodeString(), false);
+                writer.write("\",");
+                writePropertyName(writer, triple.getPredicate());
+            }
+            currentPredicate = triple.getPredicate();
+            properties.add(currentPredicate);
+            writeJsonLdValue(writer, triple.getObject(), bNodes);
+        }
+        if(!first){
+            writer.write("]}\n");
+        }
+        writer.write("]\n");
+    }
+
+    private static void writePropertyName(Writer writer, IRI property) throws IOException {
+        writer.write('"');
+        writeEscaped(writer, property.getUnicodeString(), false);
+        writer.write("\":[");
+    }
+
+    private static void writeJsonLdValue(Writer writer, RDFTerm value, Map<BlankNode,String> bNodes) throws IOException {
+        if(value instanceof IRI){
+            writer.write("{\"@id\":\"");
+            writeEscaped(writer, ((IRI)value).getUnicodeString(), false);
+            writer.write("\"}");
+        } else if(value instanceof BlankNode){
+            writer.write("{\"@id\":\"");
+            writer.write(getBlankNodeId((BlankNode)value, bNodes));
+            writer.write("\"}");
+        } else {
+            Literal literal = (Literal)value;
+            writer.write("{\"@value\":\"");
+            writeEscaped(writer, literal.getLexicalForm(), false);
+            writer.write('"');
+            if(literal.getLanguage() != null){
+                writer.write(",\"@language\":\"");
+                writeEscaped(writer, literal.getLanguage().toString(), false);
+                writer.write('"');
+            } else if(literal.getDataType() != null &&
+                    !XSD_STRING.equals(literal.getDataType().getUnicodeString()) &&
+                    !RDF_LANG_STRING.equals(literal.getDataType().getUnicodeString())){
+                writer.write(",\"@type\":\"");
+                writeEscaped(writer, literal.getDataType().getUnicodeString(), false);
+                writer.write('"');
+            }
+            writer.write('}');
+        }
+    }
+
+    private static String getBlankNodeId(BlankNode bNode, Map<BlankNode,String> bNodes) {
+        String id = bNodes.get(bNode);
+        if(id == null){
+            id = "_:b" + bNodes.size();
+            bNodes.put(bNode, id);
+        }
+        return id;
+    }
+    /**
+     * Escapes the parsed value. The escaping used for string literals is
+     * valid for both N-Triples and JSON. For IRIs of N-Triples the chars not
+     * allowed in IRIs are written as unicode escape sequences
+     */
+    private static void writeEscaped(Writer writer, String value, boolean iri) throws IOException {
+        for(int i = 0; i < value.length(); i++){
+            char c = value.charAt(i);
+            if(iri){
+                if(c <= 0x20 || c == '<' || c == '>' || c == '"' || c == '{' || c == '}' ||
+                        c == '|' || c == '^' || c == '`' || c == '\\'){
+                    writeUnicodeEscape(writer, c);
+                } else {
+                    writer.write(c);
+                }
+            } else {
+                switch (c) {
+                    case '\\': writer.write("\\\\"); break;
+                    case '"': writer.write("\\\""); break;
+                    case '\n': writer.write("\\n"); break;
+                    case '\r': writer.write("\\r"); break;
+                    case '\t': writer.write("\\t"); break;
+                    case '\b': writer.write("\\b"); break;
+                    case '\f': writer.write("\\f"); break;
+                    default:
+                        if(c < 0x20){
+                            writeUnicodeEscape(writer, c);
+                        } else {
+                            writer.write(c);
+                        }
+                }
+            }
+        }
+    }
+
+    private static void writeUnicodeEscape(Writer writer, char c) throws IOException {
+        writer.write("\\u");
+        String hex = Integer.toHexString(c).toUpperCase();
+        for(int i = hex.length(); i < 4; i++){
+            writer.write('0');
+        }
+        writer.write(hex);
+    }
+}
@@ -27,6 +27,7 @@
   <#include "/imports/doc/enhancerbase.ftl">
   <#include "/imports/doc/multipartcontentitem.ftl">
   <#include "/imports/doc/executionplan.ftl">
+  <#include "/imports/doc/batch.ftl">
 </div>
 
 
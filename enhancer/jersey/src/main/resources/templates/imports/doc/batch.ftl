@@ -0,0 +1,47 @@
+<#--
+  Licensed to the Apache Software Foundation (ASF) under one or more
+  contributor license agreements.  See the NOTICE file distributed with
+  this work for additional information regarding copyright ownership.
+  The ASF licenses this file to You under the Apache License, Version 2.0
+  (the "License"); you may not use this file except in compliance with
+  the License.  You may obtain a copy of the License at
+
+      http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+-->
+
+<h3>Batch enhancement</h3>
+
+<p>Clients that need to enhance a large number of short documents (e.g. 
+tweets or titles) can parse many documents with a single request to
+"{enhancement-endpoint}/batch". Documents are enhanced one after the other by 
+the Enhancement Chain of the endpoint and the results are streamed back as 
+soon as a document is processed.</p>
+
+<p>Supported request formats:</p>
+<ul>
+<li><code>application/x-ndjson</code>: one JSON object per line with the
+    properties <code>content</code> (required), <code>uri</code> (optional)
+    and <code>mediaType</code> (optional, default <code>text/plain</code>)</li>
+<li><code>text/plain</code>: every non empty line is enhanced as a separate
+    document</li>
+</ul>
+
+<p>The response uses <code>application/x-ndjson</code> and contains one JSON
+object per document with the <code>index</code> of the document in the request,
+the <code>uri</code> of the content item and the enhancement results as 
+<code>metadata</code> (or an <code>error</code> message if the document could
+not be enhanced). The <code>rdfFormat</code> parameter can be used to set
+the RDF serialisation used for the <code>metadata</code> (default: 
+<code>application/rdf+json</code>). The <code>executionmetadata=true/false</code> 
+parameter is also supported.</p>
+
+<pre>
+curl -X POST -H "Content-type: application/x-ndjson" \
+     --data-binary @documents.ndjson "${it.serviceUrl}/batch?rdfFormat=text/turtle"
+</pre>
@@ -56,6 +56,13 @@ curl -X POST -H "Accept: text/turtle" -H "Content-type: text/plain" \
     the ExecutionPlan as provided by the enhancement chain as well as
     information about the actual execution of that plan. The default value
     is <code>false</code>.</li>
+<li><code>streaming=true/false</code>:
+    Serializes the enhancement results directly from the RDF graph without
+    building an intermediate model in memory. This is recommended for large
+    enhancement results. Supported for N-Triples, Turtle (written in the
+    N-Triples subset of Turtle) and JSON-LD (written as flattened JSON-LD
+    without a context). Other formats are serialized as usual. The default
+    value is <code>false</code>.</li>
 </ul>
 
 <h4>Example</h4>
@@ -21,6 +21,7 @@ import static org.apache.stanbol.enhancer.jersey.utils.RequestPropertiesHelper.O
 import static org.apache.stanbol.enhancer.jersey.utils.RequestPropertiesHelper.OUTPUT_CONTENT_PART;
 import static org.apache.stanbol.enhancer.jersey.utils.RequestPropertiesHelper.PARSED_CONTENT_URIS;
 import static org.apache.stanbol.enhancer.jersey.utils.RequestPropertiesHelper.RDF_FORMAT;
+import static org.apache.stanbol.enhancer.jersey.utils.RequestPropertiesHelper.STREAMING;
 import static org.apache.stanbol.enhancer.jersey.utils.RequestPropertiesHelper.getOutputContent;
 import static org.apache.stanbol.enhancer.jersey.utils.RequestPropertiesHelper.getParsedContentURIs;
 import static org.apache.stanbol.enhancer.servicesapi.helper.ContentItemHelper.initRequestPropertiesContentPart;
@@ -51,13 +52,18 @@ import javax.ws.rs.core.MultivaluedHashMap;
 import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.ext.RuntimeDelegate;
 
+import org.apache.clerezza.commons.rdf.BlankNode;
 import org.apache.clerezza.commons.rdf.Graph;
 import org.apache.clerezza.commons.rdf.BlankNodeOrIRI;
 import org.apache.clerezza.commons.rdf.IRI;
+import org.apache.clerezza.commons.rdf.Language;
+import org.apache.clerezza.commons.rdf.impl.utils.PlainLiteralImpl;
 import org.apache.clerezza.commons.rdf.impl.utils.simple.SimpleGraph;
 import org.apache.clerezza.commons.rdf.impl.utils.TripleImpl;
 import org.apache.clerezza.rdf.core.serializedform.Parser;
+import org.apache.clerezza.rdf.core.LiteralFactory;
 import org.apache.clerezza.rdf.core.serializedform.Serializer;
+import org.apache.clerezza.rdf.core.serializedform.SupportedFormat;
 import org.apache.clerezza.rdf.ontologies.RDF;
 import org.apache.commons.io.IOUtils;
 import org.apache.stanbol.enhancer.contentitem.inmemory.InMemoryContentItemFactory;
@@ -69,6 +75,8 @@ import org.apache.stanbol.enhancer.servicesapi.ContentItemFactory;
 import org.apache.stanbol.enhancer.servicesapi.helper.ContentItemHelper;
 import org.apache.stanbol.enhancer.servicesapi.impl.StringSource;
 import org.apache.stanbol.enhancer.servicesapi.rdf.ExecutionMetadata;
+import org.codehaus.jettison.json.JSONArray;
+import org.codehaus.jettison.json.JSONObject;
 import org.glassfish.jersey.internal.RuntimeDelegateImpl;
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -244,4 +252,53 @@ public class ContentItemReaderWriterTest {
         assertEquals(outputContentPart.iterator().next(), "*");
     }
 
+    @Test
+    public void testStreamingWriter() throws Exception {
+        ContentItem ci = ciFactory.createContentItem(new IRI("urn:test:streaming"),
+            new StringSource("This is a streaming test!"));
+        BlankNode bNode = new BlankNode();
+        ci.getMetadata().add(new TripleImpl(ci.getUri(), RDF.type, new IRI("urn:types:Document")));
+        ci.getMetadata().add(new TripleImpl(ci.getUri(), new IRI("urn:test:label"), 
+            new PlainLiteralImpl("A \"quoted\"\nlabel \\ with special chars", new Language("en"))));
+        ci.getMetadata().add(new TripleImpl(ci.getUri(), new IRI("urn:test:label"), 
+            new PlainLiteralImpl("Eine Beschreibung", new Language("de"))));
+        ci.getMetadata().add(new TripleImpl(ci.getUri(), new IRI("urn:test:related"), bNode));
+        ci.getMetadata().add(new TripleImpl(bNode, new IRI("urn:test:count"), 
+            LiteralFactory.getInstance().createTypedLiteral(42)));
+        initRequestPropertiesContentPart(ci).put(STREAMING, Boolean.TRUE);
+        Graph expected = new SimpleGraph();
+        expected.addAll(ci.getMetadata());
+        for(String format : new String[]{SupportedFormat.N_TRIPLE, SupportedFormat.TURTLE}){
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            MultivaluedMap<String,Object> headers = new MultivaluedHashMap<String, Object>();
+            ciWriter.writeTo(ci, ContentItem.class, null, null, MediaType.valueOf(format), 
+                headers , out);
+            log.info("Streamed {}:\n{}\n", format, new String(out.toByteArray(), "UTF-8"));
+            Graph parsed = new SimpleGraph();
+            Parser.getInstance().parse(parsed, new ByteArrayInputStream(out.toByteArray()), format);
+            assertEquals(expected.getImmutableGraph(), parsed.getImmutableGraph());
+        }
+        //JSON-LD is written in the flattened form
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        MultivaluedMap<String,Object> headers = new MultivaluedHashMap<String, Object>();
+        ciWriter.writeTo(ci, ContentItem.class, null, null, MediaType.valueOf("application/ld+json"), 
+            headers , out);
+        String jsonLd = new String(out.toByteArray(), "UTF-8");
+        log.info("Streamed JSON-LD:\n{}\n", jsonLd);
+        JSONArray nodes = new JSONArray(jsonLd);
+        int values = 0;
+        for(int i = 0; i < nodes.length(); i++){
+            JSONObject node = nodes.getJSONObject(i);
+            assertNotNull(node.getString("@id"));
+            Iterator<?> keys = node.keys();
+            while(keys.hasNext()){
+                String key = (String)keys.next();
+                if(!"@id".equals(key)){
+                    values += node.getJSONArray(key).length();
+                }
+            }
+        }
+        assertEquals(expected.size(), values);
+    }
+
 }
@@ -0,0 +1,330 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.stanbol.enhancer.jersey.resource;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.ws.rs.core.Cookie;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import javax.ws.rs.ext.RuntimeDelegate;
+
+import org.apache.clerezza.commons.rdf.ImmutableGraph;
+import org.apache.clerezza.commons.rdf.IRI;
+import org.apache.clerezza.commons.rdf.impl.utils.PlainLiteralImpl;
+import org.apache.clerezza.commons.rdf.impl.utils.TripleImpl;
+import org.apache.clerezza.rdf.core.serializedform.Serializer;
+import org.apache.clerezza.rdf.core.serializedform.SupportedFormat;
+import org.apache.stanbol.enhancer.contentitem.inmemory.InMemoryContentItemFactory;
+import org.apache.stanbol.enhancer.servicesapi.Chain;
+import org.apache.stanbol.enhancer.servicesapi.ChainException;
+import org.apache.stanbol.enhancer.servicesapi.ChainManager;
+import org.apache.stanbol.enhancer.servicesapi.ContentItem;
+import org.apache.stanbol.enhancer.servicesapi.EngineException;
+import org.apache.stanbol.enhancer.servicesapi.EnhancementEngine;
+import org.apache.stanbol.enhancer.servicesapi.EnhancementException;
+import org.apache.stanbol.enhancer.servicesapi.EnhancementJobManager;
+import org.apache.stanbol.enhancer.servicesapi.helper.ContentItemHelper;
+import org.codehaus.jettison.json.JSONObject;
+import org.glassfish.jersey.internal.RuntimeDelegateImpl;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.osgi.framework.ServiceReference;
+
+/**
+ * Tests the batch enhancement endpoint of the {@link GenericEnhancerUiResource}
+ */
+public class GenericEnhancerUiResourceTest {
+
+    private static final IRI LABEL = new IRI("http://www.w3.org/2000/01/rdf-schema#label");
+
+    @BeforeClass
+    public static void init(){
+        RuntimeDelegate.setInstance(new RuntimeDelegateImpl());
+    }
+
+    private static List<JSONObject> enhanceBatch(GenericEnhancerUiResource resource,
+            String request, MediaType type) throws Exception {
+        Response response = resource.enhanceBatch(
+            new ByteArrayInputStream(request.getBytes("UTF-8")), false,
+            SupportedFormat.N_TRIPLE, new TestHeaders(type));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ((StreamingOutput)response.getEntity()).write(out);
+        List<JSONObject> results = new ArrayList<JSONObject>();
+        for(String line : out.toString("UTF-8").split("\n")){
+            if(!line.isEmpty()){
+                results.add(new JSONObject(line));
+            }
+        }
+        return results;
+    }
+
+    private static GenericEnhancerUiResource createResource(TestJobManager jobManager,
+            BatchEnhancementExecutor batchExecutor){
+        return new GenericEnhancerUiResource(null, jobManager, null, new TestChainManager(),
+            InMemoryContentItemFactory.getInstance(), Serializer.getInstance(),
+            batchExecutor, null, null);
+    }
+
+    @Test
+    public void testMixedBatch() throws Exception {
+        TestJobManager jobManager = new TestJobManager();
+        BatchEnhancementExecutor batchExecutor = new BatchEnhancementExecutor(
+            BatchEnhancementExecutor.DEFAULT_BATCH_THREADS);
+        GenericEnhancerUiResource resource = createResource(jobManager, batchExecutor);
+        StringBuilder request = new StringBuilder();
+        int num = 20;
+        for(int i = 0; i < num; i++){
+            switch (i % 4) {
+                case 0: //enhancement fails
+                    request.append("{\"content\":\"fail ").append(i).append("\"}");
+                    break;
+                case 1: //invalid JSON
+                    request.append("{\"content\":");
+                    break;
+                case 2: //missing content
+                    request.append("{\"uri\":\"urn:test:").append(i).append("\"}");
+                    break;
+                default:
+                    request.append("{\"content\":\"document ").append(i)
+                        .append("\",\"uri\":\"urn:test:").append(i).append("\"}");
+            }
+            request.append("\n\n"); //empty lines are ignored
+        }
+        List<JSONObject> results;
+        try {
+            results = enhanceBatch(resource, request.toString(),
+                MediaType.valueOf(GenericEnhancerUiResource.NDJSON));
+        } finally {
+            batchExecutor.close();
+        }
+        assertEquals(num, results.size());
+        for(int i = 0; i < num; i++){
+            JSONObject result = results.get(i);
+            //results are written in the order of the request
+            assertEquals(i, result.getInt("index"));
+            if(i % 4 == 3){
+                assertFalse(result.has("error"));
+                assertEquals("urn:test:"+i, result.getString("uri"));
+                assertTrue(result.getString("metadata").contains("document "+i));
+            } else {
+                assertTrue(result.has("error"));
+                assertFalse(result.has("metadata"));
+            }
+        }
+        assertTrue(jobManager.maxConcurrent.get() <= BatchEnhancementExecutor.DEFAULT_BATCH_THREADS);
+    }
+
+    @Test
+    public void testPlainTextBatch() throws Exception {
+        TestJobManager jobManager = new TestJobManager();
+        BatchEnhancementExecutor batchExecutor = new BatchEnhancementExecutor(1);
+        GenericEnhancerUiResource resource = createResource(jobManager, batchExecutor);
+        List<JSONObject> results;
+        try {
+            results = enhanceBatch(resource, "first document\nfail\n\nlast document",
+                MediaType.TEXT_PLAIN_TYPE);
+        } finally {
+            batchExecutor.close();
+        }
+        assertEquals(3, results.size());
+        assertTrue(results.get(0).getString("metadata").contains("first document"));
+        assertTrue(results.get(1).has("error"));
+        assertTrue(results.get(2).getString("metadata").contains("last document"));
+        assertEquals(1, jobManager.maxConcurrent.get());
+    }
+
+    /**
+     * Adds the content as label to the metadata or fails if the content
+     * starts with "fail". Records the maximum number of concurrent requests
+     */
+    private static class TestJobManager implements EnhancementJobManager {
+
+        final AtomicInteger active = new AtomicInteger();
+        final AtomicInteger maxConcurrent = new AtomicInteger();
+
+        @Override
+        public void enhanceContent(ContentItem ci) throws EnhancementException {
+            enhanceContent(ci, null);
+        }
+
+        @Override
+        public void enhanceContent(ContentItem ci, Chain chain) throws EnhancementException {
+            int current = active.incrementAndGet();
+            try {
+                int max = maxConcurrent.get();
+                while(current > max && !maxConcurrent.compareAndSet(max, current)){
+                    max = maxConcurrent.get();
+                }
+                String content = ContentItemHelper.getText(ci.getBlob());
+                Thread.sleep(10);
+                if(content.startsWith("fail")){
+                    throw new EngineException("Unable to enhance '"+content+"'");
+                }
+                ci.getMetadata().add(new TripleImpl(ci.getUri(), LABEL,
+                    new PlainLiteralImpl(content)));
+            } catch (IOException e) {
+                throw new EngineException("Unable to read content", e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new EngineException("Interrupted", e);
+            } finally {
+                active.decrementAndGet();
+            }
+        }
+
+        @Override
+        public List<EnhancementEngine> getActiveEngines() {
+            return Collections.emptyList();
+        }
+    }
+
+    private static class TestChain implements Chain {
+
+        @Override
+        public ImmutableGraph getExecutionPlan() throws ChainException {
+            return null;
+        }
+
+        @Override
+        public Set<String> getEngines() throws ChainException {
+            return Collections.emptySet();
+        }
+
+        @Override
+        public String getName() {
+            return "test";
+        }
+    }
+
+    private static class TestChainManager implements ChainManager {
+
+        private final Chain chain = new TestChain();
+
+        @Override
+        public Set<String> getActiveChainNames() {
+            return Collections.singleton(chain.getName());
+        }
+
+        @Override
+        public ServiceReference getReference(String name) {
+            return null;
+        }
+
+        @Override
+        public List<ServiceReference> getReferences(String name) throws IllegalArgumentException {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public Chain getChain(String name) {
+            return chain.getName().equals(name) ? chain : null;
+        }
+
+        @Override
+        public Chain getChain(ServiceReference chainReference) {
+            return null;
+        }
+
+        @Override
+        public boolean isChain(String name) {
+            return chain.getName().equals(name);
+        }
+
+        @Override
+        public Chain getDefault() {
+            return chain;
+        }
+    }
+
+    private static class TestHeaders implements HttpHeaders {
+
+        private final MediaType mediaType;
+
+        TestHeaders(MediaType mediaType){
+            this.mediaType = mediaType;
+        }
+
+        @Override
+        public List<String> getRequestHeader(String name) {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public String getHeaderString(String name) {
+            return null;
+        }
+
+        @Override
+        public MultivaluedMap<String,String> getRequestHeaders() {
+            return new MultivaluedHashMap<String,String>();
+        }
+
+        @Override
+        public List<MediaType> getAcceptableMediaTypes() {
+            return Collections.singletonList(MediaType.valueOf(GenericEnhancerUiResource.NDJSON));
+        }
+
+        @Override
+        public List<Locale> getAcceptableLanguages() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public MediaType getMediaType() {
+            return mediaType;
+        }
+
+        @Override
+        public Locale getLanguage() {
+            return null;
+        }
+
+        @Override
+        public Map<String,Cookie> getCookies() {
+            return Collections.emptyMap();
+        }
+
+        @Override
+        public Date getDate() {
+            return null;
+        }
+
+        @Override
+        public int getLength() {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,736 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.jobmanager.executor.impl;
+
+import static org.apache.stanbol.enhancer.servicesapi.helper.ExecutionMetadataHelper.getChainExecution;
+import static org.apache.stanbol.enhancer.servicesapi.helper.ExecutionMetadataHelper.initExecutionMetadata;
+import static org.apache.stanbol.enhancer.servicesapi.helper.ExecutionMetadataHelper.initExecutionMetadataContentPart;
+import static org.apache.stanbol.enhancer.servicesapi.helper.ExecutionMetadataHelper.setExecutionCompleted;
+import static org.apache.stanbol.enhancer.servicesapi.helper.ExecutionMetadataHelper.setExecutionFaild;
+import static org.apache.stanbol.enhancer.servicesapi.helper.ExecutionMetadataHelper.setExecutionInProgress;
+import static org.apache.stanbol.enhancer.servicesapi.helper.ExecutionPlanHelper.getDependend;
+import static org.apache.stanbol.enhancer.servicesapi.helper.ExecutionPlanHelper.getEngine;
+import static org.apache.stanbol.enhancer.servicesapi.helper.ExecutionPlanHelper.getExecutionNodes;
+import static org.apache.stanbol.enhancer.servicesapi.helper.ExecutionPlanHelper.getExecutionPlan;
+import static org.apache.stanbol.enhancer.servicesapi.helper.ExecutionPlanHelper.isOptional;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.Lock;
+
+import org.apache.clerezza.commons.rdf.BlankNodeOrIRI;
+import org.apache.clerezza.commons.rdf.Graph;
+import org.apache.clerezza.commons.rdf.IRI;
+import org.apache.clerezza.commons.rdf.ImmutableGraph;
+import org.apache.stanbol.enhancer.servicesapi.Chain;
+import org.apache.stanbol.enhancer.servicesapi.ContentItem;
+import org.apache.stanbol.enhancer.servicesapi.EnhancementEngine;
+import org.apache.stanbol.enhancer.servicesapi.EnhancementJobManager;
+import org.apache.stanbol.enhancer.servicesapi.rdf.ExecutionMetadata;
+
+/**
+ * Represents the enhancement of a {@link ContentItem} by following the
+ * execution plan provided by a {@link Chain} as used by the
+ * {@link ExecutorJobManagerImpl}.<p>
+ * In contrast to the EnhancementJob of the EventJobManager this implementation
+ * does not use the {@link ContentItem#getLock() ContentItem lock} to
+ * synchronise state transitions. Instead the ep:ExecutionNodes of the
+ * execution plan are mapped to <code>int</code> indexes and the state of
+ * the job is kept in atomic arrays:<ul>
+ * <li> {@link #pending}: the number of not yet finished dependencies of an
+ * execution node. A node becomes executable as soon as this counter reaches
+ * <code>0</code>. As only a single thread can decrement the counter to
+ * <code>0</code> every node is scheduled exactly once.
+ * <li> {@link #state}: the {@link #STATE_SCHEDULED scheduled},
+ * {@link #STATE_RUNNING running}, {@link #STATE_COMPLETED completed} or
+ * {@link #STATE_FAILED failed} state of an execution node.
+ * <li> {@link #active}: the number of scheduled but not yet finished
+ * executions. The job is finished as soon as this counter reaches
+ * <code>0</code>.
+ * </ul>
+ * The {@link ContentItem#getLock() ContentItem write lock} is only acquired
+ * to write the changes to the execution metadata (as the {@link Graph} used to
+ * store them is not thread safe).<p>
+ * In the {@link #isLightweight() lightweight} mode no execution metadata are
+ * written while the job is processed. Start and completion times as well as
+ * status messages are recorded in additional arrays and only written to the
+ * execution metadata if {@link #materializeExecutionMetadata()} is called.
+ */
+public class ExecutorEnhancementJob {
+
+    public static final int STATE_SCHEDULED = 0;
+    public static final int STATE_RUNNING = 1;
+    public static final int STATE_COMPLETED = 2;
+    public static final int STATE_FAILED = 3;
+
+    private final ContentItem contentItem;
+    private final String chain;
+    private final ImmutableGraph executionPlan;
+    /**
+     * The read/write able execution metadata. Also accessible via
+     * {@link ContentItem#getPart(org.apache.clerezza.commons.rdf.IRI, Class)}
+     * with the URI {@link ExecutionMetadata#CHAIN_EXECUTION}
+     */
+    private final Graph executionMetadata;
+    /**
+     * The em:ChainExecution for this {@link ContentItem}. In the
+     * {@link #lightweight} mode <code>null</code> until the execution metadata
+     * are {@link #materializeExecutionMetadata() materialized}.
+     */
+    private BlankNodeOrIRI chainExecutionNode;
+    private final boolean isDefaultChain;
+    /**
+     * If execution metadata are only written by
+     * {@link #materializeExecutionMetadata()}
+     */
+    private final boolean lightweight;
+    /**
+     * Set as soon as the execution metadata are materialized. Guarded by the
+     * {@link ContentItem#getLock() ContentItem write lock}
+     */
+    private boolean materialized;
+    /**
+     * The ep:ExecutionNodes of the execution plan
+     */
+    private final BlankNodeOrIRI[] nodes;
+    /**
+     * The em:Executions for the {@link #nodes} (same index). In the
+     * {@link #lightweight} mode only initialised on
+     * {@link #materializeExecutionMetadata()}.
+     */
+    private final BlankNodeOrIRI[] executions;
+    /**
+     * The index of the {@link #nodes}. Only used in the {@link #lightweight}
+     * mode to map em:Executions created on materialization.
+     */
+    private final Map<BlankNodeOrIRI,Integer> nodeIndex;
+    /**
+     * The names of the engines for the {@link #nodes} (same index)
+     */
+    private final String[] engines;
+    /**
+     * The optional state of the {@link #nodes} (same index)
+     */
+    private final boolean[] optional;
+    /**
+     * The indexes of the nodes that depend on the node with the index
+     */
+    private final int[][] dependents;
+    /**
+     * The number of not yet finished dependencies per node
+     */
+    private final AtomicIntegerArray pending;
+    /**
+     * The state of the nodes
+     */
+    private final AtomicIntegerArray state;
+    /**
+     * The number of scheduled but not yet finished executions
+     */
+    private final AtomicInteger active = new AtomicInteger();
+    /**
+     * Set if a required execution failed. Holds the exception (if any)
+     * causing the failure.
+     */
+    private final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+    private volatile boolean failed = false;
+    private volatile String errorMessage;
+    /**
+     * Set if the {@link EnhancementJobManager} is no longer interested in
+     * the results (e.g. because of a timeout or deactivation)
+     */
+    private volatile boolean cancelled = false;
+    private final CountDownLatch finished = new CountDownLatch(1);
+    /*
+     * The execution state recorded in the lightweight mode (times in
+     * milliseconds, 0 if not yet set)
+     */
+    private final AtomicLongArray started;
+    private final AtomicLongArray completed;
+    private final AtomicReferenceArray<String> messages;
+    private volatile long chainStarted;
+    private volatile long chainCompleted;
+
+    /**
+     * Creates and initialises a new enhancement job. This will create the
+     * initial set of ExecutionMetadata and add them as ContentPart with the URI
+     * {@link ExecutionMetadata#CHAIN_EXECUTION} to the ContentItem.
+     * @param contentItem the content item
+     * @param chainName the name of the chain
+     * @param executionPlan the execution plan of the chain
+     * @param isDefaultChain if the chain is the default chain
+     */
+    public ExecutorEnhancementJob(ContentItem contentItem, String chainName,
+            ImmutableGraph executionPlan, boolean isDefaultChain) {
+        this(contentItem, chainName, executionPlan, isDefaultChain, false);
+    }
+    /**
+     * Creates and initialises a new enhancement job.
+     * @param contentItem the content item
+     * @param chainName the name of the chain
+     * @param executionPlan the execution plan of the chain
+     * @param isDefaultChain if the chain is the default chain
+     * @param lightweight if <code>true</code> the execution metadata are not
+     * written while processing the job but only on a call to
+     * {@link #materializeExecutionMetadata()}. If <code>false</code> the
+     * execution metadata are initialised by the constructor and updated with
+     * every state transition.
+     */
+    public ExecutorEnhancementJob(ContentItem contentItem, String chainName,
+            ImmutableGraph executionPlan, boolean isDefaultChain, boolean lightweight) {
+        if (contentItem == null || chainName == null || executionPlan == null) {
+            throw new IllegalArgumentException("The parsed contentItem and executionPlan MUST NOT be NULL");
+        }
+        this.contentItem = contentItem;
+        this.chain = chainName;
+        this.executionPlan = executionPlan;
+        this.isDefaultChain = isDefaultChain;
+        this.lightweight = lightweight;
+        executionMetadata = initExecutionMetadataContentPart(contentItem);
+        Map<BlankNodeOrIRI,BlankNodeOrIRI> executionsMap = null;
+        Lock writeLock = contentItem.getLock().writeLock();
+        writeLock.lock();
+        try {
+            if(!executionMetadata.isEmpty()){
+                throw new IllegalArgumentException("Unable to create EnhancementJob for "
+                        + "a parsed execution plan if the ContentItem already contains "
+                        + "some Execution Metadata!");
+            }
+            if(!lightweight){
+                executionsMap = initExecutionMetadata(executionMetadata, executionPlan,
+                    contentItem.getUri(), chainName, isDefaultChain);
+                chainExecutionNode = getChainExecution(executionMetadata, contentItem.getUri());
+                executionMetadata.addAll(executionPlan);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+        Set<BlankNodeOrIRI> executionNodes;
+        if(lightweight){ //read the execution nodes directly from the plan
+            BlankNodeOrIRI executionPlanNode = getExecutionPlan(executionPlan, chainName);
+            if(executionPlanNode == null){
+                throw new IllegalArgumentException("The parsed ExectuonPlan graph does not contain an" +
+                        "ExecutionPlan for a Chain with the name '"+chainName+"'!");
+            }
+            executionNodes = getExecutionNodes(executionPlan, executionPlanNode);
+        } else {
+            executionNodes = null;
+        }
+        //map the execution nodes to int indexes
+        int size = lightweight ? executionNodes.size() : executionsMap.size();
+        nodes = new BlankNodeOrIRI[size];
+        executions = new BlankNodeOrIRI[size];
+        engines = new String[size];
+        optional = new boolean[size];
+        Map<BlankNodeOrIRI,Integer> index = new HashMap<BlankNodeOrIRI,Integer>(size);
+        int i = 0;
+        if(lightweight){
+            for(BlankNodeOrIRI node : executionNodes){
+                nodes[i] = node;
+                i++;
+            }
+        } else {
+            for(Entry<BlankNodeOrIRI,BlankNodeOrIRI> entry : executionsMap.entrySet()){
+                executions[i] = entry.getKey();
+                nodes[i] = entry.getValue();
+                i++;
+            }
+        }
+        for(i = 0; i < size; i++){
+            engines[i] = getEngine(executionPlan, nodes[i]);
+            optional[i] = isOptional(executionPlan, nodes[i]);
+            index.put(nodes[i], i);
+        }
+        nodeIndex = lightweight ? index : null;
+        if(lightweight){
+            started = new AtomicLongArray(size);
+            completed = new AtomicLongArray(size);
+            messages = new AtomicReferenceArray<String>(size);
+        } else {
+            started = null;
+            completed = null;
+            messages = null;
+        }
+        //calculate the dependency counts and the inverse dependencies
+        pending = new AtomicIntegerArray(size);
+        state = new AtomicIntegerArray(size);
+        List<List<Integer>> dependentList = new ArrayList<List<Integer>>(size);
+        for(i = 0; i < size; i++){
+            dependentList.add(new ArrayList<Integer>(4));
+        }
+        for(i = 0; i < size; i++){
+            int count = 0;
+            for(BlankNodeOrIRI dependsOn : getDependend(executionPlan, nodes[i])){
+                Integer dependsOnIndex = index.get(dependsOn);
+                if(dependsOnIndex == null){
+                    throw new IllegalArgumentException("ExecutionNode '" + nodes[i]
+                        + "' (engine: " + engines[i] + ") depends on ExecutionNode '"
+                        + dependsOn + "' that is not part of the ExecutionPlan of Chain '"
+                        + chainName + "'!");
+                }
+                dependentList.get(dependsOnIndex).add(i);
+                count++;
+            }
+            pending.set(i, count);
+        }
+        dependents = new int[size][];
+        for(i = 0; i < size; i++){
+            List<Integer> dependent = dependentList.get(i);
+            dependents[i] = new int[dependent.size()];
+            for(int j = 0; j < dependents[i].length; j++){
+                dependents[i][j] = dependent.get(j);
+            }
+        }
+    }
+
+    /**
+     * Marks the execution of the enhancement process as started and returns
+     * the indexes of the executions that can be started. The returned
+     * executions are already marked as {@link #STATE_RUNNING running}
+     * @return the indexes of the executions to start. An empty array if the
+     * execution plan does not contain any node without dependencies.
+     */
+    public int[] start(){
+        if(lightweight){
+            chainStarted = System.currentTimeMillis();
+        } else {
+            Lock writeLock = contentItem.getLock().writeLock();
+            writeLock.lock();
+            try {
+                setExecutionInProgress(executionMetadata, chainExecutionNode);
+            } finally {
+                writeLock.unlock();
+            }
+        }
+        int[] start = new int[nodes.length];
+        int count = 0;
+        for(int i = 0; i < nodes.length; i++){
+            if(pending.get(i) == 0 && markRunning(i)){
+                start[count] = i;
+                count++;
+            }
+        }
+        int[] executable = new int[count];
+        System.arraycopy(start, 0, executable, 0, count);
+        return executable;
+    }
+    /**
+     * Atomically changes the state of the parsed execution from
+     * {@link #STATE_SCHEDULED scheduled} to {@link #STATE_RUNNING running}. If
+     * successful this also increments the number of {@link #active} executions.
+     * @param execution the index of the execution
+     * @return <code>true</code> if the execution was marked as running.
+     * <code>false</code> if the state of the execution was not
+     * {@link #STATE_SCHEDULED scheduled}.
+     */
+    private boolean markRunning(int execution){
+        if(state.compareAndSet(execution, STATE_SCHEDULED, STATE_RUNNING)){
+            active.incrementAndGet();
+            return true;
+        } else {
+            return false;
+        }
+    }
+    /**
+     * Called by the thread executing the engine just before the
+     * {@link EnhancementEngine} is called
+     * @param execution the index of the execution
+     */
+    public void setInProgress(int execution){
+        if(lightweight){
+            started.set(execution, System.currentTimeMillis());
+            return;
+        }
+        Lock writeLock = contentItem.getLock().writeLock();
+        writeLock.lock();
+        try {
+            setExecutionInProgress(executionMetadata, executions[execution]);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+    /**
+     * Sets the parsed execution to completed and returns the executions that
+     * can be started as a result of this.
+     * @param execution the index of the execution
+     * @return the indexes of the executions that are now executable. The
+     * returned executions are already marked as {@link #STATE_RUNNING running}
+     */
+    public int[] setCompleted(int execution){
+        if(lightweight){ //set before the state so that it is visible with the state
+            completed.set(execution, System.currentTimeMillis());
+        }
+        if(!state.compareAndSet(execution, STATE_RUNNING, STATE_COMPLETED)){
+            throw new IllegalStateException("Unable to set state of Execution of Engine '"
+                + engines[execution] + "' (chain '"+ chain + "' | contentItem '"
+                + contentItem.getUri() + "') to completed, because it is not running "
+                + "(state: " + state.get(execution) + ")! This indicates an Bug in the "
+                + "implementation of the JobManager used to execute the ExecutionPlan.");
+        }
+        if(!lightweight){
+            Lock writeLock = contentItem.getLock().writeLock();
+            writeLock.lock();
+            try {
+                setExecutionCompleted(executionMetadata, executions[execution], null);
+            } catch (RuntimeException e) {
+                metadataFailed(e); //finish MUST BE called after the state change
+            } finally {
+                writeLock.unlock();
+            }
+        }
+        return finish(execution);
+    }
+    /**
+     * Sets the parsed execution to failed and returns the executions that
+     * can be started as a result of this (in case the execution is optional).
+     * @param execution the index of the execution
+     * @param engine the engine or <code>null</code> if the engine is not active
+     * @param exception the exception or <code>null</code> if none
+     * @return the indexes of the executions that are now executable. The
+     * returned executions are already marked as {@link #STATE_RUNNING running}
+     */
+    public int[] setFailed(int execution, EnhancementEngine engine, Throwable exception){
+        StringBuilder message = new StringBuilder();
+        message.append(String.format("Unable to process ContentItem '%s' with " +
+                "Enhancement Engine '%s' because the engine ",
+                contentItem.getUri(), engines[execution]));
+        if(engine == null){
+            message.append("is currently not active");
+        } else {
+            message.append(String.format("was unable to process the content " +
+                    "(Engine class: %s)",engine.getClass().getName()));
+        }
+        if(exception != null){
+            message.append("(Reason: ").append(exception.getMessage()).append(')');
+        }
+        message.append('!');
+        if(lightweight){ //set before the state so that it is visible with the state
+            messages.set(execution, message.toString());
+            completed.set(execution, System.currentTimeMillis());
+        }
+        if(!state.compareAndSet(execution, STATE_RUNNING, STATE_FAILED)){
+            throw new IllegalStateException("Unable to set state of Execution of Engine '"
+                + engines[execution] + "' (chain '"+ chain + "' | contentItem '"
+                + contentItem.getUri() + "') to failed, because it is not running "
+                + "(state: " + state.get(execution) + ")! This indicates an Bug in the "
+                + "implementation of the JobManager used to execute the ExecutionPlan.");
+        }
+        boolean failChain = !optional[execution] &&
+                failure.compareAndSet(null, exception == null ?
+                        new IllegalStateException(message.toString()) : exception);
+        if(failChain){
+            errorMessage = String.format("Enhancement Chain failed because of "
+                    + "required Engine '%s' failed with Message: %s",
+                    engines[execution], message);
+        }
+        if(lightweight){
+            if(failChain){
+                chainCompleted = System.currentTimeMillis();
+            }
+        } else {
+            Lock writeLock = contentItem.getLock().writeLock();
+            writeLock.lock();
+            try {
+                setExecutionFaild(executionMetadata, executions[execution], message.toString());
+                if(failChain){
+                    setExecutionFaild(executionMetadata, chainExecutionNode, errorMessage);
+                }
+            } catch (RuntimeException e) {
+                metadataFailed(e); //finish MUST BE called after the state change
+            } finally {
+                writeLock.unlock();
+            }
+        }
+        if(failChain){
+            failed = true;
+        }
+        return finish(execution);
+    }
+    /**
+     * Updates the dependency counts of all dependents of the finished
+     * execution and checks if the job has finished.
+     * @param execution the finished execution
+     * @return the executions that can be started next
+     */
+    private int[] finish(int execution){
+        int[] executable;
+        if(failed || cancelled){
+            executable = new int[0];
+        } else {
+            int[] candidates = dependents[execution];
+            int[] next = new int[candidates.length];
+            int count = 0;
+            for(int i = 0; i < candidates.length; i++){
+                int candidate = candidates[i];
+                if(pending.decrementAndGet(candidate) == 0 && markRunning(candidate)){
+                    next[count] = candidate;
+                    count++;
+                }
+            }
+            if(count == next.length){
+                executable = next;
+            } else {
+                executable = new int[count];
+                System.arraycopy(next, 0, executable, 0, count);
+            }
+        }
+        //NOTE: executable executions are already counted as active
+        if(active.decrementAndGet() == 0){
+            try {
+                if(!failed && !cancelled){
+                    setChainCompleted();
+                }
+            } catch (RuntimeException e) {
+                metadataFailed(e);
+            } finally {
+                finished.countDown();
+            }
+        }
+        return executable;
+    }
+    /**
+     * Fails the job if the execution metadata could not be written. Used
+     * to ensure that {@link #finish(int)} is called for every execution
+     * marked as {@link #STATE_RUNNING running} as otherwise threads waiting
+     * for the job would never be notified.
+     * @param e the exception thrown while writing the execution metadata
+     */
+    private void metadataFailed(RuntimeException e){
+        if(failure.compareAndSet(null, e)){
+            errorMessage = String.format("Unable to write Execution Metadata for "
+                    + "ContentItem '%s' (chain '%s'): %s", contentItem.getUri(),
+                    chain, e.getMessage());
+        }
+        failed = true;
+    }
+    /**
+     * Notifies threads waiting for the completion of this job without
+     * completing it. Running executions are not interrupted but no further
+     * executions will be started.
+     */
+    public void cancel(){
+        cancelled = true;
+        finished.countDown();
+    }
+    /**
+     * Marks the job as finished if no execution was started by {@link #start()}
+     */
+    void finishEmpty(){
+        if(active.get() == 0){
+            setChainCompleted();
+            finished.countDown();
+        }
+    }
+
+    private void setChainCompleted(){
+        if(lightweight){
+            chainCompleted = System.currentTimeMillis();
+        } else {
+            Lock writeLock = contentItem.getLock().writeLock();
+            writeLock.lock();
+            try {
+                setExecutionCompleted(executionMetadata, chainExecutionNode, null);
+            } finally {
+                writeLock.unlock();
+            }
+        }
+    }
+    /**
+     * Writes the execution metadata recorded in the {@link #isLightweight()
+     * lightweight} mode to the {@link #getExecutionMetadata() execution
+     * metadata} content part. All triples are written while holding the
+     * {@link ContentItem#getLock() ContentItem write lock} once. Calls for
+     * jobs that are not lightweight and subsequent calls have no effect.<p>
+     * NOTE: State transitions after this call are not reflected by the
+     * execution metadata. So this should only be called after the job has
+     * finished.
+     */
+    public void materializeExecutionMetadata(){
+        if(!lightweight){
+            return;
+        }
+        Lock writeLock = contentItem.getLock().writeLock();
+        writeLock.lock();
+        try {
+            if(materialized){
+                return;
+            }
+            Map<BlankNodeOrIRI,BlankNodeOrIRI> executionsMap = initExecutionMetadata(
+                executionMetadata, executionPlan, contentItem.getUri(), chain, isDefaultChain);
+            chainExecutionNode = getChainExecution(executionMetadata, contentItem.getUri());
+            executionMetadata.addAll(executionPlan);
+            for(Entry<BlankNodeOrIRI,BlankNodeOrIRI> entry : executionsMap.entrySet()){
+                int i = nodeIndex.get(entry.getValue());
+                executions[i] = entry.getKey();
+                long startTime = started.get(i);
+                if(startTime > 0){
+                    setExecutionInProgress(executionMetadata, executions[i], new Date(startTime));
+                }
+                switch (state.get(i)) {
+                    case STATE_COMPLETED:
+                        setExecutionCompleted(executionMetadata, executions[i],
+                            new Date(completed.get(i)), null);
+                        break;
+                    case STATE_FAILED:
+                        setExecutionFaild(executionMetadata, executions[i],
+                            new Date(completed.get(i)), messages.get(i));
+                        break;
+                    default: //scheduled or running
+                        break;
+                }
+            }
+            long chainStartTime = chainStarted;
+            if(chainStartTime > 0){
+                setExecutionInProgress(executionMetadata, chainExecutionNode, new Date(chainStartTime));
+            }
+            if(failed){ //errorMessage and chainCompleted are set before failed
+                setExecutionFaild(executionMetadata, chainExecutionNode,
+                    new Date(chainCompleted), errorMessage);
+            } else if(chainCompleted > 0){
+                setExecutionCompleted(executionMetadata, chainExecutionNode,
+                    new Date(chainCompleted), null);
+            }
+            materialized = true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+    /**
+     * Waits for the completion of this job
+     * @param timeout the maximum time to wait in milliseconds
+     * @return <code>true</code> if the job has finished. <code>false</code>
+     * if the timeout was reached or the waiting thread was interrupted
+     */
+    public boolean waitForCompletion(long timeout){
+        try {
+            return finished.await(timeout, TimeUnit.MILLISECONDS) && !cancelled;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+    /**
+     * If all executions have finished (completed or failed) or the job has
+     * failed and no execution is running.
+     */
+    public boolean isFinished(){
+        return finished.getCount() == 0 && !cancelled;
+    }
+    /**
+     * If a required execution has failed
+     */
+    public boolean isFailed(){
+        return failed;
+    }
+    /**
+     * The exception that caused this job to fail
+     * @return the exception or <code>null</code> if not {@link #isFailed()}
+     */
+    public Throwable getError(){
+        return failure.get();
+    }
+    /**
+     * The message of the em:ChainExecution in case the job has failed
+     */
+    public String getErrorMessage(){
+        return errorMessage;
+    }
+    /**
+     * The state of the parsed execution
+     * @param execution the index of the execution
+     * @return the state
+     */
+    public int getState(int execution){
+        return state.get(execution);
+    }
+    /**
+     * The number of execution nodes of the execution plan
+     */
+    public int size(){
+        return nodes.length;
+    }
+    /**
+     * The name of the engine for the parsed execution
+     * @param execution the index of the execution
+     * @return the engine name
+     */
+    public String getEngineName(int execution){
+        return engines[execution];
+    }
+    /**
+     * The status of the parsed execution as used by the execution metadata
+     * @param execution the index of the execution
+     * @return the {@link ExecutionMetadata#STATUS status}
+     */
+    public IRI getStatus(int execution){
+        switch (state.get(execution)) {
+            case STATE_RUNNING:
+                return ExecutionMetadata.STATUS_IN_PROGRESS;
+            case STATE_COMPLETED:
+                return ExecutionMetadata.STATUS_COMPLETED;
+            case STATE_FAILED:
+                return ExecutionMetadata.STATUS_FAILED;
+            default:
+                return ExecutionMetadata.STATUS_SCHEDULED;
+        }
+    }
+    /**
+     * If the execution metadata are only written on
+     * {@link #materializeExecutionMetadata()}
+     */
+    public boolean isLightweight(){
+        return lightweight;
+    }
+
+    public final ContentItem getContentItem() {
+        return contentItem;
+    }
+
+    public final String getChainName() {
+        return chain;
+    }
+
+    public final ImmutableGraph getExecutionPlan() {
+        return executionPlan;
+    }
+    /**
+     * Getter for the ExecutionMetadata. For {@link #isLightweight() lightweight}
+     * jobs the returned graph is empty until the execution metadata are
+     * {@link #materializeExecutionMetadata() materialized}.
+     * @return the execution metadata.
+     */
+    public Graph getExecutionMetadata() {
+        return executionMetadata;
+    }
+
+    @Override
+    public String toString() {
+        return "EnhancementJob for ContentItem "+contentItem.getUri();
+    }
+}
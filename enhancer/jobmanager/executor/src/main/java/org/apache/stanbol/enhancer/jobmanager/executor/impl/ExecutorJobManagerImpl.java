@@ -0,0 +1,632 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.jobmanager.executor.impl;
+
+import static org.apache.stanbol.enhancer.jersey.utils.RequestPropertiesHelper.INCLUDE_EXECUTION_METADATA;
+import static org.apache.stanbol.enhancer.jersey.utils.RequestPropertiesHelper.OUTPUT_CONTENT_PART;
+import static org.apache.stanbol.enhancer.servicesapi.rdf.ExecutionMetadata.CHAIN_EXECUTION;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+
+import org.apache.clerezza.commons.rdf.ImmutableGraph;
+import org.apache.felix.scr.annotations.Activate;
+import org.apache.felix.scr.annotations.Component;
+import org.apache.felix.scr.annotations.Deactivate;
+import org.apache.felix.scr.annotations.Properties;
+import org.apache.felix.scr.annotations.Property;
+import org.apache.felix.scr.annotations.Reference;
+import org.apache.felix.scr.annotations.Service;
+import org.apache.stanbol.enhancer.servicesapi.BatchEnhancementEngine;
+import org.apache.stanbol.enhancer.servicesapi.Chain;
+import org.apache.stanbol.enhancer.servicesapi.ChainException;
+import org.apache.stanbol.enhancer.servicesapi.ChainManager;
+import org.apache.stanbol.enhancer.servicesapi.ContentItem;
+import org.apache.stanbol.enhancer.servicesapi.EngineException;
+import org.apache.stanbol.enhancer.servicesapi.EnhancementEngine;
+import org.apache.stanbol.enhancer.servicesapi.EnhancementEngineManager;
+import org.apache.stanbol.enhancer.servicesapi.EnhancementException;
+import org.apache.stanbol.enhancer.servicesapi.EnhancementJobManager;
+import org.apache.stanbol.enhancer.servicesapi.helper.ContentItemHelper;
+import org.apache.stanbol.enhancer.servicesapi.helper.ExecutionPlanHelper;
+import org.osgi.framework.Constants;
+import org.osgi.service.component.ComponentContext;
+import org.osgi.service.component.ComponentException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link EnhancementJobManager} implementation that executes the
+ * {@link Chain#getExecutionPlan() execution plan} of {@link Chain}s by using
+ * a dedicated {@link ThreadPoolExecutor}.<p>
+ * Different to the EventJobManager this implementation does not use a
+ * global lock nor the OSGI EventAdmin to schedule executions. State
+ * transitions of {@link ExecutorEnhancementJob}s are lock-free. Executions
+ * that become executable after an engine has finished are directly submitted
+ * to the pool (or processed by the current thread) so that parallel
+ * branches of an execution plan are processed concurrently.<p>
+ * By default this implementation registers itself with a
+ * {@link Constants#SERVICE_RANKING} lower than the one of the EventJobManager.
+ * Increase the ranking to use it for enhancement requests.<p>
+ * Executions of {@link BatchEnhancementEngine}s are grouped over concurrently
+ * processed jobs. Pending executions of such engines are queued and processed
+ * in batches of up to {@link #MAX_BATCH_SIZE} {@link ContentItem}s.<p>
+ * If {@link #LIGHTWEIGHT_EXECUTION_METADATA} is enabled the state of
+ * executions is only kept in memory while processing a job. Execution metadata
+ * are written after the job has finished and only if requested by the
+ * request properties of the {@link ContentItem}.
+ */
+@Component(immediate=true,metatype=true)
+@Service
+@Properties(value={
+    @Property(name=Constants.SERVICE_RANKING,intValue=ExecutorJobManagerImpl.DEFAULT_SERVICE_RANKING),
+    @Property(name=ExecutorJobManagerImpl.MAX_ENHANCEMENT_JOB_WAIT_TIME,intValue=ExecutorJobManagerImpl.DEFAULT_MAX_ENHANCEMENT_JOB_WAIT_TIME),
+    @Property(name=ExecutorJobManagerImpl.POOL_SIZE,intValue=ExecutorJobManagerImpl.DEFAULT_POOL_SIZE),
+    @Property(name=ExecutorJobManagerImpl.MAX_BATCH_SIZE,intValue=ExecutorJobManagerImpl.DEFAULT_MAX_BATCH_SIZE),
+    @Property(name=ExecutorJobManagerImpl.LIGHTWEIGHT_EXECUTION_METADATA,boolValue=ExecutorJobManagerImpl.DEFAULT_LIGHTWEIGHT_EXECUTION_METADATA)
+})
+public class ExecutorJobManagerImpl implements EnhancementJobManager {
+
+    private final Logger log = LoggerFactory.getLogger(ExecutorJobManagerImpl.class);
+    /**
+     * Logger for the {@link EnhancementJobManager} interface. This is used
+     * to log statistics about execution times for enhancement jobs
+     */
+    private final Logger enhancementJobManagerLog = LoggerFactory.getLogger(EnhancementJobManager.class);
+
+    /**
+     * Lower as the ranking of the EventJobManager. Needs to be increased
+     * to use this implementation.
+     */
+    public static final int DEFAULT_SERVICE_RANKING = -100;
+
+    public static final String MAX_ENHANCEMENT_JOB_WAIT_TIME = "stanbol.maxEnhancementJobWaitTime";
+    /**
+     * default max wait time is 60sec (similar to the http timeout)
+     */
+    public static final int DEFAULT_MAX_ENHANCEMENT_JOB_WAIT_TIME = 60 * 1000;
+    /**
+     * The number of worker threads used to execute {@link EnhancementEngine}s.
+     * Values <code>&lt;= 0</code> will use four times the number of available
+     * processors (as engines might block while calling remote services).
+     */
+    public static final String POOL_SIZE = "stanbol.enhancer.jobmanager.executor.poolSize";
+    /**
+     * By default the pool size is calculated based on the available processors
+     */
+    public static final int DEFAULT_POOL_SIZE = 0;
+    /**
+     * The maximum number of {@link ContentItem}s parsed to a
+     * {@link BatchEnhancementEngine} at once. Values <code>&lt;= 1</code>
+     * deactivate batch processing.
+     */
+    public static final String MAX_BATCH_SIZE = "stanbol.enhancer.jobmanager.executor.maxBatchSize";
+    /**
+     * The default maximum batch size is <code>32</code>
+     */
+    public static final int DEFAULT_MAX_BATCH_SIZE = 32;
+    /**
+     * If enabled execution metadata are not written while processing
+     * enhancement jobs. They are only created after the job has finished and
+     * only if they are requested (see {@link #isExecutionMetadataRequested(ContentItem)}).
+     */
+    public static final String LIGHTWEIGHT_EXECUTION_METADATA = "stanbol.enhancer.jobmanager.executor.lightweightExecutionMetadata";
+    /**
+     * By default execution metadata are written with every state transition
+     */
+    public static final boolean DEFAULT_LIGHTWEIGHT_EXECUTION_METADATA = false;
+
+    @Reference
+    protected ChainManager chainManager;
+    @Reference
+    protected EnhancementEngineManager engineManager;
+
+    private int maxEnhancementJobWaitTime = DEFAULT_MAX_ENHANCEMENT_JOB_WAIT_TIME;
+
+    private int maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+
+    private boolean lightweightExecutionMetadata = DEFAULT_LIGHTWEIGHT_EXECUTION_METADATA;
+    /**
+     * Pending executions of {@link BatchEnhancementEngine}s by engine name
+     */
+    private final ConcurrentMap<String,BatchQueue> batchQueues = 
+            new ConcurrentHashMap<String,BatchQueue>();
+
+    private ThreadPoolExecutor executor;
+    /**
+     * Jobs currently processed. Only used to notify waiting threads on
+     * deactivation.
+     */
+    private final Set<ExecutorEnhancementJob> activeJobs = Collections.newSetFromMap(
+        new ConcurrentHashMap<ExecutorEnhancementJob,Boolean>());
+
+    @Activate
+    protected void activate(ComponentContext ctx){
+        log.info("activate {}",getClass().getName());
+        Object maxWaitTime = ctx.getProperties().get(MAX_ENHANCEMENT_JOB_WAIT_TIME);
+        if (maxWaitTime instanceof Number) {
+            this.maxEnhancementJobWaitTime = ((Number) maxWaitTime).intValue();
+        } else if(maxWaitTime != null){
+            try {
+                this.maxEnhancementJobWaitTime = Integer.parseInt(maxWaitTime.toString());
+            } catch (NumberFormatException e) {
+                throw new ComponentException("Unable to parse '" + MAX_ENHANCEMENT_JOB_WAIT_TIME
+                    + "' from value '" + maxWaitTime + "'!", e);
+            }
+        }
+        Object value = ctx.getProperties().get(POOL_SIZE);
+        int poolSize;
+        if(value instanceof Number){
+            poolSize = ((Number)value).intValue();
+        } else if(value != null){
+            try {
+                poolSize = Integer.parseInt(value.toString());
+            } catch (NumberFormatException e) {
+                throw new ComponentException("Unable to parse '" + POOL_SIZE
+                    + "' from value '" + value + "'!", e);
+            }
+        } else {
+            poolSize = DEFAULT_POOL_SIZE;
+        }
+        if(poolSize <= 0){
+            poolSize = Runtime.getRuntime().availableProcessors() * 4;
+        }
+        value = ctx.getProperties().get(MAX_BATCH_SIZE);
+        if(value instanceof Number){
+            maxBatchSize = ((Number)value).intValue();
+        } else if(value != null){
+            try {
+                maxBatchSize = Integer.parseInt(value.toString());
+            } catch (NumberFormatException e) {
+                throw new ComponentException("Unable to parse '" + MAX_BATCH_SIZE
+                    + "' from value '" + value + "'!", e);
+            }
+        } else {
+            maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+        }
+        value = ctx.getProperties().get(LIGHTWEIGHT_EXECUTION_METADATA);
+        if(value instanceof Boolean){
+            lightweightExecutionMetadata = ((Boolean)value).booleanValue();
+        } else if(value != null){
+            lightweightExecutionMetadata = Boolean.parseBoolean(value.toString());
+        } else {
+            lightweightExecutionMetadata = DEFAULT_LIGHTWEIGHT_EXECUTION_METADATA;
+        }
+        log.info(" - pool size: {}", poolSize);
+        log.info(" - max batch size: {}", maxBatchSize > 1 ? maxBatchSize : "deactivated");
+        log.info(" - lightweight execution metadata: {}", lightweightExecutionMetadata);
+        log.info(" - max wait time: {}ms", maxEnhancementJobWaitTime);
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<Runnable>(), new EngineWorkerThreadFactory());
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    @Deactivate
+    protected void deactivate(ComponentContext ctx){
+        log.info("deactivate {}",getClass().getName());
+        ThreadPoolExecutor executor = this.executor;
+        this.executor = null;
+        executor.shutdown();
+        //notify all waiting threads
+        for(ExecutorEnhancementJob job : activeJobs){
+            job.cancel();
+        }
+        try {
+            if(!executor.awaitTermination(10, TimeUnit.SECONDS)){
+                log.warn("Some Enhancement Engines are still running after 10sec");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        maxEnhancementJobWaitTime = DEFAULT_MAX_ENHANCEMENT_JOB_WAIT_TIME;
+        maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+        lightweightExecutionMetadata = DEFAULT_LIGHTWEIGHT_EXECUTION_METADATA;
+        batchQueues.clear();
+    }
+
+    @Override
+    public void enhanceContent(ContentItem ci) throws EnhancementException {
+        Chain defaultChain = chainManager.getDefault();
+        if(defaultChain == null){
+            throw new ChainException("Unable to enhance ContentItem '"+ci.getUri()+
+                "' because currently no enhancement chain is active. Please" +
+                "configure a Chain or enable the default chain");
+        }
+        enhanceContent(ci, defaultChain);
+    }
+
+    @Override
+    public void enhanceContent(ContentItem ci, Chain chain) throws EnhancementException {
+        if(ci == null) {
+            throw new IllegalArgumentException("The parsed contentItem MUST NOT be NULL!");
+        }
+        if(chain == null){
+            throw new IllegalArgumentException("Unable to enhance ContentItem '"+ci.getUri()+
+                "' because NULL was passed as enhancement chain");
+        }
+        ThreadPoolExecutor executor = this.executor;
+        if(executor == null){
+            throw new ChainException("Unable to enhance ContentItem '" + ci.getUri()
+                + "' because the EnhancementJobManager " + getClass().getSimpleName()
+                + " is not active!");
+        }
+        long start = System.currentTimeMillis();
+        enhancementJobManagerLog.debug(">> enhance {} with chain {}", ci.getUri(), chain.getName());
+        boolean isDefaultChain = chain.equals(chainManager.getDefault());
+        ExecutorEnhancementJob job = new ExecutorEnhancementJob(ci, chain.getName(),
+            chain.getExecutionPlan(), isDefaultChain, lightweightExecutionMetadata);
+        activeJobs.add(job);
+        try {
+            int[] executable = job.start();
+            if(executable.length == 0){
+                log.warn("Unable to start Execution of {} with Chain {} (no "
+                    + "executable ExecutionNode) -> finishing job", ci.getUri(), chain.getName());
+                job.finishEmpty();
+            } else {
+                for(int execution : executable){
+                    try {
+                        executor.execute(new EngineExecution(job, execution));
+                    } catch (RejectedExecutionException e) {
+                        job.cancel(); //deactivated in the meantime
+                    }
+                }
+            }
+            if(!job.waitForCompletion(maxEnhancementJobWaitTime)){
+                job.cancel(); //do not start further executions
+                if(this.executor == null){
+                    throw new ChainException("EnhancementJobManager was deactivated while" +
+                        " enhancing the passed ContentItem "+ci.getUri()+
+                        " (EnhancementJobManager type: "+getClass()+")");
+                }
+                StringBuilder sb = new StringBuilder("Status:\n");
+                for(int i = 0; i < job.size(); i++){
+                    sb.append("  -").append(job.getEngineName(i)).append(": ")
+                        .append(job.getStatus(i)).append('\n');
+                }
+                throw new ChainException("Execution timeout after "
+                        +((System.currentTimeMillis()-start)/1000f)+"sec (timeout:"+(maxEnhancementJobWaitTime/1000)
+                    + "sec) for ContentItem "+ci.getUri()+"\n"+sb.toString()
+                    + " \n To change the timeout change value of property '"+
+                        MAX_ENHANCEMENT_JOB_WAIT_TIME+"' for the service "+getClass());
+            }
+        } finally {
+            activeJobs.remove(job);
+        }
+        if(job.isLightweight() && isExecutionMetadataRequested(ci)){
+            job.materializeExecutionMetadata();
+        }
+        log.info("Execution of Chain {} {} after {}ms for ContentItem {}",
+            new Object[]{ chain.getName(), job.isFailed() ? "failed" : "finished",
+                    System.currentTimeMillis()-start, ci.getUri()});
+        if(job.isFailed()){
+            Throwable e = job.getError();
+            if (e instanceof SecurityException) {
+                throw (SecurityException)e;
+            } else if(e instanceof EnhancementException){
+                throw (EnhancementException)e;
+            } else {
+                throw new ChainException(job.getErrorMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Checks if the execution metadata for the parsed {@link ContentItem}
+     * are requested. This is the case if<ul>
+     * <li> the ContentItem does not have request properties (e.g. when used
+     * via the Java API)
+     * <li> execution metadata are explicitly requested
+     * <li> the {@link org.apache.stanbol.enhancer.servicesapi.rdf.ExecutionMetadata#CHAIN_EXECUTION
+     * ChainExecution} content part or all
+     * content parts (<code>*</code>) are requested as output
+     * </ul>
+     * @param ci the content item
+     * @return the state
+     */
+    private static boolean isExecutionMetadataRequested(ContentItem ci){
+        Map<String,Object> reqProp = ContentItemHelper.getRequestPropertiesContentPart(ci);
+        if(reqProp == null){
+            return true;
+        }
+        Object value = reqProp.get(INCLUDE_EXECUTION_METADATA);
+        if(value instanceof Boolean ? ((Boolean)value).booleanValue() :
+                value != null && Boolean.parseBoolean(value.toString())){
+            return true;
+        }
+        value = reqProp.get(OUTPUT_CONTENT_PART);
+        if(value instanceof Collection<?>){
+            for(Object part : (Collection<?>)value){
+                if(part == null || "*".equals(part.toString()) ||
+                        CHAIN_EXECUTION.equals(part) ||
+                        CHAIN_EXECUTION.getUnicodeString().equals(part.toString())){
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public List<EnhancementEngine> getActiveEngines() {
+        //This implementation return the list of active engined for the default
+        //Chain in the order they would be executed
+        Chain defaultChain = chainManager.getDefault();
+        if(defaultChain == null){
+            throw new IllegalStateException("Currently no enhancement chain is " +
+                "active. Please configure a Chain or enable the default chain");
+        }
+        ImmutableGraph ep;
+        try {
+            ep = defaultChain.getExecutionPlan();
+        } catch (ChainException e) {
+            throw new IllegalStateException("Unable to get Execution Plan for " +
+                    "default enhancement chain (name: '"+defaultChain.getName()+
+                    "'| class: '"+defaultChain.getClass()+"')!",e);
+        }
+        return ExecutionPlanHelper.getActiveEngines(engineManager,ep);
+    }
+
+    /**
+     * Executes a single engine for an {@link ExecutorEnhancementJob}. After
+     * the engine has finished executions that became executable are submitted
+     * to the pool. The first of them is processed by the current thread.
+     */
+    private class EngineExecution implements Runnable {
+
+        private final ExecutorEnhancementJob job;
+        private int execution;
+
+        EngineExecution(ExecutorEnhancementJob job, int execution){
+            this.job = job;
+            this.execution = execution;
+        }
+
+        @Override
+        public void run() {
+            while(execution >= 0){
+                int[] next;
+                try {
+                    next = execute(job, execution);
+                } catch (RuntimeException e) {
+                    String message = String.format("Unexpected Exception while processing " +
+                            "ContentItem %s with EnhancementJobManager: %s",
+                            job.getContentItem().getUri(),ExecutorJobManagerImpl.class);
+                    log.error(message,e);
+                    next = job.getState(execution) == ExecutorEnhancementJob.STATE_RUNNING ?
+                            job.setFailed(execution, null, new IllegalStateException(message,e)) :
+                                new int[0];
+                }
+                execution = -1;
+                ThreadPoolExecutor executor = ExecutorJobManagerImpl.this.executor;
+                for(int i = 0; i < next.length; i++){
+                    if(i == 0){ //continue with the first in the current thread
+                        execution = next[i];
+                    } else {
+                        try {
+                            executor.execute(new EngineExecution(job, next[i]));
+                        } catch (RuntimeException e) {
+                            //RejectedExecution or NPE if deactivated in the meantime
+                            job.cancel();
+                        }
+                    }
+                }
+            }
+        }
+    }
+    /**
+     * Executes the engine for the parsed execution and updates the state of
+     * the job
+     * @param job the job
+     * @param execution the index of the execution
+     * @return the executions that can be started next
+     */
+    private int[] execute(ExecutorEnhancementJob job, int execution) {
+        String engineName = job.getEngineName(execution);
+        EnhancementEngine engine = engineManager.getEngine(engineName);
+        if(engine == null){ //engine with that name is not available
+            return job.setFailed(execution, null, null);
+        }
+        ContentItem ci = job.getContentItem();
+        int engineState;
+        try {
+            engineState = engine.canEnhance(ci);
+        } catch (EngineException e) {
+            log.warn("Unable to check if engine '" + engineName
+                + "'(type: " + engine.getClass() + ") can enhance ContentItem '"
+                + ci.getUri()+ "'!",e);
+            return job.setFailed(execution, engine, e);
+        }
+        if(engineState == EnhancementEngine.CANNOT_ENHANCE){
+            //can not enhance is not an error
+            return job.setCompleted(execution);
+        }
+        if(engineState == EnhancementEngine.ENHANCE_ASYNC && maxBatchSize > 1 &&
+                engine instanceof BatchEnhancementEngine){
+            //the next executions are scheduled by the thread processing the batch
+            executeBatched((BatchEnhancementEngine)engine, job, execution);
+            return new int[0];
+        }
+        job.setInProgress(execution);
+        Lock writeLock = engineState == EnhancementEngine.ENHANCE_SYNCHRONOUS ?
+                ci.getLock().writeLock() : null;
+        if(writeLock != null){
+            //ensure that this engine exclusively access the content item
+            writeLock.lock();
+        }
+        Exception exception = null;
+        try {
+            engine.computeEnhancements(ci);
+        } catch (EngineException e){
+            log.warn(e.getMessage(),e);
+            exception = e;
+        } catch (RuntimeException e){
+            log.warn(e.getMessage(),e);
+            exception = e;
+        } finally {
+            if(writeLock != null){
+                writeLock.unlock();
+            }
+        }
+        return exception == null ? job.setCompleted(execution) :
+            job.setFailed(execution, engine, exception);
+    }
+
+    /**
+     * Queues the parsed execution for the parsed {@link BatchEnhancementEngine}
+     * and processes pending executions of this engine in batches until the
+     * queue is empty. Only a single thread processes batches of an engine.
+     * Executions queued while a batch is processed are grouped over
+     * concurrently processed jobs and processed with the next batch. If an
+     * other thread is already processing batches of the engine this method
+     * returns immediately.
+     * @param engine the engine
+     * @param job the job
+     * @param execution the index of the execution
+     */
+    private void executeBatched(BatchEnhancementEngine engine, ExecutorEnhancementJob job, int execution) {
+        BatchQueue queue = batchQueues.get(engine.getName());
+        if(queue == null){
+            queue = new BatchQueue();
+            BatchQueue current = batchQueues.putIfAbsent(engine.getName(), queue);
+            if(current != null){
+                queue = current;
+            }
+        }
+        queue.pending.add(new PendingExecution(job, execution));
+        List<PendingExecution> batch = new ArrayList<PendingExecution>(maxBatchSize);
+        //re-check after releasing the processing state as executions might
+        //have been queued after the last poll of the processing thread
+        while(!queue.pending.isEmpty() && queue.processing.compareAndSet(false, true)){
+            try {
+                PendingExecution pending;
+                do {
+                    batch.clear();
+                    while(batch.size() < maxBatchSize && (pending = queue.pending.poll()) != null){
+                        batch.add(pending);
+                    }
+                    if(!batch.isEmpty()){
+                        processBatch(engine, batch);
+                    }
+                } while(!batch.isEmpty());
+            } finally {
+                queue.processing.set(false);
+            }
+        }
+    }
+    /**
+     * Processes a batch of executions of the parsed engine and schedules the
+     * executions that became executable as a result.
+     * @param engine the engine
+     * @param batch the pending executions
+     */
+    private void processBatch(BatchEnhancementEngine engine, List<PendingExecution> batch){
+        List<ContentItem> contentItems = new ArrayList<ContentItem>(batch.size());
+        for(PendingExecution pending : batch){
+            pending.job.setInProgress(pending.execution);
+            contentItems.add(pending.job.getContentItem());
+        }
+        log.debug("process batch of {} ContentItems with engine {}", 
+            contentItems.size(), engine.getName());
+        Map<Integer,EngineException> failed;
+        RuntimeException exception = null;
+        try {
+            failed = engine.computeEnhancements(contentItems);
+        } catch (RuntimeException e) {
+            log.warn(e.getMessage(),e);
+            exception = e;
+            failed = null;
+        }
+        ThreadPoolExecutor executor = this.executor;
+        for(int index = 0; index < batch.size(); index++){
+            PendingExecution pending = batch.get(index);
+            Exception e = exception != null ? exception : failed == null ? null :
+                failed.get(index);
+            int[] next;
+            try {
+                next = e == null ? pending.job.setCompleted(pending.execution) :
+                    pending.job.setFailed(pending.execution, engine, e);
+            } catch (RuntimeException re) { //do not affect other jobs in the batch
+                log.error("Unable to update state of "+pending.job,re);
+                pending.job.cancel();
+                continue;
+            }
+            for(int i = 0; i < next.length; i++){
+                try {
+                    executor.execute(new EngineExecution(pending.job, next[i]));
+                } catch (RuntimeException re) {
+                    //RejectedExecution or NPE if deactivated in the meantime
+                    pending.job.cancel();
+                }
+            }
+        }
+    }
+    /**
+     * The executions waiting to be processed by a {@link BatchEnhancementEngine}
+     */
+    private static class BatchQueue {
+        
+        final Queue<PendingExecution> pending = new ConcurrentLinkedQueue<PendingExecution>();
+        /**
+         * If a thread is currently processing batches for the engine
+         */
+        final AtomicBoolean processing = new AtomicBoolean();
+    }
+    /**
+     * An execution waiting to be processed by a {@link BatchEnhancementEngine}
+     */
+    private static class PendingExecution {
+        
+        final ExecutorEnhancementJob job;
+        final int execution;
+        
+        PendingExecution(ExecutorEnhancementJob job, int execution){
+            this.job = job;
+            this.execution = execution;
+        }
+    }
+
+    /**
+     * Creates named daemon threads for the {@link ThreadPoolExecutor}
+     */
+    private static class EngineWorkerThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "Stanbol Enhancer Executor Job Manager Worker-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
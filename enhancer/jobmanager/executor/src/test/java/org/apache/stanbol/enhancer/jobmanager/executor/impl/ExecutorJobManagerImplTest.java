@@ -0,0 +1,601 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.stanbol.enhancer.jobmanager.executor.impl;
+
+import static org.apache.stanbol.enhancer.servicesapi.helper.ExecutionMetadataHelper.getExecutionMetadata;
+import static org.apache.stanbol.enhancer.servicesapi.helper.ExecutionMetadataHelper.getExecutionNode;
+import static org.apache.stanbol.enhancer.servicesapi.helper.ExecutionPlanHelper.createExecutionPlan;
+import static org.apache.stanbol.enhancer.servicesapi.helper.ExecutionPlanHelper.getEngine;
+import static org.apache.stanbol.enhancer.servicesapi.helper.ExecutionPlanHelper.writeExecutionNode;
+import static org.apache.stanbol.enhancer.servicesapi.rdf.ExecutionMetadata.CHAIN_EXECUTION;
+import static org.apache.stanbol.enhancer.servicesapi.rdf.ExecutionMetadata.COMPLETED;
+import static org.apache.stanbol.enhancer.servicesapi.rdf.ExecutionMetadata.ENGINE_EXECUTION;
+import static org.apache.stanbol.enhancer.servicesapi.rdf.ExecutionMetadata.EXECUTION_PLAN;
+import static org.apache.stanbol.enhancer.servicesapi.rdf.ExecutionMetadata.STARTED;
+import static org.apache.stanbol.enhancer.servicesapi.rdf.ExecutionMetadata.STATUS;
+import static org.apache.stanbol.enhancer.servicesapi.rdf.ExecutionMetadata.STATUS_COMPLETED;
+import static org.apache.stanbol.enhancer.servicesapi.rdf.ExecutionMetadata.STATUS_FAILED;
+import static org.apache.stanbol.enhancer.servicesapi.rdf.Properties.RDF_TYPE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Dictionary;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Hashtable;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.clerezza.commons.rdf.BlankNodeOrIRI;
+import org.apache.clerezza.commons.rdf.Graph;
+import org.apache.clerezza.commons.rdf.IRI;
+import org.apache.clerezza.commons.rdf.ImmutableGraph;
+import org.apache.clerezza.commons.rdf.Literal;
+import org.apache.clerezza.commons.rdf.RDFTerm;
+import org.apache.clerezza.commons.rdf.Triple;
+import org.apache.clerezza.commons.rdf.impl.utils.TripleImpl;
+import org.apache.stanbol.commons.indexedgraph.IndexedGraph;
+import org.apache.stanbol.enhancer.contentitem.inmemory.InMemoryContentItemFactory;
+import org.apache.stanbol.enhancer.servicesapi.BatchEnhancementEngine;
+import org.apache.stanbol.enhancer.servicesapi.Chain;
+import org.apache.stanbol.enhancer.servicesapi.ChainException;
+import org.apache.stanbol.enhancer.servicesapi.ChainManager;
+import org.apache.stanbol.enhancer.servicesapi.ContentItem;
+import org.apache.stanbol.enhancer.servicesapi.ContentItemFactory;
+import org.apache.stanbol.enhancer.servicesapi.EngineException;
+import org.apache.stanbol.enhancer.servicesapi.EnhancementEngine;
+import org.apache.stanbol.enhancer.servicesapi.EnhancementEngineManager;
+import org.apache.stanbol.enhancer.servicesapi.EnhancementException;
+import org.apache.stanbol.enhancer.servicesapi.impl.StringSource;
+import org.apache.stanbol.enhancer.servicesapi.rdf.ExecutionPlan;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.osgi.framework.ServiceReference;
+
+/**
+ * Tests the {@link ExecutorJobManagerImpl} by using dummy
+ * {@link EnhancementEngine}s and {@link Chain}s.
+ */
+public class ExecutorJobManagerImplTest {
+
+    private static final ContentItemFactory ciFactory = InMemoryContentItemFactory.getInstance();
+    /**
+     * The timeout used to wait for jobs and test engines
+     */
+    private static final long TIMEOUT = 10000;
+
+    private ExecutorJobManagerImpl jobManager;
+    private TestEngineManager engineManager;
+    private ExecutorService clients;
+    /**
+     * The names of the engines in the order they have completed
+     */
+    private final List<String> completed = Collections.synchronizedList(new ArrayList<String>());
+
+    @Before
+    public void init(){
+        engineManager = new TestEngineManager();
+        jobManager = new ExecutorJobManagerImpl();
+        jobManager.engineManager = engineManager;
+        jobManager.chainManager = new TestChainManager();
+        clients = Executors.newCachedThreadPool();
+        completed.clear();
+    }
+
+    @After
+    public void close(){
+        clients.shutdownNow();
+        jobManager.deactivate(new MockComponentContext());
+    }
+
+    private void activate(int maxBatchSize, int maxWaitTime){
+        Dictionary<String,Object> config = new Hashtable<String,Object>();
+        config.put(ExecutorJobManagerImpl.POOL_SIZE, 8);
+        config.put(ExecutorJobManagerImpl.MAX_BATCH_SIZE, maxBatchSize);
+        config.put(ExecutorJobManagerImpl.MAX_ENHANCEMENT_JOB_WAIT_TIME, maxWaitTime);
+        jobManager.activate(new MockComponentContext(config));
+    }
+
+    private static ContentItem createContentItem(String uri) throws IOException {
+        return ciFactory.createContentItem(new IRI(uri), new StringSource("Test content of "+uri));
+    }
+
+    private Future<?> enhance(final ContentItem ci, final Chain chain){
+        return clients.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                jobManager.enhanceContent(ci, chain);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Tests that engines are only executed after all the engines they depend
+     * on have completed
+     */
+    @Test
+    public void testDependencies() throws Exception {
+        activate(ExecutorJobManagerImpl.DEFAULT_MAX_BATCH_SIZE,
+            ExecutorJobManagerImpl.DEFAULT_MAX_ENHANCEMENT_JOB_WAIT_TIME);
+        for(String name : Arrays.asList("a","b","c","d")){
+            engineManager.add(new TestEngine(name));
+        }
+        TestChain chain = new TestChain("dependencyChain");
+        BlankNodeOrIRI a = chain.add("a", false);
+        BlankNodeOrIRI b = chain.add("b", false, a);
+        BlankNodeOrIRI c = chain.add("c", false, a);
+        chain.add("d", false, b, c);
+        jobManager.enhanceContent(createContentItem("urn:test:dependencies"), chain);
+        assertEquals(4, completed.size());
+        assertEquals("a", completed.get(0));
+        assertEquals(new HashSet<String>(Arrays.asList("b","c")),
+            new HashSet<String>(completed.subList(1, 3)));
+        assertEquals("d", completed.get(3));
+    }
+    /**
+     * Tests that the failure of an optional engine does not fail the chain
+     * and that engines depending on it are executed
+     */
+    @Test
+    public void testOptionalEngineFailure() throws Exception {
+        activate(ExecutorJobManagerImpl.DEFAULT_MAX_BATCH_SIZE,
+            ExecutorJobManagerImpl.DEFAULT_MAX_ENHANCEMENT_JOB_WAIT_TIME);
+        TestEngine failing = new TestEngine("failing");
+        failing.fail = true;
+        engineManager.add(failing);
+        engineManager.add(new TestEngine("dependent"));
+        TestChain chain = new TestChain("optionalChain");
+        BlankNodeOrIRI optional = chain.add("failing", true);
+        chain.add("dependent", false, optional);
+        chain.add("inactive", true); //optional engine that is not active
+        jobManager.enhanceContent(createContentItem("urn:test:optional"), chain);
+        assertEquals(1, failing.singleCount.get());
+        assertEquals(Arrays.asList("dependent"), completed);
+    }
+    /**
+     * Tests that the failure of a required engine fails the chain and that
+     * engines depending on it are not executed
+     */
+    @Test
+    public void testRequiredEngineFailure() throws Exception {
+        activate(ExecutorJobManagerImpl.DEFAULT_MAX_BATCH_SIZE,
+            ExecutorJobManagerImpl.DEFAULT_MAX_ENHANCEMENT_JOB_WAIT_TIME);
+        TestEngine failing = new TestEngine("failing");
+        failing.fail = true;
+        engineManager.add(failing);
+        TestEngine dependent = new TestEngine("dependent");
+        engineManager.add(dependent);
+        TestChain chain = new TestChain("requiredChain");
+        chain.add("dependent", false, chain.add("failing", false));
+        try {
+            jobManager.enhanceContent(createContentItem("urn:test:required"), chain);
+            fail("Enhancement MUST fail if a required engine fails");
+        } catch (EnhancementException e) {
+            assertTrue(e instanceof EngineException);
+        }
+        assertEquals(0, dependent.singleCount.get());
+        assertTrue(completed.isEmpty());
+    }
+    /**
+     * Tests that a {@link ChainException} is thrown if the job does not
+     * complete within the configured wait time and that no further engines
+     * are executed afterwards
+     */
+    @Test
+    public void testTimeout() throws Exception {
+        activate(ExecutorJobManagerImpl.DEFAULT_MAX_BATCH_SIZE, 500);
+        TestEngine slow = new TestEngine("slow");
+        slow.halt = new CountDownLatch(1);
+        engineManager.add(slow);
+        TestEngine dependent = new TestEngine("dependent");
+        engineManager.add(dependent);
+        TestChain chain = new TestChain("timeoutChain");
+        chain.add("dependent", false, chain.add("slow", false));
+        long start = System.currentTimeMillis();
+        try {
+            jobManager.enhanceContent(createContentItem("urn:test:timeout"), chain);
+            fail("Enhancement MUST fail with a timeout");
+        } catch (ChainException e) {
+            //expected
+        }
+        assertTrue(System.currentTimeMillis() - start < TIMEOUT);
+        slow.halt.countDown();
+        long wait = System.currentTimeMillis();
+        while(!completed.contains("slow") && System.currentTimeMillis()-wait < TIMEOUT){
+            Thread.sleep(10);
+        }
+        Thread.sleep(200); //give the job manager the chance to start the dependent
+        assertTrue(completed.contains("slow"));
+        assertFalse("engines MUST NOT be executed after a timeout",
+            completed.contains("dependent"));
+    }
+    /**
+     * Tests that executions of {@link BatchEnhancementEngine} of concurrent
+     * jobs are grouped to batches and that failures are reported for the
+     * correct job even if ContentItems do use the same URI.
+     */
+    @Test
+    public void testBatchProcessing() throws Exception {
+        activate(ExecutorJobManagerImpl.DEFAULT_MAX_BATCH_SIZE,
+            ExecutorJobManagerImpl.DEFAULT_MAX_ENHANCEMENT_JOB_WAIT_TIME);
+        TestBatchEngine engine = new TestBatchEngine("batch");
+        engineManager.add(engine);
+        TestChain chain = new TestChain("batchChain");
+        chain.add("batch", false);
+        ContentItem first = createContentItem("urn:test:first");
+        ContentItem same = createContentItem("urn:test:same");
+        ContentItem sameFailing = createContentItem("urn:test:same");
+        ContentItem other = createContentItem("urn:test:other");
+        engine.failing.add(sameFailing);
+        //the first batch blocks until released
+        Future<?> firstResult = enhance(first, chain);
+        assertTrue("first batch not started", engine.blocked.await(TIMEOUT, TimeUnit.MILLISECONDS));
+        Future<?> sameResult = enhance(same, chain);
+        Future<?> sameFailingResult = enhance(sameFailing, chain);
+        Future<?> otherResult = enhance(other, chain);
+        //wait until all jobs have queued the execution of the batch engine
+        long start = System.currentTimeMillis();
+        while(engine.canEnhanceCount.get() < 4 && System.currentTimeMillis()-start < TIMEOUT){
+            Thread.sleep(10);
+        }
+        assertEquals(4, engine.canEnhanceCount.get());
+        Thread.sleep(200); //queuing happens just after canEnhance
+        engine.release.countDown();
+        firstResult.get(TIMEOUT, TimeUnit.MILLISECONDS);
+        sameResult.get(TIMEOUT, TimeUnit.MILLISECONDS);
+        otherResult.get(TIMEOUT, TimeUnit.MILLISECONDS);
+        try {
+            sameFailingResult.get(TIMEOUT, TimeUnit.MILLISECONDS);
+            fail("Enhancement of the failing ContentItem MUST fail");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof EngineException);
+        }
+        //the executions queued while the first batch was processed are
+        //processed as a single batch
+        assertEquals(Arrays.asList(1,3), engine.batchSizes);
+        assertEquals(0, engine.singleCount.get());
+    }
+    /**
+     * Tests that {@link BatchEnhancementEngine}s are called for single
+     * ContentItems if batch processing is deactivated
+     */
+    @Test
+    public void testBatchProcessingDeactivated() throws Exception {
+        activate(1, ExecutorJobManagerImpl.DEFAULT_MAX_ENHANCEMENT_JOB_WAIT_TIME);
+        TestBatchEngine engine = new TestBatchEngine("batch");
+        engine.release.countDown(); //do not block
+        engineManager.add(engine);
+        TestChain chain = new TestChain("batchChain");
+        chain.add("batch", false);
+        jobManager.enhanceContent(createContentItem("urn:test:single"), chain);
+        assertEquals(1, engine.singleCount.get());
+        assertTrue(engine.batchSizes.isEmpty());
+    }
+
+    /**
+     * Tests that the execution metadata written after the job has finished in
+     * the {@link ExecutorJobManagerImpl#LIGHTWEIGHT_EXECUTION_METADATA lightweight}
+     * mode are the same as the execution metadata written while the job is
+     * running
+     */
+    @Test
+    public void testLightweightExecutionMetadata() throws Exception {
+        for(String name : Arrays.asList("a","b")){
+            engineManager.add(new TestEngine(name));
+        }
+        TestEngine failing = new TestEngine("failing");
+        failing.fail = true;
+        engineManager.add(failing);
+        TestChain chain = new TestChain("executionMetadataChain");
+        chain.add("b", false, chain.add("a", false));
+        chain.add("failing", true);
+        chain.add("inactive", true); //optional engine that is not active
+        Set<String> eager = enhanceWithExecutionMetadata(jobManager, false, chain);
+        ExecutorJobManagerImpl lightweightJobManager = new ExecutorJobManagerImpl();
+        lightweightJobManager.engineManager = engineManager;
+        lightweightJobManager.chainManager = jobManager.chainManager;
+        Set<String> lightweight;
+        try {
+            lightweight = enhanceWithExecutionMetadata(lightweightJobManager, true, chain);
+        } finally {
+            lightweightJobManager.deactivate(new MockComponentContext());
+        }
+        assertEquals(eager, lightweight);
+        //validate some of the expected execution metadata
+        String status = ' ' + STATUS.getUnicodeString() + ' ';
+        assertTrue(eager.contains("{chainExecution}" + status + STATUS_COMPLETED.getUnicodeString()));
+        assertTrue(eager.contains("{engineExecution a}" + status + STATUS_COMPLETED.getUnicodeString()));
+        assertTrue(eager.contains("{engineExecution b}" + status + STATUS_COMPLETED.getUnicodeString()));
+        assertTrue(eager.contains("{engineExecution failing}" + status + STATUS_FAILED.getUnicodeString()));
+        assertTrue(eager.contains("{engineExecution inactive}" + status + STATUS_FAILED.getUnicodeString()));
+        assertTrue(eager.contains("{chainExecution} " + EXECUTION_PLAN.getUnicodeString() + " {executionPlan}"));
+    }
+
+    /**
+     * Enhances a ContentItem with the parsed job manager and returns the
+     * triples of the execution metadata. Nodes are replaced by labels based
+     * on the engine names and dates by a placeholder so that the execution
+     * metadata of different enhancements can be compared.
+     */
+    private Set<String> enhanceWithExecutionMetadata(ExecutorJobManagerImpl manager,
+            boolean lightweight, Chain chain) throws Exception {
+        Dictionary<String,Object> config = new Hashtable<String,Object>();
+        config.put(ExecutorJobManagerImpl.LIGHTWEIGHT_EXECUTION_METADATA, lightweight);
+        manager.activate(new MockComponentContext(config));
+        ContentItem ci = createContentItem("urn:test:executionMetadata");
+        manager.enhanceContent(ci, chain);
+        Graph em = getExecutionMetadata(ci);
+        Set<String> triples = new HashSet<String>();
+        for(Triple triple : em){
+            IRI predicate = triple.getPredicate();
+            RDFTerm object = triple.getObject();
+            String value;
+            if(object instanceof Literal){
+                value = STARTED.equals(predicate) || COMPLETED.equals(predicate) ? 
+                        "{date}" : ((Literal)object).getLexicalForm();
+            } else {
+                value = getLabel(em, (BlankNodeOrIRI)object);
+            }
+            triples.add(getLabel(em, triple.getSubject()) + ' '
+                + predicate.getUnicodeString() + ' ' + value);
+        }
+        return triples;
+    }
+
+    private static String getLabel(Graph em, BlankNodeOrIRI node){
+        if(em.contains(new TripleImpl(node, RDF_TYPE, ExecutionPlan.EXECUTION_PLAN))){
+            return "{executionPlan}";
+        } else if(em.contains(new TripleImpl(node, RDF_TYPE, ExecutionPlan.EXECUTION_NODE))){
+            return "{executionNode " + getEngine(em, node) + '}';
+        } else if(em.contains(new TripleImpl(node, RDF_TYPE, CHAIN_EXECUTION))){
+            return "{chainExecution}";
+        } else if(em.contains(new TripleImpl(node, RDF_TYPE, ENGINE_EXECUTION))){
+            return "{engineExecution " + getEngine(em, getExecutionNode(em, node)) + '}';
+        } else {
+            return node.toString();
+        }
+    }
+
+    /**
+     * An engine that records its completion in {@link ExecutorJobManagerImplTest#completed}.
+     * Can be configured to fail and to wait for a {@link #halt latch}.
+     */
+    private class TestEngine implements EnhancementEngine {
+
+        private final String name;
+        final AtomicInteger canEnhanceCount = new AtomicInteger();
+        final AtomicInteger singleCount = new AtomicInteger();
+        /**
+         * If set single ContentItems are only processed after the latch
+         * was released
+         */
+        volatile CountDownLatch halt;
+        /**
+         * If <code>true</code> the processing of single ContentItems fails
+         */
+        volatile boolean fail;
+
+        TestEngine(String name){
+            this.name = name;
+        }
+
+        @Override
+        public int canEnhance(ContentItem ci) throws EngineException {
+            canEnhanceCount.incrementAndGet();
+            return ENHANCE_ASYNC;
+        }
+
+        @Override
+        public void computeEnhancements(ContentItem ci) throws EngineException {
+            singleCount.incrementAndGet();
+            if(halt != null){
+                try {
+                    halt.await(TIMEOUT, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if(fail){
+                throw new EngineException(this, ci, "Test failure", null);
+            }
+            completed.add(name);
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+    }
+    /**
+     * A {@link BatchEnhancementEngine} that blocks the first batch until
+     * {@link #release} and fails for all ContentItems in {@link #failing}
+     */
+    private class TestBatchEngine extends TestEngine implements BatchEnhancementEngine {
+
+        final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<Integer>());
+        /**
+         * ContentItems the engine fails for (NOTE: ContentItems with the same
+         * URI are equal, so an identity set is used)
+         */
+        final Set<ContentItem> failing = Collections.synchronizedSet(
+            Collections.newSetFromMap(new IdentityHashMap<ContentItem,Boolean>()));
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        TestBatchEngine(String name){
+            super(name);
+        }
+
+        @Override
+        public Map<Integer,EngineException> computeEnhancements(List<ContentItem> contentItems) {
+            boolean first = batchSizes.isEmpty();
+            batchSizes.add(contentItems.size());
+            if(first){
+                blocked.countDown();
+                try {
+                    release.await(TIMEOUT, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            Map<Integer,EngineException> failed = new HashMap<Integer,EngineException>();
+            for(int i = 0; i < contentItems.size(); i++){
+                ContentItem ci = contentItems.get(i);
+                if(failing.contains(ci)){
+                    failed.put(i, new EngineException(this, ci, "Test failure", null));
+                } else {
+                    completed.add(getName());
+                }
+            }
+            return failed;
+        }
+    }
+
+    /**
+     * Chain with an execution plan created by calls to {@link #add(String, boolean, BlankNodeOrIRI...)}
+     */
+    private static class TestChain implements Chain {
+
+        private final String name;
+        private final Graph graph = new IndexedGraph();
+        private final BlankNodeOrIRI ep;
+        private final Set<String> engines = new LinkedHashSet<String>();
+
+        TestChain(String name){
+            this.name = name;
+            ep = createExecutionPlan(graph, name, null);
+        }
+
+        BlankNodeOrIRI add(String engine, boolean optional, BlankNodeOrIRI...dependsOn){
+            engines.add(engine);
+            return writeExecutionNode(graph, ep, engine, optional,
+                new HashSet<BlankNodeOrIRI>(Arrays.asList(dependsOn)), null);
+        }
+
+        @Override
+        public ImmutableGraph getExecutionPlan() {
+            return graph.getImmutableGraph();
+        }
+
+        @Override
+        public Set<String> getEngines() {
+            return Collections.unmodifiableSet(engines);
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+    }
+
+    private static class TestEngineManager implements EnhancementEngineManager {
+
+        private final Map<String,EnhancementEngine> engines =
+                Collections.synchronizedMap(new HashMap<String,EnhancementEngine>());
+
+        void add(EnhancementEngine engine){
+            engines.put(engine.getName(), engine);
+        }
+
+        @Override
+        public ServiceReference getReference(String name) {
+            return null;
+        }
+
+        @Override
+        public List<ServiceReference> getReferences(String name) {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public EnhancementEngine getEngine(String name) {
+            return engines.get(name);
+        }
+
+        @Override
+        public boolean isEngine(String name) {
+            return engines.containsKey(name);
+        }
+
+        @Override
+        public Set<String> getActiveEngineNames() {
+            return Collections.unmodifiableSet(engines.keySet());
+        }
+
+        @Override
+        public EnhancementEngine getEngine(ServiceReference engineReference) {
+            return null;
+        }
+    }
+
+    private static class TestChainManager implements ChainManager {
+
+        @Override
+        public Set<String> getActiveChainNames() {
+            return Collections.emptySet();
+        }
+
+        @Override
+        public ServiceReference getReference(String name) {
+            return null;
+        }
+
+        @Override
+        public List<ServiceReference> getReferences(String name) {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public Chain getChain(String name) {
+            return null;
+        }
+
+        @Override
+        public Chain getChain(ServiceReference chainReference) {
+            return null;
+        }
+
+        @Override
+        public boolean isChain(String name) {
+            return false;
+        }
+
+        @Override
+        public Chain getDefault() {
+            return null;
+        }
+    }
+}
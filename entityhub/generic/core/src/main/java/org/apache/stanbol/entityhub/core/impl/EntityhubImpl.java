@@ -20,9 +20,13 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 
 import org.apache.stanbol.commons.namespaceprefix.NamespacePrefixService;
 import org.apache.stanbol.entityhub.core.mapping.DefaultFieldMapperImpl;
@@ -216,6 +220,57 @@ public final class EntityhubImpl implements Entityhub {//, ServiceListener {
             return null;
         }
     }
+    /**
+     * Retrieves the data of all Entities with a single request to the
+     * {@link #entityhubYard}. The metadata are retrieved with a second request.
+     */
+    @Override
+    public final Collection<Entity> getEntities(Iterable<String> entityIds) throws IllegalArgumentException, YardException {
+        if(entityIds == null){
+            throw new IllegalArgumentException("The parsed Iterable over the IDs MUST NOT be NULL!");
+        }
+        Collection<Representation> reps = entityhubYard.getRepresentations(entityIds);
+        Map<String,Representation> dataMap = new LinkedHashMap<String,Representation>();
+        List<String> metaIds = new ArrayList<String>(reps.size());
+        List<Entity> entities = new ArrayList<Entity>(reps.size());
+        for(Representation rep : reps){
+            if(ModelUtils.getAboutRepresentation(rep) != null){
+                //the id of metadata was parsed -> use the default lookup
+                addManagedEntity(entities, loadEntity(rep));
+            } else {
+                dataMap.put(rep.getId(), rep);
+                metaIds.add(rep.getId()+".meta");
+            }
+        }
+        Map<String,Representation> metadataMap = new HashMap<String,Representation>();
+        if(!metaIds.isEmpty()){
+            for(Representation metadata : entityhubYard.getRepresentations(metaIds)){
+                metadataMap.put(metadata.getId(), metadata);
+            }
+        }
+        for(Entry<String,Representation> entry : dataMap.entrySet()){
+            Representation metadata = metadataMap.get(entry.getKey()+".meta");
+            if(metadata == null){ //initialise missing metadata
+                metadata = lookupMetadata(entry.getKey(), true);
+            }
+            addManagedEntity(entities,
+                new EntityImpl(config.getID(), entry.getValue(), metadata));
+        }
+        return entities;
+    }
+    /**
+     * Adds the parsed Entity to the parsed list if it is a locally managed
+     * Entity
+     */
+    private void addManagedEntity(List<Entity> entities, Entity entity){
+        if(entity != null){
+            if(ManagedEntity.canWrap(entity)){
+                entities.add(entity);
+            } else {
+                log.info("The parsed id does not represent a locally managed Entity {}", entity);
+            }
+        }
+    }
     @Override
     public final boolean isRepresentation(String entityId) throws EntityhubException, IllegalArgumentException {
         if(entityId == null || entityId.isEmpty()){
@@ -19,6 +19,8 @@ package org.apache.stanbol.entityhub.core.impl;
 import static org.apache.stanbol.entityhub.servicesapi.site.ReferencedSiteConfiguration.ACCESS_URI;
 import static org.apache.stanbol.entityhub.servicesapi.site.ReferencedSiteConfiguration.CACHE_ID;
 import static org.apache.stanbol.entityhub.servicesapi.site.ReferencedSiteConfiguration.CACHE_STRATEGY;
+import static org.apache.stanbol.entityhub.servicesapi.site.ReferencedSiteConfiguration.MEMORY_CACHE_SIZE;
+import static org.apache.stanbol.entityhub.servicesapi.site.ReferencedSiteConfiguration.MEMORY_CACHE_TTL;
 import static org.apache.stanbol.entityhub.servicesapi.site.ReferencedSiteConfiguration.ENTITY_DEREFERENCER_TYPE;
 import static org.apache.stanbol.entityhub.servicesapi.site.ReferencedSiteConfiguration.ENTITY_SEARCHER_TYPE;
 import static org.apache.stanbol.entityhub.servicesapi.site.ReferencedSiteConfiguration.QUERY_URI;
@@ -138,6 +140,8 @@ import org.slf4j.LoggerFactory;
             @PropertyOption(value = '%' + CACHE_STRATEGY + ".option.used", name = "used"),
             @PropertyOption(value = '%' + CACHE_STRATEGY + ".option.all", name = "all")}, value = "none"),
     @Property(name = CACHE_ID), 
+    @Property(name = MEMORY_CACHE_SIZE, intValue = 0),
+    @Property(name = MEMORY_CACHE_TTL, intValue = ReferencedSiteConfiguration.DEFAULT_MEMORY_CACHE_TTL),
     @Property(name = SITE_FIELD_MAPPINGS, cardinality = Integer.MAX_VALUE)})
 public class ReferencedSiteComponent {
     
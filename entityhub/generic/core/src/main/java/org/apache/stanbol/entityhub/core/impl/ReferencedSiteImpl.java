@@ -22,8 +22,12 @@ import static org.apache.stanbol.entityhub.core.utils.SiteUtils.initEntityMetada
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.stanbol.commons.namespaceprefix.NamespacePrefixService;
 import org.apache.stanbol.entityhub.core.mapping.DefaultFieldMapperImpl;
@@ -32,6 +36,7 @@ import org.apache.stanbol.entityhub.core.mapping.ValueConverterFactory;
 import org.apache.stanbol.entityhub.core.model.EntityImpl;
 import org.apache.stanbol.entityhub.core.query.DefaultQueryFactory;
 import org.apache.stanbol.entityhub.core.query.QueryResultListImpl;
+import org.apache.stanbol.entityhub.core.site.MemoryRepresentationCache;
 import org.apache.stanbol.entityhub.servicesapi.mapping.FieldMapper;
 import org.apache.stanbol.entityhub.servicesapi.mapping.FieldMapping;
 import org.apache.stanbol.entityhub.servicesapi.model.Entity;
@@ -77,6 +82,9 @@ import org.slf4j.LoggerFactory;
  * stored for each representation cached form this referenced site. In case of
  * {@link CacheStrategy#all} the Cache is also used to search for Entities. Otherwise only
  * dereferencing of Entities is done via the Cache.
+ * <li><b>{@link MemoryRepresentationCache}: </b> Optional in-memory cache for frequently dereferenced
+ * Entities. If configured (see {@link ReferencedSiteConfiguration#MEMORY_CACHE_SIZE}) it is used in front
+ * of the {@link Cache}.
  * </ul>
  * 
  * @author Rupert Westenthaler
@@ -92,6 +100,11 @@ public class ReferencedSiteImpl implements Site {
     private EntitySearcher entitySearcher;
 
     private Cache cache;
+    /**
+     * Optional in-memory cache used in front of the {@link #cache}.
+     * <code>null</code> if not configured.
+     */
+    private MemoryRepresentationCache memoryCache;
 
     private ReferencedSiteConfiguration siteConfiguration;
     /**
@@ -122,6 +135,13 @@ public class ReferencedSiteImpl implements Site {
         this.cache = cache;
         this.dereferencer = dereferencer;
         this.entitySearcher = searcher;
+        if(config.getMemoryCacheSize() > 0){
+            log.debug(" > Initialise in-memory cache ({}MB, ttl {}sec)",
+                config.getMemoryCacheSize(), config.getMemoryCacheTtl());
+            this.memoryCache = new MemoryRepresentationCache(
+                config.getMemoryCacheSize() * 1024L * 1024L,
+                config.getMemoryCacheTtl() * 1000L);
+        }
         // init the fieldMapper based on the configuration
         fieldMappings = new DefaultFieldMapperImpl(ValueConverterFactory.getDefaultInstance());
         if (siteConfiguration.getFieldMappings() != null) {
@@ -309,6 +329,15 @@ public class ReferencedSiteImpl implements Site {
         Representation rep = null;
         Boolean cachedVersion = Boolean.FALSE;
         long start = System.currentTimeMillis();
+        if (memoryCache != null) {
+            rep = memoryCache.get(id);
+            if(rep != null){
+                Entity entity = new EntityImpl(getId(), rep, null);
+                initEntityMetadata(entity, siteMetadata,
+                    singletonMap(RdfResourceEnum.isChached.getUri(), (Object) Boolean.valueOf(cache != null)));
+                return entity;
+            }
+        }
         if (cache != null) {
             try {
                 rep = cache.getRepresentation(id);
@@ -356,6 +385,9 @@ public class ReferencedSiteImpl implements Site {
             }
         }
         if(rep != null){
+            if(memoryCache != null){
+                memoryCache.put(rep);
+            }
             Entity entity = new EntityImpl(getId(), rep, null);
             initEntityMetadata(entity, siteMetadata,
                 singletonMap(RdfResourceEnum.isChached.getUri(), (Object) cachedVersion));
@@ -364,6 +396,84 @@ public class ReferencedSiteImpl implements Site {
             return null;
         }
     }
+    /**
+     * Retrieves all Entities available in the {@link Cache} with a single
+     * request. Entities not present in the cache are dereferenced one by one
+     * by using {@link #getEntity(String)}.
+     */
+    @Override
+    public Collection<Entity> getEntities(Iterable<String> ids) throws SiteException {
+        if(ids == null){
+            throw new IllegalArgumentException("The parsed Iterable over the IDs MUST NOT be NULL!");
+        }
+        Set<String> missing = new LinkedHashSet<String>();
+        for(String id : ids){
+            if(id != null && !id.isEmpty()){
+                missing.add(id);
+            }
+        }
+        List<Entity> entities = new ArrayList<Entity>(missing.size());
+        if (memoryCache != null) {
+            for(Iterator<String> it = missing.iterator(); it.hasNext();){
+                Representation rep = memoryCache.get(it.next());
+                if(rep != null){
+                    it.remove();
+                    Entity entity = new EntityImpl(getId(), rep, null);
+                    initEntityMetadata(entity, siteMetadata,
+                        singletonMap(RdfResourceEnum.isChached.getUri(), (Object) Boolean.valueOf(cache != null)));
+                    entities.add(entity);
+                }
+            }
+        }
+        if (cache != null && !missing.isEmpty()) {
+            long start = System.currentTimeMillis();
+            try {
+                for(Representation rep : cache.getRepresentations(missing)){
+                    missing.remove(rep.getId());
+                    if(memoryCache != null){
+                        memoryCache.put(rep);
+                    }
+                    Entity entity = new EntityImpl(getId(), rep, null);
+                    initEntityMetadata(entity, siteMetadata,
+                        singletonMap(RdfResourceEnum.isChached.getUri(), (Object) Boolean.TRUE));
+                    entities.add(entity);
+                }
+                log.debug("  - loaded {} Representations from Cache in {} ms",
+                    entities.size(), (System.currentTimeMillis() - start));
+                if(siteConfiguration.getCacheStrategy() == CacheStrategy.all) {
+                    return entities; // do no remote lookups on CacheStrategy.all!!
+                }
+            } catch (YardException e) {
+                if (dereferencer == null) {
+                    throw new SiteException(String.format("Unable to get Represetnations %s form Cache %s",
+                        missing, siteConfiguration.getCacheId()), e);
+                } else {
+                    log.warn(String.format(
+                        "Unable to get Represetnations %s form Cache %s. Will dereference from remote site %s",
+                        missing, siteConfiguration.getCacheId(), siteConfiguration.getAccessUri()), e);
+                }
+            }
+        }
+        if(dereferencer != null){
+            for(String id : missing){
+                Entity entity = getEntity(id);
+                if(entity != null){
+                    entities.add(entity);
+                }
+            }
+        }
+        return entities;
+    }
+
+    /**
+     * Getter for the statistics of the in-memory cache of this site.
+     * @return the statistics as returned by 
+     * {@link MemoryRepresentationCache#getStatistics()} or <code>null</code>
+     * if no in-memory cache is configured for this site.
+     */
+    public Map<String,Long> getMemoryCacheStatistics() {
+        return memoryCache == null ? null : memoryCache.getStatistics();
+    }
 
     @Override
     public SiteConfiguration getConfiguration() {
@@ -24,22 +24,35 @@ import java.util.Collections;
 import java.util.Dictionary;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
 import org.apache.felix.scr.annotations.Properties;
+import org.apache.felix.scr.annotations.Property;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.ReferencePolicy;
 import org.apache.felix.scr.annotations.ReferenceStrategy;
 import org.apache.felix.scr.annotations.Service;
-import org.apache.stanbol.entityhub.core.query.QueryResultListImpl;
+import org.apache.stanbol.entityhub.core.query.FederatedQueryResultList;
 import org.apache.stanbol.entityhub.servicesapi.model.Representation;
 import org.apache.stanbol.entityhub.servicesapi.model.Entity;
 import org.apache.stanbol.entityhub.servicesapi.query.FieldQuery;
@@ -47,19 +60,51 @@ import org.apache.stanbol.entityhub.servicesapi.query.QueryResultList;
 import org.apache.stanbol.entityhub.servicesapi.site.Site;
 import org.apache.stanbol.entityhub.servicesapi.site.SiteException;
 import org.apache.stanbol.entityhub.servicesapi.site.SiteManager;
+import org.osgi.service.cm.ConfigurationException;
 import org.osgi.service.component.ComponentContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 
 
-@Component(immediate = true)
+@Component(immediate = true, metatype = true)
 @Service
 @Properties(value={
+    @Property(name=SiteManagerImpl.QUERY_THREADS, intValue=SiteManagerImpl.DEFAULT_QUERY_THREADS),
+    @Property(name=SiteManagerImpl.QUERY_TIMEOUT, intValue=SiteManagerImpl.DEFAULT_QUERY_TIMEOUT)
 })
 public class SiteManagerImpl implements SiteManager {
 
+    /**
+     * The number of threads used to query referenced sites in parallel.
+     * Values &lt;= 1 deactivate parallel queries.
+     */
+    public static final String QUERY_THREADS = "org.apache.stanbol.entityhub.sitemanager.queryThreads";
+    /**
+     * The default number of threads used to query referenced sites
+     */
+    public static final int DEFAULT_QUERY_THREADS = 4;
+    /**
+     * The maximum time in milliseconds to wait for the results of referenced
+     * sites. Values &lt;= 0 deactivate the timeout. Only supported if queries
+     * are executed in parallel.
+     */
+    public static final String QUERY_TIMEOUT = "org.apache.stanbol.entityhub.sitemanager.queryTimeout";
+    /**
+     * By default the results of all sites are awaited
+     */
+    public static final int DEFAULT_QUERY_TIMEOUT = 0;
+
     private final Logger log;
+    /**
+     * Used to query referenced sites in parallel. <code>null</code> if
+     * queries are executed sequentially.
+     */
+    private ExecutorService executor;
+    /**
+     * The timeout in milliseconds or <code>-1</code> if none
+     */
+    private long queryTimeout = -1;
 
 //    private ComponentContext context;
     public SiteManagerImpl(){
@@ -100,12 +145,47 @@ public class SiteManagerImpl implements SiteManager {
         new HashSet<Site>());
 
     @Activate
-    protected void activate(ComponentContext context) {
+    protected void activate(ComponentContext context) throws ConfigurationException {
         log.debug("Activate ReferenceManager");
+        Dictionary<String,Object> properties = context.getProperties();
+        int threads = getInt(properties, QUERY_THREADS, DEFAULT_QUERY_THREADS);
+        int timeout = getInt(properties, QUERY_TIMEOUT, DEFAULT_QUERY_TIMEOUT);
+        queryTimeout = timeout > 0 ? timeout : -1;
+        if(threads > 1){
+            log.info(" ... query referenced sites with {} threads (timeout: {}ms)",
+                threads, queryTimeout);
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 
+                60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), 
+                new SiteQueryThreadFactory());
+            executor.allowCoreThreadTimeOut(true);
+            this.executor = executor;
+        } else {
+            log.info(" ... query referenced sites sequentially");
+        }
+    }
+    private static int getInt(Dictionary<String,Object> properties, String key, int defaultValue) 
+            throws ConfigurationException {
+        Object value = properties == null ? null : properties.get(key);
+        if(value instanceof Number){
+            return ((Number)value).intValue();
+        } else if(value != null && !value.toString().isEmpty()){
+            try {
+                return Integer.parseInt(value.toString());
+            } catch (NumberFormatException e) {
+                throw new ConfigurationException(key, "The configured value '"
+                    + value + "' is not a valid integer", e);
+            }
+        } else {
+            return defaultValue;
+        }
     }
     @Deactivate
     protected void deactivate(ComponentContext context) {
         log.debug("Deactivate ReferenceManager");
+        if(executor != null){
+            executor.shutdownNow();
+            executor = null;
+        }
         synchronized (prefixMap) {
             this.prefixList.clear();
             this.prefixMap.clear();
@@ -251,135 +331,196 @@ public class SiteManagerImpl implements SiteManager {
     @Override
     public QueryResultList<String> findIds(FieldQuery query) {
         log.debug("findIds for query{}", query);
-        // We need to search all referenced Sites
-        Set<String> entityIds = new HashSet<String>();
-        //TODO: The QueryResultList expects that the query as executed is added
-        //to the response. However when executing queries on multiple site they
-        //might support a different set of features and therefore execute
-        //different variants. For now I return simple the query as executed by
-        //the first Site that contributes results
-        FieldQuery processedQuery = null;
-        FieldQuery queryWithResults = null; 
+        return federatedQuery(query, FIND_IDS);
+    }
+    @Override
+    public QueryResultList<Representation> find(FieldQuery query) {
+        log.debug("find with query{}", query);
+        return federatedQuery(query, FIND_REPRESENTATIONS);
+    }
+    @Override
+    public QueryResultList<Entity> findEntities(FieldQuery query) {
+        log.debug("findEntities for query{}", query);
+        return federatedQuery(query, FIND_ENTITIES);
+    }
+    /**
+     * Executes the parsed query on all {@link #referencedSites} that
+     * {@link Site#supportsSearch() support search}. If an {@link #executor} is
+     * available the sites are queried in parallel. Results are merged by
+     * alternately taking the next result of each site. Results with an ID
+     * already present are ignored. Finally the limit and offset of the parsed
+     * query are applied to the merged results.
+     * @param query the query
+     * @param siteQuery used to execute the query on a site
+     * @return the merged results
+     */
+    private <T> QueryResultList<T> federatedQuery(FieldQuery query, final SiteQuery<T> siteQuery){
+        //every site needs to return the results up to offset + limit to allow
+        //the correct merging of the results
+        final FieldQuery siteFieldQuery = query.clone();
+        siteFieldQuery.setOffset(0);
+        if(query.getLimit() != null){
+            siteFieldQuery.setLimit(query.getOffset() + query.getLimit());
+        }
+        final List<Site> sites = new ArrayList<Site>(referencedSites.size());
         for(Site site : referencedSites){
-            if(site.supportsSearch()){
+            if(site.supportsSearch()){ //do not search on sites that do not support it
+                sites.add(site);
+            } else {
+                log.debug(" > Site {} does not support queries",site.getId());
+            }
+        }
+        List<QueryResultList<T>> siteResults = new ArrayList<QueryResultList<T>>(sites.size());
+        Set<String> failedSites = new HashSet<String>();
+        Set<String> timedOutSites = new HashSet<String>();
+        ExecutorService executor = this.executor;
+        if(executor == null || sites.size() < 2){
+            for(Site site : sites){
                 log.debug(" > query site {}",site.getId());
                 try {
-                    QueryResultList<String> results = site.findReferences(query);
-                    if(processedQuery == null){
-                        processedQuery = results.getQuery();
-                    }
-                    if(!results.isEmpty() && queryWithResults == null){
-                        processedQuery = results.getQuery();
-                    }
-                    for(String entityId : results){
-                        entityIds.add(entityId);
-                    }
+                    siteResults.add(siteQuery.find(site, siteFieldQuery));
                 } catch (SiteException e) {
                     log.warn("Unable to access Site "+site.getConfiguration().getName()+
                         " (id = "+site.getId()+")",e);
+                    failedSites.add(site.getId());
                 }
-            } else {
-                log.debug(" > Site {} does not support queries",site.getId());
             }
-        }
-        return new QueryResultListImpl<String>(
-                queryWithResults != null ? queryWithResults : //use the query with results
-                    processedQuery != null ? processedQuery : //if not a processed
-                        query, //else the parsed one
-                            entityIds.iterator(),String.class);
-    }
-    @Override
-    public QueryResultList<Representation> find(FieldQuery query) {
-        log.debug("find with query{}", query);
-        Set<Representation> representations = new HashSet<Representation>();
-        //TODO: The QueryResultList expects that the query as executed is added
-        //to the response. However when executing queries on multiple site they
-        //might support a different set of features and therefore execute
-        //different variants. For now I return simple the query as executed by
-        //the first Site that contributes results
-        FieldQuery processedQuery = null;
-        FieldQuery queryWithResults = null; 
-        for(Site site : referencedSites){
-            if(site.supportsSearch()){
-                log.debug(" > query site {}",site.getId());
-                try {
-                    QueryResultList<Representation> results = site.find(query);
-                    if(processedQuery == null){
-                        processedQuery = results.getQuery();
-                    }
-                    if(!results.isEmpty() && queryWithResults == null){
-                        processedQuery = results.getQuery();
+        } else {
+            List<Future<QueryResultList<T>>> futures = new ArrayList<Future<QueryResultList<T>>>(sites.size());
+            for(final Site site : sites){
+                log.debug(" > query site {} (async)",site.getId());
+                futures.add(executor.submit(new Callable<QueryResultList<T>>() {
+                    @Override
+                    public QueryResultList<T> call() throws SiteException {
+                        return siteQuery.find(site, siteFieldQuery);
                     }
-                    for(Representation rep : results){
-                        if(!representations.contains(rep)){ //do not override
-                            representations.add(rep);
-                        } else {
-                            log.info("Entity {} found on more than one Referenced Site" +
-                            		" -> Representation of Site {} is ignored",
-                            		rep.getId(),site.getConfiguration().getName());
-                        }
+                }));
+            }
+            long deadline = queryTimeout > 0 ? System.currentTimeMillis() + queryTimeout : -1;
+            for(int i = 0; i < sites.size(); i++){
+                Site site = sites.get(i);
+                Future<QueryResultList<T>> future = futures.get(i);
+                try {
+                    if(deadline > 0){
+                        siteResults.add(future.get(
+                            Math.max(0, deadline - System.currentTimeMillis()),
+                            TimeUnit.MILLISECONDS));
+                    } else {
+                        siteResults.add(future.get());
                     }
-                } catch (SiteException e) {
+                } catch (TimeoutException e) {
+                    log.warn("Site {} (id = {}) did not answer within {}ms",
+                        new Object[]{site.getConfiguration().getName(),site.getId(),queryTimeout});
+                    future.cancel(true);
+                    timedOutSites.add(site.getId());
+                } catch (ExecutionException e) {
                     log.warn("Unable to access Site "+site.getConfiguration().getName()+
-                        " (id = "+site.getId()+")",e);
+                        " (id = "+site.getId()+")",e.getCause());
+                    failedSites.add(site.getId());
+                } catch (InterruptedException e) {
+                    log.warn("Interrupted while waiting for results of Site {} (id = {})" +
+                        " -> do not wait for the remaining {} Sites",
+                        new Object[]{site.getConfiguration().getName(),site.getId(),
+                            sites.size() - i - 1});
+                    Thread.currentThread().interrupt(); //restore the interrupted state
+                    for(int j = i; j < sites.size(); j++){
+                        futures.get(j).cancel(true);
+                        timedOutSites.add(sites.get(j).getId());
+                    }
+                    break;
                 }
-            } else {
-                log.debug(" > Site {} does not support queries",site.getId());
             }
         }
-        return new QueryResultListImpl<Representation>(
-                queryWithResults != null ? queryWithResults : //use the query with results
-                    processedQuery != null ? processedQuery : //if not a processed
-                        query, //else the parsed one
-                            representations,Representation.class);
-    }
-    @Override
-    public QueryResultList<Entity> findEntities(FieldQuery query) {
-        log.debug("findEntities for query{}", query);
+        //merge the results
         //TODO: The QueryResultList expects that the query as executed is added
         //to the response. However when executing queries on multiple site they
         //might support a different set of features and therefore execute
         //different variants. For now I return simple the query as executed by
         //the first Site that contributes results
         FieldQuery processedQuery = null;
-        FieldQuery queryWithResults = null; 
-        Set<Entity> entities = new HashSet<Entity>();
-        for(Site site : referencedSites){
-            if(site.supportsSearch()){ //do not search on sites that do not support it
-                log.debug(" > query site {}",site.getId());
-                try {
-                    QueryResultList<Entity> results = site.findEntities(query);
-                    if(processedQuery == null){
-                        processedQuery = results.getQuery();
-                    }
-                    if(!results.isEmpty() && queryWithResults == null){
-                        processedQuery = results.getQuery();
-                    }
-                    for(Entity rep : results){
-                        if(!entities.contains(rep)){ //do not override
-                            entities.add(rep);
-                        } else {
-                            //TODO: find a solution for this problem
-                            //      e.g. allow to add the site for entities
-                            log.info("Entity {} found on more than one Referenced Site" +
-                            		" -> Representation of Site {} is ignored",
-                            		rep.getId(),site.getConfiguration().getName());
-                        }
+        List<Iterator<T>> iterators = new ArrayList<Iterator<T>>(siteResults.size());
+        for(QueryResultList<T> results : siteResults){
+            if(processedQuery == null && results.getQuery() != null && !results.isEmpty()){
+                processedQuery = results.getQuery().clone();
+            }
+            iterators.add(results.iterator());
+        }
+        Map<String,T> merged = new LinkedHashMap<String,T>();
+        boolean hasNext = true;
+        while(hasNext){
+            hasNext = false;
+            for(int i = 0; i < iterators.size(); i++){
+                Iterator<T> it = iterators.get(i);
+                if(it.hasNext()){
+                    hasNext = true;
+                    T result = it.next();
+                    String id = siteQuery.getId(result);
+                    if(!merged.containsKey(id)){ //do not override
+                        merged.put(id, result);
+                    } else {
+                        log.info("Entity {} found on more than one Referenced Site" +
+                                " -> result of Site {} is ignored", id, sites.get(i).getId());
                     }
-                } catch (SiteException e) {
-                    log.warn("Unable to access Site "+site.getConfiguration().getName()+
-                        " (id = "+site.getId()+")",e);
                 }
-            } else {
-                log.debug(" > Site {} does not support queries",site.getId());
             }
         }
-        return new QueryResultListImpl<Entity>(
-                queryWithResults != null ? queryWithResults : //use the query with results
-                    processedQuery != null ? processedQuery : //if not a processed
-                        query, //else the parsed one
-                            entities,Entity.class);
+        List<T> results = new ArrayList<T>(merged.values());
+        int fromIndex = Math.min(query.getOffset(), results.size());
+        int toIndex = query.getLimit() == null ? results.size() :
+            Math.min(results.size(), fromIndex + query.getLimit());
+        if(processedQuery == null){
+            processedQuery = query;
+        } else {
+            processedQuery.setOffset(query.getOffset());
+            processedQuery.setLimit(query.getLimit());
+        }
+        return new FederatedQueryResultList<T>(processedQuery,
+            new ArrayList<T>(results.subList(fromIndex, toIndex)), siteQuery.type,
+            failedSites, timedOutSites);
+    }
+    /**
+     * Used by {@link SiteManagerImpl#federatedQuery(FieldQuery, SiteQuery)}
+     * to execute queries on a single site.
+     * @param <T> the type of the results
+     */
+    private static abstract class SiteQuery<T> {
+        final Class<T> type;
+        SiteQuery(Class<T> type){
+            this.type = type;
+        }
+        abstract QueryResultList<T> find(Site site, FieldQuery query) throws SiteException;
+        abstract String getId(T result);
     }
+    private static final SiteQuery<String> FIND_IDS = new SiteQuery<String>(String.class) {
+        @Override
+        QueryResultList<String> find(Site site, FieldQuery query) throws SiteException {
+            return site.findReferences(query);
+        }
+        @Override
+        String getId(String result) {
+            return result;
+        }
+    };
+    private static final SiteQuery<Representation> FIND_REPRESENTATIONS = new SiteQuery<Representation>(Representation.class) {
+        @Override
+        QueryResultList<Representation> find(Site site, FieldQuery query) throws SiteException {
+            return site.find(query);
+        }
+        @Override
+        String getId(Representation result) {
+            return result.getId();
+        }
+    };
+    private static final SiteQuery<Entity> FIND_ENTITIES = new SiteQuery<Entity>(Entity.class) {
+        @Override
+        QueryResultList<Entity> find(Site site, FieldQuery query) throws SiteException {
+            return site.findEntities(query);
+        }
+        @Override
+        String getId(Entity result) {
+            return result.getId();
+        }
+    };
     @Override
     public InputStream getContent(String entityId, String contentType) {
         Collection<Site> sites = getSitesByEntityPrefix(entityId);
@@ -432,7 +573,16 @@ public class SiteManagerImpl implements SiteManager {
         log.debug("Entity {} not found on any of the following Sites {}",entityId,sites);
         return null;
     }
-
-
-
+    /**
+     * Creates daemon threads used to query referenced sites
+     */
+    private static class SiteQueryThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "Entityhub SiteManager Query Thread "+count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
 }
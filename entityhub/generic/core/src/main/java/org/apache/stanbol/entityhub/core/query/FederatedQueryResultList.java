@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.stanbol.entityhub.core.query;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+
+import org.apache.stanbol.entityhub.servicesapi.query.FieldQuery;
+import org.apache.stanbol.entityhub.servicesapi.query.QueryResultList;
+
+/**
+ * {@link QueryResultList} for queries executed on multiple
+ * {@link org.apache.stanbol.entityhub.servicesapi.site.Site}s. In addition to
+ * the results it provides the IDs of the Sites that have failed or did not
+ * answer within the configured timeout. In such cases the results are
+ * {@link #isPartial() partial}.
+ *
+ * @param <T> the type of the results
+ */
+public class FederatedQueryResultList<T> extends QueryResultListImpl<T> {
+
+    private final Set<String> failedSites;
+    private final Set<String> timedOutSites;
+
+    /**
+     * Constructs a result list for a federated query
+     * @param query The query uses to select the results
+     * @param results The merged results of the query
+     * @param type the type of the results
+     * @param failedSites the IDs of the sites that failed or <code>null</code> if none
+     * @param timedOutSites the IDs of the sites that did not answer in time
+     * or <code>null</code> if none
+     */
+    public FederatedQueryResultList(FieldQuery query, Collection<T> results, Class<T> type,
+            Set<String> failedSites, Set<String> timedOutSites){
+        super(query, results, type);
+        this.failedSites = failedSites == null ? Collections.<String>emptySet() :
+            Collections.unmodifiableSet(failedSites);
+        this.timedOutSites = timedOutSites == null ? Collections.<String>emptySet() :
+            Collections.unmodifiableSet(timedOutSites);
+    }
+    /**
+     * The IDs of the Sites that failed to execute the query
+     * @return the IDs of failed Sites
+     */
+    public Set<String> getFailedSites() {
+        return failedSites;
+    }
+    /**
+     * The IDs of the Sites that did not answer within the configured timeout
+     * @return the IDs of the Sites
+     */
+    public Set<String> getTimedOutSites() {
+        return timedOutSites;
+    }
+    /**
+     * If results of some Sites are missing
+     * @return <code>true</code> if some Sites have failed or timed out.
+     */
+    public boolean isPartial(){
+        return !failedSites.isEmpty() || !timedOutSites.isEmpty();
+    }
+}
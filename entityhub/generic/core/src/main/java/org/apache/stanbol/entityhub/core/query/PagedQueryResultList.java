@@ -0,0 +1,332 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.stanbol.entityhub.core.query;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.apache.stanbol.entityhub.servicesapi.EntityhubException;
+import org.apache.stanbol.entityhub.servicesapi.model.Representation;
+import org.apache.stanbol.entityhub.servicesapi.query.FieldQuery;
+import org.apache.stanbol.entityhub.servicesapi.query.QueryResultList;
+import org.apache.stanbol.entityhub.servicesapi.yard.Yard;
+import org.apache.stanbol.entityhub.servicesapi.yard.YardException;
+
+/**
+ * {@link QueryResultList} that does not hold all results in memory, but
+ * retrieves them page by page while iterating. Every page is requested by
+ * executing a copy of the query with an adapted offset and limit. This allows
+ * to process (e.g. serialise) large result sets with constant memory.<p>
+ * Each call to {@link #iterator()} re-executes the query starting from the
+ * first page. Only the first page is kept in memory so that
+ * {@link #isEmpty()} and the first iteration do not need to request it twice.
+ * <b>NOTE:</b> {@link #size()} and {@link #results()} need to retrieve
+ * all results and should therefore be avoided for large result sets.<p>
+ * Errors while retrieving a page are thrown as {@link EntityhubException}s
+ * by the {@link Iterator}.
+ *
+ * @param <T> the type of the results
+ */
+public class PagedQueryResultList<T> implements QueryResultList<T> {
+
+    /**
+     * The default number of results retrieved with a single request
+     */
+    public static final int DEFAULT_PAGE_SIZE = 100;
+
+    /**
+     * Loads a page of results
+     * @param <T> the type of the results
+     */
+    public interface PageLoader<T> {
+        /**
+         * Executes the parsed query. The offset and limit of the parsed
+         * query are already adapted to the requested page.
+         * @param pageQuery the query for the page
+         * @return the results of the page
+         * @throws EntityhubException on any error while executing the query
+         */
+        QueryResultList<T> loadPage(FieldQuery pageQuery) throws EntityhubException;
+    }
+
+    private final FieldQuery query;
+    private final Class<T> type;
+    private final int pageSize;
+    private final PageLoader<T> loader;
+    /**
+     * lazily initialised on the first request
+     */
+    private Page<T> firstPage;
+    /**
+     * lazily initialised if {@link #results()} or {@link #size()} is called
+     */
+    private Collection<T> results;
+
+    /**
+     * Creates a paged result list for the parsed query
+     * @param query the query. The offset and limit of the query define the
+     * results of this list. A <code>null</code> limit means that all results
+     * are retrieved.
+     * @param type the type of the results
+     * @param pageSize the number of results retrieved with a single request.
+     * If &lt;= 0 the {@link #DEFAULT_PAGE_SIZE} is used
+     * @param loader used to load the pages
+     * @throws IllegalArgumentException if the parsed query, type or loader
+     * is <code>null</code>
+     */
+    public PagedQueryResultList(FieldQuery query, Class<T> type, int pageSize, PageLoader<T> loader)
+            throws IllegalArgumentException {
+        if(query == null){
+            throw new IllegalArgumentException("The parsed Query MUST NOT be NULL!");
+        }
+        if(type == null){
+            throw new IllegalArgumentException("The type of the results MUST NOT be NULL");
+        }
+        if(loader == null){
+            throw new IllegalArgumentException("The parsed PageLoader MUST NOT be NULL!");
+        }
+        this.query = query;
+        this.type = type;
+        this.pageSize = pageSize <= 0 ? DEFAULT_PAGE_SIZE : pageSize;
+        this.loader = loader;
+    }
+
+    /**
+     * Creates a paged result list that uses {@link Yard#find(FieldQuery)}
+     * to retrieve the pages.
+     * @param yard the yard
+     * @param query the query
+     * @param pageSize the page size
+     * @return the paged result list
+     */
+    public static PagedQueryResultList<Representation> find(final Yard yard, FieldQuery query, int pageSize){
+        return new PagedQueryResultList<Representation>(query, Representation.class, pageSize,
+            new PageLoader<Representation>() {
+                @Override
+                public QueryResultList<Representation> loadPage(FieldQuery pageQuery) throws YardException {
+                    return yard.find(pageQuery);
+                }
+        });
+    }
+    /**
+     * Creates a paged result list that uses {@link Yard#findRepresentation(FieldQuery)}
+     * to retrieve the pages.
+     * @param yard the yard
+     * @param query the query
+     * @param pageSize the page size
+     * @return the paged result list
+     */
+    public static PagedQueryResultList<Representation> findRepresentation(final Yard yard, FieldQuery query, int pageSize){
+        return new PagedQueryResultList<Representation>(query, Representation.class, pageSize,
+            new PageLoader<Representation>() {
+                @Override
+                public QueryResultList<Representation> loadPage(FieldQuery pageQuery) throws YardException {
+                    return yard.findRepresentation(pageQuery);
+                }
+        });
+    }
+    /**
+     * Creates a paged result list that uses {@link Yard#findReferences(FieldQuery)}
+     * to retrieve the pages.
+     * @param yard the yard
+     * @param query the query
+     * @param pageSize the page size
+     * @return the paged result list
+     */
+    public static PagedQueryResultList<String> findReferences(final Yard yard, FieldQuery query, int pageSize){
+        return new PagedQueryResultList<String>(query, String.class, pageSize,
+            new PageLoader<String>() {
+                @Override
+                public QueryResultList<String> loadPage(FieldQuery pageQuery) throws YardException {
+                    return yard.findReferences(pageQuery);
+                }
+        });
+    }
+
+    /**
+     * Getter for the number of results retrieved with a single request
+     * @return the page size
+     */
+    public final int getPageSize() {
+        return pageSize;
+    }
+
+    @Override
+    public final FieldQuery getQuery() {
+        return query;
+    }
+
+    @Override
+    public final Set<String> getSelectedFields() {
+        return query.getSelectedFields();
+    }
+
+    @Override
+    public final Class<T> getType() {
+        return type;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new PagingIterator();
+    }
+    /**
+     * Retrieves all results. Only use this for small result sets.
+     */
+    @Override
+    public synchronized Collection<T> results() {
+        if(results == null){
+            List<T> all = new ArrayList<T>();
+            for(T result : this){
+                all.add(result);
+            }
+            results = Collections.unmodifiableList(all);
+        }
+        return results;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return getFirstPage().results.isEmpty();
+    }
+    /**
+     * Retrieves all results. Only use this for small result sets.
+     */
+    @Override
+    public int size() {
+        return results().size();
+    }
+
+    private synchronized Page<T> getFirstPage() {
+        if(firstPage == null){
+            firstPage = loadPage(query.getOffset(), getPageLimit(0));
+        }
+        return firstPage;
+    }
+    /**
+     * The number of results requested for the page starting after the parsed
+     * number of already retrieved results.
+     * @param retrieved the number of already retrieved results
+     * @return the limit for the next page. <code>0</code> if all results are
+     * already retrieved
+     */
+    private int getPageLimit(int retrieved) {
+        Integer limit = query.getLimit();
+        return limit == null ? pageSize : Math.max(0, Math.min(pageSize, limit - retrieved));
+    }
+    /**
+     * Loads the results for the page with the parsed offset and limit
+     * @param offset the offset
+     * @param limit the limit
+     * @return the page. <code>null</code> values are removed from the results.
+     */
+    private Page<T> loadPage(int offset, int limit) {
+        if(limit <= 0){
+            return new Page<T>(Collections.<T>emptyList(), 0);
+        }
+        FieldQuery pageQuery = query.clone();
+        pageQuery.setOffset(offset);
+        pageQuery.setLimit(limit);
+        QueryResultList<T> page = loader.loadPage(pageQuery);
+        if(page == null){
+            return new Page<T>(Collections.<T>emptyList(), limit);
+        }
+        //the limit might be reduced by the queried component (e.g. if the
+        //page size exceeds the maximum number of results supported by a Yard)
+        FieldQuery executed = page.getQuery();
+        if(executed != null && executed.getLimit() != null && 
+                executed.getLimit() > 0 && executed.getLimit() < limit){
+            limit = executed.getLimit();
+        }
+        List<T> results = new ArrayList<T>(limit);
+        for(T result : page){
+            if(result != null){
+                results.add(result);
+            }
+        }
+        return new Page<T>(results, limit);
+    }
+    /**
+     * The results of a page and the number of requested results
+     */
+    private static class Page<T> {
+        final List<T> results;
+        final int requested;
+        Page(List<T> results, int requested){
+            this.results = results;
+            this.requested = requested;
+        }
+        /**
+         * If the page contains all requested results. If not there are no
+         * further results.
+         */
+        boolean isComplete(){
+            return requested > 0 && results.size() >= requested;
+        }
+    }
+
+    /**
+     * Iterates over the pages and requests the next page after the current
+     * one was consumed.
+     */
+    private class PagingIterator implements Iterator<T> {
+
+        private Iterator<T> current;
+        private int retrieved;
+        /**
+         * <code>false</code> as soon as a page with less results as requested
+         * was loaded
+         */
+        private boolean moreResults;
+
+        PagingIterator() {
+            Page<T> page = getFirstPage();
+            current = page.results.iterator();
+            retrieved = page.results.size();
+            moreResults = page.isComplete();
+        }
+
+        @Override
+        public boolean hasNext() {
+            while(!current.hasNext() && moreResults){
+                Page<T> page = loadPage(query.getOffset() + retrieved, getPageLimit(retrieved));
+                retrieved = retrieved + page.results.size();
+                moreResults = page.isComplete();
+                current = page.results.iterator();
+            }
+            return current.hasNext();
+        }
+
+        @Override
+        public T next() {
+            if(!hasNext()){
+                throw new NoSuchElementException();
+            }
+            return current.next();
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("Removal of results is not supported");
+        }
+    }
+}
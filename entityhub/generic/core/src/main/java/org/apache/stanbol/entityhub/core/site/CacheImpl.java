@@ -16,6 +16,7 @@
  */
 package org.apache.stanbol.entityhub.core.site;
 
+import java.util.Collection;
 
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.ConfigurationPolicy;
@@ -217,6 +218,11 @@ public class CacheImpl implements Cache {
         return yard.getRepresentation(id);
     }
 
+    @Override
+    public Collection<Representation> getRepresentations(Iterable<String> ids) throws YardException, IllegalArgumentException {
+        return yard.getRepresentations(ids);
+    }
+
     @Override
     public ValueFactory getValueFactory() {
         return yard.getValueFactory();
@@ -0,0 +1,235 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.stanbol.entityhub.core.site;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.stanbol.entityhub.core.model.InMemoryRepresentation;
+import org.apache.stanbol.entityhub.core.model.InMemoryValueFactory;
+import org.apache.stanbol.entityhub.servicesapi.model.Reference;
+import org.apache.stanbol.entityhub.servicesapi.model.Representation;
+import org.apache.stanbol.entityhub.servicesapi.model.Text;
+import org.apache.stanbol.entityhub.servicesapi.yard.Cache;
+
+/**
+ * Size bounded in-memory cache for {@link Representation}s. It is intended to
+ * be used in front of the Yard based {@link Cache} of a referenced site to
+ * avoid the costs of requesting and deserialising frequently used entities.<p>
+ * The size of the cache is limited by the (estimated) number of bytes
+ * needed by the cached {@link Representation}s. If this limit is exceeded the
+ * least recently used entries are evicted. Entries also expire after the
+ * configured time to live.<p>
+ * Entries are never explicitly invalidated. The {@link Cache} of a referenced
+ * site is only updated by the site itself, and in this case the updated
+ * {@link Representation} is also {@link #put(Representation) put} to this
+ * cache. Changes applied to the {@link Cache} by other components only become
+ * visible after cached entries have expired. Because of that the
+ * time to live MUST BE configured accordingly.<p>
+ * {@link Representation}s are mutable. Because of that this cache stores
+ * copies of the parsed {@link Representation}s and also returns copies.<p>
+ * This implementation is thread safe.
+ */
+public class MemoryRepresentationCache {
+
+    /**
+     * Estimated overhead of an entry (map entry, representation and the
+     * internal map)
+     */
+    private static final int ENTRY_OVERHEAD = 128;
+    /**
+     * Estimated overhead of a field or value (object headers, references)
+     */
+    private static final int VALUE_OVERHEAD = 40;
+
+    private final InMemoryValueFactory valueFactory = InMemoryValueFactory.getInstance();
+    private final long maxBytes;
+    private final long ttl;
+    /**
+     * uses access order to evict the least recently used entries
+     */
+    private final LinkedHashMap<String,CacheEntry> entries =
+            new LinkedHashMap<String,CacheEntry>(16, 0.75f, true);
+    private long bytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * Creates a new in-memory cache
+     * @param maxBytes the maximum number of bytes used by cached entries
+     * @param ttl the time to live for entries in milliseconds. Values &lt;= 0
+     * indicate that entries do not expire
+     * @throws IllegalArgumentException if <code>maxBytes &lt;= 0</code>
+     */
+    public MemoryRepresentationCache(long maxBytes, long ttl) {
+        if(maxBytes <= 0){
+            throw new IllegalArgumentException("The maximum size of the cache MUST BE > 0!");
+        }
+        this.maxBytes = maxBytes;
+        this.ttl = ttl;
+    }
+
+    /**
+     * Getter for a copy of the cached {@link Representation}
+     * @param id the id
+     * @return a copy of the cached representation or <code>null</code> if
+     * not cached or expired
+     */
+    public Representation get(String id) {
+        CacheEntry entry;
+        synchronized (entries) {
+            entry = entries.get(id);
+            if(entry != null && entry.isExpired(System.currentTimeMillis())){
+                removeEntry(id);
+                evictions.incrementAndGet();
+                entry = null;
+            }
+        }
+        if(entry == null){
+            misses.incrementAndGet();
+            return null;
+        } else {
+            hits.incrementAndGet();
+            return copy(entry.representation);
+        }
+    }
+
+    /**
+     * Adds (or replaces) the parsed {@link Representation}. Representations
+     * that exceed the maximum size of this cache are ignored.
+     * @param representation the representation to cache
+     */
+    public void put(Representation representation) {
+        if(representation == null){
+            return;
+        }
+        InMemoryRepresentation copy = copy(representation);
+        long weight = weigh(copy);
+        CacheEntry entry = new CacheEntry(copy, weight,
+            ttl > 0 ? System.currentTimeMillis() + ttl : Long.MAX_VALUE);
+        synchronized (entries) {
+            removeEntry(copy.getId());
+            if(weight > maxBytes){
+                return; //too big for this cache
+            }
+            entries.put(copy.getId(), entry);
+            bytes = bytes + weight;
+            //evict the least recently used entries
+            Iterator<CacheEntry> it = entries.values().iterator();
+            while(bytes > maxBytes && it.hasNext()){
+                CacheEntry evicted = it.next();
+                it.remove();
+                bytes = bytes - evicted.weight;
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * The statistics of this cache with the keys <code>entries</code>,
+     * <code>bytes</code>, <code>maxBytes</code>, <code>hits</code>,
+     * <code>misses</code> and <code>evictions</code>
+     * @return the statistics (read only)
+     */
+    public Map<String,Long> getStatistics() {
+        Map<String,Long> stats = new LinkedHashMap<String,Long>();
+        synchronized (entries) {
+            stats.put("entries", Long.valueOf(entries.size()));
+            stats.put("bytes", Long.valueOf(bytes));
+        }
+        stats.put("maxBytes", Long.valueOf(maxBytes));
+        stats.put("hits", Long.valueOf(hits.get()));
+        stats.put("misses", Long.valueOf(misses.get()));
+        stats.put("evictions", Long.valueOf(evictions.get()));
+        return Collections.unmodifiableMap(stats);
+    }
+
+    /**
+     * MUST BE called while holding the lock on {@link #entries}
+     */
+    private void removeEntry(String id) {
+        CacheEntry removed = entries.remove(id);
+        if(removed != null){
+            bytes = bytes - removed.weight;
+        }
+    }
+
+    private InMemoryRepresentation copy(Representation representation) {
+        if(representation instanceof InMemoryRepresentation){
+            try {
+                return (InMemoryRepresentation)((InMemoryRepresentation)representation).clone();
+            } catch (CloneNotSupportedException e) {
+                //not expected -> copy the values
+            }
+        }
+        InMemoryRepresentation copy = (InMemoryRepresentation)valueFactory.createRepresentation(
+            representation.getId());
+        for(Iterator<String> fields = representation.getFieldNames(); fields.hasNext();){
+            String field = fields.next();
+            for(Iterator<Object> values = representation.get(field); values.hasNext();){
+                copy.add(field, values.next());
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * Estimates the number of bytes used by the parsed {@link Representation}
+     */
+    private static long weigh(Representation representation) {
+        long weight = ENTRY_OVERHEAD + 2 * representation.getId().length();
+        for(Iterator<String> fields = representation.getFieldNames(); fields.hasNext();){
+            String field = fields.next();
+            weight = weight + VALUE_OVERHEAD + 2 * field.length();
+            for(Iterator<Object> values = representation.get(field); values.hasNext();){
+                Object value = values.next();
+                weight = weight + VALUE_OVERHEAD;
+                if(value instanceof Text){
+                    Text text = (Text)value;
+                    weight = weight + 2 * text.getText().length() +
+                        (text.getLanguage() == null ? 0 : 2 * text.getLanguage().length());
+                } else if(value instanceof Reference){
+                    weight = weight + 2 * ((Reference)value).getReference().length();
+                } else {
+                    weight = weight + 2 * value.toString().length();
+                }
+            }
+        }
+        return weight;
+    }
+
+    private static class CacheEntry {
+        final InMemoryRepresentation representation;
+        final long weight;
+        final long expires;
+
+        CacheEntry(InMemoryRepresentation representation, long weight, long expires) {
+            this.representation = representation;
+            this.weight = weight;
+            this.expires = expires;
+        }
+
+        boolean isExpired(long now) {
+            return now > expires;
+        }
+    }
+}
@@ -47,6 +47,18 @@ public class ReferencedSiteConfigurationImpl extends SiteConfigurationImpl imple
                     CACHE_STRATEGY,config.get(CACHE_STRATEGY),getId(),
                         Arrays.toString(CacheStrategy.values()),e));
         }
+        try {
+            if(getMemoryCacheSize() < 0){
+                throw new ConfigurationException(MEMORY_CACHE_SIZE, 
+                    "The size of the in-memory cache MUST NOT be negative!");
+            }
+            getMemoryCacheTtl();
+        } catch (NumberFormatException e) {
+            throw new ConfigurationException(MEMORY_CACHE_SIZE, 
+                String.format("Unable to parse in-memory cache configuration (%s=%s, %s=%s) for Site %s!",
+                    MEMORY_CACHE_SIZE,config.get(MEMORY_CACHE_SIZE),
+                    MEMORY_CACHE_TTL,config.get(MEMORY_CACHE_TTL),getId()),e);
+        }
         //check that a cacheId is set if the CacheStrategy != none
         if(CacheStrategy.none != getCacheStrategy() && getCacheId() == null){
             throw new ConfigurationException(CACHE_ID, 
@@ -132,6 +144,58 @@ public class ReferencedSiteConfigurationImpl extends SiteConfigurationImpl imple
         }
     }
 
+    @Override
+    public final int getMemoryCacheSize() {
+        Object size = config.get(MEMORY_CACHE_SIZE);
+        if(size instanceof Number){
+            return ((Number)size).intValue();
+        } else if(size != null && !size.toString().isEmpty()){
+            return Integer.parseInt(size.toString());
+        } else {
+            return 0;
+        }
+    }
+    /**
+     * 
+     * @param size the size in MByte or <code>null</code> to deactivate the
+     * in-memory cache
+     * @throws UnsupportedOperationException in case this configuration is {@link #readonly}
+     * @see #getMemoryCacheSize()
+     */
+    public final void setMemoryCacheSize(Integer size) throws UnsupportedOperationException {
+        if(size == null){
+            config.remove(MEMORY_CACHE_SIZE);
+        } else {
+            config.put(MEMORY_CACHE_SIZE, size);
+        }
+    }
+
+    @Override
+    public final int getMemoryCacheTtl() {
+        Object ttl = config.get(MEMORY_CACHE_TTL);
+        if(ttl instanceof Number){
+            return ((Number)ttl).intValue();
+        } else if(ttl != null && !ttl.toString().isEmpty()){
+            return Integer.parseInt(ttl.toString());
+        } else {
+            return DEFAULT_MEMORY_CACHE_TTL;
+        }
+    }
+    /**
+     * 
+     * @param ttl the time to live in seconds or <code>null</code> to use the
+     * default
+     * @throws UnsupportedOperationException in case this configuration is {@link #readonly}
+     * @see #getMemoryCacheTtl()
+     */
+    public final void setMemoryCacheTtl(Integer ttl) throws UnsupportedOperationException {
+        if(ttl == null){
+            config.remove(MEMORY_CACHE_TTL);
+        } else {
+            config.put(MEMORY_CACHE_TTL, ttl);
+        }
+    }
+
     @Override
     public final String getEntityDereferencerType() {
         Object dereferencer = config.get(ENTITY_DEREFERENCER_TYPE);
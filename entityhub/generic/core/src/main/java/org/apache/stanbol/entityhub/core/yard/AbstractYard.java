@@ -16,8 +16,12 @@
  */
 package org.apache.stanbol.entityhub.core.yard;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Dictionary;
 import java.util.Hashtable;
+import java.util.LinkedHashSet;
+import java.util.Set;
 
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Properties;
@@ -169,6 +173,45 @@ public abstract class AbstractYard implements Yard {
     }
 
 
+    /**
+     * Default implementation that calls {@link #getRepresentation(String)} for
+     * every parsed id. Subclasses should override this if the backend supports
+     * to retrieve multiple Representations with a single request.
+     * @see Yard#getRepresentations(Iterable)
+     */
+    @Override
+    public Collection<Representation> getRepresentations(Iterable<String> ids) throws YardException, IllegalArgumentException {
+        Set<String> uniqueIds = getUniqueIds(ids);
+        Collection<Representation> representations = new ArrayList<Representation>(uniqueIds.size());
+        for(String id : uniqueIds){
+            Representation rep = getRepresentation(id);
+            if(rep != null){
+                representations.add(rep);
+            }
+        }
+        return representations;
+    }
+    /**
+     * Utility that validates the Iterable parsed to 
+     * {@link #getRepresentations(Iterable)} and returns the unique, non
+     * <code>null</code> and non empty ids in the iteration order.
+     * @param ids the parsed ids
+     * @return the unique ids
+     * @throws IllegalArgumentException if <code>null</code> is parsed as Iterable
+     */
+    protected static final Set<String> getUniqueIds(Iterable<String> ids) throws IllegalArgumentException {
+        if(ids == null){
+            throw new IllegalArgumentException("The parsed Iterable over the IDs MUST NOT be NULL!");
+        }
+        Set<String> uniqueIds = new LinkedHashSet<String>();
+        for(String id : ids){
+            if(id != null && !id.isEmpty()){
+                uniqueIds.add(id);
+            } //else ignore null and empty values
+        }
+        return uniqueIds;
+    }
+
     @Override
     public final String getDescription() {
         if(config == null){
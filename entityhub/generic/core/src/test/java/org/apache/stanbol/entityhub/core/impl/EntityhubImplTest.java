@@ -0,0 +1,166 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.stanbol.entityhub.core.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.stanbol.entityhub.core.model.EntityImpl;
+import org.apache.stanbol.entityhub.servicesapi.EntityhubConfiguration;
+import org.apache.stanbol.entityhub.servicesapi.model.Entity;
+import org.apache.stanbol.entityhub.servicesapi.model.ManagedEntityState;
+import org.apache.stanbol.entityhub.servicesapi.model.MappingState;
+import org.apache.stanbol.entityhub.servicesapi.model.Representation;
+import org.apache.stanbol.entityhub.servicesapi.site.SiteManager;
+import org.apache.stanbol.entityhub.servicesapi.yard.YardException;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests {@link EntityhubImpl#getEntities(Iterable)} for locally managed,
+ * not managed and missing Entities.
+ */
+public class EntityhubImplTest {
+
+    private static final String MANAGED = "http://www.example.org/managed";
+    private static final String MANAGED_NO_METADATA = "http://www.example.org/noMetadata";
+    private static final String MISSING = "http://www.example.org/missing";
+
+    private TestCache yard;
+    private EntityhubImpl entityhub;
+
+    @Before
+    public void init() throws YardException {
+        yard = new TestCache();
+        Representation rep = TestCache.createRepresentation(MANAGED);
+        Entity entity = new EntityImpl("entityhub", rep, yard.create(MANAGED + ".meta"));
+        ManagedEntity.init(entity, ManagedEntityState.active);
+        yard.store(entity.getRepresentation());
+        yard.store(entity.getMetadata());
+        //data without metadata (e.g. stored directly in the Yard)
+        yard.add(MANAGED_NO_METADATA);
+        entityhub = new EntityhubImpl(yard, createSiteManager(), new TestConfiguration(), null);
+    }
+    /**
+     * The Entityhub only returns locally managed Entities. So the
+     * {@link SiteManager} MUST NOT be used
+     */
+    private static SiteManager createSiteManager() {
+        return (SiteManager)Proxy.newProxyInstance(SiteManager.class.getClassLoader(),
+            new Class<?>[]{SiteManager.class}, new InvocationHandler() {
+                @Override
+                public Object invoke(Object proxy, Method method, Object[] args) {
+                    throw new AssertionError("Unexpected call to SiteManager#" + method.getName());
+                }
+            });
+    }
+
+    @Test
+    public void testGetEntities() throws Exception {
+        Collection<Entity> entities = entityhub.getEntities(
+            Arrays.asList(MANAGED, MISSING, MANAGED_NO_METADATA));
+        assertEquals(1, entities.size());
+        Entity entity = entities.iterator().next();
+        assertEquals(MANAGED, entity.getId());
+        assertEquals(MANAGED + ".meta", entity.getMetadata().getId());
+        assertTrue(ManagedEntity.canWrap(entity));
+        //one request for the data and one for the metadata of the found entities
+        assertEquals(Arrays.asList(
+            Arrays.asList(MANAGED, MISSING, MANAGED_NO_METADATA),
+            Arrays.asList(MANAGED + ".meta", MANAGED_NO_METADATA + ".meta")),
+            yard.bulkRequests);
+        //missing metadata are initialised
+        assertTrue(yard.isRepresentation(MANAGED_NO_METADATA + ".meta"));
+        assertTrue(entityhub.getEntities(Collections.singleton(MISSING)).isEmpty());
+        assertTrue(entityhub.getEntities(Collections.<String>emptySet()).isEmpty());
+    }
+
+    @Test
+    public void testSameResultAsGetEntity() throws Exception {
+        Set<String> ids = new HashSet<String>(Arrays.asList(MANAGED, MISSING, MANAGED_NO_METADATA));
+        Set<String> expected = new HashSet<String>();
+        for(String id : ids){
+            Entity entity = entityhub.getEntity(id);
+            if(entity != null){
+                expected.add(entity.getId());
+            }
+        }
+        Set<String> found = new HashSet<String>();
+        for(Entity entity : entityhub.getEntities(ids)){
+            found.add(entity.getId());
+        }
+        assertEquals(expected, found);
+    }
+
+    @Test(expected = YardException.class)
+    public void testYardFailure() throws Exception {
+        yard.fail = true;
+        entityhub.getEntities(Arrays.asList(MANAGED, MISSING));
+    }
+
+    private static class TestConfiguration implements EntityhubConfiguration {
+
+        @Override
+        public String getID() {
+            return "entityhub";
+        }
+
+        @Override
+        public String getEntityhubPrefix() {
+            return "urn:org.apache.stanbol:entityhub:";
+        }
+
+        @Override
+        public String getName() {
+            return "Test Entityhub";
+        }
+
+        @Override
+        public String getDescription() {
+            return null;
+        }
+
+        @Override
+        public String getEntityhubYardId() {
+            return "test";
+        }
+
+        @Override
+        public Collection<String> getFieldMappingConfig() {
+            return Collections.emptySet();
+        }
+
+        @Override
+        public MappingState getDefaultMappingState() {
+            return MappingState.proposed;
+        }
+
+        @Override
+        public ManagedEntityState getDefaultManagedEntityState() {
+            return ManagedEntityState.proposed;
+        }
+    }
+}
@@ -0,0 +1,204 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.stanbol.entityhub.core.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Dictionary;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.stanbol.entityhub.core.site.ReferencedSiteConfigurationImpl;
+import org.apache.stanbol.entityhub.servicesapi.model.Entity;
+import org.apache.stanbol.entityhub.servicesapi.model.Representation;
+import org.apache.stanbol.entityhub.servicesapi.model.rdf.RdfResourceEnum;
+import org.apache.stanbol.entityhub.servicesapi.site.EntityDereferencer;
+import org.apache.stanbol.entityhub.servicesapi.site.ReferencedSiteConfiguration;
+import org.apache.stanbol.entityhub.servicesapi.site.SiteConfiguration;
+import org.apache.stanbol.entityhub.servicesapi.site.SiteException;
+import org.apache.stanbol.entityhub.servicesapi.yard.CacheStrategy;
+import org.junit.Before;
+import org.junit.Test;
+import org.osgi.service.cm.ConfigurationException;
+
+/**
+ * Tests {@link ReferencedSiteImpl#getEntities(Iterable)} for Entities
+ * retrieved from the in-memory cache, the {@link TestCache} and the
+ * remote site.
+ */
+public class ReferencedSiteImplTest {
+
+    private static final String CACHED = "http://www.example.org/cached";
+    private static final String REMOTE = "http://www.example.org/remote";
+    private static final String MISSING = "http://www.example.org/missing";
+    private static final List<String> IDS = Arrays.asList(
+        CACHED, REMOTE, MISSING, CACHED, null, "");
+
+    private TestCache cache;
+    private TestDereferencer dereferencer;
+
+    @Before
+    public void init() {
+        cache = new TestCache();
+        cache.add(CACHED);
+        dereferencer = new TestDereferencer(CACHED, REMOTE);
+    }
+
+    private static ReferencedSiteImpl createSite(CacheStrategy strategy, int memoryCacheSize,
+            TestCache cache, TestDereferencer dereferencer) throws ConfigurationException {
+        Dictionary<String,Object> config = new Hashtable<String,Object>();
+        config.put(SiteConfiguration.ID, "test");
+        config.put(ReferencedSiteConfiguration.CACHE_STRATEGY, strategy.name());
+        if(strategy != CacheStrategy.none){
+            config.put(ReferencedSiteConfiguration.CACHE_ID, cache.getId());
+        }
+        if(strategy != CacheStrategy.all){
+            config.put(ReferencedSiteConfiguration.ACCESS_URI, "http://www.example.org/");
+            config.put(ReferencedSiteConfiguration.ENTITY_DEREFERENCER_TYPE, "test");
+        }
+        config.put(ReferencedSiteConfiguration.MEMORY_CACHE_SIZE, memoryCacheSize);
+        return new ReferencedSiteImpl(new ReferencedSiteConfigurationImpl(config),
+            dereferencer, null, cache, null);
+    }
+
+    private static Map<String,Object> getCachedStates(Collection<Entity> entities) {
+        Map<String,Object> states = new HashMap<String,Object>();
+        for(Entity entity : entities){
+            assertEquals("test", entity.getSite());
+            states.put(entity.getId(), entity.getMetadata().getFirst(
+                RdfResourceEnum.isChached.getUri()));
+        }
+        assertEquals("Entity returned twice", entities.size(), states.size());
+        return states;
+    }
+
+    @Test
+    public void testCachedAndRemoteEntities() throws Exception {
+        ReferencedSiteImpl site = createSite(CacheStrategy.used, 0, cache, dereferencer);
+        Map<String,Object> states = getCachedStates(site.getEntities(IDS));
+        assertEquals(new HashSet<String>(Arrays.asList(CACHED, REMOTE)), states.keySet());
+        //remote entities are cached
+        assertEquals(Boolean.TRUE, states.get(CACHED));
+        assertEquals(Boolean.TRUE, states.get(REMOTE));
+        assertTrue(cache.isRepresentation(REMOTE));
+        //a single request for the unique and valid IDs to the cache
+        assertEquals(Collections.singletonList(Arrays.asList(CACHED, REMOTE, MISSING)),
+            cache.bulkRequests);
+        //only IDs missing in the cache are dereferenced
+        assertEquals(Arrays.asList(REMOTE, MISSING), dereferencer.requests);
+    }
+
+    @Test
+    public void testCacheStrategyAll() throws Exception {
+        ReferencedSiteImpl site = createSite(CacheStrategy.all, 0, cache, null);
+        Map<String,Object> states = getCachedStates(site.getEntities(IDS));
+        //no remote lookups for CacheStrategy.all
+        assertEquals(Collections.singleton(CACHED), states.keySet());
+        assertEquals(1, cache.bulkRequests.size());
+    }
+
+    @Test
+    public void testNoCache() throws Exception {
+        ReferencedSiteImpl site = createSite(CacheStrategy.none, 0, null, dereferencer);
+        Map<String,Object> states = getCachedStates(site.getEntities(IDS));
+        assertEquals(new HashSet<String>(Arrays.asList(CACHED, REMOTE)), states.keySet());
+        assertEquals(Boolean.FALSE, states.get(CACHED));
+        assertEquals(Boolean.FALSE, states.get(REMOTE));
+        assertEquals(Arrays.asList(CACHED, REMOTE, MISSING), dereferencer.requests);
+    }
+
+    @Test
+    public void testRemoteFallbackOnCacheFailure() throws Exception {
+        cache.fail = true;
+        ReferencedSiteImpl site = createSite(CacheStrategy.used, 0, cache, dereferencer);
+        Map<String,Object> states = getCachedStates(site.getEntities(IDS));
+        assertEquals(new HashSet<String>(Arrays.asList(CACHED, REMOTE)), states.keySet());
+        //all entities are dereferenced from the remote site
+        assertEquals(Arrays.asList(CACHED, REMOTE, MISSING), dereferencer.requests);
+    }
+
+    @Test(expected = SiteException.class)
+    public void testCacheFailureWithoutRemoteSite() throws Exception {
+        cache.fail = true;
+        createSite(CacheStrategy.all, 0, cache, null).getEntities(IDS);
+    }
+
+    @Test
+    public void testMemoryCache() throws Exception {
+        ReferencedSiteImpl site = createSite(CacheStrategy.used, 1, cache, dereferencer);
+        site.getEntities(IDS);
+        assertEquals(Long.valueOf(0), site.getMemoryCacheStatistics().get("hits"));
+        assertEquals(Long.valueOf(2), site.getMemoryCacheStatistics().get("entries"));
+        cache.bulkRequests.clear();
+        dereferencer.requests.clear();
+        //second request: CACHED and REMOTE are served by the in-memory cache
+        Map<String,Object> states = getCachedStates(site.getEntities(IDS));
+        assertEquals(new HashSet<String>(Arrays.asList(CACHED, REMOTE)), states.keySet());
+        assertEquals(Boolean.TRUE, states.get(REMOTE));
+        assertEquals(Long.valueOf(2), site.getMemoryCacheStatistics().get("hits"));
+        //only the missing entity is requested from the cache and the remote site
+        assertEquals(Collections.singletonList(Collections.singletonList(MISSING)),
+            cache.bulkRequests);
+        assertEquals(Collections.singletonList(MISSING), dereferencer.requests);
+    }
+
+    /**
+     * {@link EntityDereferencer} that provides Representations for the parsed
+     * IDs and records all dereferenced IDs.
+     */
+    private static class TestDereferencer implements EntityDereferencer {
+
+        private final Set<String> ids;
+        final List<String> requests = new ArrayList<String>();
+
+        TestDereferencer(String...ids) {
+            this.ids = new HashSet<String>(Arrays.asList(ids));
+        }
+
+        @Override
+        public String getAccessUri() {
+            return "http://www.example.org/";
+        }
+
+        @Override
+        public boolean canDereference(String uri) {
+            return true;
+        }
+
+        @Override
+        public InputStream dereference(String uri, String contentType) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Representation dereference(String uri) throws IOException {
+            requests.add(uri);
+            return ids.contains(uri) ? TestCache.createRepresentation(uri) : null;
+        }
+    }
+}
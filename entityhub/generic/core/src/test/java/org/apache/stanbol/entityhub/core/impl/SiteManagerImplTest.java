@@ -0,0 +1,225 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.stanbol.entityhub.core.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Dictionary;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.stanbol.entityhub.core.query.FederatedQueryResultList;
+import org.apache.stanbol.entityhub.core.query.FieldQueryImpl;
+import org.apache.stanbol.entityhub.core.query.QueryResultListImpl;
+import org.apache.stanbol.entityhub.core.site.SiteConfigurationImpl;
+import org.apache.stanbol.entityhub.servicesapi.mapping.FieldMapper;
+import org.apache.stanbol.entityhub.servicesapi.model.Entity;
+import org.apache.stanbol.entityhub.servicesapi.model.Representation;
+import org.apache.stanbol.entityhub.servicesapi.query.FieldQuery;
+import org.apache.stanbol.entityhub.servicesapi.query.FieldQueryFactory;
+import org.apache.stanbol.entityhub.servicesapi.query.QueryResultList;
+import org.apache.stanbol.entityhub.servicesapi.site.Site;
+import org.apache.stanbol.entityhub.servicesapi.site.SiteConfiguration;
+import org.apache.stanbol.entityhub.servicesapi.site.SiteException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.osgi.service.cm.ConfigurationException;
+
+/**
+ * Tests the partial results of federated queries over {@link Site}s that
+ * are slow or fail.
+ */
+public class SiteManagerImplTest {
+
+    private SiteManagerImpl siteManager;
+    /**
+     * Blocks the "slow" site until the test completes
+     */
+    private CountDownLatch release;
+
+    @Before
+    public void init() {
+        release = new CountDownLatch(1);
+    }
+
+    @After
+    public void close() {
+        release.countDown();
+        if(siteManager != null){
+            siteManager.deactivate(null);
+        }
+    }
+
+    private void initSiteManager(int timeout) throws ConfigurationException {
+        siteManager = new SiteManagerImpl();
+        Dictionary<String,Object> config = new Hashtable<String,Object>();
+        config.put(SiteManagerImpl.QUERY_THREADS, 3);
+        config.put(SiteManagerImpl.QUERY_TIMEOUT, timeout);
+        siteManager.activate(new MockComponentContext(config));
+        //the slow site is the first one to be awaited
+        siteManager.bindReferencedSites(new TestSite("slow", release, false,
+            "http://www.example.org/slow"));
+        siteManager.bindReferencedSites(new TestSite("failing", null, true));
+        siteManager.bindReferencedSites(new TestSite("fast", null, false,
+            "http://www.example.org/fast1", "http://www.example.org/fast2"));
+    }
+
+    @Test
+    public void testPartialResults() throws ConfigurationException {
+        initSiteManager(200);
+        QueryResultList<String> results = siteManager.findIds(new FieldQueryImpl());
+        assertTrue(results instanceof FederatedQueryResultList);
+        FederatedQueryResultList<String> federated = (FederatedQueryResultList<String>)results;
+        assertTrue(federated.isPartial());
+        assertEquals(Collections.singleton("slow"), federated.getTimedOutSites());
+        assertEquals(Collections.singleton("failing"), federated.getFailedSites());
+        //the results of the other sites are still available
+        assertEquals(2, results.size());
+        assertTrue(results.results().contains("http://www.example.org/fast1"));
+        assertTrue(results.results().contains("http://www.example.org/fast2"));
+    }
+
+    @Test
+    public void testAllSitesAnswer() throws ConfigurationException {
+        initSiteManager(0);
+        release.countDown(); //do not block the slow site
+        FederatedQueryResultList<String> results =
+                (FederatedQueryResultList<String>)siteManager.findIds(new FieldQueryImpl());
+        assertEquals(Collections.singleton("failing"), results.getFailedSites());
+        assertTrue(results.getTimedOutSites().isEmpty());
+        assertEquals(3, results.size());
+    }
+    /**
+     * If interrupted the remaining sites MUST NOT be awaited and the
+     * interrupted state of the thread MUST BE preserved
+     */
+    @Test
+    public void testInterrupted() throws ConfigurationException {
+        initSiteManager(0); //no timeout: without the interrupt this would block
+        Thread.currentThread().interrupt();
+        FederatedQueryResultList<String> results;
+        try {
+            results = (FederatedQueryResultList<String>)siteManager.findIds(new FieldQueryImpl());
+        } finally {
+            //assert and clear the interrupted state
+            assertTrue(Thread.interrupted());
+        }
+        //the first awaited site is the slow one. So no results are available
+        assertTrue(results.isPartial());
+        assertEquals(3, results.getTimedOutSites().size());
+        assertTrue(results.getFailedSites().isEmpty());
+        assertTrue(results.isEmpty());
+    }
+
+    /**
+     * {@link Site} that returns the parsed IDs as results. It can be configured
+     * to wait for a {@link CountDownLatch} or to fail.
+     */
+    private static class TestSite implements Site {
+
+        private final SiteConfigurationImpl config;
+        private final CountDownLatch wait;
+        private final boolean fail;
+        private final List<String> ids;
+
+        TestSite(String id, CountDownLatch wait, boolean fail, String...ids) {
+            this.config = new SiteConfigurationImpl(){};
+            this.config.setId(id);
+            this.wait = wait;
+            this.fail = fail;
+            this.ids = Arrays.asList(ids);
+        }
+
+        @Override
+        public String getId() {
+            return config.getId();
+        }
+
+        @Override
+        public QueryResultList<String> findReferences(FieldQuery query) throws SiteException {
+            if(wait != null){
+                try {
+                    wait.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    throw new SiteException("Interrupted", e);
+                }
+            }
+            if(fail){
+                throw new SiteException("Site "+getId()+" is not available");
+            }
+            return new QueryResultListImpl<String>(query, ids, String.class);
+        }
+
+        @Override
+        public QueryResultList<Representation> find(FieldQuery query) throws SiteException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public QueryResultList<Entity> findEntities(FieldQuery query) throws SiteException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Entity getEntity(String id) throws SiteException {
+            return null;
+        }
+
+        @Override
+        public Collection<Entity> getEntities(Iterable<String> ids) throws SiteException {
+            return Collections.emptySet();
+        }
+
+        @Override
+        public InputStream getContent(String id, String contentType) throws SiteException {
+            return null;
+        }
+
+        @Override
+        public FieldMapper getFieldMapper() {
+            return null;
+        }
+
+        @Override
+        public FieldQueryFactory getQueryFactory() {
+            return null;
+        }
+
+        @Override
+        public SiteConfiguration getConfiguration() {
+            return config;
+        }
+
+        @Override
+        public boolean supportsLocalMode() {
+            return false;
+        }
+
+        @Override
+        public boolean supportsSearch() {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,237 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.stanbol.entityhub.core.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.stanbol.entityhub.core.model.InMemoryValueFactory;
+import org.apache.stanbol.entityhub.core.query.DefaultQueryFactory;
+import org.apache.stanbol.entityhub.servicesapi.mapping.FieldMapper;
+import org.apache.stanbol.entityhub.servicesapi.model.Representation;
+import org.apache.stanbol.entityhub.servicesapi.model.ValueFactory;
+import org.apache.stanbol.entityhub.servicesapi.query.FieldQuery;
+import org.apache.stanbol.entityhub.servicesapi.query.FieldQueryFactory;
+import org.apache.stanbol.entityhub.servicesapi.query.QueryResultList;
+import org.apache.stanbol.entityhub.servicesapi.yard.Cache;
+import org.apache.stanbol.entityhub.servicesapi.yard.CacheStrategy;
+import org.apache.stanbol.entityhub.servicesapi.yard.YardException;
+
+/**
+ * {@link Cache} that keeps {@link Representation}s in a {@link Map}. Used as
+ * Entityhub Yard and as Cache of referenced sites by the tests of this
+ * package. Counts the requests for Representations and can be configured to
+ * fail.
+ */
+class TestCache implements Cache {
+
+    private final Map<String,Representation> representations = new HashMap<String,Representation>();
+    /**
+     * The IDs parsed to {@link #getRepresentations(Iterable)} by request
+     */
+    final List<List<String>> bulkRequests = new ArrayList<List<String>>();
+    /**
+     * The IDs parsed to {@link #getRepresentation(String)}
+     */
+    final List<String> requests = new ArrayList<String>();
+    /**
+     * If <code>true</code> all requests for Representations fail
+     */
+    boolean fail;
+
+    /**
+     * Stores {@link Representation}s with the parsed IDs
+     * @param ids the ids
+     */
+    void add(String...ids) {
+        for(String id : ids){
+            representations.put(id, createRepresentation(id));
+        }
+    }
+
+    static Representation createRepresentation(String id) {
+        Representation rep = InMemoryValueFactory.getInstance().createRepresentation(id);
+        rep.addNaturalText("http://www.w3.org/2000/01/rdf-schema#label", "Label of " + id, "en");
+        return rep;
+    }
+
+    @Override
+    public String getId() {
+        return "test";
+    }
+
+    @Override
+    public String getName() {
+        return "Test Cache";
+    }
+
+    @Override
+    public String getDescription() {
+        return null;
+    }
+
+    @Override
+    public Representation create() throws YardException {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Representation create(String id) throws IllegalArgumentException, YardException {
+        return store(getValueFactory().createRepresentation(id));
+    }
+
+    @Override
+    public Representation store(Representation representation) throws YardException {
+        representations.put(representation.getId(), representation);
+        return representation;
+    }
+
+    @Override
+    public Iterable<Representation> store(Iterable<Representation> reps) throws YardException {
+        for(Representation rep : reps){
+            store(rep);
+        }
+        return reps;
+    }
+
+    @Override
+    public void remove(String id) throws IllegalArgumentException, YardException {
+        representations.remove(id);
+    }
+
+    @Override
+    public void remove(Iterable<String> ids) throws IllegalArgumentException, YardException {
+        for(String id : ids){
+            remove(id);
+        }
+    }
+
+    @Override
+    public void removeAll() throws YardException {
+        representations.clear();
+    }
+
+    @Override
+    public boolean isRepresentation(String id) throws YardException, IllegalArgumentException {
+        return representations.containsKey(id);
+    }
+
+    @Override
+    public Representation getRepresentation(String id) throws YardException, IllegalArgumentException {
+        requests.add(id);
+        if(fail){
+            throw new YardException("Cache " + getId() + " is not available");
+        }
+        return representations.get(id);
+    }
+
+    @Override
+    public Collection<Representation> getRepresentations(Iterable<String> ids) throws YardException, IllegalArgumentException {
+        List<String> request = new ArrayList<String>();
+        for(String id : ids){
+            request.add(id);
+        }
+        bulkRequests.add(request);
+        if(fail){
+            throw new YardException("Cache " + getId() + " is not available");
+        }
+        Collection<Representation> reps = new ArrayList<Representation>(request.size());
+        for(String id : request){
+            Representation rep = representations.get(id);
+            if(rep != null){
+                reps.add(rep);
+            }
+        }
+        return reps;
+    }
+
+    @Override
+    public Representation update(Representation representation) throws YardException, IllegalArgumentException {
+        return store(representation);
+    }
+
+    @Override
+    public Iterable<Representation> update(Iterable<Representation> reps) throws YardException, IllegalArgumentException {
+        return store(reps);
+    }
+
+    @Override
+    public QueryResultList<String> findReferences(FieldQuery query) throws YardException, IllegalArgumentException {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public QueryResultList<Representation> find(FieldQuery query) throws YardException, IllegalArgumentException {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public QueryResultList<Representation> findRepresentation(FieldQuery query) throws YardException, IllegalArgumentException {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public FieldQueryFactory getQueryFactory() {
+        return DefaultQueryFactory.getInstance();
+    }
+
+    @Override
+    public ValueFactory getValueFactory() {
+        return InMemoryValueFactory.getInstance();
+    }
+
+    @Override
+    public CacheStrategy isField(String field) {
+        return CacheStrategy.all;
+    }
+
+    @Override
+    public CacheStrategy isLanguage(String lang) {
+        return CacheStrategy.all;
+    }
+
+    @Override
+    public CacheStrategy strategy() {
+        return CacheStrategy.all;
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return true;
+    }
+
+    @Override
+    public void setBaseMappings(FieldMapper fieldMapper) throws YardException {
+    }
+
+    @Override
+    public void setAdditionalMappings(FieldMapper fieldMapper) throws YardException {
+    }
+
+    @Override
+    public FieldMapper getAdditionalMappings() {
+        return null;
+    }
+
+    @Override
+    public FieldMapper getBaseMappings() {
+        return null;
+    }
+}
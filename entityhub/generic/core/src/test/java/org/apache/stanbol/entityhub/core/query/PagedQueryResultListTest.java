@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.stanbol.entityhub.core.query;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.stanbol.entityhub.core.query.PagedQueryResultList.PageLoader;
+import org.apache.stanbol.entityhub.servicesapi.query.FieldQuery;
+import org.apache.stanbol.entityhub.servicesapi.query.QueryResultList;
+import org.junit.Test;
+
+public class PagedQueryResultListTest {
+
+    private static List<String> createIds(int num){
+        List<String> ids = new ArrayList<String>(num);
+        for(int i = 0; i < num; i++){
+            ids.add("http://www.example.org/entity"+i);
+        }
+        return ids;
+    }
+
+    private static List<String> toList(Iterable<String> results){
+        List<String> list = new ArrayList<String>();
+        for(String result : results){
+            list.add(result);
+        }
+        return list;
+    }
+
+    @Test
+    public void testPaging() {
+        List<String> ids = createIds(10);
+        TestLoader loader = new TestLoader(ids, Integer.MAX_VALUE);
+        PagedQueryResultList<String> results = new PagedQueryResultList<String>(
+                new FieldQueryImpl(), String.class, 3, loader);
+        assertEquals(ids, toList(results));
+        //pages with 3, 3, 3 and 1 results
+        assertEquals(4, loader.pages.size());
+        assertEquals(9, loader.pages.get(3).getOffset());
+        assertEquals(Integer.valueOf(3), loader.pages.get(3).getLimit());
+    }
+
+    @Test
+    public void testOffsetAndLimit() {
+        List<String> ids = createIds(20);
+        TestLoader loader = new TestLoader(ids, Integer.MAX_VALUE);
+        FieldQuery query = new FieldQueryImpl();
+        query.setOffset(5);
+        query.setLimit(7);
+        PagedQueryResultList<String> results = new PagedQueryResultList<String>(
+                query, String.class, 3, loader);
+        assertEquals(ids.subList(5, 12), toList(results));
+        //the last page only requests the missing result
+        assertEquals(3, loader.pages.size());
+        assertEquals(11, loader.pages.get(2).getOffset());
+        assertEquals(Integer.valueOf(1), loader.pages.get(2).getLimit());
+        //the query of the list is not modified
+        assertEquals(5, results.getQuery().getOffset());
+        assertEquals(Integer.valueOf(7), results.getQuery().getLimit());
+    }
+    /**
+     * Components might reduce the limit of a query (e.g. if the page size
+     * exceeds the maximum number of results supported by a Yard)
+     */
+    @Test
+    public void testReducedLimit() {
+        List<String> ids = createIds(10);
+        TestLoader loader = new TestLoader(ids, 4);
+        PagedQueryResultList<String> results = new PagedQueryResultList<String>(
+                new FieldQueryImpl(), String.class, 100, loader);
+        assertEquals(ids, toList(results));
+        //pages with 4, 4 and 2 results
+        assertEquals(3, loader.pages.size());
+        assertEquals(8, loader.pages.get(2).getOffset());
+    }
+
+    @Test
+    public void testEmptyAndFirstPage() {
+        TestLoader loader = new TestLoader(createIds(5), Integer.MAX_VALUE);
+        PagedQueryResultList<String> results = new PagedQueryResultList<String>(
+                new FieldQueryImpl(), String.class, 3, loader);
+        assertFalse(results.isEmpty());
+        assertEquals(1, loader.pages.size());
+        //the first page is not requested again
+        Iterator<String> it = results.iterator();
+        assertTrue(it.hasNext());
+        assertEquals(1, loader.pages.size());
+        //the next page is only requested if needed
+        it.next();
+        it.next();
+        it.next();
+        assertEquals(1, loader.pages.size());
+        assertTrue(it.hasNext());
+        assertEquals(2, loader.pages.size());
+        //size needs to retrieve all results
+        assertEquals(5, results.size());
+
+        assertTrue(new PagedQueryResultList<String>(new FieldQueryImpl(), String.class, 3,
+            new TestLoader(createIds(0), Integer.MAX_VALUE)).isEmpty());
+    }
+
+    /**
+     * Returns the results of the requested page and records the requested
+     * queries
+     */
+    private static class TestLoader implements PageLoader<String> {
+
+        private final List<String> ids;
+        private final int maxLimit;
+        final List<FieldQuery> pages = new ArrayList<FieldQuery>();
+
+        TestLoader(List<String> ids, int maxLimit){
+            this.ids = ids;
+            this.maxLimit = maxLimit;
+        }
+
+        @Override
+        public QueryResultList<String> loadPage(FieldQuery pageQuery) {
+            if(pageQuery.getLimit() > maxLimit){
+                pageQuery.setLimit(maxLimit);
+            }
+            pages.add(pageQuery.clone());
+            int start = Math.min(ids.size(), pageQuery.getOffset());
+            int end = Math.min(ids.size(), start + pageQuery.getLimit());
+            return new QueryResultListImpl<String>(pageQuery,
+                new ArrayList<String>(ids.subList(start, end)), String.class);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.stanbol.entityhub.core.site;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+
+import org.apache.stanbol.entityhub.core.model.InMemoryValueFactory;
+import org.apache.stanbol.entityhub.servicesapi.model.Representation;
+import org.junit.Test;
+
+public class MemoryRepresentationCacheTest {
+
+    private static final String LABEL = "http://www.w3.org/2000/01/rdf-schema#label";
+
+    private static Representation createRepresentation(String id) {
+        Representation rep = InMemoryValueFactory.getInstance().createRepresentation(id);
+        rep.addNaturalText(LABEL, "Label of " + id, "en");
+        return rep;
+    }
+
+    @Test
+    public void testCachedRepresentationsAreCopies() {
+        MemoryRepresentationCache cache = new MemoryRepresentationCache(1024 * 1024, 0);
+        Representation rep = createRepresentation("urn:test:entity");
+        cache.put(rep);
+        rep.add("urn:test:field", "added after caching");
+        Representation cached = cache.get("urn:test:entity");
+        assertNotNull(cached);
+        assertFalse(cached.get("urn:test:field").hasNext());
+        cached.add("urn:test:field", "added to the cached version");
+        assertFalse(cache.get("urn:test:entity").get("urn:test:field").hasNext());
+    }
+
+    @Test
+    public void testEviction() {
+        MemoryRepresentationCache cache = new MemoryRepresentationCache(2048, 0);
+        for(int i = 0; i < 100; i++){
+            cache.put(createRepresentation("urn:test:entity" + i));
+        }
+        Map<String,Long> stats = cache.getStatistics();
+        assertTrue(stats.get("bytes") <= 2048);
+        assertTrue(stats.get("evictions") > 0);
+        //the least recently added entity is evicted
+        assertNull(cache.get("urn:test:entity0"));
+        assertNotNull(cache.get("urn:test:entity99"));
+    }
+
+    @Test
+    public void testExpiration() throws InterruptedException {
+        MemoryRepresentationCache cache = new MemoryRepresentationCache(1024 * 1024, 10);
+        cache.put(createRepresentation("urn:test:entity"));
+        Thread.sleep(50);
+        assertNull(cache.get("urn:test:entity"));
+    }
+}
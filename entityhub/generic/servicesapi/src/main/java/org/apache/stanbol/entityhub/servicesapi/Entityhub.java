@@ -120,6 +120,18 @@ public interface Entityhub {
      * @throws EntityhubException On any error while performing the operation
      */
     Entity getEntity(String entityId) throws IllegalArgumentException, EntityhubException;
+    /**
+     * Getter for multiple Entities managed by the Entityhub. Same as
+     * {@link #getEntity(String)} but retrieves all Entities with a single
+     * request to the Entityhub Yard. <code>null</code> and empty ids are
+     * ignored.
+     * @param entityIds the IDs of the locally managed Entities
+     * @return the found Entities. IDs of Entities not managed by the Entityhub
+     * are not included in the returned collection.
+     * @throws IllegalArgumentException if <code>null</code> is parsed as Iterable
+     * @throws EntityhubException On any error while performing the operation
+     */
+    Collection<Entity> getEntities(Iterable<String> entityIds) throws IllegalArgumentException, EntityhubException;
     /**
      * Imports an Entity from a referenced site to the Entityhub. If there is 
      * already an Entity present for the parsed reference, than this Method throws an
@@ -19,6 +19,7 @@ package org.apache.stanbol.entityhub.servicesapi.site;
 import org.apache.stanbol.entityhub.servicesapi.EntityhubConfiguration;
 import org.apache.stanbol.entityhub.servicesapi.model.ManagedEntityState;
 import org.apache.stanbol.entityhub.servicesapi.model.MappingState;
+import org.apache.stanbol.entityhub.servicesapi.model.Representation;
 import org.apache.stanbol.entityhub.servicesapi.yard.CacheStrategy;
 import org.apache.stanbol.entityhub.servicesapi.yard.Yard;
 
@@ -108,5 +109,36 @@ public interface ReferencedSiteConfiguration extends SiteConfiguration {
      */
     String getCacheId();
 
+    /**
+     * The key used for the configuration of the maximum size (in MByte) of
+     * the in-memory cache for {@link Representation}s of this site. This cache
+     * is used in front of the {@link #getCacheId() Yard based cache}.
+     * <code>0</code> (the default) deactivates the in-memory cache.
+     */
+    String MEMORY_CACHE_SIZE = "org.apache.stanbol.entityhub.site.memoryCacheSize";
+    /**
+     * The maximum size of the in-memory cache in MByte
+     * @return the maximum size. <code>0</code> if the in-memory cache is
+     * deactivated
+     */
+    int getMemoryCacheSize();
+    /**
+     * The key used for the configuration of the time (in seconds) entities
+     * are kept in the in-memory cache. Cached entities are not invalidated
+     * if the {@link #getCacheId() Yard based cache} is changed by other
+     * components. Such changes become visible after this time.
+     */
+    String MEMORY_CACHE_TTL = "org.apache.stanbol.entityhub.site.memoryCacheTtl";
+    /**
+     * The default time entities are kept in the in-memory cache (1 hour)
+     */
+    int DEFAULT_MEMORY_CACHE_TTL = 3600;
+    /**
+     * The time in seconds entities are kept in the in-memory cache
+     * @return the time to live in seconds. Values &lt;= 0 indicate that
+     * entities do not expire.
+     */
+    int getMemoryCacheTtl();
+
 
 }
@@ -17,6 +17,7 @@
 package org.apache.stanbol.entityhub.servicesapi.site;
 
 import java.io.InputStream;
+import java.util.Collection;
 import java.util.Set;
 
 import org.apache.stanbol.entityhub.servicesapi.Entityhub;
@@ -109,6 +110,20 @@ public interface Site {
      * Sites are usually IOExceptions.
      */
     Entity getEntity(String id) throws SiteException;
+    /**
+     * Getter for the Entities with the parsed ids. Allows Sites to dereference
+     * multiple Entities with a single request (e.g. by using
+     * {@link org.apache.stanbol.entityhub.servicesapi.yard.Yard#getRepresentations(Iterable)}).
+     * <code>null</code> and empty ids are ignored.
+     * @param ids the ids of the entities
+     * @return the found entities. Entities that are not found are not included
+     * in the returned collection.
+     * @throws SiteException If the request can not be executed both on
+     * the {@link Cache} and by using the {@link EntityDereferencer}/
+     * {@link EntitySearcher} accessing the remote site.
+     * @throws IllegalArgumentException if <code>null</code> is parsed as Iterable
+     */
+    Collection<Entity> getEntities(Iterable<String> ids) throws SiteException;
     /**
      * Getter for the Content of the Entity
      * @param id the id of the Entity
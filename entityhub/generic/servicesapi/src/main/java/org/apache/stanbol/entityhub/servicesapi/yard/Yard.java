@@ -16,6 +16,8 @@
  */
 package org.apache.stanbol.entityhub.servicesapi.yard;
 
+import java.util.Collection;
+
 import org.apache.stanbol.entityhub.servicesapi.Entityhub;
 import org.apache.stanbol.entityhub.servicesapi.model.Representation;
 import org.apache.stanbol.entityhub.servicesapi.model.ValueFactory;
@@ -182,6 +184,22 @@ public interface Yard {
      */
     Representation getRepresentation(String id) throws YardException, IllegalArgumentException;
 
+    /**
+     * Getter for the representations of the parsed ids. This allows
+     * implementations to retrieve multiple representations with a single
+     * request to the backend.<br>
+     * <code>null</code> and empty values are ignored. Representations that
+     * are not present in the Yard are not included in the returned collection.
+     * Otherwise same as {@link #getRepresentation(String)}.
+     *
+     * @param ids the ids of the representations
+     * @return the found representations. Parsing an {@link Iterable} without
+     * any element results in an empty collection.
+     * @throws IllegalArgumentException if <code>null</code> is parsed as Iterable
+     * @throws YardException On any error related to the Yard
+     */
+    Collection<Representation> getRepresentations(Iterable<String> ids) throws YardException, IllegalArgumentException;
+
     /**
      * Updates the store with the new state of the parsed representation
      *
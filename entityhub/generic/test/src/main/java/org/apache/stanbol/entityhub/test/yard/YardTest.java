@@ -244,6 +244,43 @@ public abstract class YardTest {
         assertNull(getYard().getRepresentation(id));
     }
 
+    @Test(expected = IllegalArgumentException.class)
+    public void testGetRepresentationsWithNull() throws YardException {
+        getYard().getRepresentations(null);
+    }
+
+    @Test
+    public void testGetRepresentations() throws YardException {
+        String testId = "urn:yard.test.testGetRepresentations:representation.id1";
+        String testId2 = "urn:yard.test.testGetRepresentations:representation.id2";
+        String nonExistingId = "urn:yard.test.testGetRepresentations:representation.nonExisting";
+        String field = "urn:the.field:used.for.this.Test";
+        Yard yard = getYard();
+        Representation test = create(testId, true);
+        test.add(field, "test value 1");
+        yard.store(test);
+        Representation test2 = create(testId2, true);
+        test2.add(field, "test value 2");
+        yard.store(test2);
+        // null, empty and non existing ids are ignored
+        Collection<Representation> retrieved = yard.getRepresentations(
+            Arrays.asList(testId, null, nonExistingId, "", testId2, testId));
+        assertNotNull(retrieved);
+        assertEquals(2, retrieved.size());
+        Map<String,Representation> retrievedMap = new HashMap<String,Representation>();
+        for (Representation rep : retrieved) {
+            retrievedMap.put(rep.getId(), rep);
+        }
+        assertEquals(test, retrievedMap.get(testId));
+        assertEquals("test value 1", retrievedMap.get(testId).getFirst(field));
+        assertEquals(test2, retrievedMap.get(testId2));
+        assertEquals("test value 2", retrievedMap.get(testId2).getFirst(field));
+        // an empty Iterable results in an empty collection
+        retrieved = yard.getRepresentations(Collections.<String>emptyList());
+        assertNotNull(retrieved);
+        assertTrue(retrieved.isEmpty());
+    }
+
     /**
      * This tests that {@link Representation} retrieved from the Yard do not influence other
      * {@link Representation} instances for the same ID. It is important, that when different
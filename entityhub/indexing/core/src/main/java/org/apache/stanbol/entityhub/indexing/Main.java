@@ -45,6 +45,15 @@ public final class Main {
         options.addOption("c","chunksize",true, 
             String.format("the number of documents stored to the Yard in one chunk (default: %s)",
                 Indexer.DEFAULT_CHUNK_SIZE));
+        options.addOption("t","processorThreads",true, 
+            String.format("the number of threads used to process entities. Values > 1 "
+                + "require all configured EntityProcessors to be thread safe (default: %s)",
+                Indexer.DEFAULT_PROCESSOR_THREADS));
+        options.addOption("p","persisterThreads",true, 
+            String.format("the number of threads used to store entities to the Yard (default: %s)",
+                Indexer.DEFAULT_PERSISTER_THREADS));
+        options.addOption("u","unordered",false, 
+            "do not preserve the order of entities if multiple processor threads are used");
     }
     /**
      * @param args
@@ -77,6 +86,15 @@ public final class Main {
                 int cunckSize = Integer.parseInt(line.getOptionValue('c'));
                 indexer.setChunkSize(cunckSize);
             }
+            if(line.hasOption('t')){
+                indexer.setProcessorThreads(Integer.parseInt(line.getOptionValue('t')));
+            }
+            if(line.hasOption('p')){
+                indexer.setPersisterThreads(Integer.parseInt(line.getOptionValue('p')));
+            }
+            if(line.hasOption('u')){
+                indexer.setOrderedOutput(false);
+            }
             if("index".equalsIgnoreCase(args[0])){
                 indexer.index();
             } else if("postprocess".equalsIgnoreCase(args[0])){
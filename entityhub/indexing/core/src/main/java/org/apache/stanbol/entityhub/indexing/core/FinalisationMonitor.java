@@ -0,0 +1,46 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.entityhub.indexing.core;
+
+/**
+ * Callback used by {@link MonitoredIndexingDestination}s to report the
+ * progress of the (possible long running and concurrently executed) tasks
+ * performed while finalising the indexing destination (e.g. the creation of
+ * FST models).<p>
+ * Implementations MUST BE thread safe.
+ */
+public interface FinalisationMonitor {
+
+    /**
+     * Called if a task is scheduled for execution
+     * @param task the name of the task
+     */
+    void taskScheduled(String task);
+    /**
+     * Called if the execution of a task starts
+     * @param task the name of the task
+     */
+    void taskStarted(String task);
+    /**
+     * Called if a task has completed
+     * @param task the name of the task
+     * @param duration the duration of the task in milliseconds
+     * @param error the error if the task has failed or <code>null</code> if
+     * it completed successfully
+     */
+    void taskCompleted(String task, long duration, Throwable error);
+}
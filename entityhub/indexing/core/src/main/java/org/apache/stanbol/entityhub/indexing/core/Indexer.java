@@ -16,6 +16,9 @@
 */
 package org.apache.stanbol.entityhub.indexing.core;
 
+import java.io.File;
+
+import org.apache.stanbol.entityhub.indexing.core.config.IndexingConfig;
 import org.apache.stanbol.entityhub.servicesapi.model.Representation;
 import org.apache.stanbol.entityhub.servicesapi.yard.Yard;
 
@@ -96,6 +99,93 @@ public interface Indexer {
      */
     int getChunkSize();
 
+    /**
+     * The default number of threads used to process entities
+     */
+    public static final int DEFAULT_PROCESSOR_THREADS = 1;
+    /**
+     * The default number of threads used to store entities to the
+     * {@link Yard}
+     */
+    public static final int DEFAULT_PERSISTER_THREADS = 1;
+    /**
+     * By default the order of entities is preserved
+     */
+    public static final boolean DEFAULT_ORDERED_OUTPUT = true;
+
+    /**
+     * Setter for the number of threads used to process entities with the
+     * configured {@link EntityProcessor}s. Parsing values &lt;= 0 results in
+     * {@link #DEFAULT_PROCESSOR_THREADS} to be used. If more than one thread
+     * is used all {@link EntityProcessor}s MUST BE thread safe.
+     * @param threads the number of processor threads
+     * @throws IllegalStateException if {@link #getState()} &gt;
+     * {@link State#INITIALISED}
+     */
+    void setProcessorThreads(int threads) throws IllegalStateException;
+    /**
+     * Getter for the number of threads used to process entities
+     * @return the number of processor threads
+     */
+    int getProcessorThreads();
+    /**
+     * Setter for the number of threads used to store entities to the
+     * {@link Yard}. Parsing values &lt;= 0 results in
+     * {@link #DEFAULT_PERSISTER_THREADS} to be used.
+     * @param threads the number of persister threads
+     * @throws IllegalStateException if {@link #getState()} &gt;
+     * {@link State#INITIALISED}
+     */
+    void setPersisterThreads(int threads) throws IllegalStateException;
+    /**
+     * Getter for the number of threads used to store entities
+     * @return the number of persister threads
+     */
+    int getPersisterThreads();
+    /**
+     * Setter for the ordered output mode. If enabled processed entities are
+     * forwarded in the same order as read from the source even if multiple
+     * processor threads are used.
+     * @param ordered the state
+     * @throws IllegalStateException if {@link #getState()} &gt;
+     * {@link State#INITIALISED}
+     */
+    void setOrderedOutput(boolean ordered) throws IllegalStateException;
+    /**
+     * Getter for the ordered output mode
+     * @return if the order of processed entities is preserved
+     */
+    boolean isOrderedOutput();
+    /**
+     * Setter for the file used to store the content hashes of indexed
+     * entities. Setting this file enables the incremental indexing mode: <ul>
+     * <li> entities with the same content (and score) as in the previous run
+     * are not processed and stored again
+     * <li> entities indexed by the previous run that are no longer provided
+     * (or filtered) are removed from the {@link Yard}
+     * </ul>
+     * The incremental mode requires the {@link IndexingDestination} to keep
+     * the entities of the previous run. The parsed configuration fingerprint
+     * is included in the stored content hashes. So if it changes (e.g. because
+     * of a changed configuration of the {@link EntityProcessor}s) all
+     * entities are re-indexed. Entity processors MUST NOT change the IDs of
+     * entities.
+     * @param file the content hash file or <code>null</code> to index all
+     * entities
+     * @param configFingerprint the fingerprint of the configuration affecting
+     * the indexed entities (see
+     * {@link IndexingConfig#getConfigurationFingerprint()})
+     * @throws IllegalStateException if {@link #getState()} &gt;
+     * {@link State#UNINITIALISED}
+     */
+    void setContentHashFile(File file, long configFingerprint) throws IllegalStateException;
+    /**
+     * Getter for the file used to store the content hashes of indexed entities
+     * @return the file or <code>null</code> if the incremental indexing mode
+     * is not enabled
+     */
+    File getContentHashFile();
+
     /**
      * Getter for the Yard used to store the indexed entities.
      * @return the yard
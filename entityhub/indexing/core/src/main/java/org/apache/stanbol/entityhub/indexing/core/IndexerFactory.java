@@ -165,6 +165,21 @@ public final class IndexerFactory {
             "configure an EntityIterator and an EntityDataProvider");
             throw new IllegalArgumentException("Invalid Indexing Source configuration");
         }
+        //apply the (optional) threading configuration
+        indexer.setProcessorThreads(config.getProcessorThreads());
+        indexer.setPersisterThreads(config.getPersisterThreads());
+        indexer.setOrderedOutput(config.isOrderedOutput());
+        log.info(" - Threads: processing {} | persisting {} | ordered output: {}",
+            new Object[]{indexer.getProcessorThreads(), indexer.getPersisterThreads(),
+                         indexer.isOrderedOutput()});
+        //enable the incremental mode (if configured)
+        File contentHashFile = config.getContentHashFile();
+        if(contentHashFile != null){
+            long fingerprint = config.getConfigurationFingerprint();
+            indexer.setContentHashFile(contentHashFile, fingerprint);
+            log.info(" - Incremental indexing (content hashes: {} | configuration: {})",
+                contentHashFile, Long.toHexString(fingerprint));
+        }
         return indexer;
     }
 
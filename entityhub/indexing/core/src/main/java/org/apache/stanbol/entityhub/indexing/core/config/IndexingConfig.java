@@ -36,6 +36,8 @@ import java.io.OutputStream;
 import java.io.UnsupportedEncodingException;
 import java.net.URL;
 import java.net.URLDecoder;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -61,6 +63,7 @@ import org.apache.stanbol.entityhub.indexing.core.EntityDataProvider;
 import org.apache.stanbol.entityhub.indexing.core.EntityIterator;
 import org.apache.stanbol.entityhub.indexing.core.EntityProcessor;
 import org.apache.stanbol.entityhub.indexing.core.EntityScoreProvider;
+import org.apache.stanbol.entityhub.indexing.core.Indexer;
 import org.apache.stanbol.entityhub.indexing.core.IndexingDestination;
 import org.apache.stanbol.entityhub.indexing.core.normaliser.DefaultNormaliser;
 import org.apache.stanbol.entityhub.indexing.core.normaliser.ScoreNormaliser;
@@ -91,6 +94,11 @@ public class IndexingConfig {
     private static final String DEFAULT_INDEX_FIELD_CONFIG_FILE_NAME = "indexFieldConfig.txt";
     
     public static final String DEFAULT_INDEXED_ENTITIES_ID_FILE_NAME = "indexed-entities-ids.zip";
+    /**
+     * The default name of the file used to store the content hashes of
+     * indexed entities in the incremental indexing mode
+     */
+    public static final String DEFAULT_CONTENT_HASH_FILE_NAME = "entity-content-hashes.gz";
     
     /**
      * This stores the context within the classpath to initialise missing
@@ -795,6 +803,53 @@ public class IndexingConfig {
         }
     	return failOnError;
     }
+    /**
+     * Getter for the number of processor threads as configured by the
+     * {@link IndexingConstants#KEY_PROCESSOR_THREADS} by the main indexing
+     * configuration.
+     * @return the number of threads or <code>-1</code> if not configured
+     * @throws IllegalArgumentException if the configured value is not an integer
+     */
+    public int getProcessorThreads(){
+        return getIntValue(IndexingConstants.KEY_PROCESSOR_THREADS);
+    }
+    /**
+     * Getter for the number of persister threads as configured by the
+     * {@link IndexingConstants#KEY_PERSISTER_THREADS} by the main indexing
+     * configuration.
+     * @return the number of threads or <code>-1</code> if not configured
+     * @throws IllegalArgumentException if the configured value is not an integer
+     */
+    public int getPersisterThreads(){
+        return getIntValue(IndexingConstants.KEY_PERSISTER_THREADS);
+    }
+    /**
+     * Getter for the ordered output mode as configured by the
+     * {@link IndexingConstants#KEY_ORDERED_OUTPUT} by the main indexing
+     * configuration.
+     * @return the configured state or {@link Indexer#DEFAULT_ORDERED_OUTPUT}
+     * if not configured
+     */
+    public boolean isOrderedOutput(){
+        Object value = configuration.get(IndexingConstants.KEY_ORDERED_OUTPUT);
+        if(value != null && !value.toString().isEmpty()){
+            return Boolean.parseBoolean(value.toString());
+        } else {
+            return Indexer.DEFAULT_ORDERED_OUTPUT;
+        }
+    }
+    private int getIntValue(String key){
+        Object value = configuration.get(key);
+        if(value == null || value.toString().isEmpty()){
+            return -1;
+        }
+        try {
+            return Integer.parseInt(value.toString().trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("The value '"+value+"' of the "
+                + "indexing configuration property '"+key+"' is not a valid integer!",e);
+        }
+    }
     /**
      * The {@link ScoreNormaliser} as configured by the {@link IndexingConstants#KEY_SCORE_NORMALIZER}
      * by the main indexing configuration.
@@ -1003,6 +1058,88 @@ public class IndexingConfig {
         }
     }
 
+    /**
+     * Getter for the file used to store the content hashes of indexed
+     * entities as configured by {@link IndexingConstants#KEY_CONTENT_HASH_FILE}.
+     * @return the file within the {@link #getDestinationFolder()} or
+     * <code>null</code> if the incremental indexing mode is not enabled by
+     * {@link IndexingConstants#KEY_INCREMENTAL}.
+     */
+    public File getContentHashFile(){
+        Object incremental = configuration.get(IndexingConstants.KEY_INCREMENTAL);
+        if(incremental == null || !Boolean.parseBoolean(incremental.toString().trim())){
+            return null;
+        }
+        Object value = configuration.get(IndexingConstants.KEY_CONTENT_HASH_FILE);
+        if(value == null || value.toString().isEmpty()){
+            return new File(getDestinationFolder(),DEFAULT_CONTENT_HASH_FILE_NAME);
+        } else {
+            return new File(getDestinationFolder(),value.toString());
+        }
+    }
+
+    /**
+     * Getter for a fingerprint over the parts of the configuration that affect
+     * the indexed entities: the {@link IndexingConstants#KEY_ENTITY_PROCESSOR},
+     * {@link IndexingConstants#KEY_ENTITY_POST_PROCESSOR} and
+     * {@link IndexingConstants#KEY_INDEX_FIELD_CONFIG} properties and the
+     * content of all files within the {@link #getConfigFolder()} (e.g. field
+     * mappings, LDPath programs and entity filters). Other properties of the
+     * {@value #INDEXING_PROPERTIES} file (e.g. the number of threads) are not
+     * included.<p>
+     * Used by the incremental indexing mode to re-index all entities if this
+     * configuration changes.
+     * @return the fingerprint of the current configuration
+     * @throws IllegalStateException if a configuration file can not be read
+     */
+    public long getConfigurationFingerprint(){
+        MessageDigest md5;
+        try {
+            md5 = MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 is not supported by this JVM",e);
+        }
+        try {
+            for(String key : new String[]{KEY_ENTITY_PROCESSOR,KEY_ENTITY_POST_PROCESSOR,
+                    KEY_INDEX_FIELD_CONFIG}){
+                Object value = configuration.get(key);
+                md5.update((key+'='+(value == null ? "" : value)+'\n').getBytes("UTF-8"));
+            }
+            File configFolder = getConfigFolder();
+            List<File> files = new ArrayList<File>();
+            if(configFolder.isDirectory()){
+                files.addAll(FileUtils.listFiles(configFolder, null, true));
+            }
+            Collections.sort(files); //ensure a stable order
+            byte[] buffer = new byte[8192];
+            for(File file : files){
+                String path = configFolder.toURI().relativize(file.toURI()).getPath();
+                if(INDEXING_PROPERTIES.equals(path)){
+                    continue; //only the keys included above are relevant
+                }
+                md5.update((path+'\n').getBytes("UTF-8"));
+                InputStream in = new FileInputStream(file);
+                try {
+                    int read;
+                    while((read = in.read(buffer)) != -1){
+                        md5.update(buffer, 0, read);
+                    }
+                } finally {
+                    IOUtils.closeQuietly(in);
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to calculate the fingerprint " +
+                    "of the configuration in "+getConfigFolder(),e);
+        }
+        byte[] digest = md5.digest();
+        long fingerprint = 0;
+        for(int i = 0; i < 8; i++){
+            fingerprint = (fingerprint << 8) | (digest[i] & 0xff);
+        }
+        return fingerprint;
+    }
+
     private void initNormaliser() {
         Object value = configuration.get(IndexingConstants.KEY_SCORE_NORMALIZER);
         if(value == null){
@@ -49,5 +49,34 @@ public interface IndexingConstants {
     String KEY_ENTITY_PROCESSOR      = "entityProcessor";
     String KEY_ENTITY_POST_PROCESSOR = "entityPostProcessor";
     String KEY_FAIL_ON_ERROR_LOADING_RESOURCE = "failOnErrorLoadingResource";
+    /**
+     * The number of threads used to process entities with the configured
+     * {@link org.apache.stanbol.entityhub.indexing.core.EntityProcessor}s.
+     * Values &gt; 1 require all configured processors to be thread safe.
+     */
+    String KEY_PROCESSOR_THREADS = "processorThreads";
+    /**
+     * The number of threads used to store processed entities to the
+     * {@link org.apache.stanbol.entityhub.indexing.core.IndexingDestination}
+     */
+    String KEY_PERSISTER_THREADS = "persisterThreads";
+    /**
+     * If processed entities are forwarded in the same order as read from
+     * the source (default: <code>true</code>). Only relevant if more as one
+     * processor thread is used.
+     */
+    String KEY_ORDERED_OUTPUT = "orderedOutput";
+    /**
+     * Enables the incremental indexing mode (default: <code>false</code>).
+     * Content hashes of indexed entities are stored in the destination folder
+     * and only new or changed entities are indexed by later runs. Entities
+     * no longer present in the source are removed from the destination.
+     */
+    String KEY_INCREMENTAL = "incremental";
+    /**
+     * The name of the file (within the destination folder) used to store the
+     * content hashes of indexed entities in the incremental indexing mode.
+     */
+    String KEY_CONTENT_HASH_FILE = "contentHashFile";
 
 }
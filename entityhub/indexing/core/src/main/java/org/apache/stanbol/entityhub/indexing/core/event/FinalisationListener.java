@@ -0,0 +1,34 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.entityhub.indexing.core.event;
+
+import org.apache.stanbol.entityhub.indexing.core.MonitoredIndexingDestination;
+
+/**
+ * {@link IndexingListener} that is also notified about the progress of the
+ * tasks executed while finalising a {@link MonitoredIndexingDestination}
+ * (e.g. the creation of FST models).<p>
+ * Notifications are sent by the threads executing the tasks.
+ */
+public interface FinalisationListener extends IndexingListener {
+
+    /**
+     * Called if a finalisation task was scheduled, started or completed
+     * @param event the event
+     */
+    void finalisationTaskChanged(FinalisationTaskEvent event);
+}
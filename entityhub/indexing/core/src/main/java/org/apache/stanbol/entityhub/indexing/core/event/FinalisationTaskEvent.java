@@ -0,0 +1,105 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.entityhub.indexing.core.event;
+
+import org.apache.stanbol.entityhub.indexing.core.impl.IndexerImpl;
+
+/**
+ * Event about the progress of a single task executed while finalising the
+ * indexing destination.
+ */
+public class FinalisationTaskEvent extends IndexingEvent {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The states of a finalisation task
+     */
+    public static enum TaskState {
+        SCHEDULED,
+        STARTED,
+        COMPLETED,
+        FAILED
+    }
+
+    private final String task;
+    private final TaskState taskState;
+    private final long duration;
+    private final Throwable error;
+    private final int scheduled;
+    private final int completed;
+
+    public FinalisationTaskEvent(IndexerImpl source, String task, TaskState taskState,
+                                 long duration, Throwable error, int scheduled, int completed) {
+        super(source);
+        this.task = task;
+        this.taskState = taskState;
+        this.duration = duration;
+        this.error = error;
+        this.scheduled = scheduled;
+        this.completed = completed;
+    }
+    /**
+     * The name of the task
+     * @return the task
+     */
+    public String getTask() {
+        return task;
+    }
+    /**
+     * The state of the task
+     * @return the state
+     */
+    public TaskState getTaskState() {
+        return taskState;
+    }
+    /**
+     * The duration of a completed (or failed) task in milliseconds
+     * @return the duration or <code>-1</code> if the task has not yet
+     * completed
+     */
+    public long getDuration() {
+        return duration;
+    }
+    /**
+     * The error of a failed task
+     * @return the error or <code>null</code>
+     */
+    public Throwable getError() {
+        return error;
+    }
+    /**
+     * The number of tasks scheduled so far
+     * @return the number of scheduled tasks
+     */
+    public int getScheduledTasks() {
+        return scheduled;
+    }
+    /**
+     * The number of completed (or failed) tasks
+     * @return the number of completed tasks
+     */
+    public int getCompletedTasks() {
+        return completed;
+    }
+    @Override
+    public String toString() {
+        return new StringBuilder("FinalisationTask[").append(task).append(" | ")
+            .append(taskState).append(" | ").append(completed).append('/')
+            .append(scheduled).append(']').toString();
+    }
+}
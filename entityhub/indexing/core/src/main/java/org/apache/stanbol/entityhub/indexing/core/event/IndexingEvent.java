@@ -17,8 +17,11 @@
 package org.apache.stanbol.entityhub.indexing.core.event;
 
 import java.util.EventObject;
+import java.util.Map;
 
 import org.apache.stanbol.entityhub.indexing.core.impl.IndexerImpl;
+import org.apache.stanbol.entityhub.indexing.core.impl.StageStatistics;
+import org.apache.stanbol.entityhub.indexing.core.impl.StageStatistics.Stage;
 
 public class IndexingEvent extends EventObject {
 
@@ -32,7 +35,15 @@ public class IndexingEvent extends EventObject {
         // TODO Auto-generated method stub
         return (IndexerImpl)super.getSource();
     }
-
+    /**
+     * Getter for the throughput statistics of the different stages of the
+     * indexing process.
+     * @return the statistics of the current (or last) indexing or 
+     * post-processing run
+     */
+    public Map<Stage,StageStatistics> getStageStatistics(){
+        return getSource().getStageStatistics();
+    }
     
 
 }
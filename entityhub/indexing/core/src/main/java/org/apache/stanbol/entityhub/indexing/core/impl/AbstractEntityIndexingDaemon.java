@@ -16,11 +16,14 @@
 */
 package org.apache.stanbol.entityhub.indexing.core.impl;
 
+import static org.apache.stanbol.entityhub.indexing.core.impl.IndexerConstants.CONTENT_HASH;
 import static org.apache.stanbol.entityhub.indexing.core.impl.IndexerConstants.SCORE_FIELD;
 import static org.apache.stanbol.entityhub.indexing.core.impl.IndexerConstants.SOURCE_COMPLETE;
 import static org.apache.stanbol.entityhub.indexing.core.impl.IndexerConstants.SOURCE_DURATION;
+import static org.apache.stanbol.entityhub.indexing.core.impl.IndexerConstants.SOURCE_SEQUENCE;
 import static org.apache.stanbol.entityhub.indexing.core.impl.IndexerConstants.SOURCE_STARTED;
 
+import java.io.IOException;
 import java.util.concurrent.BlockingQueue;
 
 import org.apache.stanbol.entityhub.indexing.core.IndexingComponent;
@@ -29,6 +32,19 @@ import org.apache.stanbol.entityhub.servicesapi.model.Representation;
 
 public abstract class AbstractEntityIndexingDaemon extends IndexingDaemon<Object,Representation> {
 
+    /**
+     * The sequence number of the next produced entity
+     */
+    private long sequence = 0;
+    /**
+     * The content hashes used by the incremental indexing mode or
+     * <code>null</code> if all entities are indexed
+     */
+    private EntityContentHashes contentHashes;
+    /**
+     * The number of unchanged entities skipped in the incremental mode
+     */
+    private long unchanged = 0;
     
     protected AbstractEntityIndexingDaemon(String name,
                                            BlockingQueue<QueueItem<Representation>> produce,
@@ -47,6 +63,21 @@ public abstract class AbstractEntityIndexingDaemon extends IndexingDaemon<Object
         if(rep == null){
             return;
         }
+        Long contentHash = null;
+        if(contentHashes != null){
+            contentHash = Long.valueOf(EntityContentHashes.hash(rep, normalisedScore));
+            if(contentHashes.isUnchanged(rep.getId(), contentHash.longValue())){
+                try { //keep the hash and skip this entity
+                    contentHashes.add(rep.getId(), contentHash.longValue());
+                    unchanged++;
+                    return;
+                } catch (IOException e) {
+                    //index the entity again if the hash can not be written
+                    log.warn("Unable to write content hash for unchanged Entity "
+                        + rep.getId() + " (will be indexed again)",e);
+                }
+            }
+        }
         //first set the score of the representation
         QueueItem<Representation> item = new QueueItem<Representation>(rep);
         //set the score as additional property to the QueueItem, because
@@ -54,12 +85,37 @@ public abstract class AbstractEntityIndexingDaemon extends IndexingDaemon<Object
         if(normalisedScore != null && normalisedScore.compareTo(ScoreNormaliser.ZERO) >= 0){
             item.setProperty(SCORE_FIELD, normalisedScore);
         }
+        if(contentHash != null){
+            item.setProperty(CONTENT_HASH, contentHash);
+        }
         item.setProperty(SOURCE_STARTED, started);
         Long completed = Long.valueOf(System.currentTimeMillis());
         item.setProperty(SOURCE_COMPLETE, completed);
         Float duration = Float.valueOf((float)(completed.longValue()-started.longValue()));
         item.setProperty(SOURCE_DURATION, duration);
+        item.setProperty(SOURCE_SEQUENCE, Long.valueOf(sequence++));
+        StageStatistics statistics = getStatistics();
+        if(statistics != null){
+            statistics.processed(1, started.longValue(), completed.longValue());
+        }
         produce(item);
     }
+    /**
+     * Enables the incremental indexing mode. Entities with the same content
+     * hash as in the previous run are skipped.
+     * @param contentHashes the content hashes or <code>null</code> to index
+     * all entities
+     */
+    public void setContentHashes(EntityContentHashes contentHashes) {
+        this.contentHashes = contentHashes;
+    }
+    /**
+     * The number of unchanged entities skipped by the incremental indexing
+     * mode
+     * @return the number of skipped entities
+     */
+    public long getUnchanged() {
+        return unchanged;
+    }
 
 }
@@ -0,0 +1,369 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.entityhub.indexing.core.impl;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.stanbol.entityhub.indexing.core.config.IndexingConfig;
+import org.apache.stanbol.entityhub.servicesapi.model.Reference;
+import org.apache.stanbol.entityhub.servicesapi.model.Representation;
+import org.apache.stanbol.entityhub.servicesapi.model.Text;
+
+/**
+ * Content hashes of the entities indexed by the last indexing run. Used by the
+ * incremental indexing mode to skip entities that have not changed since the
+ * last run and to detect entities that are no longer present in the
+ * indexing source.<p>
+ * Hashes are stored as GZIP compressed text file (one
+ * <code>{hash}\t{id}</code> pair per line). The hashes of the previous run
+ * are kept in memory as two sorted <code>long</code> arrays (16 bytes per
+ * entity). The hashes of the current run are written to a temporary file
+ * that replaces the previous one on {@link #commit()}. If the indexing run
+ * fails (and {@link #commit()} is not called) the next run will again compare
+ * against the hashes of the last successful run.<p>
+ * The stored hashes include a fingerprint of the indexing configuration (see
+ * {@link IndexingConfig#getConfigurationFingerprint()}). If this configuration
+ * changes (e.g. the field mappings, LDPath programs or entity processors) no
+ * entity is reported as unchanged, so all of them are re-indexed.<p>
+ * This class is thread safe.
+ */
+public class EntityContentHashes {
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    /**
+     * pseudo field used to include the score in the content hash
+     */
+    private static final String SCORE = "\u0000score";
+
+    private final File file;
+    private final File tmpFile;
+    /**
+     * the fingerprint of the configuration mixed into the stored hashes
+     */
+    private final long configFingerprint;
+    /**
+     * the sorted hashes of the ids of the previous run
+     */
+    private final long[] idHashes;
+    /**
+     * the content hashes of the previous run (same order as {@link #idHashes})
+     */
+    private final long[] contentHashes;
+    /**
+     * entities of the previous run that are also present in the current run
+     */
+    private final BitSet present;
+    private BufferedWriter writer;
+    private int count;
+
+    /**
+     * Loads the content hashes of the previous run (if present) and opens the
+     * file used to write the hashes of the current run.
+     * @param file the file used to store the content hashes
+     * @param configFingerprint the fingerprint of the indexing configuration
+     * @throws IOException on any error while reading the previous hashes or
+     * while creating the temporary file for the current ones
+     */
+    public EntityContentHashes(File file, long configFingerprint) throws IOException {
+        if(file == null){
+            throw new IllegalArgumentException("The parsed content hash file MUST NOT be NULL!");
+        }
+        this.file = file;
+        this.configFingerprint = configFingerprint;
+        this.tmpFile = new File(file.getParentFile(), file.getName()+".tmp");
+        long[] ids = new long[1024];
+        long[] hashes = new long[1024];
+        int size = 0;
+        if(file.isFile()){
+            BufferedReader reader = openReader(file);
+            try {
+                String line;
+                while((line = reader.readLine()) != null){
+                    int sep = line.indexOf('\t');
+                    if(sep > 0){
+                        if(size == ids.length){
+                            ids = Arrays.copyOf(ids, size*2);
+                            hashes = Arrays.copyOf(hashes, size*2);
+                        }
+                        ids[size] = hashId(line.substring(sep+1));
+                        hashes[size] = Long.parseLong(line.substring(0, sep), 16);
+                        size++;
+                    }
+                }
+            } catch (NumberFormatException e) {
+                throw new IOException("Invalid content hash file "+file,e);
+            } finally {
+                IOUtils.closeQuietly(reader);
+            }
+        }
+        sort(ids, hashes, 0, size-1);
+        this.idHashes = Arrays.copyOf(ids, size);
+        this.contentHashes = Arrays.copyOf(hashes, size);
+        this.present = new BitSet(size);
+        this.writer = new BufferedWriter(new OutputStreamWriter(
+            new GZIPOutputStream(new FileOutputStream(tmpFile)), UTF8));
+    }
+    /**
+     * The number of entities indexed by the previous run
+     * @return the number of entities of the previous run
+     */
+    public int getPreviousSize() {
+        return idHashes.length;
+    }
+    /**
+     * The number of entities added to the current run
+     * @return the number of entities added by {@link #add(String, long)}
+     */
+    public synchronized int size() {
+        return count;
+    }
+    /**
+     * Checks if the entity was indexed with the same content by the previous
+     * run.
+     * @param id the id of the entity
+     * @param hash the content hash as calculated by
+     * {@link #hash(Representation, Float)}
+     * @return <code>true</code> if the entity has not changed
+     */
+    public boolean isUnchanged(String id, long hash) {
+        int index = Arrays.binarySearch(idHashes, hashId(id));
+        return index >= 0 && contentHashes[index] == withConfig(hash);
+    }
+    /**
+     * Adds the content hash of an entity indexed (or kept) by the current run
+     * @param id the id of the entity
+     * @param hash the content hash
+     * @throws IOException if the hash could not be written
+     */
+    public synchronized void add(String id, long hash) throws IOException {
+        if(writer == null){
+            throw new IllegalStateException("The content hashes are already committed!");
+        }
+        int index = Arrays.binarySearch(idHashes, hashId(id));
+        if(index >= 0){
+            present.set(index);
+        }
+        writer.write(Long.toString(withConfig(hash), 16));
+        writer.write('\t');
+        writer.write(id);
+        writer.newLine();
+        count++;
+    }
+    /**
+     * Iterates over the IDs of entities that were indexed by the previous run
+     * but not {@link #add(String, long) added} to the current one. The IDs are
+     * read from the content hash file of the previous run.<p>
+     * This MUST only be called after all entities of the current run were
+     * added.
+     * @return the iterator over the IDs of removed entities
+     * @throws IOException if the content hash file of the previous run could
+     * not be opened
+     */
+    public Iterator<String> removed() throws IOException {
+        if(!file.isFile()){
+            return Arrays.<String>asList().iterator();
+        }
+        final BufferedReader reader = openReader(file);
+        return new Iterator<String>() {
+            private String next = advance();
+
+            private String advance() {
+                try {
+                    String line;
+                    while((line = reader.readLine()) != null){
+                        int sep = line.indexOf('\t');
+                        if(sep > 0){
+                            String id = line.substring(sep+1);
+                            int index = Arrays.binarySearch(idHashes, hashId(id));
+                            if(index >= 0 && !present.get(index)){
+                                return id;
+                            }
+                        }
+                    }
+                } catch (IOException e) {
+                    throw new IllegalStateException("Unable to read content hashes from "+file,e);
+                }
+                IOUtils.closeQuietly(reader);
+                return null;
+            }
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+            @Override
+            public String next() {
+                if(next == null){
+                    throw new NoSuchElementException();
+                }
+                String current = next;
+                next = advance();
+                return current;
+            }
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+    /**
+     * Replaces the content hashes of the previous run with the ones added by
+     * the current run.
+     * @throws IOException on any error while replacing the file
+     */
+    public synchronized void commit() throws IOException {
+        if(writer == null){
+            return; //already committed
+        }
+        writer.close();
+        writer = null;
+        if(file.isFile() && !file.delete()){
+            throw new IOException("Unable to delete the content hash file "+file);
+        }
+        FileUtils.moveFile(tmpFile, file);
+    }
+    /**
+     * Discards the content hashes of the current run (if not yet committed)
+     */
+    public synchronized void close() {
+        if(writer != null){
+            IOUtils.closeQuietly(writer);
+            writer = null;
+            FileUtils.deleteQuietly(tmpFile);
+        }
+    }
+    /**
+     * Calculates the content hash of the parsed {@link Representation}. The
+     * hash does not depend on the order of fields and values.
+     * @param rep the representation
+     * @param score the (normalised) score of the entity or <code>null</code>
+     * if none
+     * @return the content hash
+     */
+    public static long hash(Representation rep, Float score) {
+        long hash = 0;
+        for(Iterator<String> fields = rep.getFieldNames(); fields.hasNext();){
+            String field = fields.next();
+            for(Iterator<Object> values = rep.get(field); values.hasNext();){
+                Object value = values.next();
+                long valueHash = fnv(FNV_OFFSET, field);
+                if(value instanceof Text){
+                    Text text = (Text)value;
+                    valueHash = fnv(valueHash, "\u0000t");
+                    valueHash = fnv(valueHash, text.getText());
+                    if(text.getLanguage() != null){
+                        valueHash = fnv(valueHash, "@");
+                        valueHash = fnv(valueHash, text.getLanguage());
+                    }
+                } else if(value instanceof Reference){
+                    valueHash = fnv(valueHash, "\u0000r");
+                    valueHash = fnv(valueHash, ((Reference)value).getReference());
+                } else {
+                    valueHash = fnv(valueHash, "\u0000");
+                    valueHash = fnv(valueHash, value.getClass().getName());
+                    valueHash = fnv(valueHash, value.toString());
+                }
+                //add the mixed hashes to get an order independent hash
+                hash = hash + mix(valueHash);
+            }
+        }
+        if(score != null){
+            hash = hash + mix(fnv(fnv(FNV_OFFSET, SCORE), score.toString()));
+        }
+        return hash;
+    }
+
+    /**
+     * Mixes the {@link #configFingerprint} into the parsed content hash
+     */
+    private long withConfig(long hash) {
+        return mix(hash ^ configFingerprint);
+    }
+
+    private static long hashId(String id) {
+        return mix(fnv(FNV_OFFSET, id));
+    }
+
+    private static long fnv(long hash, String value) {
+        for(int i = 0; i < value.length(); i++){
+            hash = (hash ^ value.charAt(i)) * FNV_PRIME;
+        }
+        return hash;
+    }
+    /**
+     * finalisation step of MurmurHash3 (64bit)
+     */
+    private static long mix(long hash) {
+        hash = (hash ^ (hash >>> 33)) * 0xff51afd7ed558ccdL;
+        hash = (hash ^ (hash >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return hash ^ (hash >>> 33);
+    }
+
+    private static BufferedReader openReader(File file) throws IOException {
+        return new BufferedReader(new InputStreamReader(
+            new GZIPInputStream(new FileInputStream(file)), UTF8));
+    }
+    /**
+     * Sorts the parsed id hashes and moves the content hashes accordingly
+     */
+    private static void sort(long[] ids, long[] hashes, int low, int high) {
+        while(low < high){
+            long pivot = ids[(low + high) >>> 1];
+            int i = low;
+            int j = high;
+            while(i <= j){
+                while(ids[i] < pivot){
+                    i++;
+                }
+                while(ids[j] > pivot){
+                    j--;
+                }
+                if(i <= j){
+                    long tmp = ids[i]; ids[i] = ids[j]; ids[j] = tmp;
+                    tmp = hashes[i]; hashes[i] = hashes[j]; hashes[j] = tmp;
+                    i++;
+                    j--;
+                }
+            }
+            //recurse into the smaller part to limit the stack depth
+            if(j - low < high - i){
+                sort(ids, hashes, low, j);
+                low = i;
+            } else {
+                sort(ids, hashes, i, high);
+                high = j;
+            }
+        }
+    }
+}
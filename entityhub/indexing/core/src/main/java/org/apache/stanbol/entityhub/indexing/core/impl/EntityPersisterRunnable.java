@@ -79,6 +79,10 @@ public class EntityPersisterRunnable extends IndexingDaemon<Representation,Repre
         Collection<QueueItem<Representation>> stored = store(toStore);
         Long completed = Long.valueOf(System.currentTimeMillis());
         Float duration = Float.valueOf(((float)(completed.longValue()-start.longValue()))/elements);
+        StageStatistics statistics = getStatistics();
+        if(statistics != null){
+            statistics.processed(stored.size(), start.longValue(), completed.longValue());
+        }
         for(QueueItem<Representation> storedItem : stored){
             storedItem.setProperty(STORE_COMPLETE, completed);
             storedItem.setProperty(STORE_DURATION, duration);
@@ -112,7 +116,11 @@ public class EntityPersisterRunnable extends IndexingDaemon<Representation,Repre
             yardException = e;
         }
         //the remaining Items in to store have some errors
+        StageStatistics statistics = getStatistics();
         for(QueueItem<Representation> entry : toStore.values()){
+            if(statistics != null){
+                statistics.error();
+            }
             sendError(entry.getItem().getId(),entry,
                 String.format(errorMsg,entry.getItem().getId(),yard.getId()),
                 yardException);
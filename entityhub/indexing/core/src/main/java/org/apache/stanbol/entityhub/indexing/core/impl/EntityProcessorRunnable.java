@@ -19,6 +19,7 @@ package org.apache.stanbol.entityhub.indexing.core.impl;
 import static org.apache.stanbol.entityhub.indexing.core.impl.IndexerConstants.PROCESS_COMPLETE;
 import static org.apache.stanbol.entityhub.indexing.core.impl.IndexerConstants.PROCESS_DURATION;
 import static org.apache.stanbol.entityhub.indexing.core.impl.IndexerConstants.PROCESS_STARTED;
+import static org.apache.stanbol.entityhub.indexing.core.impl.IndexerConstants.SOURCE_SEQUENCE;
 
 import java.util.Collections;
 import java.util.Iterator;
@@ -32,13 +33,20 @@ import org.apache.stanbol.entityhub.servicesapi.model.Representation;
 /**
  * Consumes Representations as created by the IndexingSource and processes
  * it by using the configured {@link EntityProcessor}. In addition this
- * components adds configured keys to the Representation.
+ * components adds configured keys to the Representation.<p>
+ * Multiple instances can be used to process entities in parallel. In this
+ * case all configured {@link EntityProcessor}s MUST BE thread safe.
  * @author Rupert Westenthaler
  *
  */
 public class EntityProcessorRunnable extends IndexingDaemon<Representation,Representation> {
     private final List<EntityProcessor> processors;
     private final Set<String> keys;
+    /**
+     * Used instead of the produce queue if the ordering of entities needs
+     * to be preserved
+     */
+    private OrderedItemQueue<Representation> orderedProduce;
     public EntityProcessorRunnable(String name,
                                    BlockingQueue<QueueItem<Representation>> consume,
                                    BlockingQueue<QueueItem<Representation>> produce,
@@ -59,43 +67,111 @@ public class EntityProcessorRunnable extends IndexingDaemon<Representation,Repre
             this.keys = keys;
         }
     }
+    /**
+     * Creates an EntityProcessorRunnable that uses the parsed
+     * {@link OrderedItemQueue} to forward processed entities. This allows
+     * multiple instances to process entities in parallel while preserving
+     * the order of the entities as read from the source.
+     */
+    EntityProcessorRunnable(String name,
+                            BlockingQueue<QueueItem<Representation>> consume,
+                            OrderedItemQueue<Representation> orderedProduce,
+                            BlockingQueue<QueueItem<IndexingError>> error,
+                            List<EntityProcessor> processors,Set<String> keys) {
+        this(name,consume,(BlockingQueue<QueueItem<Representation>>)null,
+            error,processors,keys);
+        this.orderedProduce = orderedProduce;
+    }
     @Override
     public void run() {
+        StageStatistics statistics = getStatistics();
         while(!isQueueFinished()){
             QueueItem<Representation> item = consume();
             if(item != null){
                 Long start = Long.valueOf(System.currentTimeMillis());
                 item.setProperty(PROCESS_STARTED, start);
-                Iterator<EntityProcessor> it = processors.iterator();
-                Representation processed = item.getItem();
-                log.trace("> process {}", processed);
-                EntityProcessor processor = null;
-                while(processed != null && it.hasNext()){
-                    processor = it.next();
-                    log.trace("   - with {}", processor);
-                    processed = processor.process(processed);
+                QueueItem<Representation> produced = null;
+                boolean failed = false;
+                try {
+                    produced = process(item, start);
+                } catch (RuntimeException e) {
+                    failed = true;
+                    sendError(item.getItem().getId(), item, 
+                        "Exception while processing Entity "+item.getItem().getId(), e);
+                    if(statistics != null){
+                        statistics.error();
+                    }
+                } finally {
+                    //NOTE: ordered output requires to complete every item
+                    //      (including filtered and failed ones)
+                    complete(item, produced);
                 }
-                if(processed == null){
-                    log.debug("Item {} filtered by processor {}",item.getItem().getId(),processor);
-                } else {
-                    log.trace("   - done");
-                    for(String key : keys){
-                        //consume the property and add it to the
-                        //transformed representation
-                        Object value = item.removeProperty(key);
-                        if(value != null){
-                            processed.add(key, value);
-                        }
+                if(statistics != null && !failed){ //errors are already counted
+                    if(produced != null){
+                        statistics.processed(1, start.longValue(), 
+                            ((Long)produced.getProperty(PROCESS_COMPLETE)).longValue());
+                    } else {
+                        statistics.filtered();
                     }
-                    QueueItem<Representation> produced = new QueueItem<Representation>(processed,item);
-                    Long completed = Long.valueOf(System.currentTimeMillis());
-                    produced.setProperty(PROCESS_COMPLETE, completed);
-                    produced.setProperty(PROCESS_DURATION, Float.valueOf(
-                        (float)(completed.longValue()-start.longValue())));
-                    produce(produced);
                 }
             }
         }
         setFinished();
     }
-}
\ No newline at end of file
+    /**
+     * Processes the parsed item with all {@link #processors}
+     * @param item the item
+     * @param start the start time
+     * @return the processed item or <code>null</code> if the item was filtered
+     */
+    private QueueItem<Representation> process(QueueItem<Representation> item, Long start){
+        Iterator<EntityProcessor> it = processors.iterator();
+        Representation processed = item.getItem();
+        log.trace("> process {}", processed);
+        EntityProcessor processor = null;
+        while(processed != null && it.hasNext()){
+            processor = it.next();
+            log.trace("   - with {}", processor);
+            processed = processor.process(processed);
+        }
+        if(processed == null){
+            log.debug("Item {} filtered by processor {}",item.getItem().getId(),processor);
+            return null;
+        } else {
+            log.trace("   - done");
+            for(String key : keys){
+                //consume the property and add it to the
+                //transformed representation
+                Object value = item.removeProperty(key);
+                if(value != null){
+                    processed.add(key, value);
+                }
+            }
+            QueueItem<Representation> produced = new QueueItem<Representation>(processed,item);
+            Long completed = Long.valueOf(System.currentTimeMillis());
+            produced.setProperty(PROCESS_COMPLETE, completed);
+            produced.setProperty(PROCESS_DURATION, Float.valueOf(
+                (float)(completed.longValue()-start.longValue())));
+            return produced;
+        }
+    }
+    /**
+     * Forwards the processed item
+     * @param item the consumed item
+     * @param produced the processed item or <code>null</code> if filtered
+     */
+    private void complete(QueueItem<Representation> item, QueueItem<Representation> produced){
+        Object sequence = item.getProperty(SOURCE_SEQUENCE);
+        if(orderedProduce != null && sequence instanceof Long){
+            try {
+                orderedProduce.complete(((Long)sequence).longValue(), produced);
+            } catch (InterruptedException e) {
+                //the sequence is completed anyway (see OrderedItemQueue)
+                log.error("Interupped while producing item "+item.getItem(), e);
+                Thread.currentThread().interrupt();
+            }
+        } else if(produced != null){
+            produce(produced);
+        }
+    }
+}
@@ -16,12 +16,14 @@
 */
 package org.apache.stanbol.entityhub.indexing.core.impl;
 
+import static org.apache.stanbol.entityhub.indexing.core.impl.IndexerConstants.CONTENT_HASH;
 import static org.apache.stanbol.entityhub.indexing.core.impl.IndexerConstants.PROCESS_DURATION;
 import static org.apache.stanbol.entityhub.indexing.core.impl.IndexerConstants.SOURCE_DURATION;
 import static org.apache.stanbol.entityhub.indexing.core.impl.IndexerConstants.SOURCE_STARTED;
 import static org.apache.stanbol.entityhub.indexing.core.impl.IndexerConstants.STORE_DURATION;
 
 import java.io.BufferedWriter;
+import java.io.IOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.nio.charset.Charset;
@@ -70,6 +72,10 @@ public class FinishedEntityDaemon extends IndexingDaemon<Representation,Object>
      * The charset used for the {@link #idWriter}
      */
     private static final Charset UTF8 = Charset.forName("UTF-8");
+    /**
+     * The content hashes of the incremental indexing mode or <code>null</code>
+     */
+    private EntityContentHashes contentHashes;
     
     
     public FinishedEntityDaemon(String name, BlockingQueue<QueueItem<Representation>> consume,
@@ -112,6 +118,17 @@ public class FinishedEntityDaemon extends IndexingDaemon<Representation,Object>
                         log.error("Exception while logging ID of indexed Entity '"+id+"'!",e);
                     }
                 }
+                if(contentHashes != null && item.getItem() != null){
+                    Long hash = (Long)item.getProperty(CONTENT_HASH);
+                    if(hash != null){
+                        try {
+                            contentHashes.add(item.getItem().getId(), hash.longValue());
+                        } catch (IOException e) {
+                            log.error("Unable to write content hash of indexed Entity '"
+                                + item.getItem().getId()+"'!",e);
+                        }
+                    }
+                }
                 current = System.currentTimeMillis();
                 if(count == 0){
                     start = System.currentTimeMillis(); //default for the start!
@@ -185,6 +202,16 @@ public class FinishedEntityDaemon extends IndexingDaemon<Representation,Object>
         setFinished();
     }
 
+    /**
+     * Setter for the content hashes used by the incremental indexing mode.
+     * The content hashes of finished entities are added to it.
+     * @param contentHashes the content hashes or <code>null</code> if not
+     * indexing incrementally
+     */
+    public void setContentHashes(EntityContentHashes contentHashes) {
+        this.contentHashes = contentHashes;
+    }
+
     private void printMinor(long current) {
         long interval = current-start;
         long intervalMinor = current-startMinor;
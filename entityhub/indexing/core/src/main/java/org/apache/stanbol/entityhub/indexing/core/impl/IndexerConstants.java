@@ -37,6 +37,17 @@ public interface IndexerConstants {
      * Key used to store the time when the reading from the source started
      */
     String SOURCE_STARTED = "entity.source.started";
+    /**
+     * Key used to store the sequence number of the entity within the source
+     * ({@link Long}). Used to preserve the ordering of entities if multiple
+     * threads are used to process entities.
+     */
+    String SOURCE_SEQUENCE = "entity.source.sequence";
+    /**
+     * Key used to store the content hash of the entity as read from the
+     * source ({@link Long}). Only present in the incremental indexing mode.
+     */
+    String CONTENT_HASH = "entity.source.contentHash";
     /**
      * Key used to store the time when the reading from the source completed
      */
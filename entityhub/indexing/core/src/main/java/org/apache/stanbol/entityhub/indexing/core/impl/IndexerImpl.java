@@ -27,9 +27,11 @@ import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -37,6 +39,7 @@ import java.util.SortedSet;
 import java.util.TreeSet;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
 import java.util.zip.ZipEntry;
@@ -55,19 +58,26 @@ import org.apache.stanbol.entityhub.indexing.core.EntityProcessor;
 import org.apache.stanbol.entityhub.indexing.core.EntityScoreProvider;
 import org.apache.stanbol.entityhub.indexing.core.Indexer;
 import org.apache.stanbol.entityhub.indexing.core.IndexingComponent;
+import org.apache.stanbol.entityhub.indexing.core.FinalisationMonitor;
 import org.apache.stanbol.entityhub.indexing.core.IndexingDestination;
+import org.apache.stanbol.entityhub.indexing.core.MonitoredIndexingDestination;
+import org.apache.stanbol.entityhub.indexing.core.event.FinalisationListener;
+import org.apache.stanbol.entityhub.indexing.core.event.FinalisationTaskEvent;
+import org.apache.stanbol.entityhub.indexing.core.event.FinalisationTaskEvent.TaskState;
 import org.apache.stanbol.entityhub.indexing.core.event.IndexingEvent;
 import org.apache.stanbol.entityhub.indexing.core.event.IndexingListener;
 import org.apache.stanbol.entityhub.indexing.core.impl.IndexingDaemon.IndexingDaemonEventObject;
 import org.apache.stanbol.entityhub.indexing.core.impl.IndexingDaemon.IndexingDaemonListener;
 import org.apache.stanbol.entityhub.indexing.core.impl.IndexingSourceInitialiser.IndexingSourceEventObject;
 import org.apache.stanbol.entityhub.indexing.core.impl.IndexingSourceInitialiser.IndexingSourceInitialiserListener;
+import org.apache.stanbol.entityhub.indexing.core.impl.StageStatistics.Stage;
 import org.apache.stanbol.entityhub.indexing.core.normaliser.ScoreNormaliser;
 import org.apache.stanbol.entityhub.indexing.core.processor.EmptyProcessor;
 import org.apache.stanbol.entityhub.indexing.core.source.LineBasedEntityIterator;
 import org.apache.stanbol.entityhub.indexing.core.source.YardEntityDataProvider;
 import org.apache.stanbol.entityhub.servicesapi.model.Representation;
 import org.apache.stanbol.entityhub.servicesapi.yard.Yard;
+import org.apache.stanbol.entityhub.servicesapi.yard.YardException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 /**
@@ -97,6 +107,15 @@ public class IndexerImpl implements Indexer {
     private final Set<IndexingListener> listeners;
 
     private int chunkSize;
+    private int processorThreads = DEFAULT_PROCESSOR_THREADS;
+    private int persisterThreads = DEFAULT_PERSISTER_THREADS;
+    private boolean orderedOutput = DEFAULT_ORDERED_OUTPUT;
+    /**
+     * The statistics of the current (or last) indexing or post-processing
+     * run
+     */
+    private volatile Map<Stage,StageStatistics> stageStatistics = 
+            Collections.emptyMap();
     public static final int MIN_QUEUE_SIZE = 500;
     
     private boolean indexAllEntitiesState = false;
@@ -129,6 +148,20 @@ public class IndexerImpl implements Indexer {
     private List<EntityProcessor> entityPostProcessors;
 
     private OutputStream indexedEntityIdOutputStream;
+    /**
+     * The file used to store the content hashes of indexed entities. If not
+     * <code>null</code> the incremental indexing mode is enabled.
+     */
+    private File contentHashFile;
+    /**
+     * The fingerprint of the configuration included in the content hashes
+     */
+    private long configFingerprint;
+    /**
+     * The content hashes of the previous and the current run. Only 
+     * initialised in the incremental indexing mode.
+     */
+    private EntityContentHashes contentHashes;
     /**
      * The name of the index this indexer creates (used for logging)
      */
@@ -245,6 +278,31 @@ public class IndexerImpl implements Indexer {
         }
     }
     
+    /**
+     * Forwards the progress of finalisation tasks to the registered
+     * {@link FinalisationListener}s
+     * @param task the task
+     * @param state the state of the task
+     * @param duration the duration or <code>-1</code> if not completed
+     * @param error the error or <code>null</code>
+     * @param scheduled the number of scheduled tasks
+     * @param completed the number of completed tasks
+     */
+    protected void fireFinalisationTaskChanged(String task, TaskState state, long duration,
+                                               Throwable error, int scheduled, int completed){
+        FinalisationTaskEvent event = new FinalisationTaskEvent(this, task, state, 
+            duration, error, scheduled, completed);
+        Collection<IndexingListener> copy = new ArrayList<IndexingListener>(listeners.size());
+        synchronized (listeners) {
+            copy.addAll(listeners);
+        }
+        for(IndexingListener listener : copy){
+            if(listener instanceof FinalisationListener){
+                ((FinalisationListener)listener).finalisationTaskChanged(event);
+            }
+        }
+    }
+    
     /* (non-Javadoc)
      * @see org.apache.stanbol.entityhub.indexing.core.IndexerInterface#setChunkSize(int)
      */
@@ -263,6 +321,60 @@ public class IndexerImpl implements Indexer {
     public int getChunkSize() {
         return chunkSize;
     }
+    @Override
+    public void setProcessorThreads(int threads) throws IllegalStateException {
+        if(getState().ordinal() >= State.INDEXING.ordinal()){
+            throw new IllegalStateException("Setting the number of processor threads is only allowed before starting the indexing process!");
+        }
+        this.processorThreads = threads <= 0 ? DEFAULT_PROCESSOR_THREADS : threads;
+    }
+    @Override
+    public int getProcessorThreads() {
+        return processorThreads;
+    }
+    @Override
+    public void setPersisterThreads(int threads) throws IllegalStateException {
+        if(getState().ordinal() >= State.INDEXING.ordinal()){
+            throw new IllegalStateException("Setting the number of persister threads is only allowed before starting the indexing process!");
+        }
+        this.persisterThreads = threads <= 0 ? DEFAULT_PERSISTER_THREADS : threads;
+    }
+    @Override
+    public int getPersisterThreads() {
+        return persisterThreads;
+    }
+    @Override
+    public void setOrderedOutput(boolean ordered) throws IllegalStateException {
+        if(getState().ordinal() >= State.INDEXING.ordinal()){
+            throw new IllegalStateException("Changing the ordered output mode is only allowed before starting the indexing process!");
+        }
+        this.orderedOutput = ordered;
+    }
+    @Override
+    public boolean isOrderedOutput() {
+        return orderedOutput;
+    }
+    @Override
+    public void setContentHashFile(File file, long configFingerprint) throws IllegalStateException {
+        if(getState() != State.UNINITIALISED){
+            throw new IllegalStateException("Setting the content hash file is only allowed before the initialisation of the indexer!");
+        }
+        this.contentHashFile = file;
+        this.configFingerprint = configFingerprint;
+    }
+    @Override
+    public File getContentHashFile() {
+        return contentHashFile;
+    }
+    /**
+     * Getter for the throughput statistics of the stages of the current
+     * (or last) indexing or post-processing run.
+     * @return the read-only statistics. An empty map if indexing has not
+     * yet started.
+     */
+    public Map<Stage,StageStatistics> getStageStatistics() {
+        return stageStatistics;
+    }
     /* (non-Javadoc)
      * @see org.apache.stanbol.entityhub.indexing.core.IndexerInterface#getYard()
      */
@@ -338,6 +450,17 @@ public class IndexerImpl implements Indexer {
                         "Entities -> indexes entity Ids will not be available!",e);
             }
         }
+        //load the content hashes of the previous run
+        if(contentHashFile != null){
+            try {
+                contentHashes = new EntityContentHashes(contentHashFile, configFingerprint);
+            } catch (IOException e) {
+                throw new IllegalStateException("Unable to initialise the content " +
+                        "hashes for incremental indexing from "+contentHashFile,e);
+            }
+            log.info("{}: incremental indexing based on the content hashes of {} " +
+                    "Entities indexed by the previous run",name,contentHashes.getPreviousSize());
+        }
 
         log.info("initialisation completed for {}", name);
         setState(State.INITIALISED);
@@ -454,38 +577,37 @@ public class IndexerImpl implements Indexer {
         //Set holding all active post processing deamons
         final SortedSet<IndexingDaemon<?,?>> activeIndexingDeamons = 
             new TreeSet<IndexingDaemon<?,?>>();
+        Map<Stage,StageStatistics> statistics = initStageStatistics();
         //create the IndexingDaemos
-        //TODO: Here we would need to create multiple instances in case
-        //      one would e.g. like to use several threads for processing entities
         //(1) the daemon reading from the IndexingSources
         String entitySourceReaderName = name + ": post-processing: Entity Reader Deamon";
-        activeIndexingDeamons.add(
-            new EntityIdBasedIndexingDaemon(
+        IndexingDaemon<?,?> sourceDaemon = new EntityIdBasedIndexingDaemon(
                 entitySourceReaderName,
                 indexedEntityQueue, errorEntityQueue, 
                 entityIterator, 
                 dataProvider, 
                 null, //no score normaliser
-                true)); //post-process all indexed entities
-        //(2) The daemon for post-processing the entities
-        activeIndexingDeamons.add(
-            new EntityProcessorRunnable(
-                name +": post-processing: Entity Processor Deamon",
-                indexedEntityQueue, //it consumes indexed Entities
-                processedEntityQueue,  //it produces processed Entities
-                errorEntityQueue,
-                entityPostProcessors, 
-                //TODO: check that the score is not overriden by the NULL
-                //      parsed by the used LineBasedEntityIterator!
-                Collections.singleton(SCORE_FIELD))); //ensure the score not changed
-        //(3) The daemon for persisting the entities
-        activeIndexingDeamons.add(
-            new EntityPersisterRunnable(
-                name + ": Entity Perstisting Deamon",
-                processedEntityQueue, //it consumes processed Entities
-                finishedEntityQueue, //it produces finished Entities
-                errorEntityQueue,
-                chunkSize, indexingDestination.getYard()));
+                true); //post-process all indexed entities
+        sourceDaemon.setStatistics(statistics.get(Stage.SOURCE));
+        activeIndexingDeamons.add(sourceDaemon);
+        //(2) The daemon(s) for post-processing the entities
+        addProcessorDaemons(activeIndexingDeamons,
+            name +": post-processing: Entity Processor Deamon",
+            indexedEntityQueue, //it consumes indexed Entities
+            processedEntityQueue,  //it produces processed Entities
+            errorEntityQueue,
+            entityPostProcessors, 
+            //TODO: check that the score is not overriden by the NULL
+            //      parsed by the used LineBasedEntityIterator!
+            Collections.singleton(SCORE_FIELD), //ensure the score not changed
+            queueSize, statistics.get(Stage.PROCESS));
+        //(3) The daemon(s) for persisting the entities
+        addPersisterDaemons(activeIndexingDeamons,
+            name + ": Entity Perstisting Deamon",
+            processedEntityQueue, //it consumes processed Entities
+            finishedEntityQueue, //it produces finished Entities
+            errorEntityQueue,
+            statistics.get(Stage.STORE));
         //(4) The daemon for logging finished entities
         activeIndexingDeamons.add(
             new FinishedEntityDaemon(
@@ -499,6 +621,7 @@ public class IndexerImpl implements Indexer {
                 errorEntityQueue, log));
         //start post-processing and wait until it has finished
         startAndWait(activeIndexingDeamons);        
+        logStageStatistics(statistics);
         //close all post processors
         for(EntityProcessor ep : entityPostProcessors){
             ep.close();
@@ -507,6 +630,76 @@ public class IndexerImpl implements Indexer {
         
         setState(State.POSTPROCESSED);
     }
+    /**
+     * Creates the {@link StageStatistics} for a new indexing or post-processing
+     * run and makes them available via {@link #getStageStatistics()}
+     * @return the statistics
+     */
+    private Map<Stage,StageStatistics> initStageStatistics(){
+        Map<Stage,StageStatistics> statistics = new EnumMap<Stage,StageStatistics>(Stage.class);
+        statistics.put(Stage.SOURCE, new StageStatistics(Stage.SOURCE, 1));
+        statistics.put(Stage.PROCESS, new StageStatistics(Stage.PROCESS, processorThreads));
+        statistics.put(Stage.STORE, new StageStatistics(Stage.STORE, persisterThreads));
+        stageStatistics = Collections.unmodifiableMap(statistics);
+        return statistics;
+    }
+    private void logStageStatistics(Map<Stage,StageStatistics> statistics){
+        log.info("{}: indexing statistics",name);
+        for(StageStatistics stage : statistics.values()){
+            log.info("  - {}",stage);
+        }
+    }
+    /**
+     * Adds {@link #processorThreads} {@link EntityProcessorRunnable}s to the
+     * parsed set of active daemons. If more than a single thread is used and
+     * {@link #orderedOutput} is enabled the processed entities are forwarded
+     * by using an {@link OrderedItemQueue}.
+     */
+    private void addProcessorDaemons(SortedSet<IndexingDaemon<?,?>> activeIndexingDeamons,
+                                     String name,
+                                     BlockingQueue<QueueItem<Representation>> consume,
+                                     BlockingQueue<QueueItem<Representation>> produce,
+                                     BlockingQueue<QueueItem<IndexingError>> error,
+                                     List<EntityProcessor> processors, Set<String> keys,
+                                     int queueSize, StageStatistics statistics){
+        OrderedItemQueue<Representation> orderedProduce;
+        if(orderedOutput && processorThreads > 1){
+            orderedProduce = new OrderedItemQueue<Representation>(produce, queueSize);
+        } else {
+            orderedProduce = null;
+        }
+        for(int i = 0; i < processorThreads; i++){
+            String daemonName = processorThreads > 1 ? name + " " + (i+1) : name;
+            EntityProcessorRunnable daemon;
+            if(orderedProduce != null){
+                daemon = new EntityProcessorRunnable(daemonName, consume, 
+                    orderedProduce, error, processors, keys);
+            } else {
+                daemon = new EntityProcessorRunnable(daemonName, consume, 
+                    produce, error, processors, keys);
+            }
+            daemon.setStatistics(statistics);
+            activeIndexingDeamons.add(daemon);
+        }
+    }
+    /**
+     * Adds {@link #persisterThreads} {@link EntityPersisterRunnable}s to the
+     * parsed set of active daemons.
+     */
+    private void addPersisterDaemons(SortedSet<IndexingDaemon<?,?>> activeIndexingDeamons,
+                                     String name,
+                                     BlockingQueue<QueueItem<Representation>> consume,
+                                     BlockingQueue<QueueItem<Representation>> produce,
+                                     BlockingQueue<QueueItem<IndexingError>> error,
+                                     StageStatistics statistics){
+        for(int i = 0; i < persisterThreads; i++){
+            String daemonName = persisterThreads > 1 ? name + " " + (i+1) : name;
+            EntityPersisterRunnable daemon = new EntityPersisterRunnable(daemonName, 
+                consume, produce, error, chunkSize, indexingDestination.getYard());
+            daemon.setStatistics(statistics);
+            activeIndexingDeamons.add(daemon);
+        }
+    }
     /**
      * Internally used to start the indexing/post-processing daemons and wait
      * until they have finished.
@@ -563,7 +756,12 @@ public class IndexerImpl implements Indexer {
             setState(State.FINALISING);
             log.info("{}: finalisation started ...",name);
         }
-        indexingDestination.finalise();
+        if(indexingDestination instanceof MonitoredIndexingDestination){
+            ((MonitoredIndexingDestination)indexingDestination).finalise(
+                new ListenerFinalisationMonitor());
+        } else {
+            indexingDestination.finalise();
+        }
         //close the source and the destination
         if(entityIterator != null){
             entityIterator.close();
@@ -577,6 +775,9 @@ public class IndexerImpl implements Indexer {
         if(scoreProvider != null){
             scoreProvider.close();
         }
+        if(contentHashes != null){ //discard hashes if indexing was skipped
+            contentHashes.close();
+        }
         setState(State.FINISHED);
     }
 
@@ -626,52 +827,53 @@ public class IndexerImpl implements Indexer {
         //Set holding all active IndexingDaemons
         final SortedSet<IndexingDaemon<?,?>> activeIndexingDeamons = 
             new TreeSet<IndexingDaemon<?,?>>();
+        Map<Stage,StageStatistics> statistics = initStageStatistics();
         //create the IndexingDaemos
-        //TODO: Here we would need to create multiple instances in case
-        //      one would e.g. like to use several threads for processing entities
         //(1) the daemon reading from the IndexingSources
         String entitySourceReaderName = name +": Entity Source Reader Deamon";
+        AbstractEntityIndexingDaemon sourceDaemon;
         if(entityIterator != null){
-            activeIndexingDeamons.add(
-                new EntityIdBasedIndexingDaemon(
+            sourceDaemon = new EntityIdBasedIndexingDaemon(
                     entitySourceReaderName,
                     indexedEntityQueue, errorEntityQueue, 
                     entityIterator, 
                     dataProvider, 
                     scoreNormaliser,
-                    indexAllEntitiesState));
+                    indexAllEntitiesState);
         } else {
-            activeIndexingDeamons.add(
-                new EntityDataBasedIndexingDaemon(
+            sourceDaemon = new EntityDataBasedIndexingDaemon(
                     entitySourceReaderName,
                     indexedEntityQueue, errorEntityQueue, 
                     dataIterable, 
                     scoreProvider, 
                     scoreNormaliser,
-                    indexAllEntitiesState));
+                    indexAllEntitiesState);
         }
-        //(2) The daemon for processing the entities
-        activeIndexingDeamons.add(
-            new EntityProcessorRunnable(
-                name +": Entity Processor Deamon",
-                indexedEntityQueue, //it consumes indexed Entities
-                processedEntityQueue,  //it produces processed Entities
-                errorEntityQueue,
-                entityProcessors, 
-                Collections.singleton(SCORE_FIELD)));
-        //(3) The daemon for persisting the entities
-        activeIndexingDeamons.add(
-            new EntityPersisterRunnable(
-                name + ": Entity Perstisting Deamon",
-                processedEntityQueue, //it consumes processed Entities
-                finishedEntityQueue, //it produces finished Entities
-                errorEntityQueue,
-                chunkSize, indexingDestination.getYard()));
+        sourceDaemon.setStatistics(statistics.get(Stage.SOURCE));
+        sourceDaemon.setContentHashes(contentHashes);
+        activeIndexingDeamons.add(sourceDaemon);
+        //(2) The daemon(s) for processing the entities
+        addProcessorDaemons(activeIndexingDeamons,
+            name +": Entity Processor Deamon",
+            indexedEntityQueue, //it consumes indexed Entities
+            processedEntityQueue,  //it produces processed Entities
+            errorEntityQueue,
+            entityProcessors, 
+            Collections.singleton(SCORE_FIELD),
+            queueSize, statistics.get(Stage.PROCESS));
+        //(3) The daemon(s) for persisting the entities
+        addPersisterDaemons(activeIndexingDeamons,
+            name + ": Entity Perstisting Deamon",
+            processedEntityQueue, //it consumes processed Entities
+            finishedEntityQueue, //it produces finished Entities
+            errorEntityQueue,
+            statistics.get(Stage.STORE));
         //(4) The daemon for logging finished entities
-        activeIndexingDeamons.add(
-            new FinishedEntityDaemon(
-                name + ": Finished Entity Logger Deamon",
-                finishedEntityQueue, -1, log, indexedEntityIdOutputStream));
+        FinishedEntityDaemon finishedDaemon = new FinishedEntityDaemon(
+            name + ": Finished Entity Logger Deamon",
+            finishedEntityQueue, -1, log, indexedEntityIdOutputStream);
+        finishedDaemon.setContentHashes(contentHashes);
+        activeIndexingDeamons.add(finishedDaemon);
         //(5) The daemon for logging errors
         activeIndexingDeamons.add(
             new EntityErrorLoggerDaemon(
@@ -679,15 +881,59 @@ public class IndexerImpl implements Indexer {
                 errorEntityQueue, log));
         //start indexing and wait until it has finished
         startAndWait(activeIndexingDeamons);
+        logStageStatistics(statistics);
         //close the stream with IDs
         IOUtils.closeQuietly(indexedEntityIdOutputStream);
         //call close on all indexing components
         for(EntityProcessor ep : entityProcessors){
             ep.close();
         }
+        if(contentHashes != null){
+            log.info("{}: {} unchanged Entities skipped by incremental indexing",
+                name, sourceDaemon.getUnchanged());
+            removeDeletedEntities();
+        }
         //set the new state to INDEXED
         setState(State.INDEXED);
     }
+    /**
+     * Removes Entities indexed by the previous run that were not indexed (or
+     * kept unchanged) by the current run from the {@link Yard} and commits
+     * the content hashes of the current run. If the removal fails the content
+     * hashes are not committed so that the next run compares again against
+     * the last successful one.
+     */
+    private void removeDeletedEntities() {
+        Yard yard = indexingDestination.getYard();
+        long removed = 0;
+        try {
+            List<String> chunk = new ArrayList<String>(chunkSize);
+            for(Iterator<String> ids = contentHashes.removed(); ids.hasNext();){
+                chunk.add(ids.next());
+                if(chunk.size() >= chunkSize){
+                    yard.remove(chunk);
+                    removed = removed + chunk.size();
+                    chunk.clear();
+                }
+            }
+            if(!chunk.isEmpty()){
+                yard.remove(chunk);
+                removed = removed + chunk.size();
+            }
+            contentHashes.commit();
+            log.info("{}: removed {} Entities no longer present in the source " +
+                    "(content hashes of {} Entities stored to {})", new Object[]{
+                    name, removed, contentHashes.size(), contentHashFile});
+        } catch (YardException e) {
+            log.error("Unable to remove Entities no longer present in the source " +
+                    "from the Yard (content hashes are not updated)",e);
+        } catch (IOException e) {
+            log.error("Unable to update content hashes "+contentHashFile
+                + " (next run will compare against the previous one)",e);
+        } finally {
+            contentHashes.close();
+        }
+    }
     /**
      * Handles the necessary actions if an {@link IndexingDaemon} used for the
      * work done within {@link #indexEntities()} completes its work (meaning
@@ -857,5 +1103,40 @@ public class IndexerImpl implements Indexer {
         }
         return in;
     }
+    /**
+     * {@link FinalisationMonitor} that logs the progress of finalisation tasks
+     * and forwards it to the registered {@link FinalisationListener}s.
+     */
+    private class ListenerFinalisationMonitor implements FinalisationMonitor {
+
+        private final AtomicInteger scheduled = new AtomicInteger();
+        private final AtomicInteger completed = new AtomicInteger();
+
+        @Override
+        public void taskScheduled(String task) {
+            fireFinalisationTaskChanged(task, TaskState.SCHEDULED, -1, null,
+                scheduled.incrementAndGet(), completed.get());
+        }
+        @Override
+        public void taskStarted(String task) {
+            log.info("{}: started {} ({}/{} completed)", new Object[]{
+                    name, task, completed.get(), scheduled.get()});
+            fireFinalisationTaskChanged(task, TaskState.STARTED, -1, null,
+                scheduled.get(), completed.get());
+        }
+        @Override
+        public void taskCompleted(String task, long duration, Throwable error) {
+            int done = completed.incrementAndGet();
+            if(error == null){
+                log.info("{}: completed {} in {}ms ({}/{} completed)", new Object[]{
+                        name, task, duration, done, scheduled.get()});
+            } else {
+                log.warn("{}: failed {} after {}ms ({}/{} completed)", new Object[]{
+                        name, task, duration, done, scheduled.get()});
+            }
+            fireFinalisationTaskChanged(task, error == null ? TaskState.COMPLETED : TaskState.FAILED,
+                duration, error, scheduled.get(), done);
+        }
+    }
 
 }
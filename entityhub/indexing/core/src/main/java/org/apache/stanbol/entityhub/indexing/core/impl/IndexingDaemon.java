@@ -47,6 +47,10 @@ public abstract class IndexingDaemon<CI,PI> implements Comparable<IndexingDaemon
      * Used for {@link #compareTo(IndexingDaemon)}
      */
     private final Integer sequence;
+    /**
+     * The statistics for the stage of this daemon (optional)
+     */
+    private StageStatistics statistics;
     protected IndexingDaemon(String name,
                              Integer sequence,
                              BlockingQueue<QueueItem<CI>> consume,
@@ -212,6 +216,22 @@ public abstract class IndexingDaemon<CI,PI> implements Comparable<IndexingDaemon
     public String getName() {
         return this.name;
     }
+    /**
+     * Setter for the statistics of the stage this daemon is part of. Needs
+     * to be called before the daemon is started.
+     * @param statistics the statistics or <code>null</code> if no statistics
+     * should be recorded
+     */
+    final void setStatistics(StageStatistics statistics) {
+        this.statistics = statistics;
+    }
+    /**
+     * Getter for the statistics of the stage this daemon is part of.
+     * @return the statistics or <code>null</code> if none
+     */
+    protected final StageStatistics getStatistics() {
+        return statistics;
+    }
     /**
      * The order of this Daemon. Guaranteed to be NOT NULL
      * @return the order
@@ -0,0 +1,122 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.entityhub.indexing.core.impl;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Forwards {@link QueueItem}s processed by multiple threads to a
+ * {@link BlockingQueue} in the order defined by their sequence numbers.
+ * Items that are completed out of order are buffered until all items with
+ * a lower sequence number are completed. To limit memory usage threads
+ * completing items that are more as <code>capacity</code> positions ahead
+ * of the next expected item are blocked.<p>
+ * Every sequence number MUST BE {@link #complete(long, QueueItem) completed}
+ * exactly once - also for items that are filtered (by parsing
+ * <code>null</code>) - as otherwise all following items would be blocked.
+ *
+ * @param <T> the type of the items
+ */
+class OrderedItemQueue<T> {
+
+    private final BlockingQueue<QueueItem<T>> queue;
+    private final int capacity;
+    /**
+     * Items completed out of order. <code>null</code> values represent
+     * filtered items.
+     */
+    private final Map<Long,QueueItem<T>> pending = new HashMap<Long,QueueItem<T>>();
+    private long next = 0;
+
+    OrderedItemQueue(BlockingQueue<QueueItem<T>> queue, int capacity){
+        if(queue == null){
+            throw new IllegalArgumentException("The parsed BlockingQueue MUST NOT be NULL!");
+        }
+        this.queue = queue;
+        this.capacity = capacity > 0 ? capacity : 1;
+    }
+    /**
+     * Completes the item with the parsed sequence number.<p>
+     * The sequence number is completed even if the calling thread is
+     * interrupted. In this case the item is buffered even if this exceeds
+     * the capacity and forwarded items are put to the queue before the
+     * {@link InterruptedException} is thrown.
+     * @param sequence the sequence number of the item
+     * @param item the processed item or <code>null</code> if the item was
+     * filtered
+     * @throws InterruptedException if interrupted while waiting. The parsed
+     * sequence number is completed anyway.
+     */
+    synchronized void complete(long sequence, QueueItem<T> item) throws InterruptedException {
+        boolean interrupted = false;
+        while(!interrupted && sequence - next >= capacity){
+            try {
+                wait(); //too far ahead ... wait for the others
+            } catch (InterruptedException e) {
+                //the sequence MUST BE completed as otherwise all following
+                //items would be blocked forever
+                interrupted = true;
+            }
+        }
+        if(sequence != next){
+            pending.put(sequence, item);
+        } else {
+            if(item != null){
+                interrupted = put(item) || interrupted;
+            }
+            next++;
+            while(pending.containsKey(next)){
+                QueueItem<T> pendingItem = pending.remove(next);
+                if(pendingItem != null){
+                    interrupted = put(pendingItem) || interrupted;
+                }
+                next++;
+            }
+            notifyAll();
+        }
+        if(interrupted){
+            throw new InterruptedException("Interrupted while completing item with sequence "
+                + sequence + " (the item was completed anyway)");
+        }
+    }
+    /**
+     * Puts the parsed item to the queue. Retries if interrupted as items
+     * MUST NOT get lost.
+     * @param item the item
+     * @return if the thread was interrupted while putting the item
+     */
+    private boolean put(QueueItem<T> item){
+        boolean interrupted = false;
+        while(true){
+            try {
+                queue.put(item);
+                return interrupted;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+    }
+    /**
+     * The sequence number of the next item forwarded to the queue
+     * @return the next expected sequence number
+     */
+    synchronized long getNext() {
+        return next;
+    }
+}
@@ -0,0 +1,157 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.entityhub.indexing.core.impl;
+
+/**
+ * Throughput statistics of a single stage of the indexing process. Instances
+ * are updated by all {@link IndexingDaemon}s of the stage and can be
+ * accessed by {@link org.apache.stanbol.entityhub.indexing.core.event.IndexingListener}s
+ * via {@link org.apache.stanbol.entityhub.indexing.core.event.IndexingEvent#getStageStatistics()}.
+ * <p>
+ * This class is thread safe.
+ */
+public class StageStatistics {
+
+    /**
+     * The stages of the indexing process
+     */
+    public static enum Stage {
+        /**
+         * Reading entities from the indexing source
+         */
+        SOURCE,
+        /**
+         * Processing entities with the configured EntityProcessors
+         */
+        PROCESS,
+        /**
+         * Storing entities to the IndexingDestination
+         */
+        STORE
+    }
+
+    private final Stage stage;
+    private final int threads;
+
+    private long items;
+    private long filtered;
+    private long errors;
+    private long duration;
+    private long started;
+    private long completed;
+
+    StageStatistics(Stage stage, int threads){
+        this.stage = stage;
+        this.threads = threads;
+    }
+    /**
+     * Records that the parsed number of items was processed
+     * @param items the number of items
+     * @param start the start time of the processing
+     * @param end the end time of the processing
+     */
+    synchronized void processed(int items, long start, long end){
+        this.items += items;
+        this.duration += end - start;
+        if(started == 0 || start < started){
+            started = start;
+        }
+        if(end > completed){
+            completed = end;
+        }
+    }
+    /**
+     * Records that an item was filtered by this stage
+     */
+    synchronized void filtered(){
+        filtered++;
+    }
+    /**
+     * Records that an error occurred while processing an item
+     */
+    synchronized void error(){
+        errors++;
+    }
+    /**
+     * The stage
+     * @return the stage
+     */
+    public Stage getStage() {
+        return stage;
+    }
+    /**
+     * The number of threads used for this stage
+     * @return the number of threads
+     */
+    public int getThreads() {
+        return threads;
+    }
+    /**
+     * The number of items processed by this stage
+     * @return the number of items
+     */
+    public synchronized long getItems() {
+        return items;
+    }
+    /**
+     * The number of items filtered by this stage
+     * @return the number of filtered items
+     */
+    public synchronized long getFiltered() {
+        return filtered;
+    }
+    /**
+     * The number of items that could not be processed because of an error
+     * @return the number of errors
+     */
+    public synchronized long getErrors() {
+        return errors;
+    }
+    /**
+     * The sum of the processing time of all threads in milliseconds
+     * @return the processing time
+     */
+    public synchronized long getDuration() {
+        return duration;
+    }
+    /**
+     * The average processing time of an item in milliseconds
+     * @return the average processing time or <code>-1</code> if no item
+     * was processed
+     */
+    public synchronized double getItemDuration(){
+        return items > 0 ? (double)duration/items : -1;
+    }
+    /**
+     * The number of items processed per second (wall clock time)
+     * @return the throughput or <code>-1</code> if not available
+     */
+    public synchronized double getThroughput(){
+        long time = completed - started;
+        if(items <= 0){
+            return -1;
+        }
+        return time > 0 ? items * 1000d / time : items * 1000d;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("%s (threads: %d): %d items (filtered: %d | errors: %d) "
+            + "| %7.3fms/item | %7.1f items/sec",
+            stage, threads, items, filtered, errors, getItemDuration(), getThroughput());
+    }
+}
@@ -17,6 +17,7 @@
 package org.apache.stanbol.entityhub.indexing.core;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
@@ -26,6 +27,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.stanbol.entityhub.indexing.core.config.IndexingConfig;
 import org.apache.stanbol.entityhub.indexing.core.normaliser.MinScoreNormalizer;
@@ -167,6 +169,29 @@ public class ConfigTest {
         List<EntityProcessor> processors = config.getEntityProcessors();
         assertNotNull(processors);
     }
+    /**
+     * Tests that the configuration fingerprint used by the incremental
+     * indexing mode changes if the field mappings are changed
+     */
+    @Test
+    public void configurationFingerprint() throws IOException {
+        String name = CONFIG_ROOT+"simple";
+        IndexingConfig config = new IndexingConfig(name,name){};
+        assertNotNull(config.getEntityProcessors()); //copies the mappings
+        long fingerprint = config.getConfigurationFingerprint();
+        //the fingerprint is stable for the same configuration
+        assertEquals(fingerprint, new IndexingConfig(name,name){}.getConfigurationFingerprint());
+        File mappings = new File(config.getConfigFolder(),"dbpediamappings.txt");
+        assertTrue(mappings.isFile());
+        String original = FileUtils.readFileToString(mappings, "UTF-8");
+        try {
+            FileUtils.writeStringToFile(mappings, original+"\nrdfs:comment\n", "UTF-8");
+            assertFalse(fingerprint == new IndexingConfig(name,name){}.getConfigurationFingerprint());
+        } finally {
+            FileUtils.writeStringToFile(mappings, original, "UTF-8");
+        }
+        assertEquals(fingerprint, new IndexingConfig(name,name){}.getConfigurationFingerprint());
+    }
     
 
 }
@@ -21,6 +21,7 @@ package org.apache.stanbol.entityhub.indexing.core;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 
 import org.apache.stanbol.entityhub.core.model.InMemoryValueFactory;
@@ -110,6 +111,18 @@ public class DummyIndexingDestination implements IndexingDestination {
         public Representation getRepresentation(String id) throws YardException, IllegalArgumentException {
             return IndexerTest.indexedData.get(id);
         }
+
+        @Override
+        public Collection<Representation> getRepresentations(Iterable<String> ids) throws YardException, IllegalArgumentException {
+            List<Representation> reps = new ArrayList<Representation>();
+            for(String id : ids){
+                Representation rep = IndexerTest.indexedData.get(id);
+                if(rep != null){
+                    reps.add(rep);
+                }
+            }
+            return reps;
+        }
         
         @Override
         public FieldQueryFactory getQueryFactory() {
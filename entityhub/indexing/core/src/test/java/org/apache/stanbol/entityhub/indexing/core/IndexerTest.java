@@ -136,6 +136,16 @@ public class IndexerTest {
         validateAllIndexed();
         
     }
+    @Test
+    public void testParallelProcessing(){
+        Indexer indexer = factory.create(CONFIG_ROOT+"idIterating",CONFIG_ROOT+"idIterating");
+        indexer.setProcessorThreads(4);
+        //NOTE: the DummyIndexingDestination is not thread safe
+        indexer.setPersisterThreads(1);
+        indexer.index();
+        //check that all entities have been indexed
+        validateAllIndexed();
+    }
     /**
      * validate the all the indexed resources!<p>
      * NOTE: That the asserts expect a specific configuration as provided by the
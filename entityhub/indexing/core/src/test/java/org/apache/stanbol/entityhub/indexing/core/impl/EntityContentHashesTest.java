@@ -0,0 +1,162 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.entityhub.indexing.core.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.FilenameUtils;
+import org.apache.stanbol.entityhub.core.model.InMemoryValueFactory;
+import org.apache.stanbol.entityhub.servicesapi.model.Representation;
+import org.apache.stanbol.entityhub.servicesapi.model.ValueFactory;
+import org.junit.Before;
+import org.junit.Test;
+
+public class EntityContentHashesTest {
+
+    private static final String LABEL = "http://www.w3.org/2000/01/rdf-schema#label";
+    private static final String TYPE = "http://www.w3.org/1999/02/22-rdf-syntax-ns#type";
+    private static final long CONFIG = 0x1234L;
+
+    private final ValueFactory vf = InMemoryValueFactory.getInstance();
+    private File hashFile;
+
+    @Before
+    public void initHashFile() throws IOException {
+        File dir = new File(System.getProperty("basedir", "."),
+            FilenameUtils.separatorsToSystem("target/test-files/contenthashes"));
+        FileUtils.deleteQuietly(dir);
+        FileUtils.forceMkdir(dir);
+        hashFile = new File(dir, "hashes.gz");
+    }
+
+    private Representation createRepresentation(String id, String label) {
+        Representation rep = vf.createRepresentation(id);
+        rep.addNaturalText(LABEL, label, "en");
+        rep.addReference(TYPE, "http://www.example.org/Type");
+        return rep;
+    }
+
+    @Test
+    public void testOrderIndependentHash() {
+        Representation rep1 = vf.createRepresentation("urn:test:entity");
+        rep1.addNaturalText(LABEL, "Label", "en");
+        rep1.addNaturalText(LABEL, "Bezeichnung", "de");
+        rep1.addReference(TYPE, "http://www.example.org/Type");
+        Representation rep2 = vf.createRepresentation("urn:test:entity");
+        rep2.addReference(TYPE, "http://www.example.org/Type");
+        rep2.addNaturalText(LABEL, "Bezeichnung", "de");
+        rep2.addNaturalText(LABEL, "Label", "en");
+        assertEquals(EntityContentHashes.hash(rep1, 1f), EntityContentHashes.hash(rep2, 1f));
+        //changed score
+        assertFalse(EntityContentHashes.hash(rep1, 1f) == EntityContentHashes.hash(rep2, 0.5f));
+        //changed language
+        rep2.removeNaturalText(LABEL, "Label", "en");
+        rep2.addNaturalText(LABEL, "Label", "fr");
+        assertFalse(EntityContentHashes.hash(rep1, 1f) == EntityContentHashes.hash(rep2, 1f));
+    }
+
+    @Test
+    public void testIncrementalRuns() throws IOException {
+        //(1) initial run indexes all entities
+        EntityContentHashes hashes = new EntityContentHashes(hashFile, CONFIG);
+        assertEquals(0, hashes.getPreviousSize());
+        for(int i = 0; i < 10; i++){
+            Representation rep = createRepresentation("urn:test:entity" + i, "Entity " + i);
+            long hash = EntityContentHashes.hash(rep, null);
+            assertFalse(hashes.isUnchanged(rep.getId(), hash));
+            hashes.add(rep.getId(), hash);
+        }
+        assertFalse(hashes.removed().hasNext());
+        hashes.commit();
+        hashes.close();
+        assertTrue(hashFile.isFile());
+        //(2) second run: entity0 changed, entity9 removed, entity10 added
+        hashes = new EntityContentHashes(hashFile, CONFIG);
+        assertEquals(10, hashes.getPreviousSize());
+        int unchanged = 0;
+        for(int i = 0; i <= 10; i++){
+            if(i == 9){
+                continue;
+            }
+            Representation rep = createRepresentation("urn:test:entity" + i,
+                i == 0 ? "Changed Entity" : "Entity " + i);
+            long hash = EntityContentHashes.hash(rep, null);
+            if(hashes.isUnchanged(rep.getId(), hash)){
+                unchanged++;
+            }
+            hashes.add(rep.getId(), hash);
+        }
+        assertEquals(8, unchanged);
+        Iterator<String> removed = hashes.removed();
+        assertTrue(removed.hasNext());
+        assertEquals("urn:test:entity9", removed.next());
+        assertFalse(removed.hasNext());
+        hashes.commit();
+        hashes.close();
+        hashes = new EntityContentHashes(hashFile, CONFIG);
+        assertEquals(10, hashes.getPreviousSize());
+        hashes.close();
+    }
+
+    @Test
+    public void testNotCommitted() throws IOException {
+        EntityContentHashes hashes = new EntityContentHashes(hashFile, CONFIG);
+        hashes.add("urn:test:entity", 1L);
+        hashes.commit();
+        hashes.close();
+        //a failed run does not replace the hashes of the last successful one
+        hashes = new EntityContentHashes(hashFile, CONFIG);
+        hashes.add("urn:test:other", 2L);
+        hashes.close();
+        hashes = new EntityContentHashes(hashFile, CONFIG);
+        assertTrue(hashes.isUnchanged("urn:test:entity", 1L));
+        assertFalse(hashes.isUnchanged("urn:test:other", 2L));
+        hashes.close();
+    }
+
+    @Test
+    public void testConfigurationChanged() throws IOException {
+        EntityContentHashes hashes = new EntityContentHashes(hashFile, CONFIG);
+        Representation rep = createRepresentation("urn:test:entity", "Entity");
+        long hash = EntityContentHashes.hash(rep, null);
+        hashes.add(rep.getId(), hash);
+        hashes.commit();
+        hashes.close();
+        //same configuration: the entity is unchanged
+        hashes = new EntityContentHashes(hashFile, CONFIG);
+        assertTrue(hashes.isUnchanged(rep.getId(), hash));
+        hashes.close();
+        //changed configuration: the same content needs to be re-indexed
+        hashes = new EntityContentHashes(hashFile, CONFIG + 1);
+        assertFalse(hashes.isUnchanged(rep.getId(), hash));
+        hashes.add(rep.getId(), hash);
+        //but it is not removed
+        assertFalse(hashes.removed().hasNext());
+        hashes.commit();
+        hashes.close();
+        hashes = new EntityContentHashes(hashFile, CONFIG + 1);
+        assertTrue(hashes.isUnchanged(rep.getId(), hash));
+        hashes.close();
+    }
+}
@@ -0,0 +1,193 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.entityhub.indexing.core.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+public class OrderedItemQueueTest {
+
+    private static final long TIMEOUT = 5000;
+
+    @Test
+    public void testOutOfOrderCompletion() throws InterruptedException {
+        BlockingQueue<QueueItem<Long>> queue = new LinkedBlockingQueue<QueueItem<Long>>();
+        OrderedItemQueue<Long> ordered = new OrderedItemQueue<Long>(queue, 10);
+        ordered.complete(2, item(2));
+        ordered.complete(1, null); //filtered
+        assertTrue("items MUST NOT be forwarded before preceding items are completed",
+            queue.isEmpty());
+        assertEquals(0, ordered.getNext());
+        ordered.complete(0, item(0));
+        assertEquals(3, ordered.getNext());
+        ordered.complete(3, item(3));
+        assertEquals(4, ordered.getNext());
+        //filtered items are skipped
+        assertEquals(Long.valueOf(0), queue.poll().getItem());
+        assertEquals(Long.valueOf(2), queue.poll().getItem());
+        assertEquals(Long.valueOf(3), queue.poll().getItem());
+        assertNull(queue.poll());
+    }
+
+    @Test
+    public void testCapacity() throws InterruptedException {
+        BlockingQueue<QueueItem<Long>> queue = new LinkedBlockingQueue<QueueItem<Long>>();
+        OrderedItemQueue<Long> ordered = new OrderedItemQueue<Long>(queue, 2);
+        ordered.complete(1, item(1)); //within the capacity
+        Completer completer = new Completer(ordered, 2);
+        completer.start();
+        assertFalse("items more as capacity positions ahead MUST wait",
+            completer.done.await(200, TimeUnit.MILLISECONDS));
+        ordered.complete(0, item(0));
+        assertTrue(completer.done.await(TIMEOUT, TimeUnit.MILLISECONDS));
+        assertNull(completer.error.get());
+        assertEquals(3, ordered.getNext());
+        assertEquals(3, queue.size());
+    }
+
+    @Test
+    public void testInterruptWhileWaiting() throws InterruptedException {
+        BlockingQueue<QueueItem<Long>> queue = new LinkedBlockingQueue<QueueItem<Long>>();
+        OrderedItemQueue<Long> ordered = new OrderedItemQueue<Long>(queue, 1);
+        Completer completer = new Completer(ordered, 1);
+        completer.start();
+        assertFalse(completer.done.await(200, TimeUnit.MILLISECONDS));
+        completer.interrupt();
+        assertTrue(completer.done.await(TIMEOUT, TimeUnit.MILLISECONDS));
+        assertTrue(completer.error.get() instanceof InterruptedException);
+        //the interrupted item MUST BE completed anyway
+        assertTrue(queue.isEmpty());
+        ordered.complete(0, item(0));
+        assertEquals(2, ordered.getNext());
+        assertEquals(Long.valueOf(0), queue.poll().getItem());
+        assertEquals(Long.valueOf(1), queue.poll().getItem());
+    }
+
+    @Test
+    public void testInterruptedThreadCompletesItem() throws InterruptedException {
+        BlockingQueue<QueueItem<Long>> queue = new LinkedBlockingQueue<QueueItem<Long>>();
+        OrderedItemQueue<Long> ordered = new OrderedItemQueue<Long>(queue, 1);
+        Thread.currentThread().interrupt();
+        try {
+            ordered.complete(0, item(0));
+            fail("InterruptedException expected");
+        } catch (InterruptedException e) {
+            //expected
+        } finally {
+            Thread.interrupted(); //clear the flag for the following tests
+        }
+        assertEquals(1, ordered.getNext());
+        assertEquals(Long.valueOf(0), queue.poll().getItem());
+    }
+
+    @Test
+    public void testConcurrentCompletion() throws InterruptedException {
+        final int numItems = 1000;
+        BlockingQueue<QueueItem<Long>> queue = new LinkedBlockingQueue<QueueItem<Long>>();
+        final OrderedItemQueue<Long> ordered = new OrderedItemQueue<Long>(queue, 8);
+        final AtomicLong sequence = new AtomicLong();
+        final List<Throwable> errors = Collections.synchronizedList(new ArrayList<Throwable>());
+        List<Thread> threads = new ArrayList<Thread>();
+        for(int i=0;i<4;i++){
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    Random random = new Random();
+                    try {
+                        for(long s = sequence.getAndIncrement(); s < numItems;
+                                s = sequence.getAndIncrement()){
+                            Thread.sleep(random.nextInt(2));
+                            //filter every 10th item
+                            ordered.complete(s, s%10 == 0 ? null : item(s));
+                        }
+                    } catch (Throwable t) {
+                        errors.add(t);
+                    }
+                }
+            });
+            thread.setDaemon(true);
+            threads.add(thread);
+            thread.start();
+        }
+        for(Thread thread : threads){
+            thread.join(TIMEOUT*4);
+            assertFalse("processing did not finish", thread.isAlive());
+        }
+        assertTrue("Errors: "+errors, errors.isEmpty());
+        assertEquals(numItems, ordered.getNext());
+        long last = -1;
+        int count = 0;
+        for(QueueItem<Long> item = queue.poll(); item != null; item = queue.poll()){
+            long current = item.getItem();
+            if(current <= last){
+                fail("Item "+current+" forwarded after item "+last);
+            }
+            assertFalse(current%10 == 0);
+            last = current;
+            count++;
+        }
+        assertEquals(numItems - numItems/10, count);
+    }
+
+    private static QueueItem<Long> item(long value){
+        return new QueueItem<Long>(Long.valueOf(value));
+    }
+
+    /**
+     * Completes an item in an other thread
+     */
+    private static class Completer extends Thread {
+
+        private final OrderedItemQueue<Long> ordered;
+        private final long sequence;
+        final AtomicReference<Exception> error = new AtomicReference<Exception>();
+        final CountDownLatch done = new CountDownLatch(1);
+
+        Completer(OrderedItemQueue<Long> ordered, long sequence){
+            this.ordered = ordered;
+            this.sequence = sequence;
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            try {
+                ordered.complete(sequence, item(sequence));
+            } catch (InterruptedException e) {
+                error.set(e);
+            } finally {
+                done.countDown();
+            }
+        }
+    }
+}
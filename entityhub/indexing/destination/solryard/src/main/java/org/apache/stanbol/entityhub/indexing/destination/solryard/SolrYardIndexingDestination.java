@@ -31,7 +31,6 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Dictionary;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
@@ -47,9 +46,12 @@ import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
+import org.apache.lucene.index.AtomicReader;
 import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.Terms;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.solr.client.solrj.SolrServer;
+import org.apache.solr.client.solrj.SolrServerException;
 import org.apache.solr.client.solrj.embedded.EmbeddedSolrServer;
 import org.apache.solr.core.CoreContainer;
 import org.apache.solr.core.CoreDescriptor;
@@ -60,12 +62,14 @@ import org.apache.solr.search.SolrIndexSearcher;
 import org.apache.solr.util.RefCounted;
 import org.apache.stanbol.entityhub.core.mapping.FieldMappingUtils;
 import org.apache.stanbol.entityhub.core.site.CacheUtils;
-import org.apache.stanbol.entityhub.indexing.core.IndexingDestination;
+import org.apache.stanbol.entityhub.indexing.core.FinalisationMonitor;
+import org.apache.stanbol.entityhub.indexing.core.MonitoredIndexingDestination;
 import org.apache.stanbol.entityhub.indexing.core.config.IndexingConfig;
 import org.apache.stanbol.entityhub.indexing.core.destination.OsgiConfigurationUtil;
 import org.apache.stanbol.entityhub.indexing.destination.solryard.fst.CorpusCreationInfo;
 import org.apache.stanbol.entityhub.indexing.destination.solryard.fst.CorpusCreationTask;
 import org.apache.stanbol.entityhub.indexing.destination.solryard.fst.FstConfig;
+import org.apache.stanbol.entityhub.indexing.destination.solryard.fst.FstMemoryBudget;
 import org.apache.stanbol.entityhub.servicesapi.mapping.FieldMapper;
 import org.apache.stanbol.entityhub.servicesapi.mapping.FieldMapping;
 import org.apache.stanbol.entityhub.servicesapi.model.rdf.RdfResourceEnum;
@@ -84,7 +88,7 @@ import org.apache.stanbol.entityhub.yard.solr.impl.SolrYardConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-public class SolrYardIndexingDestination implements IndexingDestination {
+public class SolrYardIndexingDestination implements MonitoredIndexingDestination {
     
     private static final Logger log = LoggerFactory.getLogger(SolrYardIndexingDestination.class);
 
@@ -186,6 +190,17 @@ public class SolrYardIndexingDestination implements IndexingDestination {
     public static final String FST_THREADS = "fstThreads";
     
     private static final int DEFAULT_FST_THREADS = 4;
+    /**
+     * The maximum memory (in MByte) used by concurrently building FST models.
+     * If not set (or &lt;= 0) the number of concurrently built models is only
+     * limited by the {@link #FST_THREADS}.
+     */
+    public static final String FST_MEMORY_BUDGET = "fstMemoryBudget";
+    /**
+     * The memory (in bytes) estimated to be needed per document with a value
+     * for the indexed field of an FST corpus
+     */
+    private static final long FST_MEMORY_PER_DOCUMENT = 256;
     /**
      * The location of the SolrIndex. This MUST BE an absolute Path in case it 
      * refers to a directory of the local file system and <code>null</code> in
@@ -245,6 +260,16 @@ public class SolrYardIndexingDestination implements IndexingDestination {
      * Set in {@link #setConfiguration(Map)}
      */
     private int fstThreads = DEFAULT_FST_THREADS;
+    /**
+     * The memory budget (in MByte) for building FST models. Values &lt;= 0
+     * indicate no limit.
+     */
+    private int fstMemoryBudget = 0;
+    /**
+     * The server used by the {@link #solrYard}. Used to commit the index
+     * before building the FST models
+     */
+    private EmbeddedSolrServer server;
 
     private NamespacePrefixService  namespacePrefixService;
     
@@ -524,6 +549,17 @@ public class SolrYardIndexingDestination implements IndexingDestination {
         if(fstThreads <= 0){
             fstThreads = DEFAULT_FST_THREADS;
         }
+        value = config.get(FST_MEMORY_BUDGET);
+        if(value instanceof Number){
+            fstMemoryBudget = ((Number)value).intValue();
+        } else if(value != null){
+            try {
+                fstMemoryBudget = Integer.parseInt(value.toString());
+            }catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Unable to parse the FST memory budget from "
+                    +value.toString(), e);
+            }
+        }
         
     }
     /**
@@ -549,6 +585,16 @@ public class SolrYardIndexingDestination implements IndexingDestination {
     public int getFstThreads() {
         return fstThreads;
     }
+    /**
+     * Setter for the memory budget used for building FST models
+     * @param mb the budget in MByte. Values &lt;= 0 deactivate the limit
+     */
+    public void setFstMemoryBudget(int mb){
+        this.fstMemoryBudget = mb;
+    }
+    public int getFstMemoryBudget() {
+        return fstMemoryBudget;
+    }
     /**
      * Getter for the FST models that are created in the {@link #finalise()}
      * phase
@@ -661,6 +707,7 @@ public class SolrYardIndexingDestination implements IndexingDestination {
             }
         }
         log.info("   ... create SolrYard");
+        this.server = server;
         this.solrYard = new SolrYard(server,solrYardConfig, namespacePrefixService);
     }
 
@@ -672,9 +719,13 @@ public class SolrYardIndexingDestination implements IndexingDestination {
         return solrYard;
     }
 
-    @SuppressWarnings("unchecked")
     @Override
     public void finalise() {
+        finalise(null);
+    }
+
+    @Override
+    public void finalise(FinalisationMonitor monitor) {
         //write the indexing configuration
         if(indexFieldConfiguration != null){
             FieldMapper mapper = FieldMappingUtils.createDefaultFieldMapper(indexFieldConfiguration);
@@ -684,73 +735,86 @@ public class SolrYardIndexingDestination implements IndexingDestination {
                 log.error("Unable to store FieldMapperConfiguration to the Store!",e);
             }
         }
-        log.info(" ... optimize SolrCore");
-        try {
-            solrYard.optimize();
-        } catch (YardException e) {
-            log.error("Unable to optimize SolrIndex after indexing! IndexArchive will not be optimized ...",e);
-        }
-        //build the FST models
+        //start building the FST models. Optimising the index does not change
+        //the indexed documents so FST models can be built concurrently
+        List<CorpusCreationTask> fstTasks = null;
+        List<Future<?>> fstCreationTasks = null;
         if(fstConfigs != null){
-            //(1) FST config initialisation
-            log.info(" ... init FST configuration(s)");
-            IndexSchema schema = core.getLatestSchema();
-            File fstDir = new File(new File(core.getDataDir()),"fst");
-            if(!fstDir.isDirectory()){
-                try {
-                    FileUtils.forceMkdir(fstDir);
-                } catch (IOException e) {
-                    throw new IllegalStateException("Unable to create Directory "
-                        + fstDir.getAbsolutePath() + "for storing the FST models "
-                        + "of SolrCore "+core.getName());
-                }
-            }
-            RefCounted<SolrIndexSearcher> searcherRef = core.getSearcher();
+            log.info(" ... commit SolrCore");
             try {
-                for(FstConfig fstConfig : fstConfigs){
-                    fstConfig.setFstDirectory(fstDir); //set the FST directory
-                    log.info("> FST config {}", fstConfig);
-                    fstConfig.buildConfig(schema, searcherRef.get().getAtomicReader());
-                    for(CorpusCreationInfo corpus : fstConfig.getCorpusCreationInfos()){
-                        log.info("  - {}",corpus);
-                    }
-                }
-            } finally {
-                searcherRef.decref();
+                server.commit();
+            } catch (SolrServerException e) {
+                throw new IllegalStateException("Unable to commit SolrCore "
+                        + core.getName() + " before building the FST models!",e);
+            } catch (IOException e) {
+                throw new IllegalStateException("Unable to commit SolrCore "
+                        + core.getName() + " before building the FST models!",e);
             }
-
-            List<Future<?>> fstCreationTasks = new ArrayList<Future<?>>();
+            fstTasks = initFstTasks(monitor);
+            fstCreationTasks = new ArrayList<Future<?>>(fstTasks.size());
             ExecutorService es = Executors.newFixedThreadPool(fstThreads);
-            log.info(" ... build FST models ");
-            for(FstConfig config : fstConfigs){
-                for(final CorpusCreationInfo corpus : config.getCorpusCreationInfos()){
-                    fstCreationTasks.add(es.submit(new CorpusCreationTask(core, corpus)));
+            log.info(" ... build {} FST models (threads: {}, memory budget: {}MB)",
+                new Object[]{fstTasks.size(), fstThreads, 
+                        fstMemoryBudget > 0 ? fstMemoryBudget : "unlimited"});
+            for(CorpusCreationTask task : fstTasks){
+                if(monitor != null){
+                    monitor.taskScheduled(task.toString());
                 }
+                fstCreationTasks.add(es.submit(task));
             }
+            es.shutdown();
+        }
+        log.info(" ... optimize SolrCore");
+        long optimizeStart = System.currentTimeMillis();
+        YardException optimizeError = null;
+        if(monitor != null){
+            monitor.taskScheduled("optimize SolrCore " + core.getName());
+            monitor.taskStarted("optimize SolrCore " + core.getName());
+        }
+        try {
+            solrYard.optimize();
+        } catch (YardException e) {
+            optimizeError = e;
+            log.error("Unable to optimize SolrIndex after indexing! IndexArchive will not be optimized ...",e);
+        }
+        if(monitor != null){
+            monitor.taskCompleted("optimize SolrCore " + core.getName(), 
+                System.currentTimeMillis() - optimizeStart, optimizeError);
+        }
+        if(fstCreationTasks != null){
             //now wait for the completion of the tasks
-            Iterator<Future<?>> taskIt = fstCreationTasks.iterator();
-            while(taskIt.hasNext()){
-                Future<?> task = taskIt.next();
+            int failed = 0;
+            boolean[] succeeded = new boolean[fstCreationTasks.size()];
+            for(int i = 0; i < succeeded.length; i++){
                 try {
-                    task.get(); //wait until ready
-                    taskIt.remove();
+                    fstCreationTasks.get(i).get(); //wait until ready
+                    succeeded[i] = true;
                 } catch (ExecutionException e) {
+                    failed++;
                     log.error("Exception while building FST models for SolrCore "
                             + core.getName(),e);
                 } catch (InterruptedException e) {
+                    failed++;
                     log.error("Interupped while building FST models for SolrCore "
                             + core.getName(),e);
                     Thread.currentThread().interrupt();
-                    
                 }
             }
-            if(!fstCreationTasks.isEmpty()){
+            if(failed > 0){
                 log.warn("Unable to build {} FST models for SolrCore {}",
-                    fstCreationTasks.size(), core.getName());
+                    failed, core.getName());
             } else {
                 log.info("All FST modles for SolrCore {} build successfully!",
                     core.getName());
             }
+            //FST models were built based on the segments before the optimization
+            if(optimizeError == null){
+                for(int i = 0; i < succeeded.length; i++){
+                    if(succeeded[i]){ //do not mark failed models as up to date
+                        fstTasks.get(i).updateSegments();
+                    }
+                }
+            }
         } //no FST modles to build
         
         //all Solr specific stuff is now ready
@@ -813,6 +877,52 @@ public class SolrYardIndexingDestination implements IndexingDestination {
             OsgiConfigurationUtil.createBundle(indexingConfig);
         }
     }
+    /**
+     * Initialises the FST configurations based on the current index and
+     * creates a {@link CorpusCreationTask} for every corpus. The memory needed
+     * to build a corpus is estimated based on the number of documents with
+     * values for the indexed field.
+     * @param monitor the monitor or <code>null</code>
+     * @return the tasks
+     */
+    private List<CorpusCreationTask> initFstTasks(FinalisationMonitor monitor) {
+        log.info(" ... init FST configuration(s)");
+        IndexSchema schema = core.getLatestSchema();
+        File fstDir = new File(new File(core.getDataDir()),"fst");
+        if(!fstDir.isDirectory()){
+            try {
+                FileUtils.forceMkdir(fstDir);
+            } catch (IOException e) {
+                throw new IllegalStateException("Unable to create Directory "
+                    + fstDir.getAbsolutePath() + "for storing the FST models "
+                    + "of SolrCore "+core.getName());
+            }
+        }
+        FstMemoryBudget budget = new FstMemoryBudget(fstMemoryBudget*1024L*1024L);
+        List<CorpusCreationTask> tasks = new ArrayList<CorpusCreationTask>();
+        RefCounted<SolrIndexSearcher> searcherRef = core.getSearcher();
+        try {
+            AtomicReader reader = searcherRef.get().getAtomicReader();
+            for(FstConfig fstConfig : fstConfigs){
+                fstConfig.setFstDirectory(fstDir); //set the FST directory
+                log.info("> FST config {}", fstConfig);
+                fstConfig.buildConfig(schema, reader);
+                for(CorpusCreationInfo corpus : fstConfig.getCorpusCreationInfos()){
+                    Terms terms = reader.terms(corpus.indexedField);
+                    long memory = terms == null ? 0 : 
+                            terms.getDocCount() * FST_MEMORY_PER_DOCUMENT;
+                    log.info("  - {} (estimated memory: {}MB)",corpus, memory/(1024*1024));
+                    tasks.add(new CorpusCreationTask(core, corpus, budget, memory, monitor));
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to initialise FST configurations "
+                + "for SolrCore " + core.getName(), e);
+        } finally {
+            searcherRef.decref();
+        }
+        return tasks;
+    }
     /**
      * 
      */
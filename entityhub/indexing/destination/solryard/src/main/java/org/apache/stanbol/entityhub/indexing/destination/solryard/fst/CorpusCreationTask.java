@@ -16,15 +16,22 @@
 */
 package org.apache.stanbol.entityhub.indexing.destination.solryard.fst;
 
+import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 
 import org.apache.commons.io.FileUtils;
+import org.apache.lucene.index.IndexCommit;
+import org.apache.lucene.index.IndexFileNames;
 import org.apache.lucene.index.IndexReader;
 import org.apache.solr.core.SolrCore;
 import org.apache.solr.search.SolrIndexSearcher;
 import org.apache.solr.util.RefCounted;
+import org.apache.stanbol.entityhub.indexing.core.FinalisationMonitor;
 import org.opensextant.solrtexttagger.TaggerFstCorpus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -32,7 +39,14 @@ import org.slf4j.LoggerFactory;
 /**
  * Runtime creation of FST corpora is done as {@link Callable}. This allows
  * users to decide by the configuration of the {@link ExecutorService} to
- * control how Corpora are build (e.g. how many can be built at a time.
+ * control how Corpora are build (e.g. how many can be built at a time.<p>
+ * The segment files of the index commit used to build a corpus are stored
+ * next to the FST file. If the FST file exists and the index still consists
+ * of the same segments the corpus is not built again (e.g. after an
+ * incremental indexing run without any changes).<p>
+ * If a {@link FstMemoryBudget} is parsed the task waits until the estimated
+ * memory needed to build the corpus is available. Progress and build time
+ * are reported to the (optional) {@link FinalisationMonitor}.
  * @author Rupert Westenthaler
  *
  */
@@ -42,18 +56,109 @@ public class CorpusCreationTask implements Runnable{
     
     CorpusCreationInfo corpusInfo;
     SolrCore core;
+    private final FstMemoryBudget budget;
+    private final long estimatedMemory;
+    private final FinalisationMonitor monitor;
     
     public CorpusCreationTask(SolrCore core, CorpusCreationInfo corpus){
+        this(core, corpus, null, 0, null);
+    }
+    /**
+     * @param core the SolrCore
+     * @param corpus the corpus to build
+     * @param budget the memory budget or <code>null</code> if not limited
+     * @param estimatedMemory the estimated memory needed to build the corpus
+     * @param monitor the monitor or <code>null</code>
+     */
+    public CorpusCreationTask(SolrCore core, CorpusCreationInfo corpus, 
+            FstMemoryBudget budget, long estimatedMemory, FinalisationMonitor monitor){
         this.core = core;
         this.corpusInfo = corpus;
+        this.budget = budget;
+        this.estimatedMemory = estimatedMemory;
+        this.monitor = monitor;
     }
     
     @Override
     public void run() {
+        String task = toString();
+        long acquired = 0;
+        if(budget != null){
+            try {
+                acquired = budget.acquire(estimatedMemory);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for "
+                    + "memory to build " + corpusInfo, e);
+            }
+        }
+        if(monitor != null){
+            monitor.taskStarted(task);
+        }
+        long start = System.currentTimeMillis();
+        Throwable error = null;
+        try {
+            buildCorpus();
+        } catch (RuntimeException e) {
+            error = e;
+            throw e;
+        } finally {
+            if(budget != null){
+                budget.release(acquired);
+            }
+            long duration = System.currentTimeMillis() - start;
+            log.info(" ... {} completed in {}ms", corpusInfo, duration);
+            if(monitor != null){
+                monitor.taskCompleted(task, duration, error);
+            }
+        }
+    }
+    /**
+     * Stores the segments of the current index commit as the ones the
+     * existing FST model was built from. This is used after optimising the
+     * index (what does not change the indexed documents) to avoid that
+     * the next run rebuilds the model.<p>
+     * This MUST only be called if the task has completed successfully. As
+     * the segments file is deleted before a new model is built and only
+     * written after the model was successfully saved this method does
+     * nothing for models that are missing or outdated.
+     */
+    public void updateSegments() {
+        if(!corpusInfo.fst.isFile() || !getSegmentsFile().isFile()){
+            return;
+        }
+        RefCounted<SolrIndexSearcher> searcherRef = core.getSearcher();
+        try {
+            FileUtils.writeStringToFile(getSegmentsFile(), 
+                getSegments(searcherRef.get().getIndexReader().getIndexCommit()), "UTF-8");
+        } catch (IOException e) {
+            log.warn("Unable to update the segments of " + corpusInfo 
+                + " (model will be rebuilt by the next run)", e);
+        } finally {
+            searcherRef.decref();
+        }
+    }
+
+    private File getSegmentsFile() {
+        return new File(corpusInfo.fst.getParentFile(), corpusInfo.fst.getName() + ".segments");
+    }
+    
+    private void buildCorpus() {
         TaggerFstCorpus corpus = null;
+        String segments;
+        File segmentsFile = getSegmentsFile();
         RefCounted<SolrIndexSearcher> searcherRef = core.getSearcher();
         try {
             SolrIndexSearcher searcher = searcherRef.get();
+            segments = getSegments(searcher.getIndexReader().getIndexCommit());
+            if(corpusInfo.fst.isFile() && segmentsFile.isFile() &&
+                    segments.equals(FileUtils.readFileToString(segmentsFile, "UTF-8"))){
+                log.info(" ... {} is up to date (index not changed)", corpusInfo);
+                return;
+            }
+            //delete the segments before building so that an existing model
+            //is not considered as up to date if building the new one fails
+            FileUtils.deleteQuietly(segmentsFile);
             //we do get the AtomicReader, because TaggerFstCorpus will need it
             //anyways. This prevents to create another SlowCompositeReaderWrapper.
             IndexReader reader = searcher.getAtomicReader();
@@ -75,6 +180,7 @@ public class CorpusCreationTask implements Runnable{
         if(corpus.getPhrases() != null){ //the FST is not empty
             try { //NOTE saving an empty corpus results in a NPE
                 corpus.save(corpusInfo.fst);
+                FileUtils.writeStringToFile(segmentsFile, segments, "UTF-8");
             } catch (IOException e) {
                 log.warn("Unable to store FST corpus " + corpusInfo + " to "
                         + corpusInfo.fst.getAbsolutePath() + "!", e);
@@ -84,6 +190,25 @@ public class CorpusCreationTask implements Runnable{
         }
     }
     
+    /**
+     * The sorted names of the files of the parsed commit excluding the
+     * segments_N file (that changes with every commit)
+     */
+    private static String getSegments(IndexCommit commit) throws IOException {
+        List<String> files = new ArrayList<String>();
+        for(String file : commit.getFileNames()){
+            if(!file.startsWith(IndexFileNames.SEGMENTS)){
+                files.add(file);
+            }
+        }
+        Collections.sort(files);
+        StringBuilder sb = new StringBuilder();
+        for(String file : files){
+            sb.append(file).append('\n');
+        }
+        return sb.toString();
+    }
+
     @Override
     public String toString() {
         return new StringBuilder("Task: building ").append(corpusInfo)
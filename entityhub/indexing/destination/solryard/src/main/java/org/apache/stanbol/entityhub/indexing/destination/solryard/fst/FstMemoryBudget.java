@@ -0,0 +1,69 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.entityhub.indexing.destination.solryard.fst;
+
+/**
+ * Limits the (estimated) memory used by concurrently building FST models.
+ * A {@link CorpusCreationTask} needs to {@link #acquire(long)} the memory it
+ * is expected to use before building the corpus and {@link #release(long)}
+ * it afterwards. Requests exceeding the budget are reduced to the budget
+ * so that such corpora are built while no other corpus is built.<p>
+ * This class is thread safe.
+ */
+public class FstMemoryBudget {
+
+    private final long budget;
+    private long available;
+
+    /**
+     * Creates a memory budget
+     * @param budget the budget in bytes. Values &lt;= 0 deactivate the limit
+     */
+    public FstMemoryBudget(long budget) {
+        this.budget = budget <= 0 ? Long.MAX_VALUE : budget;
+        this.available = this.budget;
+    }
+    /**
+     * Waits until the parsed amount of memory is available
+     * @param bytes the requested bytes
+     * @return the acquired bytes. MUST BE parsed to {@link #release(long)}
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public synchronized long acquire(long bytes) throws InterruptedException {
+        long requested = Math.max(0, Math.min(bytes, budget));
+        while(available < requested){
+            wait();
+        }
+        available = available - requested;
+        return requested;
+    }
+    /**
+     * Releases memory acquired by {@link #acquire(long)}
+     * @param bytes the bytes returned by {@link #acquire(long)}
+     */
+    public synchronized void release(long bytes) {
+        available = Math.min(budget, available + bytes);
+        notifyAll();
+    }
+    /**
+     * The budget in bytes
+     * @return the budget or {@link Long#MAX_VALUE} if not limited
+     */
+    public long getBudget() {
+        return budget;
+    }
+}
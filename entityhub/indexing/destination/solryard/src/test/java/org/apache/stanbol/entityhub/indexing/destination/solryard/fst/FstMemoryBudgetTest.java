@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.stanbol.entityhub.indexing.destination.solryard.fst;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link FstMemoryBudget}
+ */
+public class FstMemoryBudgetTest {
+
+    private static final long TIMEOUT = 5000;
+
+    @Test
+    public void testUnlimitedBudget() throws InterruptedException {
+        assertEquals(Long.MAX_VALUE, new FstMemoryBudget(0).getBudget());
+        FstMemoryBudget budget = new FstMemoryBudget(-1);
+        assertEquals(Long.MAX_VALUE, budget.getBudget());
+        //multiple large requests MUST NOT block
+        assertEquals(Long.MAX_VALUE/2, budget.acquire(Long.MAX_VALUE/2));
+        assertEquals(Long.MAX_VALUE/2, budget.acquire(Long.MAX_VALUE/2));
+    }
+
+    @Test
+    public void testRequestsAreLimitedToTheBudget() throws InterruptedException {
+        FstMemoryBudget budget = new FstMemoryBudget(100);
+        assertEquals(100, budget.getBudget());
+        //requests exceeding the budget are reduced to the budget
+        long acquired = budget.acquire(1000);
+        assertEquals(100, acquired);
+        budget.release(acquired);
+        //negative requests do not acquire anything
+        assertEquals(0, budget.acquire(-10));
+        assertEquals(100, budget.acquire(100));
+    }
+
+    @Test
+    public void testAcquireWaitsForRelease() throws InterruptedException {
+        FstMemoryBudget budget = new FstMemoryBudget(100);
+        long first = budget.acquire(60);
+        Acquirer second = new Acquirer(budget, 60);
+        second.start();
+        assertFalse("acquire MUST wait if not enough memory is available",
+            second.done.await(200, TimeUnit.MILLISECONDS));
+        //a request that fits in the remaining budget is not blocked
+        assertEquals(40, budget.acquire(40));
+        budget.release(40);
+        assertFalse(second.done.await(100, TimeUnit.MILLISECONDS));
+        budget.release(first);
+        assertTrue("acquire MUST continue after memory was released",
+            second.done.await(TIMEOUT, TimeUnit.MILLISECONDS));
+        assertEquals(60, second.acquired.get());
+    }
+
+    @Test
+    public void testReleaseDoesNotExceedBudget() throws InterruptedException {
+        FstMemoryBudget budget = new FstMemoryBudget(100);
+        budget.release(1000); //more as acquired
+        assertEquals(100, budget.acquire(100));
+        Acquirer acquirer = new Acquirer(budget, 1);
+        acquirer.start();
+        assertFalse("the available memory MUST NOT exceed the budget",
+            acquirer.done.await(200, TimeUnit.MILLISECONDS));
+        budget.release(100);
+        assertTrue(acquirer.done.await(TIMEOUT, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testInterruptWhileWaiting() throws InterruptedException {
+        FstMemoryBudget budget = new FstMemoryBudget(100);
+        budget.acquire(100);
+        Acquirer acquirer = new Acquirer(budget, 50);
+        acquirer.start();
+        assertFalse(acquirer.done.await(100, TimeUnit.MILLISECONDS));
+        acquirer.interrupt();
+        assertTrue(acquirer.done.await(TIMEOUT, TimeUnit.MILLISECONDS));
+        assertTrue(acquirer.error.get() instanceof InterruptedException);
+        //the interrupted request MUST NOT have acquired any memory
+        budget.release(100);
+        assertEquals(100, budget.acquire(100));
+    }
+
+    /**
+     * Acquires memory in an other thread
+     */
+    private static class Acquirer extends Thread {
+
+        private final FstMemoryBudget budget;
+        private final long bytes;
+        final AtomicLong acquired = new AtomicLong(-1);
+        final AtomicReference<Exception> error = new AtomicReference<Exception>();
+        final CountDownLatch done = new CountDownLatch(1);
+
+        Acquirer(FstMemoryBudget budget, long bytes){
+            this.budget = budget;
+            this.bytes = bytes;
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            try {
+                acquired.set(budget.acquire(bytes));
+            } catch (InterruptedException e) {
+                error.set(e);
+            } finally {
+                done.countDown();
+            }
+        }
+    }
+}
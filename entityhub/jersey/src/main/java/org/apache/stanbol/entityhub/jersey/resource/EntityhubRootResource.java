@@ -73,6 +73,8 @@ import org.apache.stanbol.commons.namespaceprefix.NamespaceMappingUtils;
 import org.apache.stanbol.commons.namespaceprefix.NamespacePrefixService;
 import org.apache.stanbol.commons.web.viewable.Viewable;
 import org.apache.stanbol.commons.web.base.resource.BaseStanbolResource;
+import org.apache.stanbol.entityhub.core.query.PagedQueryResultList;
+import org.apache.stanbol.entityhub.core.query.PagedQueryResultList.PageLoader;
 import org.apache.stanbol.entityhub.core.query.QueryResultListImpl;
 import org.apache.stanbol.entityhub.jersey.utils.JerseyUtils;
 import org.apache.stanbol.entityhub.ldpath.EntityhubLDPath;
@@ -586,7 +588,22 @@ public class EntityhubRootResource extends BaseStanbolResource {
         } else { //use the default query execution
             QueryResultList<Representation> result;
             try {
-                result = entityhub.find(query);
+                Integer limit = query.getLimit();
+                if(limit != null && limit > PagedQueryResultList.DEFAULT_PAGE_SIZE){
+                    //retrieve large result sets page by page while writing
+                    //the response
+                    final Entityhub entityhub = this.entityhub;
+                    result = new PagedQueryResultList<Representation>(query, Representation.class,
+                        PagedQueryResultList.DEFAULT_PAGE_SIZE, new PageLoader<Representation>() {
+                            @Override
+                            public QueryResultList<Representation> loadPage(FieldQuery pageQuery) {
+                                return entityhub.find(pageQuery);
+                            }
+                        });
+                    result.isEmpty(); //retrieve the first page to report errors
+                } else {
+                    result = entityhub.find(query);
+                }
             } catch (EntityhubException e) {
                 String message = String.format("Exception while performing the " +
                 		"FieldQuery on the EntityHub (message: %s)", e.getMessage());
@@ -77,6 +77,9 @@ import org.apache.stanbol.commons.namespaceprefix.NamespaceMappingUtils;
 import org.apache.stanbol.commons.namespaceprefix.NamespacePrefixService;
 import org.apache.stanbol.commons.web.viewable.Viewable;
 import org.apache.stanbol.commons.web.base.resource.BaseStanbolResource;
+import org.apache.stanbol.entityhub.core.impl.ReferencedSiteImpl;
+import org.apache.stanbol.entityhub.core.query.PagedQueryResultList;
+import org.apache.stanbol.entityhub.core.query.PagedQueryResultList.PageLoader;
 import org.apache.stanbol.entityhub.core.query.QueryResultListImpl;
 import org.apache.stanbol.entityhub.jersey.utils.JerseyUtils;
 import org.apache.stanbol.entityhub.ldpath.EntityhubLDPath;
@@ -640,7 +643,22 @@ public class ReferencedSiteRootResource extends BaseStanbolResource {
         } else { //use the default query execution
             QueryResultList<Representation> result;
             try {
-                result = site.find(query);
+                Integer limit = query.getLimit();
+                if(limit != null && limit > PagedQueryResultList.DEFAULT_PAGE_SIZE){
+                    //retrieve large result sets page by page while writing
+                    //the response
+                    final Site querySite = site;
+                    result = new PagedQueryResultList<Representation>(query, Representation.class,
+                        PagedQueryResultList.DEFAULT_PAGE_SIZE, new PageLoader<Representation>() {
+                            @Override
+                            public QueryResultList<Representation> loadPage(FieldQuery pageQuery) {
+                                return querySite.find(pageQuery);
+                            }
+                        });
+                    result.isEmpty(); //retrieve the first page to report errors
+                } else {
+                    result = site.find(query);
+                }
             } catch (SiteException e) {
                 String message = String.format("Unable to Query Site '%s' (message: %s)",
                     site.getId(),e.getMessage());
@@ -850,5 +868,13 @@ public class ReferencedSiteRootResource extends BaseStanbolResource {
         public Site getSite() {
             return site;
         }
+        /**
+         * The statistics of the in-memory cache of the site
+         * @return the statistics or <code>null</code> if not available
+         */
+        public Map<String,Long> getMemoryCacheStatistics() {
+            return site instanceof ReferencedSiteImpl ? 
+                    ((ReferencedSiteImpl)site).getMemoryCacheStatistics() : null;
+        }
     }
 }
@@ -19,14 +19,15 @@ package org.apache.stanbol.entityhub.jersey.utils;
 import static javax.ws.rs.core.MediaType.TEXT_HTML;
 import static javax.ws.rs.core.MediaType.TEXT_HTML_TYPE;
 import static org.apache.stanbol.commons.web.base.utils.MediaTypeUtil.getAcceptableMediaType;
-import static org.apache.stanbol.entityhub.ldpath.LDPathUtils.getReader;
 
 import java.net.URI;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -51,6 +52,7 @@ import org.apache.stanbol.entityhub.jersey.resource.EntityhubRootResource;
 import org.apache.stanbol.entityhub.jersey.resource.ReferencedSiteRootResource;
 import org.apache.stanbol.entityhub.jersey.resource.SiteManagerRootResource;
 import org.apache.stanbol.entityhub.ldpath.EntityhubLDPath;
+import org.apache.stanbol.entityhub.ldpath.LDPathUtils;
 import org.apache.stanbol.entityhub.ldpath.backend.AbstractBackend;
 import org.apache.stanbol.entityhub.model.clerezza.RdfValueFactory;
 import org.apache.stanbol.entityhub.servicesapi.model.Reference;
@@ -96,7 +98,7 @@ public final class LDPathHelper {
         Graph data = new IndexedGraph();
         RdfValueFactory vf = new RdfValueFactory(data);
         EntityhubLDPath ldPath = new EntityhubLDPath(backend,vf);
-        Program<Object> program = ldPath.parseProgram(getReader(ldpath));
+        Program<Object> program = getProgram(backend, ldpath);
         if(log.isDebugEnabled()){
             log.debug("Execute on Context(s) '{}' LDPath program: \n{}",
                 contexts,program.getPathExpression(backend));
@@ -109,11 +111,29 @@ public final class LDPathHelper {
          * automatically added the Graph. The only thing we need to do is to
          * wrap the Graph in the response.
          */
+        List<Reference> references = new ArrayList<Reference>(contexts.size());
         for(String context : contexts){
-            ldPath.execute(vf.createReference(context), program);
+            references.add(vf.createReference(context));
         }
+        //prefetches the contexts in batches
+        ldPath.execute(references, program);
         return data;
     }
+    /**
+     * Getter for the (cached) {@link Program} for the parsed LDPath string.
+     * Programs are parsed by using the {@link RdfValueFactory#getInstance()
+     * RdfValueFactory singleton}, because cached programs keep a reference
+     * to the {@link ValueFactory} used for parsing (and request specific
+     * {@link RdfValueFactory} instances reference the result graph).
+     * @param backend the backend
+     * @param ldpath the LDPath program
+     * @return the parsed program. MUST NOT be modified
+     * @throws LDPathParseException if the parsed LDPath program is invalid
+     */
+    private static Program<Object> getProgram(RDFBackend<Object> backend, String ldpath) 
+            throws LDPathParseException {
+        return new EntityhubLDPath(backend, RdfValueFactory.getInstance()).getProgram(ldpath);
+    }
     /**
      * Utility that gets the messages of the parsing error. The message about the
      * problem is contained in some parent Exception. Therefore this follows
@@ -249,7 +269,8 @@ public final class LDPathHelper {
      * @param ldpathProgram the LDPath program as string
      * @param selectedFields the selected fields of the query
      * @param backend the RDFBackend  (only needed for logging)
-     * @param ldPath the {@link LDPath} used to parse the program.
+     * @param ldPath the {@link LDPath} used to execute the program. Programs
+     * are parsed by {@link #getProgram(RDFBackend, String)}.
      * @return the pre-processed and validated program
      * @throws LDPathParseException if the parsed LDPath program string is not
      * valid
@@ -260,7 +281,9 @@ public final class LDPathHelper {
                                                 Set<String> selectedFields,
                                                 AbstractBackend backend,
                                                 EntityhubLDPath ldPath) throws LDPathParseException {
-        Program<Object> program = ldPath.parseProgram(getReader(ldpathProgram));
+        //NOTE: programs returned by getProgram(..) are shared. Because of that
+        //      a copy is used if the result score mapping needs to be added
+        Program<Object> program = getProgram(backend, ldpathProgram);
         
         //We need to do two things:
         // 1) ensure that no fields define by LDPath are also selected
@@ -288,6 +311,7 @@ public final class LDPathHelper {
                 "the LDPath program! Conflicts: "+conflicting.toString());
         }
         if(!foundRsultRankingField){ //if no mapping for the result score
+            program = LDPathUtils.copy(program);
             program.addMapping(RESULT_SCORE_MAPPING); //add the default mapping
         }
         return program;
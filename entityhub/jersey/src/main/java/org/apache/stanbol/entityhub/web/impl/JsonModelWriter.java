@@ -1,7 +1,10 @@
 package org.apache.stanbol.entityhub.web.impl;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.util.Collections;
 import java.util.Date;
 import java.util.Iterator;
@@ -21,6 +24,7 @@ import org.apache.felix.scr.annotations.Property;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.Service;
 import org.apache.stanbol.commons.namespaceprefix.NamespacePrefixService;
+import org.apache.stanbol.entityhub.core.query.FederatedQueryResultList;
 import org.apache.stanbol.entityhub.core.utils.TimeUtils;
 import org.apache.stanbol.entityhub.servicesapi.defaults.DataTypeEnum;
 import org.apache.stanbol.entityhub.servicesapi.model.Entity;
@@ -138,7 +142,13 @@ public class JsonModelWriter implements ModelWriter {
     public void write(QueryResultList<?> result, OutputStream out, MediaType mediaType) 
             throws WebApplicationException, IOException {
         try {
-            writeJsonObject(toJSON(result,nsPrefixService), out,getCharset(mediaType));
+            if(indent > 0){ //pretty printing requires the whole JSONObject
+                writeJsonObject(toJSON(result,nsPrefixService), out,getCharset(mediaType));
+            } else {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(out, getCharset(mediaType)));
+                writeResultList(result, writer);
+                writer.flush();
+            }
         } catch (JSONException e) {
             throw new WebApplicationException(e, Status.INTERNAL_SERVER_ERROR);
         }
@@ -161,6 +171,17 @@ public class JsonModelWriter implements ModelWriter {
         IOUtils.write(indent > 0 ? jObject.toString(indent) : jObject.toString(), 
                 out, charset);
     }
+    /**
+     * Writes the {@link JSONObject} to the writer
+     * @param jObject the object to write
+     * @param writer the writer
+     * @throws IOException
+     * @throws JSONException
+     */
+    private void writeJsonObject(JSONObject jObject, Writer writer) 
+            throws IOException, JSONException {
+        writer.write(indent > 0 ? jObject.toString(indent) : jObject.toString());
+    }
 
     /**
      * @param mediaType
@@ -264,6 +285,14 @@ public class JsonModelWriter implements ModelWriter {
             jResultList.put("query", FieldQueryToJsonUtils.toJSON(resultList.getQuery(),nsPrefixService));
         }
         jResultList.put("results", convertResultsToJSON(resultList,resultList.getType()));
+        if(resultList instanceof FederatedQueryResultList<?>){
+            FederatedQueryResultList<?> federated = (FederatedQueryResultList<?>)resultList;
+            if(federated.isPartial()){
+                jResultList.put("partial", true);
+                jResultList.put("failedSites", new JSONArray(federated.getFailedSites()));
+                jResultList.put("timedOutSites", new JSONArray(federated.getTimedOutSites()));
+            }
+        }
         return jResultList;
     }
 
@@ -285,4 +314,56 @@ public class JsonModelWriter implements ModelWriter {
         return jResults;
     }
 
+    /**
+     * Streams the parsed {@link QueryResultList} to the parsed writer. Results
+     * are serialised one by one so that lazily retrieved result lists (e.g.
+     * {@link org.apache.stanbol.entityhub.core.query.PagedQueryResultList})
+     * do not need to be kept in memory. Used if the JSON is not
+     * pretty-printed (<code>indent &lt;= 0</code>). Results of unsupported
+     * types are not serialised.
+     */
+    private void writeResultList(QueryResultList<?> resultList, Writer writer) 
+            throws IOException, JSONException {
+        writer.write('{');
+        if(resultList.getQuery() != null){
+            writer.write("\"query\":");
+            writeJsonObject(FieldQueryToJsonUtils.toJSON(resultList.getQuery(),nsPrefixService), writer);
+            writer.write(',');
+        }
+        if(resultList instanceof FederatedQueryResultList<?>){
+            FederatedQueryResultList<?> federated = (FederatedQueryResultList<?>)resultList;
+            if(federated.isPartial()){
+                writer.write("\"partial\":true,\"failedSites\":");
+                writer.write(new JSONArray(federated.getFailedSites()).toString());
+                writer.write(",\"timedOutSites\":");
+                writer.write(new JSONArray(federated.getTimedOutSites()).toString());
+                writer.write(',');
+            }
+        }
+        writer.write("\"results\":[");
+        Class<?> type = resultList.getType();
+        //check the type before writing any separator
+        boolean isString = String.class.isAssignableFrom(type);
+        boolean isRepresentation = Representation.class.isAssignableFrom(type);
+        boolean isEntity = Entity.class.isAssignableFrom(type);
+        if(isString || isRepresentation || isEntity){
+            boolean first = true;
+            for(Object result : resultList){
+                if(first){
+                    first = false;
+                } else {
+                    writer.write(',');
+                }
+                if(isString){
+                    writer.write(JSONObject.quote((String)result));
+                } else if(isRepresentation){
+                    writeJsonObject(toJSON((Representation)result), writer);
+                } else {
+                    writeJsonObject(toJSON((Entity)result), writer);
+                }
+            }
+        }
+        writer.write("]}");
+    }
+
 }
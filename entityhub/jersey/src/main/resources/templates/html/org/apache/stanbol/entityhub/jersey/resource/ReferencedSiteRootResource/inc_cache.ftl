@@ -0,0 +1,45 @@
+<#--
+  Licensed to the Apache Software Foundation (ASF) under one or more
+  contributor license agreements.  See the NOTICE file distributed with
+  this work for additional information regarding copyright ownership.
+  The ASF licenses this file to You under the Apache License, Version 2.0
+  (the "License"); you may not use this file except in compliance with
+  the License.  You may obtain a copy of the License at
+
+      http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+-->
+<h3>In-Memory Cache</h3>
+
+<p>Statistics of the in-memory cache used in front of the Cache of this
+Referenced Site.</p>
+
+<table>
+<tbody>
+	<tr>
+		<th>Entries</th>
+		<td>${it.memoryCacheStatistics.entries}</td>
+	</tr>
+	<tr>
+		<th>Size</th>
+		<td>${it.memoryCacheStatistics.bytes} of ${it.memoryCacheStatistics.maxBytes} bytes</td>
+	</tr>
+	<tr>
+		<th>Hits</th>
+		<td>${it.memoryCacheStatistics.hits}</td>
+	</tr>
+	<tr>
+		<th>Misses</th>
+		<td>${it.memoryCacheStatistics.misses}</td>
+	</tr>
+	<tr>
+		<th>Evictions</th>
+		<td>${it.memoryCacheStatistics.evictions}</td>
+	</tr>
+</tbody>
+</table>
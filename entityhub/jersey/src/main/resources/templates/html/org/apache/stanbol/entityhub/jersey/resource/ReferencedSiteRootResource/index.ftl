@@ -33,6 +33,10 @@
 <hr>
 <#include "inc_metadata.ftl">
 <hr>
+<#if it.memoryCacheStatistics??>
+<#include "inc_cache.ftl">
+<hr>
+</#if>
 <#include "inc_entity.ftl">
 <hr>
 <#include "inc_find.ftl">
@@ -0,0 +1,138 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.entityhub.web.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Dictionary;
+import java.util.Hashtable;
+import java.util.List;
+
+import javax.ws.rs.core.MediaType;
+
+import org.apache.stanbol.entityhub.core.model.InMemoryValueFactory;
+import org.apache.stanbol.entityhub.core.query.FederatedQueryResultList;
+import org.apache.stanbol.entityhub.core.query.FieldQueryImpl;
+import org.apache.stanbol.entityhub.core.query.QueryResultListImpl;
+import org.apache.stanbol.entityhub.servicesapi.model.Representation;
+import org.apache.stanbol.entityhub.servicesapi.query.FieldQuery;
+import org.apache.stanbol.entityhub.servicesapi.query.QueryResultList;
+import org.codehaus.jettison.json.JSONArray;
+import org.codehaus.jettison.json.JSONException;
+import org.codehaus.jettison.json.JSONObject;
+import org.junit.Test;
+import org.osgi.service.cm.ConfigurationException;
+
+/**
+ * Tests the serialisation of {@link QueryResultList}s by the
+ * {@link JsonModelWriter}
+ */
+public class JsonModelWriterTest {
+
+    private static final String LABEL = "http://www.w3.org/2000/01/rdf-schema#label";
+
+    private static final InMemoryValueFactory vf = InMemoryValueFactory.getInstance();
+
+    private static JsonModelWriter createWriter(int indent) throws ConfigurationException {
+        JsonModelWriter writer = new JsonModelWriter();
+        Dictionary<String,Object> config = new Hashtable<String,Object>();
+        config.put(JsonModelWriter.PROEPRTY_INDENT, indent);
+        writer.activate(new MockComponentContext(config));
+        return writer;
+    }
+
+    private static JSONObject write(JsonModelWriter writer, QueryResultList<?> results)
+            throws IOException, JSONException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.write(results, out, MediaType.APPLICATION_JSON_TYPE);
+        String json = out.toString("UTF-8");
+        return new JSONObject(json);
+    }
+
+    private static List<Representation> createRepresentations(){
+        Representation first = vf.createRepresentation("http://www.example.org/first");
+        first.addNaturalText(LABEL, "First", "en");
+        Representation second = vf.createRepresentation("http://www.example.org/second");
+        second.addNaturalText(LABEL, "Second", "en");
+        return Arrays.asList(first, second);
+    }
+
+    @Test
+    public void testRepresentationResults() throws Exception {
+        FieldQuery query = new FieldQueryImpl();
+        JSONObject jResults = write(createWriter(-1), new QueryResultListImpl<Representation>(
+            query, createRepresentations(), Representation.class));
+        assertTrue(jResults.has("query"));
+        assertFalse(jResults.has("partial"));
+        JSONArray results = jResults.getJSONArray("results");
+        assertEquals(2, results.length());
+        assertEquals("http://www.example.org/first", results.getJSONObject(0).getString("id"));
+        assertEquals("http://www.example.org/second", results.getJSONObject(1).getString("id"));
+    }
+
+    @Test
+    public void testStringResults() throws Exception {
+        JSONObject jResults = write(createWriter(-1), new QueryResultListImpl<String>(
+            null, Arrays.asList("http://www.example.org/first", "with \"quotes\""), String.class));
+        assertFalse(jResults.has("query"));
+        JSONArray results = jResults.getJSONArray("results");
+        assertEquals(2, results.length());
+        assertEquals("with \"quotes\"", results.getString(1));
+    }
+    /**
+     * Results of unsupported types MUST NOT create invalid JSON (e.g.
+     * <code>[,,]</code>)
+     */
+    @Test
+    public void testUnsupportedResultType() throws Exception {
+        JSONObject jResults = write(createWriter(-1), new QueryResultListImpl<Integer>(
+            null, Arrays.asList(1, 2, 3), Integer.class));
+        assertEquals(0, jResults.getJSONArray("results").length());
+    }
+
+    @Test
+    public void testPartialResults() throws Exception {
+        JSONObject jResults = write(createWriter(-1), new FederatedQueryResultList<Representation>(
+            new FieldQueryImpl(), createRepresentations(), Representation.class,
+            Collections.singleton("failing"), Collections.singleton("slow")));
+        assertTrue(jResults.getBoolean("partial"));
+        assertEquals("failing", jResults.getJSONArray("failedSites").getString(0));
+        assertEquals("slow", jResults.getJSONArray("timedOutSites").getString(0));
+        assertEquals(2, jResults.getJSONArray("results").length());
+    }
+    /**
+     * Pretty printed results need to use the configured indent for the
+     * whole result list
+     */
+    @Test
+    public void testIndent() throws Exception {
+        QueryResultList<Representation> resultList = new QueryResultListImpl<Representation>(
+                new FieldQueryImpl(), createRepresentations(), Representation.class);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        createWriter(4).write(resultList, out, MediaType.APPLICATION_JSON_TYPE);
+        String json = out.toString("UTF-8");
+        assertTrue(json.startsWith("{\n    \""));
+        JSONObject jResults = new JSONObject(json);
+        assertEquals(2, jResults.getJSONArray("results").length());
+    }
+}
@@ -16,10 +16,17 @@
 */
 package org.apache.stanbol.entityhub.ldpath;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 import org.apache.marmotta.ldpath.LDPath;
 import org.apache.marmotta.ldpath.api.backend.RDFBackend;
+import org.apache.marmotta.ldpath.exception.LDPathParseException;
 import org.apache.marmotta.ldpath.model.fields.FieldMapping;
 import org.apache.marmotta.ldpath.model.programs.Program;
 import org.apache.marmotta.ldpath.parser.DefaultConfiguration;
@@ -28,6 +35,7 @@ import org.apache.stanbol.entityhub.core.mapping.ValueConverterFactory.Reference
 import org.apache.stanbol.entityhub.core.mapping.ValueConverterFactory.TextConverter;
 import org.apache.stanbol.entityhub.core.mapping.ValueConverterFactory.ValueConverter;
 import org.apache.stanbol.entityhub.core.model.InMemoryValueFactory;
+import org.apache.stanbol.entityhub.ldpath.backend.AbstractBackend;
 import org.apache.stanbol.entityhub.ldpath.transformer.ValueConverterTransformerAdapter;
 import org.apache.stanbol.entityhub.servicesapi.defaults.DataTypeEnum;
 import org.apache.stanbol.entityhub.servicesapi.defaults.NamespaceEnum;
@@ -59,6 +67,33 @@ import org.apache.stanbol.entityhub.servicesapi.model.ValueFactory;
  */
 public class EntityhubLDPath extends LDPath<Object> {
 
+    /**
+     * The maximum number of parsed programs kept by the {@link #PROGRAM_CACHE}
+     */
+    private static final int PROGRAM_CACHE_SIZE = 256;
+    /**
+     * The number of contexts prefetched with a single request by
+     * {@link #execute(Collection, Program)}
+     */
+    private static final int PREFETCH_SIZE = 100;
+    /**
+     * LRU cache for parsed {@link Program}s. Keys are the {@link RDFBackend}
+     * type (as nodes of parsed programs are created by the backend), the
+     * {@link ValueFactory} type (as the {@link NodeTransformer}s of parsed
+     * programs use the value factory) and the program string. The namespace
+     * mappings of this
+     * LDPath instance are always the {@link NamespaceEnum} ones and
+     * <code>@prefix</code> definitions are part of the program string.
+     */
+    @SuppressWarnings("serial")
+    private static final Map<String,Program<Object>> PROGRAM_CACHE = Collections.synchronizedMap(
+        new LinkedHashMap<String,Program<Object>>(PROGRAM_CACHE_SIZE+1, 0.75f, true){
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String,Program<Object>> eldest) {
+                return size() > PROGRAM_CACHE_SIZE;
+            }
+        });
+
     private final ValueFactory vf;
     private final RDFBackend<Object> backend;
     /**
@@ -91,6 +126,77 @@ public class EntityhubLDPath extends LDPath<Object> {
         this.backend = backend;
     }
     
+    /**
+     * Getter for the parsed {@link Program} for the parsed LDPath program
+     * string. Programs are only parsed on the first request and kept in
+     * an LRU cache shared by all EntityhubLDPath instances.<p>
+     * <b>NOTE:</b> Returned programs are shared and MUST NOT be modified
+     * (e.g. by adding {@link FieldMapping}s). Use 
+     * {@link LDPathUtils#copy(Program)} if modifications are needed.<p>
+     * Programs are cached per {@link RDFBackend} and {@link ValueFactory}
+     * type. Cached programs keep a reference to the {@link ValueFactory} of
+     * the instance used for parsing. Because of that this method should only
+     * be called on instances that use a stateless {@link ValueFactory} (e.g. a
+     * singleton instance).
+     * @param program the LDPath program
+     * @return the parsed program
+     * @throws LDPathParseException if the parsed program is not valid
+     * @throws IllegalArgumentException if the parsed program is <code>null</code>
+     */
+    public Program<Object> getProgram(String program) throws LDPathParseException {
+        if(program == null){
+            throw new IllegalArgumentException("The parsed LDPath program MUST NOT be NULL!");
+        }
+        String key = new StringBuilder(backend.getClass().getName()).append('\n')
+                .append(vf.getClass().getName()).append('\n')
+                .append(program).toString();
+        Program<Object> parsed = PROGRAM_CACHE.get(key);
+        if(parsed == null){
+            parsed = parseProgram(LDPathUtils.getReader(program));
+            PROGRAM_CACHE.put(key, parsed);
+        }
+        return parsed;
+    }
+    /**
+     * Executes the parsed {@link Program} for all parsed contexts. If the
+     * {@link RDFBackend} is an {@link AbstractBackend} the contexts are
+     * {@link AbstractBackend#prefetch(Collection) prefetched} in batches. This
+     * allows to retrieve the {@link Representation}s of the contexts with a
+     * single request per batch instead of one request per context.
+     * @param contexts the contexts
+     * @param program the program
+     * @return the {@link Representation}s holding the results in the order of
+     * the parsed contexts
+     * @throws IllegalArgumentException if the parsed contexts, any context or
+     * the program is <code>null</code>
+     * @see #execute(Reference, Program)
+     */
+    public List<Representation> execute(Collection<? extends Reference> contexts, Program<Object> program){
+        if(contexts == null){
+            throw new IllegalArgumentException("The parsed contexts MUST NOT be NULL!");
+        }
+        List<Representation> results = new ArrayList<Representation>(contexts.size());
+        List<Reference> batch = new ArrayList<Reference>(PREFETCH_SIZE);
+        for(Iterator<? extends Reference> it = contexts.iterator(); it.hasNext();){
+            batch.add(it.next());
+            if(batch.size() >= PREFETCH_SIZE || !it.hasNext()){
+                if(backend instanceof AbstractBackend){
+                    List<String> ids = new ArrayList<String>(batch.size());
+                    for(Reference context : batch){
+                        if(context != null){
+                            ids.add(context.getReference());
+                        }
+                    }
+                    ((AbstractBackend)backend).prefetch(ids);
+                }
+                for(Reference context : batch){
+                    results.add(execute(context, program));
+                }
+                batch.clear();
+            }
+        }
+        return results;
+    }
     /**
      * Executes the parsed {@link Program} and stores the 
      * {@link Program#getFields() fields} in a {@link Representation}. The actual
@@ -21,6 +21,10 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.io.UnsupportedEncodingException;
+import java.util.Map.Entry;
+
+import org.apache.marmotta.ldpath.model.fields.FieldMapping;
+import org.apache.marmotta.ldpath.model.programs.Program;
 
 public final class LDPathUtils {
 
@@ -51,5 +55,31 @@ public final class LDPathUtils {
             throw new IllegalStateException("Encoding 'utf-8' is not supported by this system!",e);
         }
     }
+    /**
+     * Creates a copy of the parsed {@link Program}. The copy shares the
+     * {@link FieldMapping}s, filter and booster with the parsed program but
+     * can be modified (e.g. by adding {@link FieldMapping}s) without
+     * affecting the parsed one. This is needed to adapt programs returned by
+     * {@link EntityhubLDPath#getProgram(String)}
+     * @param program the program to copy
+     * @return the copy
+     * @throws IllegalArgumentException if <code>null</code> is parsed as program
+     */
+    public static <Node> Program<Node> copy(Program<Node> program) {
+        if(program == null){
+            throw new IllegalArgumentException("The parsed program MUST NOT be NULL!");
+        }
+        Program<Node> copy = new Program<Node>();
+        for(Entry<String,String> namespace : program.getNamespaces().entrySet()){
+            copy.addNamespace(namespace.getKey(), namespace.getValue());
+        }
+        copy.setFilter(program.getFilter());
+        copy.setBooster(program.getBooster());
+        copy.setGraphs(program.getGraphs());
+        for(FieldMapping<?,Node> mapping : program.getFields()){
+            copy.addMapping(mapping);
+        }
+        return copy;
+    }
 
 }
@@ -103,6 +103,25 @@ public abstract class AbstractBackend implements RDFBackend<Object> {
     protected abstract ValueFactory getValueFactory();
     
     protected abstract Representation getRepresentation(String id) throws EntityhubException;
+    /**
+     * Getter for the {@link Representation}s with the parsed IDs. This
+     * default implementation calls {@link #getRepresentation(String)} for each
+     * ID. Subclasses should override this if the underlaying service supports
+     * the retrieval of multiple Representations with a single request.
+     * @param ids the IDs
+     * @return the found Representations
+     * @throws EntityhubException on any error while retrieving the Representations
+     */
+    protected Collection<Representation> getRepresentations(Collection<String> ids) throws EntityhubException {
+        List<Representation> representations = new ArrayList<Representation>(ids.size());
+        for(String id : ids){
+            Representation r = getRepresentation(id);
+            if(r != null){
+                representations.add(r);
+            }
+        }
+        return representations;
+    }
     
     protected abstract QueryResultList<String> query(FieldQuery query) throws EntityhubException;
 
@@ -385,7 +404,50 @@ public abstract class AbstractBackend implements RDFBackend<Object> {
      * @param r
      */
     private void toLRU(Representation r){
-        lru.put(r.getId(), r);
+        synchronized (lru) {
+            lru.put(r.getId(), r);
+        }
+    }
+    /**
+     * Retrieves all {@link Representation}s with the parsed IDs that are not
+     * yet cached by using a single call to {@link #getRepresentations(Collection)}.
+     * This allows to avoid one request per Entity when executing LDPath
+     * programs on several contexts. Note that prefetched Representations are
+     * kept in an LRU cache with a maximum size of {@value #LRU_CACHE_SIZE}.
+     * @param ids the IDs of the Representations to prefetch
+     * @throws IllegalStateException on any {@link EntityhubException} while
+     * retrieving the Representations
+     */
+    public void prefetch(Collection<String> ids){
+        if(ids == null || ids.isEmpty()){
+            return;
+        }
+        Set<String> missing = new LinkedHashSet<String>();
+        for(String id : ids){
+            if(id != null && getCached(id) == null){
+                missing.add(id);
+            }
+        }
+        if(!missing.isEmpty()){
+            try {
+                for(Representation r : getRepresentations(missing)){
+                    toLRU(r);
+                }
+            } catch (EntityhubException e) {
+                throw new IllegalStateException(e.getMessage(),e);
+            }
+        }
+    }
+    /**
+     * Adds a Representation retrieved by some other component to the LRU
+     * cache of this RDFBackend. In contrast to {@link #addLocal(Representation)}
+     * the Representation might get evicted.
+     * @param r the Representation
+     */
+    public void addCached(Representation r){
+        if(r != null){
+            toLRU(r);
+        }
     }
     /**
      * Adds a Representation already available in-memory to this RDFBackend.
@@ -398,7 +460,9 @@ public abstract class AbstractBackend implements RDFBackend<Object> {
     public void addLocal(Representation r){
         if(r != null){
             local.put(r.getId(), r);
-            lru.remove(r.getId());
+            synchronized (lru) {
+                lru.remove(r.getId());
+            }
         } //else ignore
     }
     /**
@@ -408,7 +472,9 @@ public abstract class AbstractBackend implements RDFBackend<Object> {
     public void removeLocal(String id){
         if(id != null){
             local.remove(id);
-            lru.remove(id);
+            synchronized (lru) {
+                lru.remove(id);
+            }
         }
     }
     /**
@@ -418,6 +484,11 @@ public abstract class AbstractBackend implements RDFBackend<Object> {
      */
     private Representation getCached(String id){
         Representation r = local.get(id);
-        return r == null ? lru.get(id) : r;
+        if(r == null){
+            synchronized (lru) {
+                r = lru.get(id);
+            }
+        }
+        return r;
     }
 }
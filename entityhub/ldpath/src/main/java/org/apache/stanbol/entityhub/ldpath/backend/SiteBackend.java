@@ -16,6 +16,10 @@
 */
 package org.apache.stanbol.entityhub.ldpath.backend;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
 import org.apache.stanbol.entityhub.core.mapping.ValueConverterFactory;
 import org.apache.stanbol.entityhub.core.model.InMemoryValueFactory;
 import org.apache.stanbol.entityhub.servicesapi.EntityhubException;
@@ -55,6 +59,18 @@ public class SiteBackend extends AbstractBackend {
         Entity entity = site.getEntity(id);
         return entity != null ? entity.getRepresentation():null;
     }
+    /**
+     * Uses {@link Site#getEntities(Iterable)}
+     */
+    @Override
+    protected Collection<Representation> getRepresentations(Collection<String> ids) throws EntityhubException {
+        Collection<Entity> entities = site.getEntities(ids);
+        List<Representation> representations = new ArrayList<Representation>(entities.size());
+        for(Entity entity : entities){
+            representations.add(entity.getRepresentation());
+        }
+        return representations;
+    }
     @Override
     protected ValueFactory getValueFactory() {
         return vf;
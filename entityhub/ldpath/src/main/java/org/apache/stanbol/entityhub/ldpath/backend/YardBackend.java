@@ -16,6 +16,8 @@
 */
 package org.apache.stanbol.entityhub.ldpath.backend;
 
+import java.util.Collection;
+
 import org.apache.stanbol.entityhub.core.mapping.ValueConverterFactory;
 import org.apache.stanbol.entityhub.servicesapi.EntityhubException;
 import org.apache.stanbol.entityhub.servicesapi.model.Representation;
@@ -46,6 +48,13 @@ public class YardBackend extends AbstractBackend {
     protected Representation getRepresentation(String id) throws EntityhubException {
         return yard.getRepresentation(id);
     }
+    /**
+     * Uses {@link Yard#getRepresentations(Iterable)}
+     */
+    @Override
+    protected Collection<Representation> getRepresentations(Collection<String> ids) throws EntityhubException {
+        return yard.getRepresentations(ids);
+    }
     @Override
     protected ValueFactory getValueFactory() {
         return yard.getValueFactory();
@@ -28,8 +28,10 @@ import java.util.Iterator;
 import java.util.Map;
 import java.util.Map.Entry;
 
+import org.apache.marmotta.ldpath.api.backend.RDFBackend;
 import org.apache.marmotta.ldpath.model.programs.Program;
 import org.apache.stanbol.entityhub.core.model.InMemoryValueFactory;
+import org.apache.stanbol.entityhub.ldpath.backend.SingleRepresentationBackend;
 import org.apache.stanbol.entityhub.ldpath.impl.LDPathTestBase;
 import org.apache.stanbol.entityhub.ldpath.transformer.ValueConverterTransformerAdapter;
 import org.apache.stanbol.entityhub.servicesapi.defaults.DataTypeEnum;
@@ -165,4 +167,54 @@ public class EntityhubLDPathTest extends LDPathTestBase {
                 values+")!",entry.getValue().isEmpty());
         }
     }
+    /**
+     * Tests that programs are cached and that executing a program on a
+     * collection of contexts returns the same results as executing it on
+     * the single context.
+     */
+    @Test
+    public void testCachedProgram() throws Exception {
+        EntityhubLDPath ldPath = new EntityhubLDPath(backend);
+        Program<Object> program = ldPath.getProgram(DATA_TYPE_TEST_PROGRAM);
+        assertNotNull("The Program MUST NOT be NULL", program);
+        assertSame("Programs MUST BE cached", program, 
+            new EntityhubLDPath(backend).getProgram(DATA_TYPE_TEST_PROGRAM));
+        Collection<Representation> results = ldPath.execute(
+            Collections.singleton(vf.createReference(CONTEXT_LONDON)), program);
+        assertEquals(1, results.size());
+        Representation result = results.iterator().next();
+        assertEquals(CONTEXT_LONDON, result.getId());
+        Iterator<Entry<String,Collection<?>>> entryIt = cloneExpected(EXPECTED_RESULTS_LONDON).entrySet().iterator();
+        while(entryIt.hasNext()){
+            Entry<String,Collection<?>> entry = entryIt.next();
+            Collection<Object> values = ModelUtils.asCollection(result.get(entry.getKey()));
+            entry.getValue().removeAll(values);
+            assertTrue("The following expected values "+
+                entry.getValue()+"' are missing (present: "+
+                values+")!",entry.getValue().isEmpty());
+        }
+    }
+    /**
+     * Tests that the same program parsed for different {@link RDFBackend}s is
+     * not shared by the cache
+     */
+    @Test
+    public void testProgramCachedPerBackend() throws Exception {
+        SingleRepresentationBackend representationBackend = new SingleRepresentationBackend();
+        representationBackend.setRepresentation(yard.getRepresentation(CONTEXT_LONDON));
+        EntityhubLDPath ldPath = new EntityhubLDPath(representationBackend);
+        Program<Object> program = ldPath.getProgram(DATA_TYPE_TEST_PROGRAM);
+        Program<Object> yardProgram = new EntityhubLDPath(backend).getProgram(DATA_TYPE_TEST_PROGRAM);
+        assertNotSame("Programs MUST BE cached per backend", program, yardProgram);
+        assertSame("Programs MUST BE cached", program, 
+            new EntityhubLDPath(new SingleRepresentationBackend()).getProgram(DATA_TYPE_TEST_PROGRAM));
+        assertSame("Programs MUST BE cached", yardProgram, 
+            new EntityhubLDPath(backend).getProgram(DATA_TYPE_TEST_PROGRAM));
+        //the program parsed for the other backend is still executable
+        Representation result = ldPath.execute(vf.createReference(CONTEXT_LONDON), program);
+        assertEquals(CONTEXT_LONDON, result.getId());
+        Collection<Object> names = ModelUtils.asCollection(result.get("name"));
+        assertTrue("Missing names (present: "+names+")!",
+            names.containsAll(EXPECTED_RESULTS_LONDON.get("name")));
+    }
 }
@@ -19,7 +19,10 @@ package org.apache.stanbol.entityhub.site.managed.impl;
 import static org.apache.stanbol.entityhub.core.utils.SiteUtils.extractSiteMetadata;
 
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 
 import org.apache.stanbol.commons.namespaceprefix.NamespacePrefixService;
@@ -155,6 +158,23 @@ public final class YardSite implements ManagedSite {
         }
     }
     
+    @Override
+    public Collection<Entity> getEntities(Iterable<String> ids) throws ManagedSiteException {
+        Collection<Representation> reps;
+        try {
+            reps = getYard().getRepresentations(ids);
+        } catch (YardException e) {
+            throw new ManagedSiteException(e.getMessage(), e);
+        }
+        List<Entity> entities = new ArrayList<Entity>(reps.size());
+        for(Representation rep : reps){
+            Entity entity = new EntityImpl(config.getId(), rep, null);
+            SiteUtils.initEntityMetadata(entity, siteMetadata, null);
+            entities.add(entity);
+        }
+        return entities;
+    }
+    
     /**
      * Stores the parsed representation to the Yard and also applies the
      * configured {@link #getFieldMapper() FieldMappings}.
@@ -158,17 +158,32 @@ public class ClerezzaModelWriter implements ModelWriter {
     @Override
     public void write(QueryResultList<?> result, OutputStream out, MediaType mediaType) throws WebApplicationException,
             IOException {
+        if(N_TRIPLE_TYPE.isCompatible(mediaType) && !(result instanceof RdfQueryResultList)){
+            //N-Triples allow to serialise results one by one
+            streamNTriples(result, out, mediaType);
+            return;
+        }
         Graph queryRdf = toRDF(result);
         //we need also to the JSON formatted FieldQuery as a literal to the
         //RDF data.
-        FieldQuery query = result.getQuery();
+        addFieldQueryTo(queryRdf, result.getQuery());
+        //now serialise the data
+        writeRdf(queryRdf,out,mediaType);
+    }
+    
+    /**
+     * Adds the JSON formatted {@link FieldQuery} as literal to the parsed graph
+     * @param graph the graph
+     * @param query the query (may be <code>null</code>)
+     */
+    private void addFieldQueryTo(Graph graph, FieldQuery query) {
         if(query != null){
             try {
                 JSONObject fieldQueryJson = FieldQueryToJsonUtils.toJSON(query,
                     nsPrefixService);
                 if(fieldQueryJson != null){
                     //add the triple with the fieldQuery
-                    queryRdf.add(new TripleImpl(QUERY_RESULT_LIST, FIELD_QUERY, 
+                    graph.add(new TripleImpl(QUERY_RESULT_LIST, FIELD_QUERY, 
                         literalFactory.createTypedLiteral(fieldQueryJson.toString())));
                 }
             } catch (JSONException e) {
@@ -177,8 +192,44 @@ public class ClerezzaModelWriter implements ModelWriter {
                     query),e);
             }
         }
-        //now serialise the data
-        writeRdf(queryRdf,out,mediaType);
+    }
+    
+    /**
+     * Writes the parsed result list as N-Triples. As N-Triples are line based
+     * every result is serialised as soon as it is available so that large
+     * (e.g. paged) result lists do not need to be kept in memory.
+     * @param resultList the results
+     * @param out the stream
+     * @param mediaType the media type
+     */
+    private void streamNTriples(QueryResultList<?> resultList, OutputStream out, MediaType mediaType) {
+        Class<?> type = resultList.getType();
+        //check the type before anything is written
+        boolean isString = String.class.isAssignableFrom(type);
+        boolean isRepresentation = Representation.class.isAssignableFrom(type);
+        if(!isString && !isRepresentation && !Entity.class.isAssignableFrom(type)){
+            throw new IllegalArgumentException("Parsed type " + type + " is not supported");
+        }
+        Graph chunk = new IndexedGraph();
+        addFieldQueryTo(chunk, resultList.getQuery());
+        if(!chunk.isEmpty()){
+            writeRdf(chunk, out, mediaType);
+        }
+        for(Object result : resultList){
+            chunk = new IndexedGraph();
+            IRI resultId;
+            if(isString){
+                resultId = new IRI(result.toString());
+            } else if(isRepresentation){
+                addRDFTo(chunk, (Representation) result);
+                resultId = new IRI(((Representation) result).getId());
+            } else {
+                addRDFTo(chunk, (Entity) result);
+                resultId = new IRI(((Entity) result).getId());
+            }
+            chunk.add(new TripleImpl(QUERY_RESULT_LIST, QUERY_RESULT, resultId));
+            writeRdf(chunk, out, mediaType);
+        }
     }
     
     /**
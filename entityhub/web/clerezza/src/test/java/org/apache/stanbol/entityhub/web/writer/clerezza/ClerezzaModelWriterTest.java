@@ -0,0 +1,207 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.entityhub.web.writer.clerezza;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.clerezza.rdf.core.serializedform.Serializer;
+import org.apache.stanbol.entityhub.core.model.InMemoryValueFactory;
+import org.apache.stanbol.entityhub.core.query.FieldQueryImpl;
+import org.apache.stanbol.entityhub.core.query.QueryResultListImpl;
+import org.apache.stanbol.entityhub.servicesapi.model.Representation;
+import org.apache.stanbol.entityhub.servicesapi.model.rdf.RdfResourceEnum;
+import org.apache.stanbol.entityhub.servicesapi.query.FieldQuery;
+import org.apache.stanbol.entityhub.servicesapi.query.QueryResultList;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the streamed serialisation of {@link QueryResultList}s as N-Triples
+ */
+public class ClerezzaModelWriterTest {
+
+    private static final String LABEL = "http://www.w3.org/2000/01/rdf-schema#label";
+
+    private ClerezzaModelWriter writer;
+
+    @Before
+    public void init(){
+        writer = new ClerezzaModelWriter();
+        writer.ser = Serializer.getInstance();
+    }
+
+    private String write(QueryResultList<?> results) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.write(results, out, ClerezzaModelWriter.N_TRIPLE_TYPE);
+        return out.toString("UTF-8");
+    }
+
+    private static List<String> getResultTriples(String nTriples){
+        List<String> results = new ArrayList<String>();
+        for(String line : nTriples.split("\n")){
+            line = line.trim();
+            if(line.isEmpty()){
+                continue;
+            }
+            assertTrue("invalid N-Triple: "+line, line.endsWith("."));
+            if(line.contains("<"+RdfResourceEnum.queryResult.getUri()+">")){
+                results.add(line);
+            }
+        }
+        return results;
+    }
+
+    @Test
+    public void testStreamedReferences() throws IOException {
+        String nTriples = write(new QueryResultListImpl<String>(new FieldQueryImpl(),
+            Arrays.asList("http://www.example.org/first","http://www.example.org/second"),
+            String.class));
+        List<String> results = getResultTriples(nTriples);
+        assertEquals(2, results.size());
+        assertTrue(results.get(0).contains("<http://www.example.org/first>"));
+        assertTrue(results.get(1).contains("<http://www.example.org/second>"));
+        //the FieldQuery is also serialised
+        assertTrue(nTriples.contains("<"+RdfResourceEnum.query.getUri()+">"));
+    }
+
+    @Test
+    public void testStreamedRepresentations() throws IOException {
+        List<Representation> reps = new ArrayList<Representation>();
+        for(int i = 0; i < 3; i++){
+            Representation rep = InMemoryValueFactory.getInstance().createRepresentation(
+                "http://www.example.org/entity"+i);
+            rep.addNaturalText(LABEL, "Entity "+i, "en");
+            reps.add(rep);
+        }
+        String nTriples = write(new QueryResultListImpl<Representation>(null, reps,
+            Representation.class));
+        List<String> results = getResultTriples(nTriples);
+        assertEquals(3, results.size());
+        for(int i = 0; i < 3; i++){
+            //the data of the result are written together with the result
+            assertTrue(nTriples.contains("\"Entity "+i+"\"@en"));
+            assertTrue(results.get(i).contains("<http://www.example.org/entity"+i+">"));
+        }
+    }
+    /**
+     * Unsupported result types MUST fail before anything is written
+     */
+    @Test
+    public void testUnsupportedType() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            writer.write(new QueryResultListImpl<Integer>(new FieldQueryImpl(),
+                Arrays.asList(1,2), Integer.class), out, ClerezzaModelWriter.N_TRIPLE_TYPE);
+            fail("IllegalArgumentException expected");
+        } catch (IllegalArgumentException e) {
+            //expected
+        }
+        assertEquals(0, out.size());
+    }
+    /**
+     * Results are written while iterating over the result list
+     */
+    @Test
+    public void testResultsAreWrittenWhileIterating() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        RecordingResultList results = new RecordingResultList(out, Arrays.asList(
+            "http://www.example.org/first", "http://www.example.org/second"));
+        writer.write(results, out, ClerezzaModelWriter.N_TRIPLE_TYPE);
+        assertEquals(2, results.written.size());
+        assertEquals(0, results.written.get(0).intValue());
+        //the first result was written before the second was requested
+        assertTrue(results.written.get(1) > 0);
+    }
+
+    /**
+     * Records the number of bytes written to the stream whenever a result
+     * is requested
+     */
+    private static class RecordingResultList implements QueryResultList<String> {
+
+        private final ByteArrayOutputStream out;
+        private final List<String> ids;
+        final List<Integer> written = new ArrayList<Integer>();
+
+        RecordingResultList(ByteArrayOutputStream out, List<String> ids){
+            this.out = out;
+            this.ids = ids;
+        }
+
+        @Override
+        public FieldQuery getQuery() {
+            return null;
+        }
+
+        @Override
+        public Set<String> getSelectedFields() {
+            return Collections.emptySet();
+        }
+
+        @Override
+        public Iterator<String> iterator() {
+            final Iterator<String> it = ids.iterator();
+            return new Iterator<String>() {
+                @Override
+                public boolean hasNext() {
+                    return it.hasNext();
+                }
+                @Override
+                public String next() {
+                    written.add(out.size());
+                    return it.next();
+                }
+                @Override
+                public void remove() {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+
+        @Override
+        public Collection<? extends String> results() {
+            return ids;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return ids.isEmpty();
+        }
+
+        @Override
+        public int size() {
+            return ids.size();
+        }
+
+        @Override
+        public Class<String> getType() {
+            return String.class;
+        }
+    }
+}
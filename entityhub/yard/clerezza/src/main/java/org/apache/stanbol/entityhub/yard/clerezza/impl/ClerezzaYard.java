@@ -17,10 +17,12 @@
 package org.apache.stanbol.entityhub.yard.clerezza.impl;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Dictionary;
 import java.util.HashSet;
 import java.util.Hashtable;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.locks.Lock;
 
@@ -246,6 +248,27 @@ public class ClerezzaYard extends AbstractYard implements Yard {
         }
         return getRepresentation(new IRI(id),true);
     }
+    /**
+     * Extracts all requested Representations while holding a single read lock
+     * on the graph.
+     */
+    @Override
+    public Collection<Representation> getRepresentations(Iterable<String> ids) {
+        Set<String> uniqueIds = getUniqueIds(ids);
+        List<Representation> representations = new ArrayList<Representation>(uniqueIds.size());
+        final Lock readLock = readLockGraph();
+        try {
+            for(String id : uniqueIds){
+                Representation rep = getRepresentation(new IRI(id), true);
+                if(rep != null){
+                    representations.add(rep);
+                }
+            }
+        } finally {
+            readLock.unlock();
+        }
+        return representations;
+    }
     /**
      * Internally used to create Representations for URIs
      * @param uri the uri
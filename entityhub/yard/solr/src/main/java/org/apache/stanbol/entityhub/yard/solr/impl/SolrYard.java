@@ -23,6 +23,7 @@ import java.security.PrivilegedExceptionAction;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -397,6 +398,39 @@ public class SolrYard extends AbstractYard implements Yard {
                 : "done", (retrieve - start), (create - retrieve), (create - start)));
         return rep;
     }
+    /**
+     * Retrieves all requested SolrDocuments by using a single query (or
+     * multiple queries if the number of ids exceeds the configured
+     * {@link SolrYardConfig#getMaxBooleanClauses() maximum boolean clauses}).
+     */
+    @Override
+    public final Collection<Representation> getRepresentations(Iterable<String> ids) throws YardException {
+        Set<String> uniqueIds = getUniqueIds(ids);
+        if(uniqueIds.isEmpty()){
+            return Collections.emptyList();
+        }
+        if(closed){
+            log.warn("The SolrYard '{}' was already closed!",config.getName());
+        }
+        long start = System.currentTimeMillis();
+        Collection<SolrDocument> docs;
+        try {
+            docs = getSolrDocuments(uniqueIds, null);
+        } catch (SolrServerException e) {
+            throw new YardException("Error while getting SolrDocuments for ids " + uniqueIds, e);
+        } catch (IOException e) {
+            throw new YardException("Unable to access SolrServer", e);
+        }
+        long retrieve = System.currentTimeMillis();
+        List<Representation> reps = new ArrayList<Representation>(docs.size());
+        for(SolrDocument doc : docs){
+            reps.add(createRepresentation(doc, null));
+        }
+        long create = System.currentTimeMillis();
+        log.debug(String.format("  ... found %d/%d [retrieve=%dms|create=%dms|sum=%dms]",
+            reps.size(), uniqueIds.size(), (retrieve - start), (create - retrieve), (create - start)));
+        return reps;
+    }
 
     /**
      * Creates the Representation for the parsed SolrDocument!
@@ -1025,7 +1059,7 @@ public class SolrYard extends AbstractYard implements Yard {
                     num++;
                 }
             }
-            log.info("Get SolrDocuments for Query: " + queryBuilder.toString());
+            log.debug("Get SolrDocuments for Query: {}", queryBuilder);
             // no more items or all boolean clauses used -> send a request
             solrQuery.setQuery(queryBuilder.toString());
             queryBuilder = new StringBuilder(); // and a new StringBuilder
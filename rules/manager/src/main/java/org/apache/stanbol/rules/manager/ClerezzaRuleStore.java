@@ -28,8 +28,10 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Dictionary;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.clerezza.commons.rdf.Literal;
 import org.apache.clerezza.commons.rdf.RDFTerm;
@@ -74,7 +76,11 @@ import org.slf4j.LoggerFactory;
 /**
  * This class provides an implementation of the {@link RuleStore} based on Clerezza.<br/>
  * Recipe are managed as {@link Graph} graphs. <br/>
- * The vocabulary used in these graphs is provided by {@link Symbols}.
+ * The vocabulary used in these graphs is provided by {@link Symbols}.<br/>
+ * Every change of a recipe performed via this store increments the
+ * {@link #getRecipeVersion(IRI) version} of the recipe. Components that
+ * adapt recipes (e.g. to SPARQL construct queries) can cache the adapted
+ * form by using {@link #cacheAdaptedRecipe(IRI, long, Class, Object)}.
  * 
  * @author elvio
  * @author anuzzolese
@@ -96,6 +102,31 @@ public class ClerezzaRuleStore implements RuleStore {
 
     private List<IRI> recipes;
 
+    /**
+     * The versions of the recipes. Recipes without an entry have the version <code>0</code>. Guarded by
+     * {@link #cacheLock}.
+     */
+    private final Map<IRI,Long> recipeVersions = new HashMap<IRI,Long>();
+
+    /**
+     * The cached adaptations of recipes. Guarded by {@link #cacheLock}.
+     */
+    private final Map<IRI,AdaptedRecipe> adaptedRecipes = new HashMap<IRI,AdaptedRecipe>();
+
+    private final Object cacheLock = new Object();
+
+    /**
+     * The adaptations of a specific version of a recipe
+     */
+    private static class AdaptedRecipe {
+        private final long version;
+        private final Map<Class<?>,Object> adapted = new HashMap<Class<?>,Object>();
+
+        AdaptedRecipe(long version) {
+            this.version = version;
+        }
+    }
+
     /**
      * This construct returns RuleStoreImpl object with inside an ontology where to store the rules.
      * 
@@ -209,6 +240,7 @@ public class ClerezzaRuleStore implements RuleStore {
 
         // add the recpe ID to the list of known recipes
         recipes.add(recipeID);
+        recipeChanged(recipeID);
 
         return new RecipeImpl(recipeID, recipeDescription, null);
     }
@@ -262,6 +294,7 @@ public class ClerezzaRuleStore implements RuleStore {
         }
 
         recipe.addRule(new RecipeRule(recipe, rule));
+        recipeChanged(recipeID);
 
         return recipe;
     }
@@ -405,6 +438,84 @@ public class ClerezzaRuleStore implements RuleStore {
 
     }
 
+    /**
+     * Getter for the current version of the recipe. The version is incremented with every change of the
+     * recipe performed via this store.
+     * 
+     * @param recipeID
+     *            the ID of the recipe
+     * @return the version
+     */
+    public long getRecipeVersion(IRI recipeID) {
+        synchronized (cacheLock) {
+            Long version = recipeVersions.get(recipeID);
+            return version == null ? 0 : version.longValue();
+        }
+    }
+
+    /**
+     * Getter for a cached adaptation of a recipe.
+     * 
+     * @param recipeID
+     *            the ID of the recipe
+     * @param version
+     *            the {@link #getRecipeVersion(IRI) version} of the recipe
+     * @param type
+     *            the type the recipe was adapted to
+     * @return the cached adaptation or <code>null</code> if none is cached for the parsed type or the
+     *         parsed version is no longer the current version of the recipe.
+     */
+    public Object getAdaptedRecipe(IRI recipeID, long version, Class<?> type) {
+        synchronized (cacheLock) {
+            AdaptedRecipe adaptedRecipe = adaptedRecipes.get(recipeID);
+            if (adaptedRecipe == null || adaptedRecipe.version != version
+                || version != getRecipeVersion(recipeID)) {
+                return null;
+            }
+            return adaptedRecipe.adapted.get(type);
+        }
+    }
+
+    /**
+     * Caches the adaptation of a recipe. The adaptation is only cached if the parsed version is still the
+     * current version of the recipe.
+     * 
+     * @param recipeID
+     *            the ID of the recipe
+     * @param version
+     *            the {@link #getRecipeVersion(IRI) version} of the recipe the adaptation is based on
+     * @param type
+     *            the type the recipe was adapted to
+     * @param adapted
+     *            the adapted recipe. Needs to be immutable or not modified by users.
+     */
+    public void cacheAdaptedRecipe(IRI recipeID, long version, Class<?> type, Object adapted) {
+        synchronized (cacheLock) {
+            if (version != getRecipeVersion(recipeID)) {
+                return;
+            }
+            AdaptedRecipe adaptedRecipe = adaptedRecipes.get(recipeID);
+            if (adaptedRecipe == null || adaptedRecipe.version != version) {
+                adaptedRecipe = new AdaptedRecipe(version);
+                adaptedRecipes.put(recipeID, adaptedRecipe);
+            }
+            adaptedRecipe.adapted.put(type, adapted);
+        }
+    }
+
+    /**
+     * Increments the version of the recipe and removes cached adaptations.
+     * 
+     * @param recipeID
+     *            the ID of the changed recipe
+     */
+    private void recipeChanged(IRI recipeID) {
+        synchronized (cacheLock) {
+            recipeVersions.put(recipeID, getRecipeVersion(recipeID) + 1);
+            adaptedRecipes.remove(recipeID);
+        }
+    }
+
     @Override
     public List<IRI> listRecipeIDs() {
 
@@ -450,6 +561,7 @@ public class ClerezzaRuleStore implements RuleStore {
         // System.out.println("Recipes: " +recipes.size());
         // remove the recipe ID from in-memory list
         recipes.remove(recipeID);
+        recipeChanged(recipeID);
 
         return true;
 
@@ -476,6 +588,7 @@ public class ClerezzaRuleStore implements RuleStore {
         tripleCollection.remove(new TripleImpl(recipe.getRecipeID(), Symbols.hasRule, rule.getRuleID()));
 
         recipe.removeRule(rule);
+        recipeChanged(recipe.getRecipeID());
 
         return recipe;
     }
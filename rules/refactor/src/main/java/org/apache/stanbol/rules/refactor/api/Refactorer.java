@@ -57,6 +57,26 @@ public interface Refactorer {
     void graphRefactoring(IRI refactoredOntologyID, IRI datasetID, IRI recipeID) throws RefactoringException,
                                                                                          NoSuchRecipeException;
 
+    /**
+     * Same as {@link #graphRefactoring(IRI, IRI, IRI)}, but supports incremental refactorings. In the
+     * incremental mode the refactorer keeps the state of the last refactoring into {@code refactoredDataSetID}.
+     * If the recipe was not changed and triples were only added to the dataset since then, only the
+     * construct queries affected by the added triples are re-evaluated. In any other case a full refactoring
+     * is performed. In contrast to the non incremental mode an existing refactored dataset is updated
+     * instead of causing an error.
+     * 
+     * @param refactoredDataSetID
+     *            {@link IRI}
+     * @param datasetID
+     *            {@link IRI}
+     * @param recipeIRI
+     *            {@link IRI}
+     * @param incremental
+     *            if the refactoring should be incremental
+     */
+    void graphRefactoring(IRI refactoredOntologyID, IRI datasetID, IRI recipeID, boolean incremental) throws RefactoringException,
+                                                                                                              NoSuchRecipeException;
+
     /**
      * The refactoring is perfomed by the {@code Refactorer} by invoking this method. The {@code datasetURI}
      * is the URI of an RDF graph in KReS and the {@code recipe} is the recipe that needs to be applied to RDF
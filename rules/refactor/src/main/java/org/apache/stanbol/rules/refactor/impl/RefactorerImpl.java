@@ -17,20 +17,42 @@
 package org.apache.stanbol.rules.refactor.impl;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Dictionary;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
 
 import org.apache.clerezza.commons.rdf.ImmutableGraph;
 import org.apache.clerezza.commons.rdf.Graph;
-import org.apache.clerezza.commons.rdf.Graph;
 import org.apache.clerezza.commons.rdf.IRI;
+import org.apache.clerezza.commons.rdf.Triple;
+import org.apache.clerezza.rdf.core.access.NoSuchEntityException;
 import org.apache.clerezza.rdf.core.access.TcManager;
 import org.apache.clerezza.rdf.core.access.WeightedTcProvider;
 import org.apache.clerezza.commons.rdf.impl.utils.simple.SimpleGraph;
+import org.apache.clerezza.rdf.core.sparql.query.BasicGraphPattern;
 import org.apache.clerezza.rdf.core.sparql.query.ConstructQuery;
+import org.apache.clerezza.rdf.core.sparql.query.GraphPattern;
+import org.apache.clerezza.rdf.core.sparql.query.GroupGraphPattern;
+import org.apache.clerezza.rdf.core.sparql.query.ResourceOrVariable;
+import org.apache.clerezza.rdf.core.sparql.query.TriplePattern;
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
+import org.apache.felix.scr.annotations.Properties;
+import org.apache.felix.scr.annotations.Property;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.Service;
 import org.apache.stanbol.rules.base.api.NoSuchRecipeException;
@@ -42,6 +64,7 @@ import org.apache.stanbol.rules.base.api.RuleAtomCallExeption;
 import org.apache.stanbol.rules.base.api.RuleStore;
 import org.apache.stanbol.rules.base.api.UnavailableRuleObjectException;
 import org.apache.stanbol.rules.base.api.UnsupportedTypeForExportException;
+import org.apache.stanbol.rules.manager.ClerezzaRuleStore;
 import org.apache.stanbol.rules.manager.arqextention.CreatePropertyURIStringFromLabel;
 import org.apache.stanbol.rules.manager.arqextention.CreateStandardLabel;
 import org.apache.stanbol.rules.manager.arqextention.CreateURI;
@@ -57,6 +80,12 @@ import com.hp.hpl.jena.sparql.pfunction.PropertyFunctionRegistry;
 /**
  * The RefactorerImpl is the concrete implementation of the Refactorer interface defined in the rule APIs of
  * Stanbol. A Refacter is able to perform RDF graph refactorings and mappings.
+ * <p>
+ * The construct queries of a recipe are independent of each other as all of them are evaluated against the
+ * input dataset. They are therefore evaluated in parallel by a thread pool with
+ * {@link #REFACTORING_THREADS} threads over a read-only snapshot of the dataset. If the {@link RuleStore} is
+ * a {@link ClerezzaRuleStore} the construct queries adapted from a recipe are cached per version of the
+ * recipe.
  * 
  * @author anuzzolese
  * 
@@ -64,10 +93,50 @@ import com.hp.hpl.jena.sparql.pfunction.PropertyFunctionRegistry;
 
 @Component(immediate = true)
 @Service(Refactorer.class)
+@Properties(value = {
+        @Property(name = RefactorerImpl.REFACTORING_THREADS, intValue = RefactorerImpl.DEFAULT_REFACTORING_THREADS),
+        @Property(name = RefactorerImpl.INCREMENTAL_STATES, intValue = RefactorerImpl.DEFAULT_INCREMENTAL_STATES)})
 public class RefactorerImpl implements Refactorer {
 
+    /**
+     * The number of threads used to evaluate the construct queries of a recipe. Values <code>&lt;= 0</code>
+     * use the number of available processors. <code>1</code> evaluates all queries in the calling thread.
+     */
+    public static final String REFACTORING_THREADS = "org.apache.stanbol.rules.refactor.threads";
+
+    public static final int DEFAULT_REFACTORING_THREADS = 0;
+
+    /**
+     * The maximum number of refactored datasets the state of incremental refactorings is kept for. Every
+     * state references the snapshot of the dataset and the results of all construct queries of the last
+     * refactoring. So the memory needed by a state is about the size of the dataset plus the size of the
+     * refactored dataset. Snapshots of mutable datasets are copies of the dataset. Values <code>&lt;= 0</code>
+     * deactivate incremental refactorings (all queries are evaluated on every refactoring).
+     */
+    public static final String INCREMENTAL_STATES = "org.apache.stanbol.rules.refactor.incrementalStates";
+
+    public static final int DEFAULT_INCREMENTAL_STATES = 16;
+
+    private int maxIncrementalStates = DEFAULT_INCREMENTAL_STATES;
+
     private final Logger log = LoggerFactory.getLogger(getClass());
 
+    private ExecutorService executor;
+
+    /**
+     * The state of the last incremental refactoring by refactored dataset. Access needs to be synchronized
+     * on the map.
+     */
+    private final Map<IRI,RefactoringState> incrementalStates = new LinkedHashMap<IRI,RefactoringState>(
+            16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Entry<IRI,RefactoringState> eldest) {
+            return size() > maxIncrementalStates;
+        }
+    };
+
     @Reference
     protected RuleStore ruleStore;
 
@@ -141,13 +210,43 @@ public class RefactorerImpl implements Refactorer {
         FunctionRegistry.get().put("http://www.stlab.istc.cnr.it/semion/function#propString",
             CreatePropertyURIStringFromLabel.class);
 
-        log.debug(Refactorer.class + "activated.");
+        int threads = getInt(configuration, REFACTORING_THREADS, DEFAULT_REFACTORING_THREADS);
+        maxIncrementalStates = getInt(configuration, INCREMENTAL_STATES, DEFAULT_INCREMENTAL_STATES);
+        if (threads <= 0) {
+            threads = Runtime.getRuntime().availableProcessors();
+        }
+        if (threads > 1) {
+            executor = Executors.newFixedThreadPool(threads, new RefactoringThreadFactory());
+        }
+        log.debug(Refactorer.class + "activated (threads: " + threads + ", incremental states: "
+                  + maxIncrementalStates + ").");
+    }
+
+    private int getInt(Dictionary<String,Object> configuration, String key, int defaultValue) {
+        Object value = configuration == null ? null : configuration.get(key);
+        if (value instanceof Number) {
+            return ((Number) value).intValue();
+        } else if (value != null) {
+            try {
+                return Integer.parseInt(value.toString());
+            } catch (NumberFormatException e) {
+                log.warn("Unable to parse " + key + " from value '" + value + "'. Using the default.", e);
+            }
+        }
+        return defaultValue;
     }
 
     @Deactivate
     protected void deactivate(ComponentContext context) {
         log.info("in " + getClass() + " deactivate with context " + context);
 
+        if (executor != null) {
+            executor.shutdown();
+            executor = null;
+        }
+        synchronized (incrementalStates) {
+            incrementalStates.clear();
+        }
         this.weightedTcProvider = null;
         this.tcManager = null;
         this.ruleStore = null;
@@ -159,43 +258,209 @@ public class RefactorerImpl implements Refactorer {
         return weightedTcProvider.getGraph(uriRef);
     }
 
+    private ImmutableGraph sparqlConstruct(ConstructQuery constructQuery, Graph tripleCollection) {
+
+        return tcManager.executeSparqlQuery(constructQuery, tripleCollection);
+
+    }
+
     /**
-     * Execute a sparql construct on Clerezza.
+     * Creates a read-only snapshot of the parsed graph that can be used by several threads concurrently.
      * 
-     * @param sparql
-     * @param datasetID
-     * @return
+     * @param graph
+     *            the graph
+     * @return the snapshot
      */
-    private ImmutableGraph sparqlConstruct(ConstructQuery constructQuery, IRI datasetID) {
+    private static Graph createSnapshot(Graph graph) {
+        if (graph instanceof ImmutableGraph) {
+            return graph;
+        }
+        Lock readLock = graph.getLock().readLock();
+        readLock.lock();
+        try {
+            return graph.getImmutableGraph();
+        } finally {
+            readLock.unlock();
+        }
+    }
 
-        Graph graph = weightedTcProvider.getGraph(datasetID);
-        return sparqlConstruct(constructQuery, graph);
+    /**
+     * Evaluates the parsed construct queries over the snapshot of the dataset. If more than a single query
+     * is evaluated the queries are evaluated in parallel.
+     * 
+     * @param constructQueries
+     *            the queries
+     * @param evaluate
+     *            the queries to evaluate (same index as the queries) or <code>null</code> to evaluate all
+     * @param snapshot
+     *            the read-only snapshot of the dataset
+     * @return the results of the queries (same index as the queries). <code>null</code> for queries that
+     *         were not evaluated.
+     * @throws RefactoringException
+     *             if the refactoring was interrupted
+     */
+    private List<ImmutableGraph> evaluate(List<ConstructQuery> constructQueries,
+                                          boolean[] evaluate,
+                                          final Graph snapshot) throws RefactoringException {
+        List<ImmutableGraph> results = new ArrayList<ImmutableGraph>(constructQueries.size());
+        ExecutorService executor = this.executor;
+        if (executor == null || constructQueries.size() < 2) {
+            for (int i = 0; i < constructQueries.size(); i++) {
+                results.add(evaluate == null || evaluate[i] ? sparqlConstruct(constructQueries.get(i),
+                    snapshot) : null);
+            }
+            return results;
+        }
+        List<Future<ImmutableGraph>> futures = new ArrayList<Future<ImmutableGraph>>(
+                constructQueries.size());
+        for (int i = 0; i < constructQueries.size(); i++) {
+            if (evaluate == null || evaluate[i]) {
+                final ConstructQuery constructQuery = constructQueries.get(i);
+                futures.add(executor.submit(new Callable<ImmutableGraph>() {
+                    @Override
+                    public ImmutableGraph call() {
+                        return sparqlConstruct(constructQuery, snapshot);
+                    }
+                }));
+            } else {
+                futures.add(null);
+            }
+        }
+        try {
+            for (Future<ImmutableGraph> future : futures) {
+                results.add(future == null ? null : future.get());
+            }
+        } catch (InterruptedException e) {
+            cancel(futures);
+            Thread.currentThread().interrupt();
+            throw new RefactoringException("The refactoring was interrupted.", e);
+        } catch (ExecutionException e) {
+            cancel(futures);
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            } else {
+                throw new RefactoringException("The cause of the refactoring excpetion is: "
+                                               + cause.getMessage(), cause);
+            }
+        }
+        return results;
+    }
 
+    private static void cancel(List<Future<ImmutableGraph>> futures) {
+        for (Future<ImmutableGraph> future : futures) {
+            if (future != null) {
+                future.cancel(true);
+            }
+        }
     }
 
-    private ImmutableGraph sparqlConstruct(ConstructQuery constructQuery, Graph tripleCollection) {
+    /**
+     * Getter for the construct queries of the recipe with the parsed ID. If the rule store is a
+     * {@link ClerezzaRuleStore} the adapted queries are cached per version of the recipe.
+     * 
+     * @param recipeID
+     *            the ID of the recipe
+     * @return the construct queries. MUST NOT be modified.
+     */
+    @SuppressWarnings("unchecked")
+    private List<ConstructQuery> getConstructQueries(IRI recipeID) throws NoSuchRecipeException,
+                                                                  RecipeConstructionException,
+                                                                  UnavailableRuleObjectException,
+                                                                  UnsupportedTypeForExportException,
+                                                                  RuleAtomCallExeption {
+        ClerezzaRuleStore clerezzaRuleStore = ruleStore instanceof ClerezzaRuleStore ? (ClerezzaRuleStore) ruleStore
+                : null;
+        long version = 0;
+        if (clerezzaRuleStore != null) {
+            version = clerezzaRuleStore.getRecipeVersion(recipeID);
+            Object cached = clerezzaRuleStore.getAdaptedRecipe(recipeID, version, ConstructQuery.class);
+            if (cached != null) {
+                return (List<ConstructQuery>) cached;
+            }
+        }
+        Recipe recipe = ruleStore.getRecipe(recipeID);
 
-        return tcManager.executeSparqlQuery(constructQuery, tripleCollection);
+        RuleAdapter ruleAdapter = ruleAdapterManager.getAdapter(recipe, ConstructQuery.class);
+        List<ConstructQuery> constructQueries = (List<ConstructQuery>) ruleAdapter.adaptTo(recipe,
+            ConstructQuery.class);
+        if (clerezzaRuleStore != null) {
+            clerezzaRuleStore.cacheAdaptedRecipe(recipeID, version, ConstructQuery.class, constructQueries);
+        }
+        return constructQueries;
+    }
 
+    /**
+     * Checks if any of the parsed triples matches a triple pattern of the parsed query. Queries with graph
+     * patterns other than basic graph patterns are considered to be affected by any triple.
+     * 
+     * @param constructQuery
+     *            the query
+     * @param triples
+     *            the added triples
+     * @return <code>true</code> if the result of the query may change by adding the parsed triples
+     */
+    private static boolean isAffected(ConstructQuery constructQuery, Collection<Triple> triples) {
+        if (triples.isEmpty()) {
+            return false;
+        }
+        GroupGraphPattern queryPattern = constructQuery.getQueryPattern();
+        if (queryPattern == null) {
+            return true;
+        }
+        for (GraphPattern graphPattern : queryPattern.getGraphPatterns()) {
+            if (!(graphPattern instanceof BasicGraphPattern)) {
+                return true;
+            }
+            for (TriplePattern triplePattern : ((BasicGraphPattern) graphPattern).getTriplePatterns()) {
+                for (Triple triple : triples) {
+                    if (matches(triplePattern.getSubject(), triple.getSubject())
+                        && matches(triplePattern.getPredicate(), triple.getPredicate())
+                        && matches(triplePattern.getObject(), triple.getObject())) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Only {@link IRI} constants are compared. Variables, blank nodes and literals (that might be matched
+     * by value) match any term.
+     */
+    private static boolean matches(ResourceOrVariable pattern, Object term) {
+        return pattern.isVariable() || !(pattern.getResource() instanceof IRI)
+               || pattern.getResource().equals(term);
     }
 
-    @SuppressWarnings("unchecked")
     @Override
     public void graphRefactoring(IRI refactoredOntologyID, IRI datasetID, IRI recipeID) throws RefactoringException,
                                                                                                 NoSuchRecipeException {
+        graphRefactoring(refactoredOntologyID, datasetID, recipeID, false);
+    }
+
+    @Override
+    public void graphRefactoring(IRI refactoredOntologyID, IRI datasetID, IRI recipeID, boolean incremental) throws RefactoringException,
+                                                                                                                     NoSuchRecipeException {
 
-        Recipe recipe;
         try {
             try {
-                recipe = ruleStore.getRecipe(recipeID);
-
-                RuleAdapter ruleAdapter = ruleAdapterManager.getAdapter(recipe, ConstructQuery.class);
-                List<ConstructQuery> constructQueries = (List<ConstructQuery>) ruleAdapter.adaptTo(recipe,
-                    ConstructQuery.class);
-
-                Graph mGraph = tcManager.createGraph(refactoredOntologyID);
-                for (ConstructQuery constructQuery : constructQueries) {
-                    mGraph.addAll(this.sparqlConstruct(constructQuery, datasetID));
+                List<ConstructQuery> constructQueries = getConstructQueries(recipeID);
+
+                Graph snapshot = createSnapshot(weightedTcProvider.getGraph(datasetID));
+                if (!incremental) {
+                    Graph mGraph = tcManager.createGraph(refactoredOntologyID);
+                    for (ImmutableGraph result : evaluate(constructQueries, null, snapshot)) {
+                        mGraph.addAll(result);
+                    }
+                    synchronized (incrementalStates) {
+                        incrementalStates.remove(refactoredOntologyID);
+                    }
+                } else {
+                    incrementalRefactoring(refactoredOntologyID, datasetID, constructQueries, snapshot);
                 }
             } catch (RecipeConstructionException e) {
                 throw new RefactoringException(
@@ -217,7 +482,86 @@ public class RefactorerImpl implements Refactorer {
         }
     }
 
-    @SuppressWarnings("unchecked")
+    /**
+     * Performs an incremental refactoring. If the state of the last refactoring is available, the construct
+     * queries are the same (the cached queries of an unchanged recipe) and triples were only added to the
+     * dataset, only the queries affected by the added triples are re-evaluated. Otherwise all queries are
+     * evaluated and the refactored dataset is replaced.<p>
+     * The snapshot of the dataset is kept as state for the next refactoring. Changes are detected by
+     * comparing it with the next snapshot. A smaller snapshot indicates removed triples without the need to
+     * check all triples.
+     */
+    private void incrementalRefactoring(IRI refactoredOntologyID,
+                                        IRI datasetID,
+                                        List<ConstructQuery> constructQueries,
+                                        Graph snapshot) throws RefactoringException {
+        RefactoringState state;
+        synchronized (incrementalStates) {
+            state = incrementalStates.remove(refactoredOntologyID);
+        }
+        Graph mGraph;
+        try {
+            mGraph = tcManager.getGraph(refactoredOntologyID);
+        } catch (NoSuchEntityException e) {
+            mGraph = tcManager.createGraph(refactoredOntologyID);
+            state = null;
+        }
+        List<ImmutableGraph> results;
+        if (state != null && state.datasetID.equals(datasetID) && state.constructQueries == constructQueries
+            && snapshot.size() >= state.dataset.size() && snapshot.containsAll(state.dataset)) {
+            List<Triple> added = new ArrayList<Triple>(snapshot.size() - state.dataset.size());
+            for (Triple triple : snapshot) {
+                if (!state.dataset.contains(triple)) {
+                    added.add(triple);
+                }
+            }
+            boolean[] evaluate = new boolean[constructQueries.size()];
+            int count = 0;
+            for (int i = 0; i < evaluate.length; i++) {
+                evaluate[i] = isAffected(constructQueries.get(i), added);
+                if (evaluate[i]) {
+                    count++;
+                }
+            }
+            log.debug("Incremental refactoring of {}: {} added triples, {}/{} queries affected",
+                new Object[] {refactoredOntologyID, added.size(), count, evaluate.length});
+            List<ImmutableGraph> updated = count == 0 ? null : evaluate(constructQueries, evaluate, snapshot);
+            results = new ArrayList<ImmutableGraph>(state.results);
+            boolean removed = false;
+            for (int i = 0; i < evaluate.length; i++) {
+                if (evaluate[i]) {
+                    // results are not monotonic (e.g. blank nodes or negations)
+                    removed = removed || !new HashSet<Triple>(updated.get(i)).containsAll(results.get(i));
+                    results.set(i, updated.get(i));
+                }
+            }
+            if (removed) {
+                mGraph.clear();
+                for (ImmutableGraph result : results) {
+                    mGraph.addAll(result);
+                }
+            } else if (count > 0) {
+                for (ImmutableGraph result : updated) {
+                    if (result != null) {
+                        mGraph.addAll(result);
+                    }
+                }
+            }
+        } else {
+            results = evaluate(constructQueries, null, snapshot);
+            mGraph.clear();
+            for (ImmutableGraph result : results) {
+                mGraph.addAll(result);
+            }
+        }
+        if (maxIncrementalStates > 0) {
+            synchronized (incrementalStates) {
+                incrementalStates.put(refactoredOntologyID, new RefactoringState(datasetID, snapshot,
+                        constructQueries, results));
+            }
+        }
+    }
+
     @Override
     public Graph graphRefactoring(IRI graphID, IRI recipeID) throws RefactoringException,
                                                                              NoSuchRecipeException {
@@ -228,19 +572,15 @@ public class RefactorerImpl implements Refactorer {
         // OntModel ontModel =
         // jenaToOwlConvert.ModelOwlToJenaConvert(inputOntology, "RDF/XML");
 
-        Recipe recipe;
         try {
-            recipe = ruleStore.getRecipe(recipeID);
+            List<ConstructQuery> constructQueries = getConstructQueries(recipeID);
 
-            RuleAdapter ruleAdapter = ruleAdapterManager.getAdapter(recipe, ConstructQuery.class);
-
-            List<ConstructQuery> constructQueries = (List<ConstructQuery>) ruleAdapter.adaptTo(recipe,
-                ConstructQuery.class);
+            Graph snapshot = createSnapshot(weightedTcProvider.getGraph(graphID));
 
             unionGraph = new SimpleGraph();
 
-            for (ConstructQuery constructQuery : constructQueries) {
-                unionGraph.addAll(this.sparqlConstruct(constructQuery, graphID));
+            for (ImmutableGraph result : evaluate(constructQueries, null, snapshot)) {
+                unionGraph.addAll(result);
             }
 
         } catch (NoSuchRecipeException e1) {
@@ -270,13 +610,15 @@ public class RefactorerImpl implements Refactorer {
             List<ConstructQuery> constructQueries = (List<ConstructQuery>) ruleAdapter.adaptTo(recipe,
                 ConstructQuery.class);
 
-            for(ConstructQuery constructQuery : constructQueries){
-                System.out.println(constructQuery.toString());
+            if (log.isDebugEnabled()) {
+                for (ConstructQuery constructQuery : constructQueries) {
+                    log.debug(constructQuery.toString());
+                }
             }
 
             Graph unionGraph = new SimpleGraph();
-            for (ConstructQuery constructQuery : constructQueries) {
-                unionGraph.addAll(sparqlConstruct(constructQuery, inputGraph));
+            for (ImmutableGraph result : evaluate(constructQueries, null, createSnapshot(inputGraph))) {
+                unionGraph.addAll(result);
             }
 
             return unionGraph;
@@ -290,5 +632,42 @@ public class RefactorerImpl implements Refactorer {
 
     }
 
+    /**
+     * The state of the last incremental refactoring of a dataset
+     */
+    private static class RefactoringState {
+        private final IRI datasetID;
+        /**
+         * The read-only snapshot of the dataset
+         */
+        private final Graph dataset;
+        private final List<ConstructQuery> constructQueries;
+        private final List<ImmutableGraph> results;
+
+        RefactoringState(IRI datasetID,
+                         Graph dataset,
+                         List<ConstructQuery> constructQueries,
+                         List<ImmutableGraph> results) {
+            this.datasetID = datasetID;
+            this.dataset = dataset;
+            this.constructQueries = constructQueries;
+            this.results = results;
+        }
+    }
+
+    /**
+     * Creates daemon threads so that the pool does not prevent the JVM from terminating if used outside of
+     * an OSGi environment.
+     */
+    private static class RefactoringThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "Stanbol Refactorer " + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
 
 }
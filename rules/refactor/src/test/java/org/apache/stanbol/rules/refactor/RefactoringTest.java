@@ -22,12 +22,16 @@ import static org.junit.Assert.fail;
 import java.io.InputStream;
 import java.util.Dictionary;
 import java.util.Hashtable;
+import java.util.Iterator;
 
 import junit.framework.Assert;
 
 import org.apache.clerezza.commons.rdf.Graph;
 import org.apache.clerezza.commons.rdf.Graph;
 import org.apache.clerezza.commons.rdf.IRI;
+import org.apache.clerezza.commons.rdf.Triple;
+import org.apache.clerezza.commons.rdf.impl.utils.TripleImpl;
+import org.apache.clerezza.rdf.core.access.NoSuchEntityException;
 import org.apache.clerezza.rdf.core.access.TcManager;
 import org.apache.clerezza.rdf.core.access.WeightedTcProvider;
 import org.apache.clerezza.rdf.core.sparql.QueryEngine;
@@ -250,6 +254,80 @@ public class RefactoringTest {
         }
     }
 
+    @Test
+    public void incrementalRefactoringTest() throws Exception {
+        IRI graphID = new IRI("http://incubator.apache.com/stanbol/rules/refactor/test/graph");
+        IRI recipeID = new IRI("http://incubator.apache.com/stanbol/rules/refactor/test/recipeA");
+        IRI incrementalGraphID = new IRI(
+                "http://incubator.apache.com/stanbol/rules/refactor/test/incrementalGraph");
+        IRI fullGraphID = new IRI("http://incubator.apache.com/stanbol/rules/refactor/test/fullGraph");
+        IRI rdfType = new IRI("http://www.w3.org/1999/02/22-rdf-syntax-ns#type");
+        IRI newPerson = new IRI("http://incubator.apache.com/stanbol/rules/refactor/test/NewPerson");
+        try {
+            refactorer.graphRefactoring(incrementalGraphID, graphID, recipeID, true);
+
+            tcm.getGraph(graphID).add(
+                new TripleImpl(newPerson, rdfType, new IRI("http://kres.iks-project.eu/ontology.owl#Person")));
+            // only the added triple is re-evaluated
+            refactorer.graphRefactoring(incrementalGraphID, graphID, recipeID, true);
+
+            Graph incrementalGraph = tcm.getGraph(incrementalGraphID);
+            Assert.assertTrue(incrementalGraph.contains(new TripleImpl(newPerson, rdfType, new IRI(
+                    "http://xmlns.com/foaf/0.1/Person"))));
+
+            // the result needs to be the same as the one of a full refactoring
+            refactorer.graphRefactoring(fullGraphID, graphID, recipeID);
+            Assert.assertEquals(tcm.getGraph(fullGraphID).size(), incrementalGraph.size());
+        } finally {
+            for (IRI outputGraphID : new IRI[] {incrementalGraphID, fullGraphID}) {
+                try {
+                    tcm.deleteGraph(outputGraphID);
+                } catch (NoSuchEntityException e) {
+                    // not created
+                }
+            }
+        }
+    }
+
+    @Test
+    public void incrementalRefactoringRemovedTripleTest() throws Exception {
+        IRI graphID = new IRI("http://incubator.apache.com/stanbol/rules/refactor/test/graph");
+        IRI recipeID = new IRI("http://incubator.apache.com/stanbol/rules/refactor/test/recipeA");
+        IRI incrementalGraphID = new IRI(
+                "http://incubator.apache.com/stanbol/rules/refactor/test/incrementalGraph");
+        IRI fullGraphID = new IRI("http://incubator.apache.com/stanbol/rules/refactor/test/fullGraph");
+        IRI rdfType = new IRI("http://www.w3.org/1999/02/22-rdf-syntax-ns#type");
+        IRI kresPerson = new IRI("http://kres.iks-project.eu/ontology.owl#Person");
+        try {
+            refactorer.graphRefactoring(incrementalGraphID, graphID, recipeID, true);
+            int initialSize = tcm.getGraph(incrementalGraphID).size();
+
+            Graph graph = tcm.getGraph(graphID);
+            Iterator<Triple> persons = graph.filter(null, rdfType, kresPerson);
+            Assert.assertTrue(persons.hasNext());
+            Triple removed = persons.next();
+            graph.remove(removed);
+            // removed triples require all queries to be evaluated
+            refactorer.graphRefactoring(incrementalGraphID, graphID, recipeID, true);
+
+            Graph incrementalGraph = tcm.getGraph(incrementalGraphID);
+            Assert.assertFalse(incrementalGraph.contains(new TripleImpl(removed.getSubject(), rdfType,
+                    new IRI("http://xmlns.com/foaf/0.1/Person"))));
+            Assert.assertTrue(incrementalGraph.size() < initialSize);
+
+            refactorer.graphRefactoring(fullGraphID, graphID, recipeID);
+            Assert.assertEquals(tcm.getGraph(fullGraphID).size(), incrementalGraph.size());
+        } finally {
+            for (IRI outputGraphID : new IRI[] {incrementalGraphID, fullGraphID}) {
+                try {
+                    tcm.deleteGraph(outputGraphID);
+                } catch (NoSuchEntityException e) {
+                    // not created
+                }
+            }
+        }
+    }
+
     @Test
     public void brokenRecipeTest() throws Exception {
         // broken recipe
@@ -329,6 +329,7 @@ public class RefactorResource extends BaseStanbolResource {
     public Response performRefactoringLazyCreateGraph(@QueryParam("recipe") String recipe,
                                                       @QueryParam("input-graph") String inputGraph,
                                                       @QueryParam("output-graph") String outputGraph,
+                                                      @QueryParam("incremental") boolean incremental,
                                                       @Context HttpHeaders headers) {
 
         log.info("recipe: {}", recipe);
@@ -343,7 +344,7 @@ public class RefactorResource extends BaseStanbolResource {
         ResponseBuilder responseBuilder = null;
 
         try {
-            refactorer.graphRefactoring(outputGraphID, inputGraphID, recipeID);
+            refactorer.graphRefactoring(outputGraphID, inputGraphID, recipeID, incremental);
             responseBuilder = Response.ok();
         } catch (RefactoringException e) {
             // refactoring exceptions are re-thrown
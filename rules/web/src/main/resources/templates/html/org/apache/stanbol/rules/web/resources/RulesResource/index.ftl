@@ -293,6 +293,7 @@ http://localhost:8080/rules/find/rules
 <li>input-graph: the ID of RDF graph in the triplestore provided as input</li>
 <li>output-graph: the ID of RDF graph in the triplestore in which we want to store the result.</li>
 <li>recipe: the ID of the recipe in the rule store</li>
+<li>incremental (optional, default false): if true an existing output graph is updated instead of causing an error. If the recipe is unchanged and triples were only added to the input graph since the last incremental refactoring, only the rules affected by the added triples are re-evaluated.</li>
 </ul>
 </li>
 </ul>